@@ -1,39 +1,107 @@
 package org.example;
 
 import org.example.aggregator.APMLogAggregator;
+import org.example.aggregator.AggregationOptions;
+import org.example.aggregator.CardinalityAggregator;
+import org.example.aggregator.Dimension;
+import org.example.aggregator.GroupedAggregates;
 import org.example.aggregator.ApplicationLogAggregator;
+import org.example.aggregator.LogAggregates;
 import org.example.aggregator.RequestLogAggregator;
+import org.example.aggregator.RouteNormalizer;
+import org.example.aggregator.TemplateMiner;
+import org.example.aggregator.WindowedAggregates;
 import org.example.output.JsonOutputWriter;
+import org.example.util.ByteScanner;
+import org.example.util.LogFollower;
 import org.example.util.LogProcessor;
+import org.example.util.QuarantineWriter;
+import org.example.util.RejectCounts;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * Main class for the log parser application
  */
 public class Main {
+    // Delay between checks for new data in follow mode
+    private static final long FOLLOW_POLL_INTERVAL_MILLIS = 500;
+
     public static void main(String[] args) {
         // Parse command line arguments
         String inputFile = parseArguments(args);
-        if (inputFile == null) {
-            System.out.println("Usage: java -jar log-parser.jar --file <filename.txt>");
+        String segmentFile = parseStringOption(args, "--segment");
+        if (inputFile == null && segmentFile == null) {
+            System.out.println("Usage: java -jar log-parser.jar --file <filename.txt> [--parallel <threads>] [--fast-parse] [--simd]"
+                    + " [--quarantine <file>] [--write-segment <file>] [--follow [--interval <seconds>]]"
+                    + " [--exact] [--sketch-k <k>] [--apm-percentiles <p,...>]"
+                    + " [--window <seconds> [--slide <seconds>] [--retention <windows>]]"
+                    + " [--group-by <dimension,...> [--top-k <groups>]] [--distinct <dimension,...>]"
+                    + " [--normalize-routes] [--route-patterns <pattern,...>] [--templates [--template-top-k <templates>]]");
+            System.out.println("       java -jar log-parser.jar --segment <file> [--exact] [--sketch-k <k>] [--apm-percentiles <p,...>]"
+                    + " [--window <seconds> [--slide <seconds>] [--retention <windows>]]"
+                    + " [--normalize-routes] [--route-patterns <pattern,...>]");
             return;
         }
 
         try {
+            AggregationOptions options = parseAggregationOptions(args);
+            if (inputFile == null) {
+                // Re-aggregate a segment written by an earlier run
+                if (options.isGrouped()) {
+                    System.err.println("Segments do not keep the parsed lines, ignoring --group-by");
+                    options.setGroupBy();
+                }
+                if (options.isDistinctCounted()) {
+                    System.err.println("Segments do not keep the parsed lines, ignoring --distinct");
+                    options.setDistinct();
+                }
+                if (options.isTemplateMining()) {
+                    System.err.println("Segments do not keep the messages, ignoring --templates");
+                    options.setTemplateMining(false);
+                }
+                LogProcessor processor = new LogProcessor(segmentFile);
+                processor.setAggregationOptions(options);
+                processor.processSegmentFile(segmentFile);
+                printRejectSummary(processor.getRejects());
+                writeOutputFiles(processor.getApmAggregator(), processor.getApplicationAggregator(),
+                        processor.getRequestAggregator(), processor.getWindowedAggregates());
+                System.out.println("Log processing completed successfully.");
+                return;
+            }
+
+            if (hasFlag(args, "--follow")) {
+                followLogFile(inputFile, parseIntOption(args, "--interval", 60), parseStringOption(args, "--quarantine"),
+                        options);
+                return;
+            }
+
             // Process the log file
             LogProcessor processor = new LogProcessor(inputFile);
+            processor.setStreaming(true);
+            // Grouping by or counting a raw field needs the key/value map of each entry
+            processor.setLean(!options.needsRawData());
+            processor.setReuseEntries(true);
+            processor.setAggregationOptions(options);
+            processor.setParallelism(parseIntOption(args, "--parallel", 1));
+            processor.setByteParsing(hasFlag(args, "--fast-parse") || hasFlag(args, "--simd"));
+            processor.setVectorScanning(hasFlag(args, "--simd"));
+            if (hasFlag(args, "--simd") && !ByteScanner.isVectorAvailable()) {
+                System.err.println("Vector API not enabled (run with --add-modules " + ByteScanner.VECTOR_MODULE
+                        + "), using scalar scanning");
+            }
+            processor.setQuarantineFile(parseStringOption(args, "--quarantine"));
+            processor.setSegmentFile(parseStringOption(args, "--write-segment"));
             processor.processLogFile();
-
-            // Get aggregators for each log type
-            APMLogAggregator apmAggregator = processor.getApmAggregator();
-            ApplicationLogAggregator appAggregator = processor.getApplicationAggregator();
-            RequestLogAggregator reqAggregator = processor.getRequestAggregator();
+            printRejectSummary(processor.getRejects());
 
             // Write output files
-            JsonOutputWriter.writeToFile(apmAggregator.getAggregatedData(), "apm.json");
-            JsonOutputWriter.writeToFile(appAggregator.getAggregatedData(), "application.json");
-            JsonOutputWriter.writeToFile(reqAggregator.getAggregatedData(), "request.json");
+            writeOutputFiles(processor.getApmAggregator(), processor.getApplicationAggregator(),
+                    processor.getRequestAggregator(), processor.getWindowedAggregates());
+            writeGroups(processor.getGroupedAggregates());
+            writeDistinctCounts(processor.getDistinctCounts());
+            writeTemplates(processor.getTemplateMiner());
 
             System.out.println("Log processing completed successfully.");
         } catch (IOException e) {
@@ -42,17 +110,189 @@ public class Main {
         }
     }
 
+    /**
+     * Follow a growing log file and rewrite the output files periodically until interrupted
+     * @param inputFile Path to the log file to follow
+     * @param intervalSeconds Delay between output snapshots
+     * @param quarantineFile File that rejected lines are copied to, or null to only count them
+     * @param options Options of the aggregators
+     * @throws IOException If an I/O error occurs
+     */
+    private static void followLogFile(String inputFile, int intervalSeconds, String quarantineFile,
+                                      AggregationOptions options) throws IOException {
+        LogFollower follower = new LogFollower(inputFile, options);
+        Thread mainThread = Thread.currentThread();
+
+        // Stop following on Ctrl-C and write a final snapshot
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            mainThread.interrupt();
+            try {
+                mainThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        // Closing the quarantine writes the lines rejected since the last snapshot
+        try (QuarantineWriter quarantine = quarantineFile == null ? null : new QuarantineWriter(Paths.get(quarantineFile))) {
+            follower.setQuarantine(quarantine);
+            follower.follow(FOLLOW_POLL_INTERVAL_MILLIS, intervalSeconds * 1000L, Main::writeOutputFiles);
+        }
+        writeOutputFiles(follower.getAggregates());
+        printRejectSummary(follower.getAggregates().getRejects());
+    }
+
+    private static void printRejectSummary(RejectCounts rejects) {
+        if (rejects.getTotal() > 0) {
+            System.err.println(rejects.summary());
+        }
+    }
+
+    private static void writeOutputFiles(LogAggregates aggregates) throws IOException {
+        writeOutputFiles(aggregates.getApmAggregator(), aggregates.getApplicationAggregator(),
+                aggregates.getRequestAggregator(), aggregates.getWindows());
+        writeGroups(aggregates.getGroups());
+        writeDistinctCounts(aggregates.getDistinct());
+        writeTemplates(aggregates.getTemplates());
+    }
+
+    private static void writeOutputFiles(APMLogAggregator apmAggregator, ApplicationLogAggregator appAggregator,
+                                         RequestLogAggregator reqAggregator, WindowedAggregates windows)
+            throws IOException {
+        JsonOutputWriter.writeToFile(apmAggregator.getAggregatedData(), "apm.json");
+        JsonOutputWriter.writeToFile(appAggregator.getAggregatedData(), "application.json");
+        JsonOutputWriter.writeToFile(reqAggregator.getAggregatedData(), "request.json");
+        if (windows != null) {
+            JsonOutputWriter.writeToFile(windows.getTimeSeries(), "timeseries.json");
+        }
+    }
+
+    private static void writeGroups(GroupedAggregates groups) throws IOException {
+        if (groups != null) {
+            JsonOutputWriter.writeToFile(groups.getAggregatedData(), "groups.json");
+        }
+    }
+
+    private static void writeDistinctCounts(CardinalityAggregator distinct) throws IOException {
+        if (distinct != null) {
+            JsonOutputWriter.writeToFile(distinct.getAggregatedData(), "cardinality.json");
+        }
+    }
+
+    private static void writeTemplates(TemplateMiner templates) throws IOException {
+        if (templates != null) {
+            JsonOutputWriter.writeToFile(templates.getAggregatedData(), "templates.json");
+        }
+    }
+
     /**
      * Parse command line arguments
      * @param args Command line arguments
      * @return The input file path, or null if not specified
      */
     private static String parseArguments(String[] args) {
+        return parseStringOption(args, "--file");
+    }
+
+    /**
+     * Parse the aggregation options: --exact, --sketch-k, --apm-percentiles, the window options, --group-by,
+     * --distinct, the route normalization options and --templates
+     * @param args Command line arguments
+     * @return The options
+     */
+    private static AggregationOptions parseAggregationOptions(String[] args) {
+        AggregationOptions options = new AggregationOptions();
+        options.setExactQuantiles(hasFlag(args, "--exact"));
+        options.setSketchK(parseIntOption(args, "--sketch-k", options.getSketchK()));
+        String percentiles = parseStringOption(args, "--apm-percentiles");
+        if (percentiles != null) {
+            String[] parts = percentiles.split(",");
+            int[] values = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                values[i] = Integer.parseInt(parts[i].trim());
+            }
+            options.setApmPercentiles(values);
+        }
+        int windowSeconds = parseIntOption(args, "--window", 0);
+        options.setWindow(windowSeconds * 1000L, parseIntOption(args, "--slide", windowSeconds) * 1000L);
+        options.setWindowRetention(parseIntOption(args, "--retention", AggregationOptions.DEFAULT_WINDOW_RETENTION));
+        String groupBy = parseStringOption(args, "--group-by");
+        if (groupBy != null) {
+            options.setGroupBy(parseDimensions(groupBy));
+        }
+        options.setGroupTopK(parseIntOption(args, "--top-k", AggregationOptions.DEFAULT_GROUP_TOP_K));
+        String distinct = parseStringOption(args, "--distinct");
+        if (distinct != null) {
+            options.setDistinct(parseDimensions(distinct));
+        }
+        String routePatterns = parseStringOption(args, "--route-patterns");
+        if (routePatterns != null) {
+            options.setRouteNormalizer(new RouteNormalizer(routePatterns.split(",")));
+        } else if (hasFlag(args, "--normalize-routes")) {
+            options.setRouteNormalizer(new RouteNormalizer());
+        }
+        options.setTemplateMining(hasFlag(args, "--templates"));
+        options.setTemplateTopK(parseIntOption(args, "--template-top-k", AggregationOptions.DEFAULT_TEMPLATE_TOP_K));
+        return options;
+    }
+
+    /**
+     * Parse a comma-separated list of dimension names
+     * @param names The names, e.g. host,route
+     * @return The dimensions
+     */
+    private static Dimension[] parseDimensions(String names) {
+        String[] parts = names.split(",");
+        Dimension[] dimensions = new Dimension[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            dimensions[i] = Dimension.parse(parts[i].trim());
+        }
+        return dimensions;
+    }
+
+    /**
+     * Parse a string option from the command line arguments
+     * @param args Command line arguments
+     * @param name Name of the option, e.g. --quarantine
+     * @return The option value, or null if not specified
+     */
+    private static String parseStringOption(String[] args, String name) {
         for (int i = 0; i < args.length - 1; i++) {
-            if (args[i].equals("--file")) {
+            if (args[i].equals(name)) {
                 return args[i + 1];
             }
         }
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Parse an integer option from the command line arguments
+     * @param args Command line arguments
+     * @param name Name of the option, e.g. --parallel
+     * @param defaultValue Value to use if the option is not specified
+     * @return The option value
+     */
+    private static int parseIntOption(String[] args, String name, int defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return Integer.parseInt(args[i + 1]);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Check whether a flag is present in the command line arguments
+     * @param args Command line arguments
+     * @param name Name of the flag, e.g. --follow
+     * @return true if the flag is present
+     */
+    private static boolean hasFlag(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
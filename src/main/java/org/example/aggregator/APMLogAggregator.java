@@ -1,58 +1,126 @@
 package org.example.aggregator;
 
+import org.example.collections.IntArray;
 import org.example.model.APMLogEntry;
+import org.example.model.Symbols;
+import org.example.sketch.DistributionSummary;
+import org.example.store.APMLogStore;
+import org.example.store.OffHeapAPMLogStore;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
  * Aggregator for APM log entries
  */
-public class APMLogAggregator implements LogAggregator<APMLogEntry> {
-    // Map of metric name to list of values
-    private final Map<String, List<Double>> metricValues = new HashMap<>();
+public class APMLogAggregator implements LogAggregator<APMLogEntry, APMLogAggregator> {
+    private final AggregationOptions options;
+
+    // Values of each metric, indexed by metric id + 1 so a missing metric (id -1) has a slot too
+    private DistributionSummary[] valuesByMetric = new DistributionSummary[16];
+
+    // Metric ids in the order they were first seen; names are resolved only when results are built
+    private final IntArray metricOrder = new IntArray();
+
+    public APMLogAggregator() {
+        this(new AggregationOptions());
+    }
+
+    /**
+     * @param options Exact limit, sketch accuracy and extra percentiles of the metric values
+     */
+    public APMLogAggregator(AggregationOptions options) {
+        this.options = options;
+    }
 
     @Override
     public void processLog(APMLogEntry logEntry) {
-        String metric = logEntry.getMetric();
-        double value = logEntry.getValue();
+        processValue(logEntry.getMetricId(), logEntry.getValue());
+    }
 
+    /**
+     * Aggregate one metric value given by its fields instead of an entry
+     * @param metricId {@link Symbols#METRICS} id of the metric
+     * @param value The metric value
+     */
+    public void processValue(int metricId, double value) {
         // Add value to the list for this metric
-        metricValues.computeIfAbsent(metric, k -> new ArrayList<>()).add(value);
+        valuesFor(metricId).add(value);
+    }
+
+    /**
+     * Aggregate every row of a columnar store, in row order
+     * @param store The stored APM entries
+     */
+    public void processStore(APMLogStore store) {
+        for (int chunk = 0; chunk < store.getChunkCount(); chunk++) {
+            int length = store.getChunkLength(chunk);
+            int[] metricIds = store.getMetricIds(chunk);
+            double[] values = store.getValues(chunk);
+            for (int i = 0; i < length; i++) {
+                processValue(metricIds[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Merge the values collected by another aggregator into this one
+     * @param other The aggregator to merge in
+     */
+    @Override
+    public void merge(APMLogAggregator other) {
+        for (int i = 0; i < other.metricOrder.size(); i++) {
+            int metric = other.metricOrder.get(i);
+            valuesFor(metric).merge(other.valuesByMetric[metric + 1]);
+        }
+    }
+
+    /**
+     * Add the values of a metric that were collected elsewhere, e.g. by {@link ConcurrentAPMLogAggregator}
+     * @param metricId {@link Symbols#METRICS} id of the metric
+     * @param values The metric's values
+     */
+    void addValues(int metricId, DistributionSummary values) {
+        valuesFor(metricId).merge(values);
+    }
+
+    /**
+     * Aggregate every record of an off-heap store, in row order, reading the fields in place
+     * @param store The stored APM entries
+     */
+    public void processStore(OffHeapAPMLogStore store) {
+        for (int chunk = 0; chunk < store.getChunkCount(); chunk++) {
+            int length = store.getChunkLength(chunk);
+            ByteBuffer records = store.getRecords(chunk);
+            for (int position = 0; position < length * OffHeapAPMLogStore.RECORD_SIZE;
+                 position += OffHeapAPMLogStore.RECORD_SIZE) {
+                processValue(records.getInt(position + OffHeapAPMLogStore.METRIC_ID),
+                        records.getDouble(position + OffHeapAPMLogStore.VALUE));
+            }
+        }
     }
 
     @Override
     public Map<String, Object> getAggregatedData() {
         Map<String, Object> result = new LinkedHashMap<>();
+        int[] percentiles = options.getApmPercentiles();
 
         // Calculate aggregations for each metric
-        for (Map.Entry<String, List<Double>> entry : metricValues.entrySet()) {
-            String metric = entry.getKey();
-            List<Double> values = entry.getValue();
-
-            // Sort values for calculating median
-            Collections.sort(values);
-
-            // Calculate metrics
-            double min = values.isEmpty() ? 0 : values.get(0);
-            double max = values.isEmpty() ? 0 : values.get(values.size() - 1);
-            double sum = values.stream().mapToDouble(Double::doubleValue).sum();
-            double avg = values.isEmpty() ? 0 : sum / values.size();
-            double median;
-
-            if (values.isEmpty()) {
-                median = 0;
-            } else if (values.size() % 2 == 0) {
-                median = (values.get(values.size() / 2 - 1) + values.get(values.size() / 2)) / 2.0;
-            } else {
-                median = values.get(values.size() / 2);
-            }
+        for (int i = 0; i < metricOrder.size(); i++) {
+            int metricId = metricOrder.get(i);
+            String metric = Symbols.METRICS.nameOf(metricId);
+            DistributionSummary values = valuesByMetric[metricId + 1];
 
-            // Create result map for this metric
+            // Quantiles come from selection while the values are exact and from the sketch after that
+            boolean empty = values.isEmpty();
             Map<String, Object> metricResult = new LinkedHashMap<>();
-            metricResult.put("minimum", min);
-            metricResult.put("median", median);
-            metricResult.put("average", avg);
-            metricResult.put("max", max);
+            metricResult.put("minimum", empty ? 0 : values.getMin());
+            metricResult.put("median", empty ? 0 : values.getMedian());
+            metricResult.put("average", empty ? 0 : values.getSum() / values.getCount());
+            metricResult.put("max", empty ? 0 : values.getMax());
+            for (int percentile : percentiles) {
+                metricResult.put(percentile + "_percentile", empty ? 0 : values.getPercentile(percentile));
+            }
 
             // Add to overall result
             result.put(metric, metricResult);
@@ -60,4 +128,21 @@ public class APMLogAggregator implements LogAggregator<APMLogEntry> {
 
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the values of a metric, creating an empty summary the first time the metric is seen
+     */
+    private DistributionSummary valuesFor(int metricId) {
+        int slot = metricId + 1;
+        if (slot >= valuesByMetric.length) {
+            valuesByMetric = Arrays.copyOf(valuesByMetric, Math.max(slot + 1, valuesByMetric.length * 2));
+        }
+        DistributionSummary values = valuesByMetric[slot];
+        if (values == null) {
+            values = new DistributionSummary(options.getExactLimit(), options.getSketchK());
+            valuesByMetric[slot] = values;
+            metricOrder.add(metricId);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,332 @@
+package org.example.aggregator;
+
+import org.example.sketch.HyperLogLog;
+import org.example.sketch.KllSketch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings shared by the aggregators of a run. Aggregators that are merged must use the same options,
+ * except that the ones merged in may keep exact quantiles: their values are then added as if they had
+ * been aggregated by the one they are merged into.
+ */
+public class AggregationOptions {
+    // Values per metric kept exactly before the APM aggregator switches to a sketch
+    public static final int DEFAULT_EXACT_LIMIT = 4096;
+
+    // Windows kept by default when windowed aggregation is on: a day of one-minute windows
+    public static final int DEFAULT_WINDOW_RETENTION = 1440;
+
+    // Groups tracked individually by default when grouping
+    public static final int DEFAULT_GROUP_TOP_K = 100;
+
+    // Message templates reported per level by default when mining templates
+    public static final int DEFAULT_TEMPLATE_TOP_K = 20;
+
+    private boolean exactQuantiles;
+    private int exactLimit = DEFAULT_EXACT_LIMIT;
+    private int sketchK = KllSketch.DEFAULT_K;
+    private int[] apmPercentiles = new int[0];
+
+    // Window length and slide, 0 when windowed aggregation is off
+    private long windowMillis;
+    private long slideMillis;
+    private int windowRetention = DEFAULT_WINDOW_RETENTION;
+
+    // Dimensions to group by, empty when grouping is off
+    private List<Dimension> groupBy = new ArrayList<>();
+    private int groupTopK = DEFAULT_GROUP_TOP_K;
+
+    // Dimensions whose distinct values are counted, empty when distinct counting is off
+    private List<Dimension> distinct = new ArrayList<>();
+    private int distinctPrecision = HyperLogLog.DEFAULT_PRECISION;
+
+    // Collapses request URLs into route templates, null to aggregate every URL separately
+    private RouteNormalizer routeNormalizer;
+
+    // Whether application messages are clustered into templates, and how many are reported per level
+    private boolean templateMining;
+    private int templateTopK = DEFAULT_TEMPLATE_TOP_K;
+
+    /**
+     * Get a copy of these options that can be changed without affecting this instance; the route
+     * normalizer is shared
+     * @return The copy
+     */
+    public AggregationOptions copy() {
+        AggregationOptions copy = new AggregationOptions();
+        copy.exactQuantiles = exactQuantiles;
+        copy.exactLimit = exactLimit;
+        copy.sketchK = sketchK;
+        copy.apmPercentiles = apmPercentiles.clone();
+        copy.windowMillis = windowMillis;
+        copy.slideMillis = slideMillis;
+        copy.windowRetention = windowRetention;
+        copy.groupBy = new ArrayList<>(groupBy);
+        copy.groupTopK = groupTopK;
+        copy.distinct = new ArrayList<>(distinct);
+        copy.distinctPrecision = distinctPrecision;
+        copy.routeNormalizer = routeNormalizer;
+        copy.templateMining = templateMining;
+        copy.templateTopK = templateTopK;
+        return copy;
+    }
+
+    /**
+     * Keep every APM value so medians and percentiles are exact, instead of switching to a
+     * bounded-memory sketch once a metric has more than {@link #getExactLimit()} values
+     * @param exactQuantiles true to keep every value
+     * @return This instance
+     */
+    public AggregationOptions setExactQuantiles(boolean exactQuantiles) {
+        this.exactQuantiles = exactQuantiles;
+        return this;
+    }
+
+    public boolean isExactQuantiles() {
+        return exactQuantiles;
+    }
+
+    /**
+     * Set how many values of a metric are kept exactly before switching to the sketch
+     * @param exactLimit Number of values, at least 0
+     * @return This instance
+     */
+    public AggregationOptions setExactLimit(int exactLimit) {
+        if (exactLimit < 0) {
+            throw new IllegalArgumentException("Exact limit must not be negative: " + exactLimit);
+        }
+        this.exactLimit = exactLimit;
+        return this;
+    }
+
+    /**
+     * Number of values of a metric kept exactly, or {@link Integer#MAX_VALUE} in exact mode
+     */
+    public int getExactLimit() {
+        return exactQuantiles ? Integer.MAX_VALUE : exactLimit;
+    }
+
+    /**
+     * Set the accuracy of the APM quantile sketch; the rank error is roughly 1.7 / k
+     * @param sketchK The sketch's k parameter
+     * @return This instance
+     */
+    public AggregationOptions setSketchK(int sketchK) {
+        new KllSketch(sketchK);
+        this.sketchK = sketchK;
+        return this;
+    }
+
+    public int getSketchK() {
+        return sketchK;
+    }
+
+    /**
+     * Set extra percentiles reported for each APM metric, as {@code <p>_percentile} after the maximum
+     * @param apmPercentiles Percentiles between 0 and 100
+     * @return This instance
+     */
+    public AggregationOptions setApmPercentiles(int... apmPercentiles) {
+        for (int percentile : apmPercentiles) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+            }
+        }
+        this.apmPercentiles = apmPercentiles.clone();
+        return this;
+    }
+
+    public int[] getApmPercentiles() {
+        return apmPercentiles.clone();
+    }
+
+    /**
+     * Enable time-windowed aggregation, see {@link WindowedAggregates}
+     * @param windowMillis Length of a window, or 0 to turn windowed aggregation off
+     * @param slideMillis Distance between window starts: equal to the length for tumbling windows,
+     *                    or a divisor of it for sliding windows
+     * @return This instance
+     */
+    public AggregationOptions setWindow(long windowMillis, long slideMillis) {
+        if (windowMillis != 0 && (slideMillis <= 0 || windowMillis < slideMillis || windowMillis % slideMillis != 0)) {
+            throw new IllegalArgumentException("Window of " + windowMillis + " ms must be a positive multiple of the "
+                    + slideMillis + " ms slide");
+        }
+        this.windowMillis = windowMillis;
+        this.slideMillis = windowMillis == 0 ? 0 : slideMillis;
+        return this;
+    }
+
+    /**
+     * Whether entries are also aggregated per time window
+     */
+    public boolean isWindowed() {
+        return windowMillis > 0;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public long getSlideMillis() {
+        return slideMillis;
+    }
+
+    /**
+     * Set how many of the most recent windows are kept; older ones are dropped to bound memory
+     * @param windowRetention Number of windows, at least 1
+     * @return This instance
+     */
+    public AggregationOptions setWindowRetention(int windowRetention) {
+        if (windowRetention < 1) {
+            throw new IllegalArgumentException("Retention must be at least one window: " + windowRetention);
+        }
+        this.windowRetention = windowRetention;
+        return this;
+    }
+
+    public int getWindowRetention() {
+        return windowRetention;
+    }
+
+    /**
+     * Enable a breakdown by the given dimensions, see {@link GroupedAggregates}. Dimensions that read
+     * the raw data of entries need parsing without lean mode, see {@link #needsRawData()}.
+     * @param groupBy Dimensions that make up a group; none to turn grouping off
+     * @return This instance
+     */
+    public AggregationOptions setGroupBy(Dimension... groupBy) {
+        this.groupBy = new ArrayList<>(List.of(groupBy));
+        return this;
+    }
+
+    public List<Dimension> getGroupBy() {
+        return new ArrayList<>(groupBy);
+    }
+
+    /**
+     * Whether entries are also aggregated per group
+     */
+    public boolean isGrouped() {
+        return !groupBy.isEmpty();
+    }
+
+    /**
+     * Set how many groups are tracked individually; the others are folded into one "other" group
+     * @param groupTopK Number of groups, at least 1
+     * @return This instance
+     */
+    public AggregationOptions setGroupTopK(int groupTopK) {
+        if (groupTopK < 1) {
+            throw new IllegalArgumentException("Top-K must be at least 1: " + groupTopK);
+        }
+        this.groupTopK = groupTopK;
+        return this;
+    }
+
+    public int getGroupTopK() {
+        return groupTopK;
+    }
+
+    /**
+     * Enable distinct counts of the given dimensions, see {@link CardinalityAggregator}. Dimensions that
+     * read the raw data of entries need parsing without lean mode, see {@link #needsRawData()}.
+     * @param distinct Dimensions to count the distinct values of; none to turn distinct counting off
+     * @return This instance
+     */
+    public AggregationOptions setDistinct(Dimension... distinct) {
+        this.distinct = new ArrayList<>(List.of(distinct));
+        return this;
+    }
+
+    public List<Dimension> getDistinct() {
+        return new ArrayList<>(distinct);
+    }
+
+    /**
+     * Whether distinct values are also counted
+     */
+    public boolean isDistinctCounted() {
+        return !distinct.isEmpty();
+    }
+
+    /**
+     * Set the precision of the distinct-count sketches; the standard error is about 1.04 / sqrt(2^precision)
+     * @param distinctPrecision Precision between 4 and 18
+     * @return This instance
+     */
+    public AggregationOptions setDistinctPrecision(int distinctPrecision) {
+        new HyperLogLog(distinctPrecision);
+        this.distinctPrecision = distinctPrecision;
+        return this;
+    }
+
+    public int getDistinctPrecision() {
+        return distinctPrecision;
+    }
+
+    /**
+     * Aggregate requests by route template instead of by URL, see {@link RouteNormalizer}
+     * @param routeNormalizer The normalizer, or null to aggregate every URL separately
+     * @return This instance
+     */
+    public AggregationOptions setRouteNormalizer(RouteNormalizer routeNormalizer) {
+        this.routeNormalizer = routeNormalizer;
+        return this;
+    }
+
+    public RouteNormalizer getRouteNormalizer() {
+        return routeNormalizer;
+    }
+
+    /**
+     * Also count application entries per message template, see {@link TemplateMiner}
+     * @param templateMining true to mine message templates
+     * @return This instance
+     */
+    public AggregationOptions setTemplateMining(boolean templateMining) {
+        this.templateMining = templateMining;
+        return this;
+    }
+
+    public boolean isTemplateMining() {
+        return templateMining;
+    }
+
+    /**
+     * Set how many message templates are reported per level; the others are counted together as "(other)"
+     * @param templateTopK Number of templates, at least 1
+     * @return This instance
+     */
+    public AggregationOptions setTemplateTopK(int templateTopK) {
+        if (templateTopK < 1) {
+            throw new IllegalArgumentException("Top-K must be at least 1: " + templateTopK);
+        }
+        this.templateTopK = templateTopK;
+        return this;
+    }
+
+    public int getTemplateTopK() {
+        return templateTopK;
+    }
+
+    /**
+     * Whether a group-by or distinct-count dimension reads the raw data of entries, so they cannot be
+     * parsed in lean mode
+     */
+    public boolean needsRawData() {
+        for (Dimension dimension : groupBy) {
+            if (dimension.needsRawData()) {
+                return true;
+            }
+        }
+        for (Dimension dimension : distinct) {
+            if (dimension.needsRawData()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,23 +1,64 @@
 package org.example.aggregator;
 
+import org.example.collections.IntArray;
 import org.example.model.ApplicationLogEntry;
+import org.example.model.Symbols;
+import org.example.store.OffHeapApplicationLogStore;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Aggregator for Application log entries
  */
-public class ApplicationLogAggregator implements LogAggregator<ApplicationLogEntry> {
-    // Map to count occurrences of each log level
-    private final Map<String, Integer> levelCounts = new HashMap<>();
+public class ApplicationLogAggregator implements LogAggregator<ApplicationLogEntry, ApplicationLogAggregator> {
+    // Count of each log level, indexed by level id + 1 so a missing level (id -1) has a slot too
+    private int[] countsByLevel = new int[16];
+
+    // Level ids in the order they were first seen
+    private final IntArray levelOrder = new IntArray();
 
     @Override
     public void processLog(ApplicationLogEntry logEntry) {
-        String level = logEntry.getLevel();
+        processLevel(logEntry.getLevelId());
+    }
 
+    /**
+     * Count one entry given by its level instead of an entry
+     * @param levelId {@link Symbols#LEVELS} id of the level
+     */
+    public void processLevel(int levelId) {
         // Increment count for this level
-        levelCounts.put(level, levelCounts.getOrDefault(level, 0) + 1);
+        add(levelId, 1);
+    }
+
+    /**
+     * Merge the level counts of another aggregator into this one
+     * @param other The aggregator to merge in
+     */
+    @Override
+    public void merge(ApplicationLogAggregator other) {
+        for (int i = 0; i < other.levelOrder.size(); i++) {
+            int level = other.levelOrder.get(i);
+            add(level, other.countsByLevel[level + 1]);
+        }
+    }
+
+    /**
+     * Count every record of an off-heap store, reading the level ids in place
+     * @param store The stored application entries
+     */
+    public void processStore(OffHeapApplicationLogStore store) {
+        for (int chunk = 0; chunk < store.getChunkCount(); chunk++) {
+            int length = store.getChunkLength(chunk);
+            ByteBuffer records = store.getRecords(chunk);
+            for (int position = 0; position < length * OffHeapApplicationLogStore.RECORD_SIZE;
+                 position += OffHeapApplicationLogStore.RECORD_SIZE) {
+                add(records.getInt(position + OffHeapApplicationLogStore.LEVEL_ID), 1);
+            }
+        }
     }
 
     @Override
@@ -25,10 +66,25 @@ public class ApplicationLogAggregator implements LogAggregator<ApplicationLogEnt
         // For Application logs, the result is simply the count of logs by level
         Map<String, Object> result = new HashMap<>();
 
-        for (Map.Entry<String, Integer> entry : levelCounts.entrySet()) {
-            result.put(entry.getKey(), entry.getValue());
+        for (int i = 0; i < levelOrder.size(); i++) {
+            int level = levelOrder.get(i);
+            result.put(Symbols.LEVELS.nameOf(level), countsByLevel[level + 1]);
         }
 
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Add to the count of a level, e.g. from {@link ConcurrentApplicationLogAggregator}
+     */
+    void add(int levelId, int count) {
+        int slot = levelId + 1;
+        if (slot >= countsByLevel.length) {
+            countsByLevel = Arrays.copyOf(countsByLevel, Math.max(slot + 1, countsByLevel.length * 2));
+        }
+        if (countsByLevel[slot] == 0) {
+            levelOrder.add(levelId);
+        }
+        countsByLevel[slot] += count;
+    }
+}
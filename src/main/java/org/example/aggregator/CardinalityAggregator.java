@@ -0,0 +1,78 @@
+package org.example.aggregator;
+
+import org.example.model.LogEntry;
+import org.example.sketch.HyperLogLog;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the number of distinct values of each of a set of {@link Dimension}s, such as hosts, routes
+ * or error codes, with one {@link HyperLogLog} per dimension. Entries that do not have a dimension are
+ * not counted for it. Memory per dimension is bounded by the sketch precision however many values appear.
+ * Instances are not thread-safe.
+ */
+public class CardinalityAggregator implements LogAggregator<LogEntry, CardinalityAggregator> {
+    private final Dimension[] dimensions;
+    private final HyperLogLog[] sketches;
+
+    /**
+     * @param dimensions Dimensions whose distinct values are counted
+     * @param precision Precision of each sketch, see {@link HyperLogLog#HyperLogLog(int)}
+     */
+    public CardinalityAggregator(List<Dimension> dimensions, int precision) {
+        this.dimensions = dimensions.toArray(new Dimension[0]);
+        this.sketches = new HyperLogLog[this.dimensions.length];
+        for (int i = 0; i < sketches.length; i++) {
+            sketches[i] = new HyperLogLog(precision);
+        }
+    }
+
+    @Override
+    public void processLog(LogEntry logEntry) {
+        for (int i = 0; i < dimensions.length; i++) {
+            String value = dimensions[i].valueOf(logEntry);
+            if (!Dimension.NONE.equals(value)) {
+                sketches[i].offer(value);
+            }
+        }
+    }
+
+    @Override
+    public void merge(CardinalityAggregator other) {
+        if (other.dimensions.length != dimensions.length) {
+            throw new IllegalArgumentException("Cannot merge distinct counts of different dimensions");
+        }
+        for (int i = 0; i < sketches.length; i++) {
+            sketches[i].merge(other.sketches[i]);
+        }
+    }
+
+    /**
+     * Estimate the number of distinct values of a dimension
+     * @param dimensionName Name of the dimension, as given to {@link Dimension#parse(String)}
+     * @return The estimate, or 0 if the dimension is not counted
+     */
+    public long getDistinctCount(String dimensionName) {
+        for (int i = 0; i < dimensions.length; i++) {
+            if (dimensions[i].getName().equals(dimensionName)) {
+                return sketches[i].estimate();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Get the estimated distinct counts
+     * @return Map from each dimension name to its estimated number of distinct values
+     */
+    @Override
+    public Map<String, Object> getAggregatedData() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < dimensions.length; i++) {
+            result.put(dimensions[i].getName(), sketches[i].estimate());
+        }
+        return result;
+    }
+}
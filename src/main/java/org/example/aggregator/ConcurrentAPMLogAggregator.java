@@ -0,0 +1,89 @@
+package org.example.aggregator;
+
+import org.example.model.APMLogEntry;
+import org.example.model.Symbols;
+import org.example.sketch.DistributionSummary;
+import org.example.util.Striped;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe variant of {@link APMLogAggregator} that many threads can update at once. Each metric has
+ * a {@link Striped} {@link DistributionSummary}, one per stripe, in a {@link ConcurrentHashMap}; threads
+ * mostly record into different stripes, and the stripes are merged when results are read. Minimum,
+ * maximum and count are the same as those of an {@link APMLogAggregator} given the same entries, and so
+ * are the quantiles while the values are exact; past the exact limit they are sketch estimates.
+ * Results read while other threads are still recording are not a consistent snapshot.
+ */
+public class ConcurrentAPMLogAggregator implements LogAggregator<APMLogEntry, ConcurrentAPMLogAggregator> {
+    private final AggregationOptions options;
+
+    // Values of each metric by metric id
+    private final ConcurrentHashMap<Integer, Striped<DistributionSummary>> valuesByMetric = new ConcurrentHashMap<>();
+
+    public ConcurrentAPMLogAggregator() {
+        this(new AggregationOptions());
+    }
+
+    /**
+     * @param options Exact limit, sketch accuracy and extra percentiles of the metric values
+     */
+    public ConcurrentAPMLogAggregator(AggregationOptions options) {
+        this.options = options;
+    }
+
+    @Override
+    public void processLog(APMLogEntry logEntry) {
+        processValue(logEntry.getMetricId(), logEntry.getValue());
+    }
+
+    /**
+     * Aggregate one metric value given by its fields instead of an entry
+     * @param metricId {@link Symbols#METRICS} id of the metric
+     * @param value The metric value
+     */
+    public void processValue(int metricId, double value) {
+        DistributionSummary values = valuesFor(metricId).stripe();
+        synchronized (values) {
+            values.add(value);
+        }
+    }
+
+    @Override
+    public void merge(ConcurrentAPMLogAggregator other) {
+        for (Map.Entry<Integer, Striped<DistributionSummary>> metric : other.valuesByMetric.entrySet()) {
+            // Combine the other stripes first, so no two stripe locks are ever held at once
+            DistributionSummary otherValues = new DistributionSummary(options.getExactLimit(), options.getSketchK());
+            metric.getValue().forEach(otherValues::merge);
+            DistributionSummary values = valuesFor(metric.getKey()).stripe();
+            synchronized (values) {
+                values.merge(otherValues);
+            }
+        }
+    }
+
+    /**
+     * Copy the current values into a single-threaded aggregator, metrics in id order
+     * @return A new aggregator holding the values
+     */
+    public APMLogAggregator snapshot() {
+        APMLogAggregator snapshot = new APMLogAggregator(options);
+        for (Map.Entry<Integer, Striped<DistributionSummary>> metric : new TreeMap<>(valuesByMetric).entrySet()) {
+            metric.getValue().forEach(values -> snapshot.addValues(metric.getKey(), values));
+        }
+        return snapshot;
+    }
+
+    @Override
+    public Map<String, Object> getAggregatedData() {
+        return snapshot().getAggregatedData();
+    }
+
+    private Striped<DistributionSummary> valuesFor(int metricId) {
+        Striped<DistributionSummary> values = valuesByMetric.get(metricId);
+        return values != null ? values : valuesByMetric.computeIfAbsent(metricId,
+                key -> new Striped<>(() -> new DistributionSummary(options.getExactLimit(), options.getSketchK())));
+    }
+}
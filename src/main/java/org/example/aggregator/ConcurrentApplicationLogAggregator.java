@@ -0,0 +1,63 @@
+package org.example.aggregator;
+
+import org.example.model.ApplicationLogEntry;
+import org.example.model.Symbols;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe variant of {@link ApplicationLogAggregator} that many threads can update at once: level
+ * counts are {@link LongAdder}s in a {@link ConcurrentHashMap}, so concurrent increments do not contend.
+ * Results are the same as those of an {@link ApplicationLogAggregator} given the same entries.
+ * Results read while other threads are still recording are not a consistent snapshot.
+ */
+public class ConcurrentApplicationLogAggregator
+        implements LogAggregator<ApplicationLogEntry, ConcurrentApplicationLogAggregator> {
+    // Count of each log level by level id
+    private final ConcurrentHashMap<Integer, LongAdder> countsByLevel = new ConcurrentHashMap<>();
+
+    @Override
+    public void processLog(ApplicationLogEntry logEntry) {
+        processLevel(logEntry.getLevelId());
+    }
+
+    /**
+     * Count one entry given by its level instead of an entry
+     * @param levelId {@link Symbols#LEVELS} id of the level
+     */
+    public void processLevel(int levelId) {
+        counter(levelId).increment();
+    }
+
+    @Override
+    public void merge(ConcurrentApplicationLogAggregator other) {
+        for (Map.Entry<Integer, LongAdder> level : other.countsByLevel.entrySet()) {
+            counter(level.getKey()).add(level.getValue().sum());
+        }
+    }
+
+    /**
+     * Copy the current counts into a single-threaded aggregator, levels in id order
+     * @return A new aggregator holding the counts
+     */
+    public ApplicationLogAggregator snapshot() {
+        ApplicationLogAggregator snapshot = new ApplicationLogAggregator();
+        for (Map.Entry<Integer, LongAdder> level : new TreeMap<>(countsByLevel).entrySet()) {
+            snapshot.add(level.getKey(), (int) level.getValue().sum());
+        }
+        return snapshot;
+    }
+
+    @Override
+    public Map<String, Object> getAggregatedData() {
+        return snapshot().getAggregatedData();
+    }
+
+    private LongAdder counter(int levelId) {
+        LongAdder counter = countsByLevel.get(levelId);
+        return counter != null ? counter : countsByLevel.computeIfAbsent(levelId, key -> new LongAdder());
+    }
+}
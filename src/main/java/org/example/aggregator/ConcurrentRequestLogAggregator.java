@@ -0,0 +1,124 @@
+package org.example.aggregator;
+
+import org.example.model.RequestLogEntry;
+import org.example.model.Symbols;
+import org.example.sketch.LogLinearHistogram;
+import org.example.util.Striped;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe variant of {@link RequestLogAggregator} that many threads can update at once. Each route
+ * has {@link LongAdder} status category counts and a {@link Striped} response time histogram, one
+ * {@link LogLinearHistogram} per stripe, in a {@link ConcurrentHashMap}; threads mostly record into
+ * different stripes, and the stripes are merged when results are read. Histograms merge exactly, so
+ * results are the same as those of a {@link RequestLogAggregator} given the same entries.
+ * Results read while other threads are still recording are not a consistent snapshot.
+ */
+public class ConcurrentRequestLogAggregator implements LogAggregator<RequestLogEntry, ConcurrentRequestLogAggregator> {
+    private final AggregationOptions options;
+
+    // Recorded state of each route by route id
+    private final ConcurrentHashMap<Integer, RouteCells> routes = new ConcurrentHashMap<>();
+
+    // Collapses URLs into route templates before they are aggregated, null to keep them as they are
+    private final RouteNormalizer routeNormalizer;
+
+    public ConcurrentRequestLogAggregator() {
+        this(new AggregationOptions());
+    }
+
+    /**
+     * @param options Options with the route normalizer, if any
+     */
+    public ConcurrentRequestLogAggregator(AggregationOptions options) {
+        this.options = options;
+        this.routeNormalizer = options.getRouteNormalizer();
+    }
+
+    @Override
+    public void processLog(RequestLogEntry logEntry) {
+        processRequest(logEntry.getRouteId(), logEntry.getResponseStatus(), logEntry.getResponseTimeMs());
+    }
+
+    /**
+     * Aggregate one request given by its fields instead of an entry
+     * @param routeId {@link Symbols#ROUTES} id of the request URL
+     * @param responseStatus HTTP status code
+     * @param responseTimeMs Response time in milliseconds
+     */
+    public void processRequest(int routeId, int responseStatus, int responseTimeMs) {
+        if (routeNormalizer != null) {
+            routeId = routeNormalizer.normalize(routeId);
+        }
+        RouteCells cells = cellsFor(routeId);
+        LogLinearHistogram histogram = cells.responseTimes.stripe();
+        synchronized (histogram) {
+            histogram.record(responseTimeMs);
+        }
+        cells.statusCounts[RequestLogAggregator.statusCategoryIndex(responseStatus)].increment();
+    }
+
+    @Override
+    public void merge(ConcurrentRequestLogAggregator other) {
+        for (Map.Entry<Integer, RouteCells> route : other.routes.entrySet()) {
+            RouteCells cells = cellsFor(route.getKey());
+
+            // Combine the other stripes first, so no two stripe locks are ever held at once
+            LogLinearHistogram responseTimes = new LogLinearHistogram();
+            route.getValue().responseTimes.forEach(responseTimes::merge);
+            LogLinearHistogram histogram = cells.responseTimes.stripe();
+            synchronized (histogram) {
+                histogram.merge(responseTimes);
+            }
+            for (int category = 0; category < cells.statusCounts.length; category++) {
+                cells.statusCounts[category].add(route.getValue().statusCounts[category].sum());
+            }
+        }
+    }
+
+    /**
+     * Copy the current state into a single-threaded aggregator, routes in id order
+     * @return A new aggregator holding the response times and status counts
+     */
+    public RequestLogAggregator snapshot() {
+        RequestLogAggregator snapshot = new RequestLogAggregator(options);
+        for (Map.Entry<Integer, RouteCells> route : new TreeMap<>(routes).entrySet()) {
+            LogLinearHistogram responseTimes = new LogLinearHistogram();
+            route.getValue().responseTimes.forEach(responseTimes::merge);
+            long[] statusCounts = new long[RequestLogAggregator.STATUS_CATEGORIES.length];
+            for (int category = 0; category < statusCounts.length; category++) {
+                statusCounts[category] = route.getValue().statusCounts[category].sum();
+            }
+            snapshot.addRoute(route.getKey(), responseTimes, statusCounts);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public Map<String, Object> getAggregatedData() {
+        return snapshot().getAggregatedData();
+    }
+
+    private RouteCells cellsFor(int routeId) {
+        RouteCells cells = routes.get(routeId);
+        return cells != null ? cells : routes.computeIfAbsent(routeId, key -> new RouteCells());
+    }
+
+    /**
+     * Response time histogram stripes and status category counters of one route
+     */
+    private static class RouteCells {
+        final Striped<LogLinearHistogram> responseTimes = new Striped<>(LogLinearHistogram::new);
+        final LongAdder[] statusCounts = new LongAdder[RequestLogAggregator.STATUS_CATEGORIES.length];
+
+        RouteCells() {
+            for (int category = 0; category < statusCounts.length; category++) {
+                statusCounts[category] = new LongAdder();
+            }
+        }
+    }
+}
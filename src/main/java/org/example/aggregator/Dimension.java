@@ -0,0 +1,159 @@
+package org.example.aggregator;
+
+import org.example.model.APMLogEntry;
+import org.example.model.ApplicationLogEntry;
+import org.example.model.LogEntry;
+import org.example.model.RequestLogEntry;
+import org.example.model.Symbols;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A property of a log entry that entries can be grouped by, see {@link GroupByAggregator}
+ */
+public interface Dimension {
+    // Value of a dimension that an entry does not have
+    String NONE = "(none)";
+
+    /**
+     * Get the value of this dimension for an entry
+     * @param logEntry The log entry
+     * @return The value, or {@link #NONE} if the entry does not have it
+     */
+    String valueOf(LogEntry logEntry);
+
+    /**
+     * Get the name of the dimension, as given to {@link #parse(String)}
+     */
+    String getName();
+
+    /**
+     * Whether the value comes from {@link LogEntry#getRawData()}, which lean parsing leaves empty
+     */
+    default boolean needsRawData() {
+        return false;
+    }
+
+    /**
+     * Get a dimension by name: host, route (request URL), metric, level, or else the key of a
+     * field in the raw data of the entry, such as error_code
+     * @param name Name of the dimension
+     * @return The dimension
+     */
+    static Dimension parse(String name) {
+        switch (name) {
+            case "host":
+            case "route":
+            case "metric":
+            case "level":
+                return new Builtin(name);
+            default:
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("Dimension name must not be empty");
+                }
+                return new RawField(name);
+        }
+    }
+
+    /**
+     * Make the route dimension among the given ones group requests by route template
+     * @param dimensions The dimensions
+     * @param routeNormalizer Normalizer of request URLs, or null to group by URL
+     * @return The dimensions with the route dimension replaced, or the given list if there is nothing to replace
+     */
+    static List<Dimension> withRouteNormalizer(List<Dimension> dimensions, RouteNormalizer routeNormalizer) {
+        if (routeNormalizer == null) {
+            return dimensions;
+        }
+        List<Dimension> normalized = new ArrayList<>(dimensions.size());
+        for (Dimension dimension : dimensions) {
+            if (dimension instanceof Builtin && dimension.getName().equals("route")) {
+                normalized.add(new Builtin("route", routeNormalizer));
+            } else {
+                normalized.add(dimension);
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * Dimension backed by a field that the parsers always extract
+     */
+    class Builtin implements Dimension {
+        private final String name;
+
+        // Collapses request URLs into route templates for the route dimension, null to keep them
+        private final RouteNormalizer routeNormalizer;
+
+        private Builtin(String name) {
+            this(name, null);
+        }
+
+        private Builtin(String name, RouteNormalizer routeNormalizer) {
+            this.name = name;
+            this.routeNormalizer = routeNormalizer;
+        }
+
+        @Override
+        public String valueOf(LogEntry logEntry) {
+            String value;
+            switch (name) {
+                case "host":
+                    value = logEntry.getHost();
+                    break;
+                case "route":
+                    value = logEntry instanceof RequestLogEntry ? routeOf((RequestLogEntry) logEntry) : null;
+                    break;
+                case "metric":
+                    value = logEntry instanceof APMLogEntry ? ((APMLogEntry) logEntry).getMetric() : null;
+                    break;
+                default:
+                    value = logEntry instanceof ApplicationLogEntry ? ((ApplicationLogEntry) logEntry).getLevel() : null;
+                    break;
+            }
+            return value != null ? value : NONE;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        private String routeOf(RequestLogEntry logEntry) {
+            if (routeNormalizer == null) {
+                return logEntry.getRequestUrl();
+            }
+            return Symbols.ROUTES.nameOf(routeNormalizer.normalize(logEntry.getRouteId()));
+        }
+    }
+
+    /**
+     * Dimension backed by a key of the raw data of an entry
+     */
+    class RawField implements Dimension {
+        private final String key;
+
+        private RawField(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public String valueOf(LogEntry logEntry) {
+            Map<String, String> rawData = logEntry.getRawData();
+            String value = rawData != null ? rawData.get(key) : null;
+            return value != null ? value : NONE;
+        }
+
+        @Override
+        public String getName() {
+            return key;
+        }
+
+        @Override
+        public boolean needsRawData() {
+            return true;
+        }
+    }
+}
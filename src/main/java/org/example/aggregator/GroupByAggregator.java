@@ -0,0 +1,306 @@
+package org.example.aggregator;
+
+import org.example.collections.ObjectIntMap;
+import org.example.model.LogEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Aggregates entries per group, where a group is a combination of {@link Dimension} values such as a
+ * host, a host and route, or a raw field like error_code. At most {@code topK} groups have their own
+ * aggregator; entries of the remaining groups are folded into a single "other" aggregator, so memory
+ * stays bounded however many distinct values the dimensions have.
+ * <p>
+ * The tracked groups are chosen with the Space-Saving heavy-hitter algorithm (Metwally et al.): when a
+ * new group arrives and all slots are taken, the group with the lowest estimated count is folded into
+ * "other" and the newcomer inherits that count as its error. Every group with more than n / topK entries
+ * is guaranteed to be tracked. A tracked group's results cover the entries seen since it was last
+ * admitted, its "count"; up to "count_error" earlier entries of it may be in "other".
+ * Instances are not thread-safe.
+ * @param <T> Type of log entry aggregated
+ * @param <A> Type of the aggregator of each group
+ */
+public class GroupByAggregator<T extends LogEntry, A extends LogAggregator<T, A>>
+        implements LogAggregator<T, GroupByAggregator<T, A>> {
+    public static final String GROUP_SEPARATOR = "|";
+
+    private final Supplier<A> factory;
+    private final Dimension[] dimensions;
+    private final int topK;
+
+    // Tracked groups by key, mapping to their slot
+    private final ObjectIntMap<String> slots;
+
+    // Per slot: the group key, its aggregator, the entries it aggregated and the error inherited on admission
+    private final String[] keys;
+    private final Object[] aggregators;
+    private final long[] counts;
+    private final long[] errors;
+
+    // Min-heap of slots by estimated count (count + error), and the heap position of each slot
+    private final int[] heap;
+    private final int[] heapPositions;
+    private int size;
+
+    // Aggregates the entries of all groups that are not tracked
+    private final A otherAggregator;
+    private long otherCount;
+
+    /**
+     * @param factory Creates an empty aggregator for a group
+     * @param dimensions Dimensions that make up a group key
+     * @param topK Maximum number of groups tracked individually
+     */
+    public GroupByAggregator(Supplier<A> factory, List<Dimension> dimensions, int topK) {
+        if (dimensions.isEmpty()) {
+            throw new IllegalArgumentException("At least one dimension is needed to group by");
+        }
+        if (topK < 1) {
+            throw new IllegalArgumentException("Top-K must be at least 1: " + topK);
+        }
+        this.factory = factory;
+        this.dimensions = dimensions.toArray(new Dimension[0]);
+        this.topK = topK;
+        this.slots = new ObjectIntMap<>(topK);
+        this.keys = new String[topK];
+        this.aggregators = new Object[topK];
+        this.counts = new long[topK];
+        this.errors = new long[topK];
+        this.heap = new int[topK];
+        this.heapPositions = new int[topK];
+        this.otherAggregator = factory.get();
+    }
+
+    @Override
+    public void processLog(T logEntry) {
+        String key = keyOf(logEntry);
+        int index = slots.get(key, -1);
+        if (index < 0 && size < topK) {
+            index = size;
+            admit(index, key, 0);
+            heap[size] = index;
+            heapPositions[index] = size;
+            size++;
+            siftUp(heapPositions[index]);
+        } else if (index < 0) {
+            // Replace the group with the lowest estimate, which moves to "other"
+            index = heap[0];
+            long estimate = counts[index] + errors[index];
+            evict(index);
+            admit(index, key, estimate);
+        }
+        aggregator(index).processLog(logEntry);
+        counts[index]++;
+        siftDown(heapPositions[index]);
+    }
+
+    @Override
+    public void merge(GroupByAggregator<T, A> other) {
+        // Groups missing from a full side may have up to that side's minimum estimate in its "other"
+        long thisMissed = size == topK ? minEstimate() : 0;
+        long otherMissed = other.size == other.topK ? other.minEstimate() : 0;
+
+        List<Group<A>> groups = new ArrayList<>();
+        for (int index = 0; index < size; index++) {
+            Group<A> group = new Group<>(keys[index], aggregator(index), counts[index], errors[index]);
+            int otherSlot = other.slots.get(keys[index], -1);
+            if (otherSlot >= 0) {
+                group.aggregator.merge(other.aggregator(otherSlot));
+                group.count += other.counts[otherSlot];
+                group.error += other.errors[otherSlot];
+            } else {
+                group.error += otherMissed;
+            }
+            groups.add(group);
+        }
+        for (int index = 0; index < other.size; index++) {
+            if (!slots.containsKey(other.keys[index])) {
+                A aggregator = factory.get();
+                aggregator.merge(other.aggregator(index));
+                groups.add(new Group<>(other.keys[index], aggregator, other.counts[index],
+                        other.errors[index] + thisMissed));
+            }
+        }
+        otherAggregator.merge(other.otherAggregator);
+        otherCount += other.otherCount;
+
+        // Keep the groups with the highest estimates and fold the rest into "other"
+        groups.sort(Group.BY_ESTIMATE);
+        slots.clear();
+        Arrays.fill(aggregators, null);
+        size = 0;
+        for (Group<A> group : groups) {
+            if (size < topK) {
+                keys[size] = group.key;
+                aggregators[size] = group.aggregator;
+                counts[size] = group.count;
+                errors[size] = group.error;
+                slots.put(group.key, size);
+                heap[size] = size;
+                heapPositions[size] = size;
+                size++;
+            } else {
+                otherAggregator.merge(group.aggregator);
+                otherCount += group.count;
+            }
+        }
+        for (int position = size / 2 - 1; position >= 0; position--) {
+            siftDown(position);
+        }
+    }
+
+    /**
+     * Get the results of the tracked groups, highest estimated count first, and of the other entries
+     * @return Map with "groups", from group key to its count, count error and aggregated data,
+     *         and "other" with the count and aggregated data of the remaining entries
+     */
+    @Override
+    public Map<String, Object> getAggregatedData() {
+        List<Group<A>> groups = new ArrayList<>();
+        for (int index = 0; index < size; index++) {
+            groups.add(new Group<>(keys[index], aggregator(index), counts[index], errors[index]));
+        }
+        groups.sort(Group.BY_ESTIMATE);
+
+        Map<String, Object> groupData = new LinkedHashMap<>();
+        for (Group<A> group : groups) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("count", group.count);
+            data.put("count_error", group.error);
+            data.put("data", group.aggregator.getAggregatedData());
+            groupData.put(group.key, data);
+        }
+
+        Map<String, Object> otherData = new LinkedHashMap<>();
+        otherData.put("count", otherCount);
+        otherData.put("data", otherAggregator.getAggregatedData());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("groups", groupData);
+        result.put("other", otherData);
+        return result;
+    }
+
+    /**
+     * Number of groups tracked individually
+     */
+    public int getGroupCount() {
+        return size;
+    }
+
+    /**
+     * Number of entries aggregated in "other"
+     */
+    public long getOtherCount() {
+        return otherCount;
+    }
+
+    /**
+     * Key of the group of an entry: its dimension values joined by {@link #GROUP_SEPARATOR}
+     */
+    private String keyOf(T logEntry) {
+        if (dimensions.length == 1) {
+            return dimensions[0].valueOf(logEntry);
+        }
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < dimensions.length; i++) {
+            if (i > 0) {
+                key.append(GROUP_SEPARATOR);
+            }
+            key.append(dimensions[i].valueOf(logEntry));
+        }
+        return key.toString();
+    }
+
+    private void admit(int index, String key, long error) {
+        keys[index] = key;
+        aggregators[index] = factory.get();
+        counts[index] = 0;
+        errors[index] = error;
+        slots.put(key, index);
+    }
+
+    private void evict(int index) {
+        otherAggregator.merge(aggregator(index));
+        otherCount += counts[index];
+        slots.remove(keys[index]);
+    }
+
+    private long minEstimate() {
+        return counts[heap[0]] + errors[heap[0]];
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (estimate(heap[parent]) <= estimate(heap[position])) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && estimate(heap[left]) < estimate(heap[smallest])) {
+                smallest = left;
+            }
+            if (right < size && estimate(heap[right]) < estimate(heap[smallest])) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int position, int otherPosition) {
+        int slot = heap[position];
+        heap[position] = heap[otherPosition];
+        heap[otherPosition] = slot;
+        heapPositions[heap[position]] = position;
+        heapPositions[slot] = otherPosition;
+    }
+
+    private long estimate(int index) {
+        return counts[index] + errors[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private A aggregator(int index) {
+        return (A) aggregators[index];
+    }
+
+    /**
+     * A group while groups are being merged or reported
+     */
+    private static class Group<A> {
+        // Highest estimate first; ties by key so results do not depend on slot order
+        static final Comparator<Group<?>> BY_ESTIMATE = Comparator.<Group<?>>comparingLong(g -> -(g.count + g.error))
+                .thenComparing(g -> g.key);
+
+        final String key;
+        final A aggregator;
+        long count;
+        long error;
+
+        Group(String key, A aggregator, long count, long error) {
+            this.key = key;
+            this.aggregator = aggregator;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.aggregator;
+
+import org.example.model.APMLogEntry;
+import org.example.model.ApplicationLogEntry;
+import org.example.model.LogEntry;
+import org.example.model.RequestLogEntry;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Breakdown of all three log types by the group-by dimensions of the options, with one
+ * {@link GroupByAggregator} per log type
+ */
+public class GroupedAggregates {
+    private final List<Dimension> dimensions;
+    private final int topK;
+
+    private final GroupByAggregator<APMLogEntry, APMLogAggregator> apmGroups;
+    private final GroupByAggregator<ApplicationLogEntry, ApplicationLogAggregator> applicationGroups;
+    private final GroupByAggregator<RequestLogEntry, RequestLogAggregator> requestGroups;
+
+    /**
+     * @param options Options with the group-by dimensions and top-K, and those of the aggregators
+     */
+    public GroupedAggregates(AggregationOptions options) {
+        // Requests group by route template when routes are normalized, like the per-route results
+        this.dimensions = Dimension.withRouteNormalizer(options.getGroupBy(), options.getRouteNormalizer());
+        this.topK = options.getGroupTopK();
+        apmGroups = new GroupByAggregator<>(() -> new APMLogAggregator(options), dimensions, topK);
+        applicationGroups = new GroupByAggregator<>(ApplicationLogAggregator::new, dimensions, topK);
+        requestGroups = new GroupByAggregator<>(() -> new RequestLogAggregator(options), dimensions, topK);
+    }
+
+    /**
+     * Route a parsed log entry to the groups of its type
+     * @param logEntry The log entry to process
+     */
+    public void processLog(LogEntry logEntry) {
+        if (logEntry instanceof APMLogEntry) {
+            apmGroups.processLog((APMLogEntry) logEntry);
+        } else if (logEntry instanceof ApplicationLogEntry) {
+            applicationGroups.processLog((ApplicationLogEntry) logEntry);
+        } else if (logEntry instanceof RequestLogEntry) {
+            requestGroups.processLog((RequestLogEntry) logEntry);
+        }
+    }
+
+    /**
+     * Merge the groups of another instance into this one
+     * @param other The groups to merge in; they must use the same dimensions
+     */
+    public void merge(GroupedAggregates other) {
+        apmGroups.merge(other.apmGroups);
+        applicationGroups.merge(other.applicationGroups);
+        requestGroups.merge(other.requestGroups);
+    }
+
+    /**
+     * Get the breakdown of all three log types, as written to groups.json
+     * @return Map containing the dimensions and, per log type, the results of each tracked group and of the rest
+     */
+    public Map<String, Object> getAggregatedData() {
+        StringBuilder names = new StringBuilder();
+        for (Dimension dimension : dimensions) {
+            if (names.length() > 0) {
+                names.append(GroupByAggregator.GROUP_SEPARATOR);
+            }
+            names.append(dimension.getName());
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("dimensions", names.toString());
+        result.put("top_k", topK);
+        result.put("apm", apmGroups.getAggregatedData());
+        result.put("application", applicationGroups.getAggregatedData());
+        result.put("request", requestGroups.getAggregatedData());
+        return result;
+    }
+}
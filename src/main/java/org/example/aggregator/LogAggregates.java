@@ -0,0 +1,185 @@
+package org.example.aggregator;
+
+import org.example.model.APMLogEntry;
+import org.example.model.ApplicationLogEntry;
+import org.example.model.LogEntry;
+import org.example.model.RequestLogEntry;
+import org.example.segment.SegmentBuilder;
+import org.example.util.RejectCounts;
+
+/**
+ * The results of a run, which parsed entries are routed to. It always holds:
+ * <ul>
+ *   <li>one aggregator per log type</li>
+ *   <li>the counts of lines that were rejected</li>
+ * </ul>
+ * and, depending on the options and the constructor:
+ * <ul>
+ *   <li>a segment builder that records every entry</li>
+ *   <li>the aggregates of each time window</li>
+ *   <li>a breakdown by group</li>
+ *   <li>distinct counts</li>
+ *   <li>application message templates</li>
+ * </ul>
+ */
+public class LogAggregates {
+    private final APMLogAggregator apmAggregator;
+    private final ApplicationLogAggregator applicationAggregator = new ApplicationLogAggregator();
+    private final RequestLogAggregator requestAggregator;
+    private final RejectCounts rejects = new RejectCounts();
+
+    // Records the entries for a segment file, null if none is written
+    private final SegmentBuilder segment;
+
+    // Per-window aggregates, null unless windowed aggregation is enabled in the options
+    private final WindowedAggregates windows;
+
+    // Per-group aggregates, null unless grouping is enabled in the options
+    private final GroupedAggregates groups;
+
+    // Distinct counts, null unless distinct counting is enabled in the options
+    private final CardinalityAggregator distinct;
+
+    // Application message templates, null unless template mining is enabled in the options
+    private final TemplateMiner templates;
+
+    public LogAggregates() {
+        this(null);
+    }
+
+    /**
+     * @param segment Builder that every processed entry is also added to, or null
+     */
+    public LogAggregates(SegmentBuilder segment) {
+        this(new AggregationOptions(), segment);
+    }
+
+    /**
+     * @param options Options of the aggregators; aggregates that are merged must share them, see {@link AggregationOptions}
+     * @param segment Builder that every processed entry is also added to, or null
+     */
+    public LogAggregates(AggregationOptions options, SegmentBuilder segment) {
+        this.apmAggregator = new APMLogAggregator(options);
+        this.requestAggregator = new RequestLogAggregator(options);
+        this.segment = segment;
+        this.windows = options.isWindowed() ? new WindowedAggregates(options) : null;
+        this.groups = options.isGrouped() ? new GroupedAggregates(options) : null;
+        this.distinct = options.isDistinctCounted()
+                ? new CardinalityAggregator(Dimension.withRouteNormalizer(options.getDistinct(), options.getRouteNormalizer()),
+                        options.getDistinctPrecision()) : null;
+        this.templates = options.isTemplateMining()
+                ? new TemplateMiner(options.getTemplateTopK(), TemplateMiner.DEFAULT_MAX_TEMPLATES) : null;
+    }
+
+    /**
+     * Route a parsed log entry to the aggregator for its type
+     * @param logEntry The log entry to process
+     */
+    public void processLog(LogEntry logEntry) {
+        if (segment != null) {
+            segment.add(logEntry);
+        }
+        if (windows != null) {
+            windows.processLog(logEntry);
+        }
+        if (groups != null) {
+            groups.processLog(logEntry);
+        }
+        if (distinct != null) {
+            distinct.processLog(logEntry);
+        }
+        if (logEntry instanceof APMLogEntry) {
+            apmAggregator.processLog((APMLogEntry) logEntry);
+        } else if (logEntry instanceof ApplicationLogEntry) {
+            applicationAggregator.processLog((ApplicationLogEntry) logEntry);
+            if (templates != null) {
+                templates.processLog((ApplicationLogEntry) logEntry);
+            }
+        } else if (logEntry instanceof RequestLogEntry) {
+            requestAggregator.processLog((RequestLogEntry) logEntry);
+        }
+    }
+
+    /**
+     * Merge the aggregates of another instance into this one.
+     * The other instance is treated as covering input that comes after this one.
+     * @param other The aggregates to merge in
+     */
+    public void merge(LogAggregates other) {
+        apmAggregator.merge(other.apmAggregator);
+        applicationAggregator.merge(other.applicationAggregator);
+        requestAggregator.merge(other.requestAggregator);
+        rejects.merge(other.rejects);
+        if (segment != null && other.segment != null) {
+            segment.append(other.segment);
+        }
+        if (windows != null && other.windows != null) {
+            windows.merge(other.windows);
+        }
+        if (groups != null && other.groups != null) {
+            groups.merge(other.groups);
+        }
+        if (distinct != null && other.distinct != null) {
+            distinct.merge(other.distinct);
+        }
+        if (templates != null && other.templates != null) {
+            templates.merge(other.templates);
+        }
+    }
+
+    public APMLogAggregator getApmAggregator() {
+        return apmAggregator;
+    }
+
+    public ApplicationLogAggregator getApplicationAggregator() {
+        return applicationAggregator;
+    }
+
+    public RequestLogAggregator getRequestAggregator() {
+        return requestAggregator;
+    }
+
+    public RejectCounts getRejects() {
+        return rejects;
+    }
+
+    /**
+     * Get the builder that entries are recorded to
+     * @return The segment builder, or null if entries are not recorded
+     */
+    public SegmentBuilder getSegment() {
+        return segment;
+    }
+
+    /**
+     * Get the per-window aggregates
+     * @return The windowed aggregates, or null if windowed aggregation is not enabled
+     */
+    public WindowedAggregates getWindows() {
+        return windows;
+    }
+
+    /**
+     * Get the per-group aggregates
+     * @return The grouped aggregates, or null if grouping is not enabled
+     */
+    public GroupedAggregates getGroups() {
+        return groups;
+    }
+
+    /**
+     * Get the distinct counts
+     * @return The distinct-count aggregator, or null if distinct counting is not enabled
+     */
+    public CardinalityAggregator getDistinct() {
+        return distinct;
+    }
+
+    /**
+     * Get the message templates
+     * @return The template miner, or null if template mining is not enabled
+     */
+    public TemplateMiner getTemplates() {
+        return templates;
+    }
+}
@@ -6,9 +6,12 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * Interface for log data aggregators
+ * Interface for log data aggregators. Aggregators of the same type can be merged, so partial results
+ * built on different threads or from different files combine into the result of one pass over all entries.
+ * @param <T> Type of log entry aggregated
+ * @param <A> Type of the aggregator itself, which is what it merges with
  */
-public interface LogAggregator<T extends LogEntry> {
+public interface LogAggregator<T extends LogEntry, A extends LogAggregator<T, A>> {
     /**
      * Process a log entry for aggregation
      * @param logEntry The log entry to process
@@ -21,6 +24,17 @@ public interface LogAggregator<T extends LogEntry> {
      */
     Map<String, Object> getAggregatedData();
 
+    /**
+     * Add the state of another aggregator to this one, as if its entries had been processed here.
+     * Merging is associative and commutative: any split of the entries, merged in any grouping or order,
+     * gives the same results as processing them all in one aggregator, except that keys appear in the
+     * order they were first seen and floating-point sums may differ by rounding. Quantile estimates of
+     * sketches (see {@link AggregationOptions}) are equal within their error bounds rather than exactly.
+     * Merged aggregators must have been created with the same options.
+     * @param other The aggregator to merge in; it is not modified
+     */
+    void merge(A other);
+
     /**
      * Process a list of log entries
      * @param logEntries List of log entries to process
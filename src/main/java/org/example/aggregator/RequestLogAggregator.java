@@ -1,31 +1,135 @@
 package org.example.aggregator;
 
+import org.example.collections.IntArray;
 import org.example.model.RequestLogEntry;
+import org.example.model.Symbols;
+import org.example.sketch.LogLinearHistogram;
+import org.example.store.OffHeapRequestLogStore;
+import org.example.store.RequestLogStore;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
- * Aggregator for Request log entries
+ * Aggregator for Request log entries. Response times are recorded in a {@link LogLinearHistogram} per route,
+ * so memory per route is bounded and percentiles are exact up to 2047 ms and within 0.1% above that.
  */
-public class RequestLogAggregator implements LogAggregator<RequestLogEntry> {
-    // Map of API route to response times
-    private final Map<String, List<Integer>> responseTimesByRoute = new HashMap<>();
+public class RequestLogAggregator implements LogAggregator<RequestLogEntry, RequestLogAggregator> {
+    // Status code categories counted per route; only the first three are reported
+    static final String[] STATUS_CATEGORIES = {"2XX", "4XX", "5XX", "Other"};
 
-    // Map of API route to status code counts
-    private final Map<String, Map<String, Integer>> statusCodesByRoute = new HashMap<>();
+    // Response time histogram of each API route, indexed by route id + 1 so a missing route (id -1) has a slot too
+    private LogLinearHistogram[] responseTimesByRoute = new LogLinearHistogram[16];
+
+    // Status category counts of each API route, indexed like responseTimesByRoute
+    private int[][] statusCodesByRoute = new int[16][];
+
+    // Route ids in the order they were first seen
+    private final IntArray routeOrder = new IntArray();
+
+    // Collapses URLs into route templates before they are aggregated, null to keep them as they are
+    private final RouteNormalizer routeNormalizer;
+
+    public RequestLogAggregator() {
+        this(new AggregationOptions());
+    }
+
+    /**
+     * @param options Options with the route normalizer, if any
+     */
+    public RequestLogAggregator(AggregationOptions options) {
+        this.routeNormalizer = options.getRouteNormalizer();
+    }
 
     @Override
     public void processLog(RequestLogEntry logEntry) {
-        String route = logEntry.getRequestUrl();
-        int responseTime = logEntry.getResponseTimeMs();
-        String statusCategory = logEntry.getStatusCodeCategory();
+        processRequest(logEntry.getRouteId(), logEntry.getResponseStatus(), logEntry.getResponseTimeMs());
+    }
 
-        // Add response time to the list for this route
-        responseTimesByRoute.computeIfAbsent(route, k -> new ArrayList<>()).add(responseTime);
+    /**
+     * Aggregate every row of a columnar store, in row order
+     * @param store The stored request entries
+     */
+    public void processStore(RequestLogStore store) {
+        for (int chunk = 0; chunk < store.getChunkCount(); chunk++) {
+            int length = store.getChunkLength(chunk);
+            int[] routeIds = store.getRouteIds(chunk);
+            short[] responseStatuses = store.getResponseStatuses(chunk);
+            int[] responseTimes = store.getResponseTimes(chunk);
+            for (int i = 0; i < length; i++) {
+                processRequest(routeIds[i], responseStatuses[i], responseTimes[i]);
+            }
+        }
+    }
+
+    /**
+     * Aggregate every record of an off-heap store, in row order, reading the fields in place
+     * @param store The stored request entries
+     */
+    public void processStore(OffHeapRequestLogStore store) {
+        for (int chunk = 0; chunk < store.getChunkCount(); chunk++) {
+            int length = store.getChunkLength(chunk);
+            ByteBuffer records = store.getRecords(chunk);
+            for (int position = 0; position < length * OffHeapRequestLogStore.RECORD_SIZE;
+                 position += OffHeapRequestLogStore.RECORD_SIZE) {
+                processRequest(records.getInt(position + OffHeapRequestLogStore.ROUTE_ID),
+                        records.getShort(position + OffHeapRequestLogStore.RESPONSE_STATUS),
+                        records.getInt(position + OffHeapRequestLogStore.RESPONSE_TIME_MS));
+            }
+        }
+    }
+
+    /**
+     * Aggregate one request given by its fields instead of an entry
+     * @param routeId {@link Symbols#ROUTES} id of the request URL
+     * @param responseStatus HTTP status code
+     * @param responseTimeMs Response time in milliseconds
+     */
+    public void processRequest(int routeId, int responseStatus, int responseTimeMs) {
+        if (routeNormalizer != null) {
+            routeId = routeNormalizer.normalize(routeId);
+        }
+        int slot = slotFor(routeId);
+
+        // Record the response time in the histogram for this route
+        responseTimesByRoute[slot].record(responseTimeMs);
 
         // Increment count for this status category for this route
-        Map<String, Integer> routeStatusCounts = statusCodesByRoute.computeIfAbsent(route, k -> new HashMap<>());
-        routeStatusCounts.put(statusCategory, routeStatusCounts.getOrDefault(statusCategory, 0) + 1);
+        statusCodesByRoute[slot][statusCategoryIndex(responseStatus)]++;
+    }
+
+    /**
+     * Merge the response times and status counts of another aggregator into this one
+     * @param other The aggregator to merge in
+     */
+    @Override
+    public void merge(RequestLogAggregator other) {
+        for (int i = 0; i < other.routeOrder.size(); i++) {
+            int route = other.routeOrder.get(i);
+            int slot = slotFor(route);
+            responseTimesByRoute[slot].merge(other.responseTimesByRoute[route + 1]);
+
+            int[] routeStatusCounts = statusCodesByRoute[slot];
+            int[] otherStatusCounts = other.statusCodesByRoute[route + 1];
+            for (int category = 0; category < routeStatusCounts.length; category++) {
+                routeStatusCounts[category] += otherStatusCounts[category];
+            }
+        }
+    }
+
+    /**
+     * Add the response times and status category counts of a route that were collected elsewhere,
+     * e.g. by {@link ConcurrentRequestLogAggregator}; the route is not normalized again
+     * @param routeId {@link Symbols#ROUTES} id of the route
+     * @param responseTimes Histogram of the route's response times
+     * @param statusCounts Counts of the 2XX, 4XX, 5XX and other status categories
+     */
+    void addRoute(int routeId, LogLinearHistogram responseTimes, long[] statusCounts) {
+        int slot = slotFor(routeId);
+        responseTimesByRoute[slot].merge(responseTimes);
+        for (int category = 0; category < STATUS_CATEGORIES.length; category++) {
+            statusCodesByRoute[slot][category] += (int) statusCounts[category];
+        }
     }
 
     @Override
@@ -33,82 +137,82 @@ public class RequestLogAggregator implements LogAggregator<RequestLogEntry> {
         Map<String, Object> result = new LinkedHashMap<>();
 
         // Calculate aggregations for each route
-        for (String route : responseTimesByRoute.keySet()) {
+        for (int i = 0; i < routeOrder.size(); i++) {
+            int route = routeOrder.get(i);
             Map<String, Object> routeData = new LinkedHashMap<>();
 
             // Calculate response time statistics
-            List<Integer> responseTimes = responseTimesByRoute.get(route);
-            Collections.sort(responseTimes);
-
+            LogLinearHistogram responseTimes = responseTimesByRoute[route + 1];
             Map<String, Object> responseTimeStats = calculateResponseTimeStats(responseTimes);
             routeData.put("response_times", responseTimeStats);
 
             // Get status code counts
-            Map<String, Integer> statusCounts = statusCodesByRoute.getOrDefault(route, new HashMap<>());
+            int[] statusCounts = statusCodesByRoute[route + 1];
             Map<String, Object> statusData = new LinkedHashMap<>();
 
             // Ensure all status categories exist in the output
-            statusData.put("2XX", statusCounts.getOrDefault("2XX", 0));
-            statusData.put("4XX", statusCounts.getOrDefault("4XX", 0));
-            statusData.put("5XX", statusCounts.getOrDefault("5XX", 0));
+            statusData.put(STATUS_CATEGORIES[0], statusCounts[0]);
+            statusData.put(STATUS_CATEGORIES[1], statusCounts[1]);
+            statusData.put(STATUS_CATEGORIES[2], statusCounts[2]);
 
             routeData.put("status_codes", statusData);
 
             // Add route data to result
-            result.put(route, routeData);
+            result.put(Symbols.ROUTES.nameOf(route), routeData);
         }
 
         return result;
     }
 
     /**
-     * Calculate response time statistics (min, percentiles, max)
-     * @param responseTimes Sorted list of response times
-     * @return Map containing the statistics
+     * Get the slot of a route, creating its state the first time the route is seen
      */
-    private Map<String, Object> calculateResponseTimeStats(List<Integer> responseTimes) {
-        Map<String, Object> stats = new LinkedHashMap<>();
-
-        if (responseTimes.isEmpty()) {
-            stats.put("min", 0);
-            stats.put("50_percentile", 0);
-            stats.put("90_percentile", 0);
-            stats.put("95_percentile", 0);
-            stats.put("99_percentile", 0);
-            stats.put("max", 0);
-            return stats;
+    private int slotFor(int routeId) {
+        int slot = routeId + 1;
+        if (slot >= responseTimesByRoute.length) {
+            int capacity = Math.max(slot + 1, responseTimesByRoute.length * 2);
+            responseTimesByRoute = Arrays.copyOf(responseTimesByRoute, capacity);
+            statusCodesByRoute = Arrays.copyOf(statusCodesByRoute, capacity);
         }
-
-        int min = responseTimes.get(0);
-        int max = responseTimes.get(responseTimes.size() - 1);
-        int p50 = getPercentile(responseTimes, 50);
-        int p90 = getPercentile(responseTimes, 90);
-        int p95 = getPercentile(responseTimes, 95);
-        int p99 = getPercentile(responseTimes, 99);
-
-        stats.put("min", min);
-        stats.put("50_percentile", p50);
-        stats.put("90_percentile", p90);
-        stats.put("95_percentile", p95);
-        stats.put("99_percentile", p99);
-        stats.put("max", max);
-
-        return stats;
+        if (responseTimesByRoute[slot] == null) {
+            responseTimesByRoute[slot] = new LogLinearHistogram();
+            statusCodesByRoute[slot] = new int[STATUS_CATEGORIES.length];
+            routeOrder.add(routeId);
+        }
+        return slot;
     }
 
     /**
-     * Calculate the specified percentile from a sorted list
-     * @param sortedValues Sorted list of values
-     * @param percentile Percentile to calculate (0-100)
-     * @return The percentile value
+     * Index into STATUS_CATEGORIES, matching {@link RequestLogEntry#getStatusCodeCategory()}
      */
-    private int getPercentile(List<Integer> sortedValues, int percentile) {
-        if (sortedValues.isEmpty()) {
+    static int statusCategoryIndex(int responseStatus) {
+        if (responseStatus >= 200 && responseStatus < 300) {
             return 0;
+        } else if (responseStatus >= 400 && responseStatus < 500) {
+            return 1;
+        } else if (responseStatus >= 500 && responseStatus < 600) {
+            return 2;
+        } else {
+            return 3;
         }
+    }
 
-        int index = (int) Math.ceil(percentile / 100.0 * sortedValues.size()) - 1;
-        index = Math.max(0, Math.min(sortedValues.size() - 1, index));
-        return sortedValues.get(index);
+    /**
+     * Calculate response time statistics (min, percentiles, max)
+     * @param responseTimes Histogram of the response times
+     * @return Map containing the statistics
+     */
+    private Map<String, Object> calculateResponseTimeStats(LogLinearHistogram responseTimes) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+
+        // An empty histogram reports 0 for every statistic
+        stats.put("min", responseTimes.getMin());
+        stats.put("50_percentile", responseTimes.getValueAtPercentile(50));
+        stats.put("90_percentile", responseTimes.getValueAtPercentile(90));
+        stats.put("95_percentile", responseTimes.getValueAtPercentile(95));
+        stats.put("99_percentile", responseTimes.getValueAtPercentile(99));
+        stats.put("max", responseTimes.getMax());
+
+        return stats;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,197 @@
+package org.example.aggregator;
+
+import org.example.model.Symbols;
+import org.example.util.SymbolTable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collapses request URLs into route templates, so that /api/users/123 and /api/users/456 are aggregated
+ * as one route, /api/users/{int}. The query string is dropped, then each path segment is kept, or
+ * replaced by a placeholder:
+ * <ul>
+ *   <li>segments matched by a wildcard of a user-supplied pattern, such as {@code /api/orders/{order}},
+ *   become that wildcard; patterns are kept in a trie of path segments and win over the rules below</li>
+ *   <li>all-digit segments become {int}</li>
+ *   <li>UUIDs (8-4-4-4-12 hex digits) become {uuid}</li>
+ *   <li>hex strings of at least {@value #MIN_HEX_LENGTH} characters with a digit, such as hashes and
+ *   object ids, become {hex}</li>
+ * </ul>
+ * The parsers normalize URLs before they are interned (see {@link org.example.parser.RequestLogParser}), so
+ * only templates get ids in {@link Symbols#ROUTES}. Entries built elsewhere, e.g. read from a segment written
+ * without normalization, are normalized by id; templates are cached by the id of the URL, so a URL seen before
+ * is normalized with one array lookup. Normalizing a template gives the template itself. Instances are
+ * thread-safe and can be shared by parallel aggregators and parsers.
+ */
+public class RouteNormalizer {
+    public static final String INT_PLACEHOLDER = "{int}";
+    public static final String UUID_PLACEHOLDER = "{uuid}";
+    public static final String HEX_PLACEHOLDER = "{hex}";
+
+    // Shorter hex-looking segments are more often words or codes, like "cafe" or "a1"
+    private static final int MIN_HEX_LENGTH = 8;
+
+    private final Node patterns = new Node();
+
+    // Template id + 1 of each URL id, 0 if not normalized yet. Racing threads compute the same template,
+    // so an update lost while the array grows only costs a recomputation.
+    private volatile int[] templateIds = new int[64];
+
+    /**
+     * @param patterns Route patterns with wildcard segments in braces, e.g. /api/users/{id}/orders;
+     *                 a wildcard matches any one segment
+     */
+    public RouteNormalizer(String... patterns) {
+        for (String pattern : patterns) {
+            addPattern(pattern);
+        }
+    }
+
+    /**
+     * Get the template of a URL given by its id
+     * @param routeId {@link Symbols#ROUTES} id of the URL
+     * @return {@link Symbols#ROUTES} id of the template, or {@link SymbolTable#NO_SYMBOL} for a missing URL
+     */
+    public int normalize(int routeId) {
+        if (routeId == SymbolTable.NO_SYMBOL) {
+            return routeId;
+        }
+        int[] cache = templateIds;
+        if (routeId < cache.length && cache[routeId] != 0) {
+            return cache[routeId] - 1;
+        }
+
+        int templateId = Symbols.ROUTES.idOf(normalize(Symbols.ROUTES.nameOf(routeId)));
+        if (routeId >= cache.length) {
+            synchronized (this) {
+                cache = templateIds;
+                if (routeId >= cache.length) {
+                    cache = Arrays.copyOf(cache, Math.max(routeId + 1, cache.length * 2));
+                    templateIds = cache;
+                }
+            }
+        }
+        cache[routeId] = templateId + 1;
+        return templateId;
+    }
+
+    /**
+     * Get the template of a URL
+     * @param url The request URL
+     * @return The URL without its query string, with variable path segments replaced by placeholders
+     */
+    public String normalize(String url) {
+        int queryStart = url.indexOf('?');
+        String[] segments = (queryStart >= 0 ? url.substring(0, queryStart) : url).split("/", -1);
+        String[] template = new String[segments.length];
+        if (!match(patterns, segments, 0, template)) {
+            for (int i = 0; i < segments.length; i++) {
+                template[i] = placeholderFor(segments[i]);
+            }
+        }
+        return String.join("/", template);
+    }
+
+    private void addPattern(String pattern) {
+        Node node = patterns;
+        for (String segment : pattern.split("/", -1)) {
+            if (segment.length() > 2 && segment.startsWith("{") && segment.endsWith("}")) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node();
+                    node.wildcardName = segment;
+                } else if (!node.wildcardName.equals(segment)) {
+                    throw new IllegalArgumentException("Route pattern " + pattern + " names wildcard "
+                            + node.wildcardName + " differently: " + segment);
+                }
+                node = node.wildcard;
+            } else {
+                node = node.literals.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        node.terminal = true;
+    }
+
+    /**
+     * Match the segments from an index on against the pattern trie, preferring literal segments over
+     * wildcards, and fill in the template on success
+     */
+    private static boolean match(Node node, String[] segments, int index, String[] template) {
+        if (index == segments.length) {
+            return node.terminal;
+        }
+        Node literal = node.literals.get(segments[index]);
+        if (literal != null && match(literal, segments, index + 1, template)) {
+            template[index] = segments[index];
+            return true;
+        }
+        if (node.wildcard != null && match(node.wildcard, segments, index + 1, template)) {
+            template[index] = node.wildcardName;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Placeholder for a segment that looks like an id, or the segment itself
+     */
+    private static String placeholderFor(String segment) {
+        if (segment.isEmpty()) {
+            return segment;
+        }
+        boolean digits = true;
+        boolean hex = true;
+        boolean hasDigit = false;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            boolean digit = c >= '0' && c <= '9';
+            hasDigit |= digit;
+            digits &= digit;
+            hex &= isHexDigit(c);
+        }
+        if (digits) {
+            return INT_PLACEHOLDER;
+        }
+        if (isUuid(segment)) {
+            return UUID_PLACEHOLDER;
+        }
+        if (hex && hasDigit && segment.length() >= MIN_HEX_LENGTH) {
+            return HEX_PLACEHOLDER;
+        }
+        return segment;
+    }
+
+    private static boolean isUuid(String segment) {
+        if (segment.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!isHexDigit(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    /**
+     * Node of the pattern trie: one per distinct path prefix of the patterns
+     */
+    private static class Node {
+        final Map<String, Node> literals = new HashMap<>();
+        Node wildcard;
+        String wildcardName;
+
+        // Whether a pattern ends here
+        boolean terminal;
+    }
+}
@@ -0,0 +1,416 @@
+package org.example.aggregator;
+
+import org.example.collections.IntArray;
+import org.example.collections.IntLongMap;
+import org.example.collections.ObjectLongMap;
+import org.example.model.ApplicationLogEntry;
+import org.example.model.Symbols;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts application entries per message template, such as "Update process failed for job {@value #WILDCARD}",
+ * learning the templates online with the Drain algorithm (He et al., "Drain: An Online Log Parsing Approach
+ * with Fixed Depth Tree"). Messages are split into whitespace-separated tokens, and tokens containing a digit
+ * are treated as variables up front. A fixed-depth tree keyed on the token count and the first tokens leads to
+ * a short list of templates; the message joins the most similar one if at least the similarity threshold of
+ * its tokens match, which turns the differing tokens of the template into wildcards, or else starts a new one.
+ * <p>
+ * Memory is bounded: at most {@code maxTemplates} templates are kept, and the least recently matched one is
+ * dropped when a new one is needed, its counts moving to "(other)". Tree nodes left without templates or
+ * children are removed with it, so the tree holds at most three nodes (a root and two prefix nodes) per
+ * template. A direct-mapped cache from message to template lets repeated messages skip the tree walk. Which
+ * templates are learned depends on the order of the messages, so merged results can differ slightly from a
+ * single pass. Instances are not thread-safe.
+ */
+public class TemplateMiner implements LogAggregator<ApplicationLogEntry, TemplateMiner> {
+    // Token standing for a variable part of a message
+    public static final String WILDCARD = "<*>";
+
+    // Key of the counts of entries whose template is not reported
+    public static final String OTHER = "(other)";
+
+    public static final int DEFAULT_MAX_TEMPLATES = 1000;
+
+    // Levels of the tree: token count, then depth - 2 leading tokens, then the template lists
+    private static final int DEPTH = 4;
+
+    // Fraction of tokens that must match for a message to join a template
+    private static final double SIMILARITY_THRESHOLD = 0.5;
+
+    // Children of a tree node before further tokens share its wildcard child
+    private static final int MAX_CHILDREN = 100;
+
+    private static final int CACHE_SIZE = 4096;
+
+    private final int topK;
+    private final int maxTemplates;
+
+    // Roots of the tree by token count
+    private final Map<Integer, Node> roots = new HashMap<>();
+
+    // Number of nodes in the tree
+    private int nodeCount;
+
+    // Templates linked from least to most recently matched
+    private Template oldest;
+    private Template newest;
+    private int templateCount;
+    private int nextId;
+
+    // Entries of dropped templates by level id
+    private final IntLongMap otherCounts = new IntLongMap();
+
+    // Level ids in the order they were first seen, and whether each level id + 1 has been seen
+    private final IntArray levelOrder = new IntArray();
+    private boolean[] levelSeen = new boolean[16];
+
+    // Direct-mapped cache of the template of recently seen messages
+    private final String[] cachedMessages = new String[CACHE_SIZE];
+    private final Template[] cachedTemplates = new Template[CACHE_SIZE];
+
+    public TemplateMiner() {
+        this(AggregationOptions.DEFAULT_TEMPLATE_TOP_K, DEFAULT_MAX_TEMPLATES);
+    }
+
+    /**
+     * @param topK Number of templates reported per level; the rest are counted as "(other)"
+     * @param maxTemplates Maximum number of templates kept
+     */
+    public TemplateMiner(int topK, int maxTemplates) {
+        if (topK < 1 || maxTemplates < 1) {
+            throw new IllegalArgumentException("Top-K and template limit must be at least 1: " + topK + ", "
+                    + maxTemplates);
+        }
+        this.topK = topK;
+        this.maxTemplates = maxTemplates;
+    }
+
+    @Override
+    public void processLog(ApplicationLogEntry logEntry) {
+        processMessage(logEntry.getLevelId(), logEntry.getMessage());
+    }
+
+    /**
+     * Count one message given by its fields instead of an entry
+     * @param levelId {@link Symbols#LEVELS} id of the level
+     * @param message The message, or null
+     */
+    public void processMessage(int levelId, String message) {
+        if (message == null) {
+            message = "";
+        }
+        int slot = (message.hashCode() & 0x7fffffff) % CACHE_SIZE;
+        Template template = cachedTemplates[slot];
+        if (template != null && !template.dropped && message.equals(cachedMessages[slot])) {
+            // Refresh its place in the recently matched order
+            touch(template);
+        } else {
+            template = add(tokenize(message));
+            cachedMessages[slot] = message;
+            cachedTemplates[slot] = template;
+        }
+        template.countsByLevel.addTo(levelId, 1);
+        noteLevel(levelId);
+    }
+
+    /**
+     * Add the templates of another miner to this one, as if one message of each had been processed here
+     * with all of its counts, oldest template first
+     * @param other The miner to merge in; it is not modified
+     */
+    @Override
+    public void merge(TemplateMiner other) {
+        List<Template> others = new ArrayList<>(other.templateCount);
+        for (Template template = other.oldest; template != null; template = template.newer) {
+            others.add(template);
+        }
+        others.sort(Comparator.comparingInt(t -> t.id));
+        for (Template otherTemplate : others) {
+            Template template = add(otherTemplate.tokens.clone());
+            otherTemplate.countsByLevel.forEach(template.countsByLevel::addTo);
+        }
+        other.otherCounts.forEach(otherCounts::addTo);
+        for (int i = 0; i < other.levelOrder.size(); i++) {
+            noteLevel(other.levelOrder.get(i));
+        }
+    }
+
+    /**
+     * Get the most frequent templates of each level
+     * @return Map from level, in the order levels were first seen, to a map of up to top-K templates and
+     *         their counts, most frequent first, followed by "(other)" with the count of the remaining
+     *         entries of the level if there are any
+     */
+    @Override
+    public Map<String, Object> getAggregatedData() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int level = 0; level < levelOrder.size(); level++) {
+            int levelId = levelOrder.get(level);
+
+            // Templates that were generalized into the same text are reported together
+            ObjectLongMap<String> countsByText = new ObjectLongMap<>();
+            for (Template template = oldest; template != null; template = template.newer) {
+                long count = template.countsByLevel.get(levelId, 0);
+                if (count > 0) {
+                    countsByText.addTo(template.text(), count);
+                }
+            }
+            List<String> sorted = new ArrayList<>(countsByText.size());
+            countsByText.forEach((text, count) -> sorted.add(text));
+            sorted.sort(Comparator.<String>comparingLong(text -> -countsByText.get(text, 0))
+                    .thenComparing(Comparator.naturalOrder()));
+
+            Map<String, Object> counts = new LinkedHashMap<>();
+            long other = otherCounts.get(levelId, 0);
+            for (int i = 0; i < sorted.size(); i++) {
+                long count = countsByText.get(sorted.get(i), 0);
+                if (i < topK) {
+                    counts.put(sorted.get(i), count);
+                } else {
+                    other += count;
+                }
+            }
+            if (other > 0) {
+                counts.put(OTHER, other);
+            }
+            result.put(String.valueOf(Symbols.LEVELS.nameOf(levelId)), counts);
+        }
+        return result;
+    }
+
+    /**
+     * Number of templates currently kept
+     */
+    public int getTemplateCount() {
+        return templateCount;
+    }
+
+    /**
+     * Number of nodes in the parse tree, roots included
+     */
+    int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Split a message into tokens, replacing the ones that contain a digit by the wildcard
+     */
+    private static String[] tokenize(String message) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        boolean hasDigit = false;
+        for (int i = 0; i <= message.length(); i++) {
+            char c = i < message.length() ? message.charAt(i) : ' ';
+            if (Character.isWhitespace(c)) {
+                if (start >= 0) {
+                    tokens.add(hasDigit ? WILDCARD : message.substring(start, i));
+                    start = -1;
+                }
+            } else {
+                if (start < 0) {
+                    start = i;
+                    hasDigit = false;
+                }
+                hasDigit |= c >= '0' && c <= '9';
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /**
+     * Find the template of a tokenized message, generalizing it or creating a new one as needed
+     */
+    private Template add(String[] tokens) {
+        Node leaf = roots.get(tokens.length);
+        if (leaf == null) {
+            leaf = new Node(null, null, tokens.length);
+            roots.put(tokens.length, leaf);
+            nodeCount++;
+        }
+        int prefixLength = Math.min(DEPTH - 2, tokens.length);
+        for (int i = 0; i < prefixLength; i++) {
+            Node child = leaf.children.get(tokens[i]);
+            if (child == null) {
+                String key = leaf.children.size() < MAX_CHILDREN ? tokens[i] : WILDCARD;
+                child = leaf.children.get(key);
+                if (child == null) {
+                    child = new Node(leaf, key, tokens.length);
+                    leaf.children.put(key, child);
+                    nodeCount++;
+                }
+            }
+            leaf = child;
+        }
+
+        Template best = null;
+        double bestSimilarity = -1;
+        for (Template candidate : leaf.templates) {
+            double similarity = candidate.similarity(tokens);
+            if (similarity > bestSimilarity) {
+                best = candidate;
+                bestSimilarity = similarity;
+            }
+        }
+        if (best != null && bestSimilarity >= SIMILARITY_THRESHOLD) {
+            best.generalize(tokens);
+            touch(best);
+            return best;
+        }
+
+        Template template = new Template(nextId++, tokens, leaf);
+        leaf.templates.add(template);
+        link(template);
+        if (templateCount > maxTemplates) {
+            drop(oldest);
+        }
+        return template;
+    }
+
+    /**
+     * Drop a template, moving its counts to "(other)" and removing the nodes it leaves empty
+     */
+    private void drop(Template template) {
+        unlink(template);
+        template.leaf.templates.remove(template);
+        template.dropped = true;
+        template.countsByLevel.forEach(otherCounts::addTo);
+
+        Node node = template.leaf;
+        while (node != null && node.templates.isEmpty() && node.children.isEmpty()) {
+            if (node.parent == null) {
+                roots.remove(node.tokenCount);
+            } else {
+                node.parent.children.remove(node.key);
+            }
+            nodeCount--;
+            node = node.parent;
+        }
+    }
+
+    /**
+     * Move a template to the most recently matched end of the list
+     */
+    private void touch(Template template) {
+        if (template != newest) {
+            unlink(template);
+            link(template);
+        }
+    }
+
+    private void link(Template template) {
+        template.older = newest;
+        template.newer = null;
+        if (newest != null) {
+            newest.newer = template;
+        } else {
+            oldest = template;
+        }
+        newest = template;
+        templateCount++;
+    }
+
+    private void unlink(Template template) {
+        if (template.older != null) {
+            template.older.newer = template.newer;
+        } else {
+            oldest = template.newer;
+        }
+        if (template.newer != null) {
+            template.newer.older = template.older;
+        } else {
+            newest = template.older;
+        }
+        template.older = null;
+        template.newer = null;
+        templateCount--;
+    }
+
+    private void noteLevel(int levelId) {
+        int slot = levelId + 1;
+        if (slot >= levelSeen.length) {
+            levelSeen = Arrays.copyOf(levelSeen, Math.max(slot + 1, levelSeen.length * 2));
+        }
+        if (!levelSeen[slot]) {
+            levelSeen[slot] = true;
+            levelOrder.add(levelId);
+        }
+    }
+
+    /**
+     * Node of the tree; inner nodes have children by token, leaves have templates
+     */
+    private static class Node {
+        // Parent and the token it keys this node by, both null for a root
+        final Node parent;
+        final String key;
+        final int tokenCount;
+
+        final Map<String, Node> children = new HashMap<>();
+        final List<Template> templates = new ArrayList<>();
+
+        Node(Node parent, String key, int tokenCount) {
+            this.parent = parent;
+            this.key = key;
+            this.tokenCount = tokenCount;
+        }
+    }
+
+    /**
+     * A learned template with its counts per level
+     */
+    private static class Template {
+        final int id;
+        final String[] tokens;
+        final Node leaf;
+
+        // Matched entries by level id; templates rarely span more than one or two levels
+        final IntLongMap countsByLevel = new IntLongMap(2);
+        boolean dropped;
+
+        // Neighbours in the recently matched order
+        Template older;
+        Template newer;
+
+        Template(int id, String[] tokens, Node leaf) {
+            this.id = id;
+            this.tokens = tokens;
+            this.leaf = leaf;
+        }
+
+        /**
+         * Fraction of the tokens equal to the template's, counting its wildcards as equal, so that a
+         * message that matched once keeps matching as the template is generalized
+         */
+        double similarity(String[] message) {
+            if (tokens.length == 0) {
+                return 1;
+            }
+            int equal = 0;
+            for (int i = 0; i < tokens.length; i++) {
+                if (tokens[i].equals(WILDCARD) || tokens[i].equals(message[i])) {
+                    equal++;
+                }
+            }
+            return (double) equal / tokens.length;
+        }
+
+        void generalize(String[] message) {
+            for (int i = 0; i < tokens.length; i++) {
+                if (!tokens[i].equals(message[i])) {
+                    tokens[i] = WILDCARD;
+                }
+            }
+        }
+
+        String text() {
+            return String.join(" ", tokens);
+        }
+    }
+}
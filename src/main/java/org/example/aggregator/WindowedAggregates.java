@@ -0,0 +1,191 @@
+package org.example.aggregator;
+
+import org.example.model.APMLogEntry;
+import org.example.model.ApplicationLogEntry;
+import org.example.model.LogEntry;
+import org.example.model.RequestLogEntry;
+import org.example.store.APMLogStore;
+import org.example.store.OffHeapAPMLogStore;
+import org.example.store.OffHeapApplicationLogStore;
+import org.example.store.OffHeapRequestLogStore;
+import org.example.store.RequestLogStore;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Time-windowed aggregation of all three log types: APM statistics per metric, level counts and
+ * request percentiles per route for every window, using the timestamps the parsers extract.
+ * Each log type has its own ring of panes, so entries of different types do not need to be interleaved
+ * in time order. When distinct counting is enabled, a fourth ring counts the distinct values of every
+ * window; only entries given whole to {@link #processLog(LogEntry)} are counted there.
+ */
+public class WindowedAggregates {
+    private final long windowMillis;
+    private final long slideMillis;
+
+    private final WindowedAggregator<APMLogEntry, APMLogAggregator> apmWindows;
+    private final WindowedAggregator<ApplicationLogEntry, ApplicationLogAggregator> applicationWindows;
+    private final WindowedAggregator<RequestLogEntry, RequestLogAggregator> requestWindows;
+
+    // Distinct counts per window, null unless distinct counting is enabled in the options
+    private final WindowedAggregator<LogEntry, CardinalityAggregator> distinctWindows;
+
+    /**
+     * @param options Options with the window length, slide and retention, and those of the aggregators
+     */
+    public WindowedAggregates(AggregationOptions options) {
+        this.windowMillis = options.getWindowMillis();
+        this.slideMillis = options.getSlideMillis();
+        int retention = options.getWindowRetention();
+        apmWindows = new WindowedAggregator<>(() -> new APMLogAggregator(options), windowMillis, slideMillis,
+                retention);
+        applicationWindows = new WindowedAggregator<>(ApplicationLogAggregator::new, windowMillis, slideMillis,
+                retention);
+        requestWindows = new WindowedAggregator<>(() -> new RequestLogAggregator(options), windowMillis, slideMillis,
+                retention);
+        distinctWindows = options.isDistinctCounted()
+                ? new WindowedAggregator<>(() -> new CardinalityAggregator(
+                        Dimension.withRouteNormalizer(options.getDistinct(), options.getRouteNormalizer()),
+                        options.getDistinctPrecision()), windowMillis, slideMillis, retention)
+                : null;
+    }
+
+    /**
+     * Route a parsed log entry to the window of its type and timestamp
+     * @param logEntry The log entry to process
+     */
+    public void processLog(LogEntry logEntry) {
+        if (logEntry instanceof APMLogEntry) {
+            apmWindows.processLog((APMLogEntry) logEntry);
+        } else if (logEntry instanceof ApplicationLogEntry) {
+            applicationWindows.processLog((ApplicationLogEntry) logEntry);
+        } else if (logEntry instanceof RequestLogEntry) {
+            requestWindows.processLog((RequestLogEntry) logEntry);
+        }
+        if (distinctWindows != null) {
+            distinctWindows.processLog(logEntry);
+        }
+    }
+
+    /**
+     * Aggregate one metric value given by its fields, see {@link APMLogAggregator#processValue(int, double)}
+     */
+    public void processValue(long timestampMillis, int metricId, double value) {
+        APMLogAggregator pane = apmWindows.paneFor(timestampMillis);
+        if (pane != null) {
+            pane.processValue(metricId, value);
+        }
+    }
+
+    /**
+     * Count one application entry given by its fields, see {@link ApplicationLogAggregator#processLevel(int)}
+     */
+    public void processLevel(long timestampMillis, int levelId) {
+        ApplicationLogAggregator pane = applicationWindows.paneFor(timestampMillis);
+        if (pane != null) {
+            pane.processLevel(levelId);
+        }
+    }
+
+    /**
+     * Aggregate one request given by its fields, see {@link RequestLogAggregator#processRequest(int, int, int)}
+     */
+    public void processRequest(long timestampMillis, int routeId, int responseStatus, int responseTimeMs) {
+        RequestLogAggregator pane = requestWindows.paneFor(timestampMillis);
+        if (pane != null) {
+            pane.processRequest(routeId, responseStatus, responseTimeMs);
+        }
+    }
+
+    /**
+     * Aggregate every row of a columnar store into the windows of its timestamps
+     * @param store The stored APM entries
+     */
+    public void processStore(APMLogStore store) {
+        for (int row = 0; row < store.size(); row++) {
+            processValue(store.getTimestampMillis(row), store.getMetricId(row), store.getValue(row));
+        }
+    }
+
+    /**
+     * Aggregate every row of a columnar store into the windows of its timestamps
+     * @param store The stored request entries
+     */
+    public void processStore(RequestLogStore store) {
+        for (int row = 0; row < store.size(); row++) {
+            processRequest(store.getTimestampMillis(row), store.getRouteId(row), store.getResponseStatus(row),
+                    store.getResponseTimeMs(row));
+        }
+    }
+
+    /**
+     * Aggregate every record of an off-heap store into the windows of its timestamps
+     * @param store The stored APM entries
+     */
+    public void processStore(OffHeapAPMLogStore store) {
+        for (int row = 0; row < store.size(); row++) {
+            processValue(store.getTimestampMillis(row), store.getMetricId(row), store.getValue(row));
+        }
+    }
+
+    /**
+     * Count every record of an off-heap store into the windows of its timestamps
+     * @param store The stored application entries
+     */
+    public void processStore(OffHeapApplicationLogStore store) {
+        for (int row = 0; row < store.size(); row++) {
+            processLevel(store.getTimestampMillis(row), store.getLevelId(row));
+        }
+    }
+
+    /**
+     * Aggregate every record of an off-heap store into the windows of its timestamps
+     * @param store The stored request entries
+     */
+    public void processStore(OffHeapRequestLogStore store) {
+        for (int row = 0; row < store.size(); row++) {
+            processRequest(store.getTimestampMillis(row), store.getRouteId(row), store.getResponseStatus(row),
+                    store.getResponseTimeMs(row));
+        }
+    }
+
+    /**
+     * Merge the windows of another instance into this one
+     * @param other The windows to merge in; they must use the same window settings
+     */
+    public void merge(WindowedAggregates other) {
+        apmWindows.merge(other.apmWindows);
+        applicationWindows.merge(other.applicationWindows);
+        requestWindows.merge(other.requestWindows);
+        if (distinctWindows != null && other.distinctWindows != null) {
+            distinctWindows.merge(other.distinctWindows);
+        }
+    }
+
+    /**
+     * Number of entries dropped because they were older than the retained windows
+     */
+    public long getLateCount() {
+        return apmWindows.getLateCount() + applicationWindows.getLateCount() + requestWindows.getLateCount();
+    }
+
+    /**
+     * Get the time series of all three log types, as written to timeseries.json
+     * @return Map containing the window settings and, per log type, the results of each window by start time,
+     *         followed by the distinct counts of each window if they are enabled
+     */
+    public Map<String, Object> getTimeSeries() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("window_millis", windowMillis);
+        result.put("slide_millis", slideMillis);
+        result.put("late_entries", getLateCount());
+        result.put("apm", apmWindows.getTimeSeries());
+        result.put("application", applicationWindows.getTimeSeries());
+        result.put("request", requestWindows.getTimeSeries());
+        if (distinctWindows != null) {
+            result.put("distinct", distinctWindows.getTimeSeries());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.aggregator;
+
+import org.example.model.LogEntry;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Aggregates one log type per time window. Entries are counted into panes of one slide each, kept in a
+ * ring buffer, and a window is the merge of the panes it spans: one pane for tumbling windows, several
+ * for sliding ones. A window starts at every pane, and only the panes of the newest {@code retention}
+ * window starts are kept, so memory is bounded by the retention rather than by the length of the log.
+ * Entries older than the oldest retained pane are dropped and counted as late. Instances are not thread-safe.
+ * @param <T> Type of log entry aggregated
+ * @param <A> Type of the aggregator of each pane
+ */
+public class WindowedAggregator<T extends LogEntry, A extends LogAggregator<T, A>> {
+    private final Supplier<A> factory;
+    private final long slideMillis;
+    private final int panesPerWindow;
+
+    // Ring of panes; the pane with index p lives in slot floorMod(p, capacity) while it is retained
+    private final Object[] panes;
+    private final long[] paneIndexes;
+    private final long[] paneCounts;
+
+    // Index of the newest pane seen, Long.MIN_VALUE before the first entry
+    private long newestPane = Long.MIN_VALUE;
+
+    private long lateCount;
+
+    /**
+     * @param factory Creates an empty aggregator for a pane or window
+     * @param windowMillis Length of a window
+     * @param slideMillis Distance between the starts of consecutive windows; equal to windowMillis for
+     *                    tumbling windows, otherwise a divisor of it
+     * @param retention Number of most recent windows kept
+     */
+    public WindowedAggregator(Supplier<A> factory, long windowMillis, long slideMillis, int retention) {
+        if (slideMillis <= 0 || windowMillis < slideMillis || windowMillis % slideMillis != 0) {
+            throw new IllegalArgumentException("Window of " + windowMillis + " ms must be a positive multiple of the "
+                    + slideMillis + " ms slide");
+        }
+        if (retention < 1) {
+            throw new IllegalArgumentException("Retention must be at least one window: " + retention);
+        }
+        this.factory = factory;
+        this.slideMillis = slideMillis;
+        this.panesPerWindow = (int) (windowMillis / slideMillis);
+
+        // A window starts at every pane, so the retained windows start at the retained panes
+        this.panes = new Object[retention];
+        this.paneIndexes = new long[retention];
+        this.paneCounts = new long[retention];
+    }
+
+    /**
+     * Get the aggregator of the pane that a timestamp falls into, evicting panes that fall out of
+     * the retention when the timestamp is newer than any seen so far
+     * @param timestampMillis Timestamp of an entry
+     * @return The pane's aggregator, or null if the timestamp is older than the retained panes
+     */
+    public A paneFor(long timestampMillis) {
+        return paneAt(Math.floorDiv(timestampMillis, slideMillis), 1);
+    }
+
+    /**
+     * Aggregate a log entry into the pane of its timestamp
+     * @param logEntry The log entry to process
+     */
+    public void processLog(T logEntry) {
+        A pane = paneFor(logEntry.getTimestampMillis());
+        if (pane != null) {
+            pane.processLog(logEntry);
+        }
+    }
+
+    /**
+     * Merge the retained panes of another windowed aggregator into this one, oldest first
+     * @param other The windowed aggregator to merge in; it must use the same window settings
+     */
+    public void merge(WindowedAggregator<T, A> other) {
+        if (other.slideMillis != slideMillis || other.panesPerWindow != panesPerWindow) {
+            throw new IllegalArgumentException("Cannot merge windowed aggregators with different windows");
+        }
+        lateCount += other.lateCount;
+        if (other.newestPane == Long.MIN_VALUE) {
+            return;
+        }
+        for (long index = other.newestPane - other.panes.length + 1; index <= other.newestPane; index++) {
+            int slot = other.slotOf(index);
+            if (other.panes[slot] != null && other.paneIndexes[slot] == index) {
+                A pane = paneAt(index, other.paneCounts[slot]);
+                if (pane != null) {
+                    pane.merge(other.pane(slot));
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of entries dropped because they were older than the retained panes
+     */
+    public long getLateCount() {
+        return lateCount;
+    }
+
+    /**
+     * Get the results of the retained windows that have entries, oldest first. Sliding windows
+     * that started before the oldest retained pane are left out, as some of their panes are gone;
+     * the newest windows may still be filling up.
+     * @return Map from the start of each window (ISO-8601, UTC) to its aggregated data
+     */
+    public Map<String, Object> getTimeSeries() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (newestPane == Long.MIN_VALUE) {
+            return result;
+        }
+        for (long first = newestPane - panes.length + 1; first <= newestPane; first++) {
+            A window = window(first);
+            if (window != null) {
+                result.put(Instant.ofEpochMilli(first * slideMillis).toString(), window.getAggregatedData());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Aggregator of the window starting with a pane, or null if none of its panes has entries.
+     * A tumbling window is its pane itself; a sliding one is a merge of its panes.
+     */
+    private A window(long firstPane) {
+        A window = null;
+        for (long index = firstPane; index < firstPane + panesPerWindow && index <= newestPane; index++) {
+            int slot = slotOf(index);
+            if (panes[slot] == null || paneIndexes[slot] != index) {
+                continue;
+            }
+            if (panesPerWindow == 1) {
+                return pane(slot);
+            }
+            if (window == null) {
+                window = factory.get();
+            }
+            window.merge(pane(slot));
+        }
+        return window;
+    }
+
+    /**
+     * Get the aggregator of a pane, creating it and advancing the ring as needed
+     * @param index Index of the pane
+     * @param entries Number of entries about to be added, counted as late if the pane is too old
+     */
+    private A paneAt(long index, long entries) {
+        if (newestPane != Long.MIN_VALUE && index <= newestPane - panes.length) {
+            lateCount += entries;
+            return null;
+        }
+        if (index > newestPane) {
+            newestPane = index;
+        }
+        int slot = slotOf(index);
+        if (panes[slot] == null || paneIndexes[slot] != index) {
+            // The slot still holds a pane that is now out of the retention
+            panes[slot] = factory.get();
+            paneIndexes[slot] = index;
+            paneCounts[slot] = 0;
+        }
+        paneCounts[slot] += entries;
+        return pane(slot);
+    }
+
+    private int slotOf(long index) {
+        return (int) Math.floorMod(index, (long) panes.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private A pane(int slot) {
+        return (A) panes[slot];
+    }
+}
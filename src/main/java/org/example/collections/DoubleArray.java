@@ -0,0 +1,145 @@
+package org.example.collections;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.DoubleStream;
+
+/**
+ * Growable list of unboxed doubles. Adding a value allocates only when the backing array
+ * has to grow, so recording samples costs no garbage in the steady state.
+ */
+public class DoubleArray {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] elements;
+    private int size;
+
+    public DoubleArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param initialCapacity Number of values that fit before the array first grows
+     */
+    public DoubleArray(int initialCapacity) {
+        this.elements = new double[Math.max(1, initialCapacity)];
+    }
+
+    /**
+     * Append a value
+     * @param value The value to append
+     */
+    public void add(double value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = value;
+    }
+
+    /**
+     * Append all values of another array
+     * @param other The values to append
+     */
+    public void addAll(DoubleArray other) {
+        if (size + other.size > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(elements.length * 2, size + other.size));
+        }
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Get the value at an index
+     * @param index Index of the value, less than {@link #size()}
+     * @return The value
+     */
+    public double get(int index) {
+        return elements[Objects.checkIndex(index, size)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Sort the values in ascending order, with the same ordering as {@link Double#compare(double, double)}
+     */
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    /**
+     * Find the value that would be at an index if the values were sorted, partially reordering
+     * the values around it (quickselect, linear time on average). Values before the index are then
+     * no greater than it and values after it no smaller, so a second select on either side is cheap.
+     * @param rank Index in sorted order, less than {@link #size()}
+     * @return The value at that index in sorted order
+     */
+    public double select(int rank) {
+        Objects.checkIndex(rank, size);
+        int left = 0;
+        int right = size - 1;
+        while (left < right) {
+            // Median of three as pivot, which also keeps sorted input linear
+            int middle = (left + right) >>> 1;
+            if (Double.compare(elements[middle], elements[left]) < 0) {
+                swap(middle, left);
+            }
+            if (Double.compare(elements[right], elements[left]) < 0) {
+                swap(right, left);
+            }
+            if (Double.compare(elements[right], elements[middle]) < 0) {
+                swap(right, middle);
+            }
+            double pivot = elements[middle];
+
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (Double.compare(elements[i], pivot) < 0) {
+                    i++;
+                }
+                while (Double.compare(elements[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (rank <= j) {
+                right = j;
+            } else if (rank >= i) {
+                left = i;
+            } else {
+                break;
+            }
+        }
+        return elements[rank];
+    }
+
+    private void swap(int i, int j) {
+        double value = elements[i];
+        elements[i] = elements[j];
+        elements[j] = value;
+    }
+
+    /**
+     * Stream the values in order
+     * @return A stream over the current values
+     */
+    public DoubleStream stream() {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    /**
+     * Copy the values into a new array
+     * @return Array of the values, in order
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
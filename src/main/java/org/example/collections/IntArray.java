@@ -0,0 +1,81 @@
+package org.example.collections;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Growable list of unboxed ints. Adding a value allocates only when the backing array
+ * has to grow, so recording samples costs no garbage in the steady state.
+ */
+public class IntArray {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] elements;
+    private int size;
+
+    public IntArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param initialCapacity Number of values that fit before the array first grows
+     */
+    public IntArray(int initialCapacity) {
+        this.elements = new int[Math.max(1, initialCapacity)];
+    }
+
+    /**
+     * Append a value
+     * @param value The value to append
+     */
+    public void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = value;
+    }
+
+    /**
+     * Append all values of another array
+     * @param other The values to append
+     */
+    public void addAll(IntArray other) {
+        if (size + other.size > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(elements.length * 2, size + other.size));
+        }
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Get the value at an index
+     * @param index Index of the value, less than {@link #size()}
+     * @return The value
+     */
+    public int get(int index) {
+        return elements[Objects.checkIndex(index, size)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Sort the values in ascending order
+     */
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    /**
+     * Copy the values into a new array
+     * @return Array of the values, in order
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
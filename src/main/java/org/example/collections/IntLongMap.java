@@ -0,0 +1,233 @@
+package org.example.collections;
+
+import java.util.Arrays;
+
+/**
+ * Map from ints to unboxed longs, stored in two parallel arrays with open addressing and linear probing.
+ * Meant for counts keyed by sparse ids, where an id-indexed array would be mostly empty. Unlike a
+ * {@code HashMap<Integer, Long>} it allocates nothing when an existing key is updated, and adding a key
+ * allocates only when the table grows. Removal shifts later entries of the probe sequence back, so the
+ * table never fills with tombstones. Not thread-safe.
+ */
+public class IntLongMap {
+    /**
+     * Receives the entries of an {@link IntLongMap}
+     */
+    @FunctionalInterface
+    public interface IntLongConsumer {
+        void accept(int key, long value);
+    }
+
+    // Keys and values by slot; key 0 marks an empty slot, so the key 0 itself is kept aside
+    private int[] keys;
+    private long[] values;
+    private int mask;
+    private int maxFill;
+    private int size;
+
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public IntLongMap() {
+        this(OpenAddressing.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * @param expectedSize Number of entries that fit before the table first grows
+     */
+    public IntLongMap(int expectedSize) {
+        allocate(OpenAddressing.capacityFor(expectedSize));
+    }
+
+    /**
+     * Get the value of a key
+     * @param key The key to look up
+     * @param defaultValue Value to return if the key is absent
+     * @return The value of the key, or the default value
+     */
+    public long get(int key, long defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    /**
+     * Set the value of a key, adding the key if it is absent
+     * @param key The key
+     * @param value The value
+     */
+    public void put(int key, long value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int slot = find(key);
+        if (slot >= 0) {
+            values[slot] = value;
+        } else {
+            insert(~slot, key, value);
+        }
+    }
+
+    /**
+     * Add to the value of a key, treating an absent key as 0
+     * @param key The key
+     * @param delta Amount to add
+     * @return The new value of the key
+     */
+    public long addTo(int key, long delta) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            return zeroValue += delta;
+        }
+        int slot = find(key);
+        if (slot >= 0) {
+            return values[slot] += delta;
+        }
+        insert(~slot, key, delta);
+        return delta;
+    }
+
+    /**
+     * Remove a key and its value
+     * @param key The key to remove
+     * @return Whether the key was present
+     */
+    public boolean remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = false;
+            zeroValue = 0;
+            size--;
+            return true;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    /**
+     * Remove all entries, keeping the current capacity
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        hasZeroKey = false;
+        zeroValue = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Pass every entry to a consumer, in no particular order. The map must not be modified meanwhile.
+     * @param consumer Receives each key and its value
+     */
+    public void forEach(IntLongConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Find the slot of a non-zero key
+     * @return The slot holding the key, or the complement of the empty slot where it would be added
+     */
+    private int find(int key) {
+        int slot = OpenAddressing.mix(key) & mask;
+        int candidate;
+        while ((candidate = keys[slot]) != 0) {
+            if (candidate == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    private void insert(int slot, int key, long value) {
+        // The zero key lives outside the table, so only the table's own entries count towards filling it
+        if (size - (hasZeroKey ? 1 : 0) == maxFill) {
+            rehash(OpenAddressing.grow(keys.length));
+            slot = ~find(key);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    /**
+     * Empty a slot, moving back each later entry of the probe run whose home slot is not between the gap
+     * and where the entry sits, so every remaining key is still reachable from its home slot
+     */
+    private void removeAt(int slot) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        int key;
+        while ((key = keys[next]) != 0) {
+            int home = OpenAddressing.mix(key) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        size--;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            int key = oldKeys[slot];
+            if (key != 0) {
+                int target = OpenAddressing.mix(key) & mask;
+                while (keys[target] != 0) {
+                    target = (target + 1) & mask;
+                }
+                keys[target] = key;
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        maxFill = OpenAddressing.maxFill(capacity);
+    }
+}
@@ -0,0 +1,194 @@
+package org.example.collections;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Map from non-null keys to unboxed longs, stored in two parallel arrays with open addressing and linear
+ * probing. Unlike a {@code HashMap<K, Long>} it allocates no entry or {@link Long} per mapping:
+ * updating an existing key allocates nothing, and adding a key allocates only when the table grows.
+ * Removal shifts later entries of the probe sequence back, so the table never fills with tombstones.
+ * Not thread-safe.
+ * @param <K> Type of the keys
+ */
+public class ObjectLongMap<K> {
+    // Keys and values by slot; a null key marks an empty slot
+    private Object[] keys;
+    private long[] values;
+    private int mask;
+    private int maxFill;
+    private int size;
+
+    public ObjectLongMap() {
+        this(OpenAddressing.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * @param expectedSize Number of entries that fit before the table first grows
+     */
+    public ObjectLongMap(int expectedSize) {
+        allocate(OpenAddressing.capacityFor(expectedSize));
+    }
+
+    /**
+     * Get the value of a key
+     * @param key The key to look up
+     * @param defaultValue Value to return if the key is absent
+     * @return The value of the key, or the default value
+     */
+    public long get(Object key, long defaultValue) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    public boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Set the value of a key, adding the key if it is absent
+     * @param key The key, not null
+     * @param value The value
+     */
+    public void put(K key, long value) {
+        int slot = find(key);
+        if (slot >= 0) {
+            values[slot] = value;
+        } else {
+            insert(~slot, key, value);
+        }
+    }
+
+    /**
+     * Add to the value of a key, treating an absent key as 0
+     * @param key The key, not null
+     * @param delta Amount to add
+     * @return The new value of the key
+     */
+    public long addTo(K key, long delta) {
+        int slot = find(key);
+        if (slot >= 0) {
+            return values[slot] += delta;
+        }
+        insert(~slot, key, delta);
+        return delta;
+    }
+
+    /**
+     * Remove a key and its value
+     * @param key The key to remove
+     * @return Whether the key was present
+     */
+    public boolean remove(Object key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    /**
+     * Remove all entries, keeping the current capacity
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Pass every entry to a consumer, in no particular order. The map must not be modified meanwhile.
+     * @param consumer Receives each key and its value
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjLongConsumer<? super K> consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null) {
+                consumer.accept((K) keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Find the slot of a key
+     * @return The slot holding the key, or the complement of the empty slot where it would be added
+     */
+    private int find(Object key) {
+        Objects.requireNonNull(key, "key");
+        int slot = OpenAddressing.mix(key.hashCode()) & mask;
+        Object candidate;
+        while ((candidate = keys[slot]) != null) {
+            if (candidate.equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    private void insert(int slot, K key, long value) {
+        if (size == maxFill) {
+            rehash(OpenAddressing.grow(keys.length));
+            slot = ~find(key);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    /**
+     * Empty a slot, moving back each later entry of the probe run whose home slot is not between the gap
+     * and where the entry sits, so every remaining key is still reachable from its home slot
+     */
+    private void removeAt(int slot) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        Object key;
+        while ((key = keys[next]) != null) {
+            int home = OpenAddressing.mix(key.hashCode()) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = null;
+        values[gap] = 0;
+        size--;
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            Object key = oldKeys[slot];
+            if (key != null) {
+                int target = OpenAddressing.mix(key.hashCode()) & mask;
+                while (keys[target] != null) {
+                    target = (target + 1) & mask;
+                }
+                keys[target] = key;
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        maxFill = OpenAddressing.maxFill(capacity);
+    }
+}
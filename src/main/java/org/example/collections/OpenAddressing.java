@@ -0,0 +1,56 @@
+package org.example.collections;
+
+/**
+ * Sizing and hashing shared by the open-addressing maps. Tables have a power-of-two capacity, are
+ * probed linearly and are kept at most three quarters full, so a probe always ends at an empty slot.
+ */
+final class OpenAddressing {
+    static final int DEFAULT_EXPECTED_SIZE = 12;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private OpenAddressing() {
+    }
+
+    /**
+     * Smallest capacity that holds a number of entries without growing
+     * @param expectedSize Number of entries the table should hold
+     * @return A power of two, at least 2
+     */
+    static int capacityFor(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative: " + expectedSize);
+        }
+        long needed = Math.max(2, (expectedSize * 4L + 2) / 3);
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Too many entries for an open-addressing table: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    /**
+     * Number of entries a table of a capacity holds before it grows
+     */
+    static int maxFill(int capacity) {
+        return capacity / 4 * 3 + (capacity < 4 ? 1 : 0);
+    }
+
+    /**
+     * Spread a hash code so that keys differing only in their high bits land in different slots
+     * (Fibonacci hashing, then the high half folded into the low half)
+     */
+    static int mix(int hash) {
+        int h = hash * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Capacity after a table of a capacity has filled up
+     */
+    static int grow(int capacity) {
+        if (capacity == MAX_CAPACITY) {
+            throw new IllegalStateException("Open-addressing table cannot grow past " + MAX_CAPACITY + " slots");
+        }
+        return capacity << 1;
+    }
+}
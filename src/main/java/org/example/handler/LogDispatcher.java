@@ -0,0 +1,241 @@
+package org.example.handler;
+
+import org.example.aggregator.RouteNormalizer;
+import org.example.model.LazyRawData;
+import org.example.model.LogEntry;
+import org.example.parser.APMLogParser;
+import org.example.parser.ApplicationLogParser;
+import org.example.parser.LogParser;
+import org.example.parser.ParseStatus;
+import org.example.parser.RequestLogParser;
+import org.example.util.KeyValueTokenizer;
+import org.example.util.KeyValueVisitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Routes log lines to parsers based on the keys they contain. Each line is tokenized once;
+ * the identifying keys seen during that pass form a bit set that is matched against the
+ * required and excluded keys of every registered parser, and the first parser that matches
+ * builds the entry from the already tokenized fields. Parsers are tried in registration
+ * order, so earlier registrations take precedence.
+ * <p>
+ * Only the values of keys that some parser reads are extracted from the line. Entries get
+ * a {@link LazyRawData} map that is built from the retained line on first use, or no raw
+ * data at all in lean mode. Why a line was rejected is available from {@link #getLastStatus()}
+ * and {@link #getLastLogType()}. Instances are not thread-safe.
+ */
+public class LogDispatcher implements KeyValueVisitor {
+    // Identifying keys are tracked as bits of a long
+    private static final int MAX_IDENTIFYING_KEYS = Long.SIZE;
+
+    private final List<LogParser> parsers = new ArrayList<>();
+    private final List<Long> requiredMasks = new ArrayList<>();
+    private final List<Long> excludedMasks = new ArrayList<>();
+
+    // Keys looked up on every line, with their identifying bit (0 if none) and whether their value is extracted
+    private String[] keys = new String[0];
+    private long[] keyBits = new long[0];
+    private boolean[] keyExtracted = new boolean[0];
+    private int identifyingKeyCount;
+
+    private boolean lean;
+
+    // State of the line being tokenized
+    private final Map<String, String> fields = new HashMap<>();
+    private long seenKeys;
+
+    // Outcome of the last line handled
+    private ParseStatus lastStatus = ParseStatus.OK;
+    private String lastLogType = LogParser.UNKNOWN_LOG_TYPE;
+
+    /**
+     * Create a dispatcher for the APM, Application and Request log types
+     * @return The dispatcher
+     */
+    public static LogDispatcher createDefault() {
+        return createDefault(null);
+    }
+
+    /**
+     * Create a dispatcher for the APM, Application and Request log types that collapses request URLs
+     * into route templates as they are parsed
+     * @param routeNormalizer Normalizer of request URLs, or null to keep them as they are
+     * @return The dispatcher
+     */
+    public static LogDispatcher createDefault(RouteNormalizer routeNormalizer) {
+        return new LogDispatcher()
+                .register(new APMLogParser())
+                .register(new ApplicationLogParser())
+                .register(new RequestLogParser(routeNormalizer));
+    }
+
+    /**
+     * Register a parser. Lines that contain all of its required keys and none of its
+     * excluded keys are routed to it, unless an earlier parser matches first.
+     * @param parser The parser to register
+     * @return This dispatcher (for method chaining)
+     */
+    public LogDispatcher register(LogParser parser) {
+        parsers.add(parser);
+        requiredMasks.add(identifyingMaskOf(parser.getRequiredKeys()));
+        excludedMasks.add(identifyingMaskOf(parser.getExcludedKeys()));
+        for (String key : parser.getFieldKeys()) {
+            int index = indexOf(key);
+            keyExtracted[index] = true;
+        }
+        return this;
+    }
+
+    /**
+     * Get the registered parsers
+     * @return The parsers in registration order, which is the order they are tried in
+     */
+    public List<LogParser> getParsers() {
+        return Collections.unmodifiableList(parsers);
+    }
+
+    /**
+     * Enable or disable lean mode. In lean mode entries do not retain their line and
+     * {@link LogEntry#getRawData()} returns an empty map.
+     * @param lean true to drop the raw data of every entry
+     */
+    public void setLean(boolean lean) {
+        this.lean = lean;
+    }
+
+    /**
+     * Parse a log line with the parser registered for its type
+     * @param logLine The log line to process
+     * @return Optional containing the LogEntry if handled, empty Optional otherwise
+     */
+    public Optional<LogEntry> handle(String logLine) {
+        lastLogType = LogParser.UNKNOWN_LOG_TYPE;
+        if (logLine == null) {
+            lastStatus = ParseStatus.BLANK;
+            return Optional.empty();
+        }
+
+        fields.clear();
+        seenKeys = 0;
+        KeyValueTokenizer.tokenize(logLine, this);
+
+        LogParser parser = classify(seenKeys);
+        if (parser == null) {
+            lastStatus = logLine.isBlank() ? ParseStatus.BLANK : ParseStatus.UNRECOGNIZED;
+            return Optional.empty();
+        }
+
+        Map<String, String> rawData = lean ? Collections.emptyMap() : new LazyRawData(logLine);
+        Optional<LogEntry> entry = parser.parse(fields, rawData);
+        lastLogType = parser.getLogType();
+        lastStatus = entry.isPresent() ? ParseStatus.OK : parser.getLastStatus();
+        return entry;
+    }
+
+    /**
+     * Why the last line was rejected, or {@link ParseStatus#OK} if it was parsed
+     * @return The status of the last handled line
+     */
+    public ParseStatus getLastStatus() {
+        return lastStatus;
+    }
+
+    /**
+     * Log type of the parser the last line was routed to, or {@link LogParser#UNKNOWN_LOG_TYPE} if none matched
+     * @return The log type name
+     */
+    public String getLastLogType() {
+        return lastLogType;
+    }
+
+    @Override
+    public void visit(CharSequence line, int keyStart, int keyEnd, int valueStart, int valueEnd) {
+        int index = find(line, keyStart, keyEnd);
+        if (index < 0) {
+            return;
+        }
+
+        seenKeys |= keyBits[index];
+        if (keyExtracted[index]) {
+            // Later occurrences of a key win
+            fields.put(keys[index], line.subSequence(valueStart, valueEnd).toString());
+        }
+    }
+
+    /**
+     * Find the first registered parser whose identifying keys match the given key set
+     */
+    private LogParser classify(long seen) {
+        for (int i = 0; i < parsers.size(); i++) {
+            long required = requiredMasks.get(i);
+            if ((seen & required) == required && (seen & excludedMasks.get(i)) == 0) {
+                return parsers.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the index of the key spanning [keyStart, keyEnd) of the line without creating a String for it
+     */
+    private int find(CharSequence line, int keyStart, int keyEnd) {
+        int length = keyEnd - keyStart;
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            if (key.length() == length && regionMatches(line, keyStart, key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(CharSequence line, int offset, String key) {
+        for (int i = 0; i < key.length(); i++) {
+            if (line.charAt(offset + i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long identifyingMaskOf(Set<String> identifyingKeys) {
+        long mask = 0;
+        for (String key : identifyingKeys) {
+            int index = indexOf(key);
+            if (keyBits[index] == 0) {
+                if (identifyingKeyCount == MAX_IDENTIFYING_KEYS) {
+                    throw new IllegalStateException("Too many identifying keys, at most " + MAX_IDENTIFYING_KEYS);
+                }
+                keyBits[index] = 1L << identifyingKeyCount++;
+            }
+            mask |= keyBits[index];
+        }
+        return mask;
+    }
+
+    /**
+     * Get the index of a key in the lookup table, adding it if needed
+     */
+    private int indexOf(String key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+
+        int index = keys.length;
+        keys = Arrays.copyOf(keys, index + 1);
+        keyBits = Arrays.copyOf(keyBits, index + 1);
+        keyExtracted = Arrays.copyOf(keyExtracted, index + 1);
+        keys[index] = key;
+        return index;
+    }
+}
@@ -7,17 +7,45 @@ import java.util.Map;
  * Represents an Application Performance Metric log entry
  */
 public class APMLogEntry extends LogEntry {
-    private String metric;
+    private int metricId;
     private double value;
 
     public APMLogEntry(LocalDateTime timestamp, String host, String metric, double value, Map<String, String> rawData) {
         super(timestamp, host, rawData);
-        this.metric = metric;
+        this.metricId = Symbols.METRICS.idOf(metric);
+        this.value = value;
+    }
+
+    public APMLogEntry(long timestampMillis, String host, String metric, double value, Map<String, String> rawData) {
+        super(timestampMillis, host, rawData);
+        this.metricId = Symbols.METRICS.idOf(metric);
+        this.value = value;
+    }
+
+    public APMLogEntry(long timestampMillis, int hostId, int metricId, double value, Map<String, String> rawData) {
+        super(timestampMillis, hostId, rawData);
+        this.metricId = metricId;
+        this.value = value;
+    }
+
+    /**
+     * Overwrite all fields; see {@link LogEntry#set(long, int, Map)}
+     */
+    protected void set(long timestampMillis, int hostId, int metricId, double value, Map<String, String> rawData) {
+        set(timestampMillis, hostId, rawData);
+        this.metricId = metricId;
         this.value = value;
     }
 
     public String getMetric() {
-        return metric;
+        return Symbols.METRICS.nameOf(metricId);
+    }
+
+    /**
+     * Returns the {@link Symbols#METRICS} id of the metric
+     */
+    public int getMetricId() {
+        return metricId;
     }
 
     public double getValue() {
@@ -27,7 +55,7 @@ public class APMLogEntry extends LogEntry {
     @Override
     public String toString() {
         return "APMLogEntry{" +
-                "metric='" + metric + '\'' +
+                "metric='" + getMetric() + '\'' +
                 ", value=" + value +
                 "} " + super.toString();
     }
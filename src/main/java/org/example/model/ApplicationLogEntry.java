@@ -7,17 +7,45 @@ import java.util.Map;
  * Represents an Application log entry with severity level and message
  */
 public class ApplicationLogEntry extends LogEntry {
-    private String level;
+    private int levelId;
     private String message;
 
     public ApplicationLogEntry(LocalDateTime timestamp, String host, String level, String message, Map<String, String> rawData) {
         super(timestamp, host, rawData);
-        this.level = level;
+        this.levelId = Symbols.LEVELS.idOf(level);
+        this.message = message;
+    }
+
+    public ApplicationLogEntry(long timestampMillis, String host, String level, String message, Map<String, String> rawData) {
+        super(timestampMillis, host, rawData);
+        this.levelId = Symbols.LEVELS.idOf(level);
+        this.message = message;
+    }
+
+    public ApplicationLogEntry(long timestampMillis, int hostId, int levelId, String message, Map<String, String> rawData) {
+        super(timestampMillis, hostId, rawData);
+        this.levelId = levelId;
+        this.message = message;
+    }
+
+    /**
+     * Overwrite all fields; see {@link LogEntry#set(long, int, Map)}
+     */
+    protected void set(long timestampMillis, int hostId, int levelId, String message, Map<String, String> rawData) {
+        set(timestampMillis, hostId, rawData);
+        this.levelId = levelId;
         this.message = message;
     }
 
     public String getLevel() {
-        return level;
+        return Symbols.LEVELS.nameOf(levelId);
+    }
+
+    /**
+     * Returns the {@link Symbols#LEVELS} id of the level
+     */
+    public int getLevelId() {
+        return levelId;
     }
 
     public String getMessage() {
@@ -27,8 +55,8 @@ public class ApplicationLogEntry extends LogEntry {
     @Override
     public String toString() {
         return "ApplicationLogEntry{" +
-                "level='" + level + '\'' +
-                ", message='" + message + '\'' +
+                "level='" + getLevel() + '\'' +
+                ", message='" + getMessage() + '\'' +
                 "} " + super.toString();
     }
 }
\ No newline at end of file
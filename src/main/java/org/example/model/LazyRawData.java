@@ -0,0 +1,78 @@
+package org.example.model;
+
+import org.example.util.Utils;
+
+import java.nio.charset.Charset;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Raw key/value map of a log entry that is only built when it is first used.
+ * Until then the entry retains just its line, which is far smaller than a map of
+ * all its keys and values. Instances are not thread-safe.
+ */
+public class LazyRawData extends AbstractMap<String, String> {
+    private String line;
+    private byte[] lineBytes;
+    private final Charset charset;
+    private Map<String, String> parsed;
+
+    /**
+     * @param line The log line the map is built from
+     */
+    public LazyRawData(String line) {
+        this.line = line;
+        this.charset = null;
+    }
+
+    /**
+     * @param lineBytes The bytes of the log line the map is built from; the array is retained, not copied
+     * @param charset Charset used to decode the line
+     */
+    public LazyRawData(byte[] lineBytes, Charset charset) {
+        this.lineBytes = lineBytes;
+        this.charset = charset;
+    }
+
+    private Map<String, String> parsed() {
+        if (parsed == null) {
+            parsed = Utils.parseKeyValuePairs(line != null ? line : new String(lineBytes, charset));
+
+            // The map replaces the retained line
+            line = null;
+            lineBytes = null;
+        }
+        return parsed;
+    }
+
+    @Override
+    public String get(Object key) {
+        return parsed().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return parsed().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return parsed().size();
+    }
+
+    @Override
+    public String put(String key, String value) {
+        return parsed().put(key, value);
+    }
+
+    @Override
+    public String remove(Object key) {
+        return parsed().remove(key);
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return parsed().entrySet();
+    }
+}
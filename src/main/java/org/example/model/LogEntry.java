@@ -1,40 +1,88 @@
 package org.example.model;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Map;
 
 /**
- * Base abstract class for all log entry types
+ * Base abstract class for all log entry types.
+ * The timestamp is kept as UTC epoch milliseconds and the host as a {@link Symbols#HOSTS} id.
  */
 public abstract class LogEntry {
-    private LocalDateTime timestamp;
-    private String host;
+    // Timestamp value of an entry that has none
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private long timestampMillis;
+    private int hostId;
     private Map<String, String> rawData;
 
     public LogEntry(LocalDateTime timestamp, String host, Map<String, String> rawData) {
-        this.timestamp = timestamp;
-        this.host = host;
+        this(toEpochMillis(timestamp), host, rawData);
+    }
+
+    public LogEntry(long timestampMillis, String host, Map<String, String> rawData) {
+        this(timestampMillis, Symbols.HOSTS.idOf(host), rawData);
+    }
+
+    public LogEntry(long timestampMillis, int hostId, Map<String, String> rawData) {
+        this.timestampMillis = timestampMillis;
+        this.hostId = hostId;
+        this.rawData = rawData;
+    }
+
+    /**
+     * Overwrite the common fields. Only for reusable (flyweight) subclasses that are refilled
+     * for every line; other entries are never modified after construction.
+     */
+    protected void set(long timestampMillis, int hostId, Map<String, String> rawData) {
+        this.timestampMillis = timestampMillis;
+        this.hostId = hostId;
         this.rawData = rawData;
     }
 
+    /**
+     * Returns the timestamp as a UTC date-time with millisecond precision, or null if the entry has none
+     */
     public LocalDateTime getTimestamp() {
-        return timestamp;
+        if (timestampMillis == NO_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(timestampMillis, 1000),
+                Math.floorMod(timestampMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns the timestamp in UTC epoch milliseconds, or {@link #NO_TIMESTAMP} if the entry has none
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
     }
 
     public String getHost() {
-        return host;
+        return Symbols.HOSTS.nameOf(hostId);
+    }
+
+    /**
+     * Returns the {@link Symbols#HOSTS} id of the host
+     */
+    public int getHostId() {
+        return hostId;
     }
 
     public Map<String, String> getRawData() {
         return rawData;
     }
 
+    private static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp == null ? NO_TIMESTAMP : timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
     @Override
     public String toString() {
         return "LogEntry{" +
-                "timestamp=" + timestamp +
-                ", host='" + host + '\'' +
-                ", rawData=" + rawData +
+                "timestamp=" + getTimestamp() +
+                ", host='" + getHost() + '\'' +
+                ", rawData=" + getRawData() +
                 '}';
     }
-}
\ No newline at end of file
+}
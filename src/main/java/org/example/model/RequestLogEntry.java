@@ -8,7 +8,7 @@ import java.util.Map;
  */
 public class RequestLogEntry extends LogEntry {
     private String requestMethod;
-    private String requestUrl;
+    private int routeId;
     private int responseStatus;
     private int responseTimeMs;
 
@@ -16,7 +16,37 @@ public class RequestLogEntry extends LogEntry {
                            int responseStatus, int responseTimeMs, Map<String, String> rawData) {
         super(timestamp, host, rawData);
         this.requestMethod = requestMethod;
-        this.requestUrl = requestUrl;
+        this.routeId = Symbols.ROUTES.idOf(requestUrl);
+        this.responseStatus = responseStatus;
+        this.responseTimeMs = responseTimeMs;
+    }
+
+    public RequestLogEntry(long timestampMillis, String host, String requestMethod, String requestUrl,
+                           int responseStatus, int responseTimeMs, Map<String, String> rawData) {
+        super(timestampMillis, host, rawData);
+        this.requestMethod = requestMethod;
+        this.routeId = Symbols.ROUTES.idOf(requestUrl);
+        this.responseStatus = responseStatus;
+        this.responseTimeMs = responseTimeMs;
+    }
+
+    public RequestLogEntry(long timestampMillis, int hostId, String requestMethod, int routeId,
+                           int responseStatus, int responseTimeMs, Map<String, String> rawData) {
+        super(timestampMillis, hostId, rawData);
+        this.requestMethod = requestMethod;
+        this.routeId = routeId;
+        this.responseStatus = responseStatus;
+        this.responseTimeMs = responseTimeMs;
+    }
+
+    /**
+     * Overwrite all fields; see {@link LogEntry#set(long, int, Map)}
+     */
+    protected void set(long timestampMillis, int hostId, String requestMethod, int routeId,
+                       int responseStatus, int responseTimeMs, Map<String, String> rawData) {
+        set(timestampMillis, hostId, rawData);
+        this.requestMethod = requestMethod;
+        this.routeId = routeId;
         this.responseStatus = responseStatus;
         this.responseTimeMs = responseTimeMs;
     }
@@ -26,7 +56,14 @@ public class RequestLogEntry extends LogEntry {
     }
 
     public String getRequestUrl() {
-        return requestUrl;
+        return Symbols.ROUTES.nameOf(routeId);
+    }
+
+    /**
+     * Returns the {@link Symbols#ROUTES} id of the request URL
+     */
+    public int getRouteId() {
+        return routeId;
     }
 
     public int getResponseStatus() {
@@ -56,7 +93,7 @@ public class RequestLogEntry extends LogEntry {
     public String toString() {
         return "RequestLogEntry{" +
                 "requestMethod='" + requestMethod + '\'' +
-                ", requestUrl='" + requestUrl + '\'' +
+                ", requestUrl='" + getRequestUrl() + '\'' +
                 ", responseStatus=" + responseStatus +
                 ", responseTimeMs=" + responseTimeMs +
                 "} " + super.toString();
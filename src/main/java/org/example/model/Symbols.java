@@ -0,0 +1,14 @@
+package org.example.model;
+
+import org.example.util.SymbolTable;
+
+/**
+ * Shared dictionaries for the low-cardinality dimensions of log entries.
+ * Entries store the ids of these values and aggregators key their state on them.
+ */
+public class Symbols {
+    public static final SymbolTable HOSTS = new SymbolTable();
+    public static final SymbolTable METRICS = new SymbolTable();
+    public static final SymbolTable LEVELS = new SymbolTable();
+    public static final SymbolTable ROUTES = new SymbolTable();
+}
@@ -3,6 +3,8 @@ package org.example.output;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Map;
 
 /**
@@ -28,10 +30,14 @@ public class JsonOutputWriter {
             file.getParentFile().mkdirs();
         }
 
-        // Write data to file using basic JSON conversion
-        try (FileWriter writer = new FileWriter(file)) {
+        // Write data to a temporary file first and move it into place, so readers of a
+        // file that is rewritten periodically never see a partially written snapshot
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileWriter writer = new FileWriter(tempFile)) {
             writer.write(convertMapToJson(data));
         }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
         System.out.println("Written output to: " + file.getAbsolutePath());
     }
 
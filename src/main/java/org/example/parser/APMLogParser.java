@@ -2,16 +2,31 @@ package org.example.parser;
 
 import org.example.model.APMLogEntry;
 import org.example.model.LogEntry;
+import org.example.util.NumberSyntax;
+import org.example.util.TimestampDecoder;
 import org.example.util.Utils;
 
-import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Parser for APM log entries (Strategy pattern implementation)
  */
 public class APMLogParser implements LogParser {
+    // Name of this log type in reject counts
+    public static final String LOG_TYPE = "APM";
+
+    // Keys that identify this log type and keys read when building an entry
+    private static final Set<String> REQUIRED_KEYS = Set.of("metric", "value");
+    private static final Set<String> EXCLUDED_KEYS = Set.of("level");
+    private static final Set<String> FIELD_KEYS = Set.of("timestamp", "host", "metric", "value");
+
+    // Caches the date of the previous line, so instances are not thread-safe
+    private final TimestampDecoder timestampDecoder = new TimestampDecoder();
+
+    // Why the last line given to parse(Map, Map) was rejected
+    private ParseStatus lastStatus = ParseStatus.OK;
 
     @Override
     public Optional<LogEntry> parse(String logLine) {
@@ -19,21 +34,33 @@ public class APMLogParser implements LogParser {
             return Optional.empty();
         }
 
-        try {
-            Map<String, String> parsedData = Utils.parseKeyValuePairs(logLine);
+        Map<String, String> parsedData = Utils.parseKeyValuePairs(logLine);
+        return parse(parsedData, parsedData);
+    }
 
-            // Extract required fields
-            LocalDateTime timestamp = Utils.parseTimestamp(parsedData.get("timestamp"));
-            String host = parsedData.get("host");
-            String metric = parsedData.get("metric");
-            double value = Double.parseDouble(parsedData.get("value"));
+    @Override
+    public Optional<LogEntry> parse(Map<String, String> parsedData, Map<String, String> rawData) {
+        // Extract required fields, rejecting the line with a status code if any is missing or invalid
+        String timestampText = parsedData.get("timestamp");
+        String metric = parsedData.get("metric");
+        String valueText = parsedData.get("value");
+        if (timestampText == null || metric == null || valueText == null) {
+            return reject(ParseStatus.MISSING_FIELD);
+        }
 
-            // Create and return the APM log entry
-            return Optional.of(new APMLogEntry(timestamp, host, metric, value, parsedData));
-        } catch (Exception e) {
-            System.err.println("Error parsing APM log: " + e.getMessage());
-            return Optional.empty();
+        long timestamp = timestampDecoder.tryDecode(timestampText);
+        if (timestamp == TimestampDecoder.INVALID) {
+            return reject(ParseStatus.INVALID_TIMESTAMP);
         }
+        if (!NumberSyntax.isDouble(valueText)) {
+            return reject(ParseStatus.INVALID_NUMBER);
+        }
+        String host = parsedData.get("host");
+        double value = Double.parseDouble(valueText);
+
+        // Create and return the APM log entry
+        lastStatus = ParseStatus.OK;
+        return Optional.of(new APMLogEntry(timestamp, host, metric, value, rawData));
     }
 
     @Override
@@ -43,4 +70,34 @@ public class APMLogParser implements LogParser {
                 logLine.contains("value=") &&
                 !logLine.contains("level=");
     }
+
+    @Override
+    public String getLogType() {
+        return LOG_TYPE;
+    }
+
+    @Override
+    public ParseStatus getLastStatus() {
+        return lastStatus;
+    }
+
+    private Optional<LogEntry> reject(ParseStatus status) {
+        lastStatus = status;
+        return Optional.empty();
+    }
+
+    @Override
+    public Set<String> getRequiredKeys() {
+        return REQUIRED_KEYS;
+    }
+
+    @Override
+    public Set<String> getFieldKeys() {
+        return FIELD_KEYS;
+    }
+
+    @Override
+    public Set<String> getExcludedKeys() {
+        return EXCLUDED_KEYS;
+    }
 }
\ No newline at end of file
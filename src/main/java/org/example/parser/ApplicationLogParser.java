@@ -2,16 +2,29 @@ package org.example.parser;
 
 import org.example.model.ApplicationLogEntry;
 import org.example.model.LogEntry;
+import org.example.util.TimestampDecoder;
 import org.example.util.Utils;
 
-import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Parser for Application log entries (Strategy pattern implementation)
  */
 public class ApplicationLogParser implements LogParser {
+    // Name of this log type in reject counts
+    public static final String LOG_TYPE = "Application";
+
+    // Keys that identify this log type and keys read when building an entry
+    private static final Set<String> REQUIRED_KEYS = Set.of("level", "message");
+    private static final Set<String> FIELD_KEYS = Set.of("timestamp", "host", "level", "message");
+
+    // Caches the date of the previous line, so instances are not thread-safe
+    private final TimestampDecoder timestampDecoder = new TimestampDecoder();
+
+    // Why the last line given to parse(Map, Map) was rejected
+    private ParseStatus lastStatus = ParseStatus.OK;
 
     @Override
     public Optional<LogEntry> parse(String logLine) {
@@ -19,21 +32,30 @@ public class ApplicationLogParser implements LogParser {
             return Optional.empty();
         }
 
-        try {
-            Map<String, String> parsedData = Utils.parseKeyValuePairs(logLine);
+        Map<String, String> parsedData = Utils.parseKeyValuePairs(logLine);
+        return parse(parsedData, parsedData);
+    }
 
-            // Extract required fields
-            LocalDateTime timestamp = Utils.parseTimestamp(parsedData.get("timestamp"));
-            String host = parsedData.get("host");
-            String level = parsedData.get("level");
-            String message = parsedData.get("message").replace("\"", ""); // Remove quotes from message
+    @Override
+    public Optional<LogEntry> parse(Map<String, String> parsedData, Map<String, String> rawData) {
+        // Extract required fields, rejecting the line with a status code if any is missing or invalid
+        String timestampText = parsedData.get("timestamp");
+        String level = parsedData.get("level");
+        String message = parsedData.get("message");
+        if (timestampText == null || level == null || message == null) {
+            return reject(ParseStatus.MISSING_FIELD);
+        }
 
-            // Create and return the Application log entry
-            return Optional.of(new ApplicationLogEntry(timestamp, host, level, message, parsedData));
-        } catch (Exception e) {
-            System.err.println("Error parsing Application log: " + e.getMessage());
-            return Optional.empty();
+        long timestamp = timestampDecoder.tryDecode(timestampText);
+        if (timestamp == TimestampDecoder.INVALID) {
+            return reject(ParseStatus.INVALID_TIMESTAMP);
         }
+        String host = parsedData.get("host");
+        message = message.replace("\"", ""); // Remove quotes from message
+
+        // Create and return the Application log entry
+        lastStatus = ParseStatus.OK;
+        return Optional.of(new ApplicationLogEntry(timestamp, host, level, message, rawData));
     }
 
     @Override
@@ -42,4 +64,29 @@ public class ApplicationLogParser implements LogParser {
                 logLine.contains("level=") &&
                 logLine.contains("message=");
     }
+
+    @Override
+    public String getLogType() {
+        return LOG_TYPE;
+    }
+
+    @Override
+    public ParseStatus getLastStatus() {
+        return lastStatus;
+    }
+
+    private Optional<LogEntry> reject(ParseStatus status) {
+        lastStatus = status;
+        return Optional.empty();
+    }
+
+    @Override
+    public Set<String> getRequiredKeys() {
+        return REQUIRED_KEYS;
+    }
+
+    @Override
+    public Set<String> getFieldKeys() {
+        return FIELD_KEYS;
+    }
 }
\ No newline at end of file
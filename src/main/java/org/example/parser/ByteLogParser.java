@@ -0,0 +1,537 @@
+package org.example.parser;
+
+import org.example.aggregator.RouteNormalizer;
+import org.example.handler.LogDispatcher;
+import org.example.model.APMLogEntry;
+import org.example.model.ApplicationLogEntry;
+import org.example.model.LazyRawData;
+import org.example.model.LogEntry;
+import org.example.model.RequestLogEntry;
+import org.example.model.Symbols;
+import org.example.util.AsciiDecoder;
+import org.example.util.ByteKeyValueTokenizer;
+import org.example.util.ByteKeyValueVisitor;
+import org.example.util.ByteScanner;
+import org.example.util.ByteStringCache;
+import org.example.util.ByteSymbolCache;
+import org.example.util.NumberSyntax;
+import org.example.util.SymbolTable;
+import org.example.util.TimestampDecoder;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Allocation-light parser for log lines given as raw bytes. The line is tokenized once,
+ * only the fields used by the aggregators are located, numbers and timestamps are decoded
+ * in place and hosts, metric names, levels and routes are mapped straight from their bytes
+ * to {@link Symbols} ids through per-parser {@link ByteSymbolCache}s. Lines are classified by the keys they contain,
+ * against the required and excluded keys of the parsers registered with a {@link LogDispatcher} and in their
+ * registration order ({@link LogDispatcher#createDefault()} unless one is given). Lines of the APM, Application
+ * and Request types are built from the bytes directly; lines of any other registered type are decoded to a
+ * String and handed to the dispatcher, so every registered type is supported, only without the byte-level savings.
+ * Entries get a {@link LazyRawData} map built from a copy of the line on first use, or no
+ * raw data at all in lean mode. Rejected lines are reported through {@link #getLastStatus()}
+ * and {@link #getLastLogType()} rather than exceptions. In reuse mode one mutable entry per log type
+ * is refilled for every line, so parsing allocates nothing once the caches are warm; those entries are
+ * only valid until the next call. Instances are not thread-safe.
+ */
+public class ByteLogParser implements ByteKeyValueVisitor {
+    private static final int TIMESTAMP = 0;
+    private static final int HOST = 1;
+    private static final int METRIC = 2;
+    private static final int VALUE = 3;
+    private static final int LEVEL = 4;
+    private static final int MESSAGE = 5;
+    private static final int REQUEST_METHOD = 6;
+    private static final int REQUEST_URL = 7;
+    private static final int RESPONSE_STATUS = 8;
+    private static final int RESPONSE_TIME_MS = 9;
+    private static final int FIELD_COUNT = 10;
+
+    private static final byte[][] FIELD_KEYS = {
+            ascii("timestamp"), ascii("host"), ascii("metric"), ascii("value"), ascii("level"),
+            ascii("message"), ascii("request_method"), ascii("request_url"), ascii("response_status"),
+            ascii("response_time_ms")
+    };
+
+    private static final Map<String, String> NO_RAW_DATA = Collections.emptyMap();
+
+    // How the lines of a registered parser are built
+    private static final int BUILD_APM = 0;
+    private static final int BUILD_APPLICATION = 1;
+    private static final int BUILD_REQUEST = 2;
+    private static final int BUILD_WITH_DISPATCHER = 3;
+
+    private final Charset charset;
+    private final ByteScanner scanner;
+    private final ByteStringCache stringCache;
+    private final ByteSymbolCache hostCache;
+    private final ByteSymbolCache metricCache;
+    private final ByteSymbolCache levelCache;
+    private final ByteSymbolCache routeCache;
+    // Normalizer of the registered request parser, null if URLs are kept as they are
+    private final RouteNormalizer routeNormalizer;
+    private final TimestampDecoder timestampDecoder = new TimestampDecoder();
+
+    // Registered parsers in registration order, with how their lines are built and their identifying key bits
+    private final LogDispatcher dispatcher;
+    private final int[] builds;
+    private final long[] requiredMasks;
+    private final long[] excludedMasks;
+
+    // Identifying bit of each field key (0 if none), and the identifying keys that are not field keys with their bits
+    private final long[] fieldBits = new long[FIELD_COUNT];
+    private byte[][] otherKeys = new byte[0][];
+    private long[] otherKeyBits = new long[0];
+    private int identifyingKeyCount;
+    private long seenKeys;
+
+    // Value offsets of the fields found on the current line; start is -1 if the key is absent
+    private final int[] valueStarts = new int[FIELD_COUNT];
+    private final int[] valueEnds = new int[FIELD_COUNT];
+    private byte[] line;
+    private int lineStart;
+    private int lineEnd;
+
+    private boolean lean;
+
+    // Whether the flyweight entries below are refilled instead of allocating a new entry per line
+    private boolean reuseEntries;
+    private final ReusableAPMLogEntry apmEntry = new ReusableAPMLogEntry();
+    private final ReusableApplicationLogEntry applicationEntry = new ReusableApplicationLogEntry();
+    private final ReusableRequestLogEntry requestEntry = new ReusableRequestLogEntry();
+
+    // Outcome of the last parse
+    private ParseStatus lastStatus = ParseStatus.OK;
+    private String lastLogType = LogParser.UNKNOWN_LOG_TYPE;
+
+    public ByteLogParser() {
+        this(Charset.defaultCharset());
+    }
+
+    /**
+     * @param charset Charset of the input, used for values that are not plain ASCII
+     */
+    public ByteLogParser(Charset charset) {
+        this(charset, ByteScanner.scalar());
+    }
+
+    /**
+     * @param charset Charset of the input, used for values that are not plain ASCII
+     * @param scanner Finds the delimiters while tokenizing
+     */
+    public ByteLogParser(Charset charset, ByteScanner scanner) {
+        this(charset, scanner, LogDispatcher.createDefault());
+    }
+
+    /**
+     * @param charset Charset of the input, used for values that are not plain ASCII
+     * @param scanner Finds the delimiters while tokenizing
+     * @param dispatcher Registry of the log types to recognize; it parses the lines of types other than the
+     *                   built-in ones, and is used by this parser only
+     */
+    public ByteLogParser(Charset charset, ByteScanner scanner, LogDispatcher dispatcher) {
+        this.charset = charset;
+        this.scanner = scanner;
+        this.stringCache = new ByteStringCache(64, charset);
+        this.hostCache = new ByteSymbolCache(Symbols.HOSTS, 1024, charset);
+        this.metricCache = new ByteSymbolCache(Symbols.METRICS, 256, charset);
+        this.levelCache = new ByteSymbolCache(Symbols.LEVELS, 64, charset);
+
+        this.dispatcher = dispatcher;
+        List<LogParser> parsers = dispatcher.getParsers();
+        this.builds = new int[parsers.size()];
+        this.requiredMasks = new long[parsers.size()];
+        this.excludedMasks = new long[parsers.size()];
+        RouteNormalizer normalizer = null;
+        for (int i = 0; i < parsers.size(); i++) {
+            LogParser parser = parsers.get(i);
+            builds[i] = buildOf(parser);
+            requiredMasks[i] = identifyingMaskOf(parser.getRequiredKeys());
+            excludedMasks[i] = identifyingMaskOf(parser.getExcludedKeys());
+            if (builds[i] == BUILD_REQUEST && normalizer == null) {
+                normalizer = ((RequestLogParser) parser).getRouteNormalizer();
+            }
+        }
+
+        // Raw URLs stay in the bounded cache; only what the normalizer makes of them is interned
+        this.routeNormalizer = normalizer;
+        this.routeCache = normalizer != null
+                ? new ByteSymbolCache(Symbols.ROUTES, 4096, charset, normalizer::normalize)
+                : new ByteSymbolCache(Symbols.ROUTES, 4096, charset);
+    }
+
+    /**
+     * Enable or disable lean mode. In lean mode entries do not retain a copy of their line and
+     * {@link LogEntry#getRawData()} returns an empty map.
+     * @param lean true to drop the raw data of every entry
+     */
+    public void setLean(boolean lean) {
+        this.lean = lean;
+        dispatcher.setLean(lean);
+    }
+
+    /**
+     * Enable or disable reuse mode. In reuse mode {@link #parseEntry(byte[], int, int)} returns the same
+     * entry instance for every line of a log type, overwritten by the next parse. The message of an
+     * application entry and the raw data are decoded from the buffer only when asked for, so the buffer
+     * must not change while the entry is in use. Meant for callers that aggregate each entry right away.
+     * @param reuseEntries true to refill one entry per log type instead of creating new ones
+     */
+    public void setReuseEntries(boolean reuseEntries) {
+        this.reuseEntries = reuseEntries;
+    }
+
+    /**
+     * Parse the line held in [from, to) of the buffer
+     * @param buffer The buffer holding the line
+     * @param from Offset of the first byte of the line
+     * @param to Offset just past the last byte of the line
+     * @return Optional containing the parsed LogEntry if the line is a known log type, empty Optional otherwise
+     */
+    public Optional<LogEntry> parse(byte[] buffer, int from, int to) {
+        return Optional.ofNullable(parseEntry(buffer, from, to));
+    }
+
+    /**
+     * Parse the line held in [from, to) of the buffer without wrapping the result
+     * @param buffer The buffer holding the line
+     * @param from Offset of the first byte of the line
+     * @param to Offset just past the last byte of the line
+     * @return The parsed LogEntry, or null if the line was rejected (see {@link #getLastStatus()})
+     */
+    public LogEntry parseEntry(byte[] buffer, int from, int to) {
+        line = buffer;
+        lineStart = from;
+        lineEnd = to;
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            valueStarts[i] = -1;
+        }
+        seenKeys = 0;
+        ByteKeyValueTokenizer.tokenize(buffer, from, to, this, scanner);
+
+        for (int i = 0; i < builds.length; i++) {
+            if ((seenKeys & requiredMasks[i]) != requiredMasks[i] || (seenKeys & excludedMasks[i]) != 0) {
+                continue;
+            }
+            if (builds[i] == BUILD_APM) {
+                lastLogType = APMLogParser.LOG_TYPE;
+                return parseAPMLog();
+            } else if (builds[i] == BUILD_APPLICATION) {
+                lastLogType = ApplicationLogParser.LOG_TYPE;
+                return parseApplicationLog();
+            } else if (builds[i] == BUILD_REQUEST) {
+                lastLogType = RequestLogParser.LOG_TYPE;
+                return parseRequestLog();
+            }
+            return parseWithDispatcher();
+        }
+
+        lastLogType = LogParser.UNKNOWN_LOG_TYPE;
+        return reject(isBlank(buffer, from, to) ? ParseStatus.BLANK : ParseStatus.UNRECOGNIZED);
+    }
+
+    /**
+     * Why the last line was rejected, or {@link ParseStatus#OK} if it was parsed
+     * @return The status of the last parse
+     */
+    public ParseStatus getLastStatus() {
+        return lastStatus;
+    }
+
+    /**
+     * Log type the last line was classified as, or {@link LogParser#UNKNOWN_LOG_TYPE} if it matched none
+     * @return The log type name
+     */
+    public String getLastLogType() {
+        return lastLogType;
+    }
+
+    @Override
+    public void visit(byte[] buffer, int keyStart, int keyEnd, int valueStart, int valueEnd) {
+        int field = findField(buffer, keyStart, keyEnd);
+        if (field >= 0) {
+            // Later occurrences of a key win, as with the map-based parser
+            valueStarts[field] = valueStart;
+            valueEnds[field] = valueEnd;
+            seenKeys |= fieldBits[field];
+            return;
+        }
+        for (int i = 0; i < otherKeys.length; i++) {
+            if (Arrays.equals(otherKeys[i], 0, otherKeys[i].length, buffer, keyStart, keyEnd)) {
+                seenKeys |= otherKeyBits[i];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Parse a line of a type without a byte-level builder by decoding it and handing it to the dispatcher
+     */
+    private LogEntry parseWithDispatcher() {
+        Optional<LogEntry> entry = dispatcher.handle(AsciiDecoder.decode(line, lineStart, lineEnd, charset));
+        lastLogType = dispatcher.getLastLogType();
+        lastStatus = dispatcher.getLastStatus();
+        return entry.orElse(null);
+    }
+
+    private LogEntry parseAPMLog() {
+        long timestamp = parseTimestamp();
+        if (timestamp == TimestampDecoder.INVALID) {
+            return reject(has(TIMESTAMP) ? ParseStatus.INVALID_TIMESTAMP : ParseStatus.MISSING_FIELD);
+        }
+        if (!NumberSyntax.isDouble(line, valueStarts[VALUE], valueEnds[VALUE])) {
+            return reject(ParseStatus.INVALID_NUMBER);
+        }
+        int host = symbolId(hostCache, HOST);
+        int metric = symbolId(metricCache, METRIC);
+        double value = AsciiDecoder.parseDouble(line, valueStarts[VALUE], valueEnds[VALUE]);
+
+        if (reuseEntries) {
+            apmEntry.fill(timestamp, host, metric, value);
+            return accept(apmEntry);
+        }
+        return accept(new APMLogEntry(timestamp, host, metric, value, rawData()));
+    }
+
+    private LogEntry parseApplicationLog() {
+        long timestamp = parseTimestamp();
+        if (timestamp == TimestampDecoder.INVALID) {
+            return reject(has(TIMESTAMP) ? ParseStatus.INVALID_TIMESTAMP : ParseStatus.MISSING_FIELD);
+        }
+        int host = symbolId(hostCache, HOST);
+        int level = symbolId(levelCache, LEVEL);
+        if (reuseEntries) {
+            applicationEntry.fill(timestamp, host, level);
+            return accept(applicationEntry);
+        }
+        return accept(new ApplicationLogEntry(timestamp, host, level, message(), rawData()));
+    }
+
+    private LogEntry parseRequestLog() {
+        long timestamp = parseTimestamp();
+        if (timestamp == TimestampDecoder.INVALID) {
+            return reject(has(TIMESTAMP) ? ParseStatus.INVALID_TIMESTAMP : ParseStatus.MISSING_FIELD);
+        }
+        if (!NumberSyntax.isInt(line, valueStarts[RESPONSE_STATUS], valueEnds[RESPONSE_STATUS])
+                || !NumberSyntax.isInt(line, valueStarts[RESPONSE_TIME_MS], valueEnds[RESPONSE_TIME_MS])) {
+            return reject(ParseStatus.INVALID_NUMBER);
+        }
+        int host = symbolId(hostCache, HOST);
+        String requestMethod = cachedString(REQUEST_METHOD);
+        int route = routeId();
+        int responseStatus = AsciiDecoder.parseInt(line, valueStarts[RESPONSE_STATUS], valueEnds[RESPONSE_STATUS]);
+        int responseTimeMs = AsciiDecoder.parseInt(line, valueStarts[RESPONSE_TIME_MS], valueEnds[RESPONSE_TIME_MS]);
+
+        if (reuseEntries) {
+            requestEntry.fill(timestamp, host, requestMethod, route, responseStatus, responseTimeMs);
+            return accept(requestEntry);
+        }
+        return accept(new RequestLogEntry(timestamp, host, requestMethod, route,
+                responseStatus, responseTimeMs, rawData()));
+    }
+
+    private LogEntry accept(LogEntry entry) {
+        lastStatus = ParseStatus.OK;
+        return entry;
+    }
+
+    private LogEntry reject(ParseStatus status) {
+        lastStatus = status;
+        return null;
+    }
+
+    private String message() {
+        return withoutQuotes(AsciiDecoder.decode(line, valueStarts[MESSAGE], valueEnds[MESSAGE], charset));
+    }
+
+    private Map<String, String> rawData() {
+        return lean ? NO_RAW_DATA : new LazyRawData(Arrays.copyOfRange(line, lineStart, lineEnd), charset);
+    }
+
+    private boolean has(int field) {
+        return valueStarts[field] >= 0;
+    }
+
+    /**
+     * Decode the timestamp of the current line, or return {@link TimestampDecoder#INVALID} if it is missing or invalid
+     */
+    private long parseTimestamp() {
+        if (!has(TIMESTAMP)) {
+            return TimestampDecoder.INVALID;
+        }
+        return timestampDecoder.tryDecode(line, valueStarts[TIMESTAMP], valueEnds[TIMESTAMP]);
+    }
+
+    private static boolean isBlank(byte[] buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!ByteKeyValueTokenizer.isWhitespaceByte(buffer[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String cachedString(int field) {
+        return has(field) ? stringCache.get(line, valueStarts[field], valueEnds[field]) : null;
+    }
+
+    private int symbolId(ByteSymbolCache cache, int field) {
+        return has(field) ? cache.idOf(line, valueStarts[field], valueEnds[field]) : SymbolTable.NO_SYMBOL;
+    }
+
+    private int routeId() {
+        int start = valueStarts[REQUEST_URL];
+        int end = valueEnds[REQUEST_URL];
+        for (int i = start; i < end; i++) {
+            if (line[i] == '"') {
+                String url = withoutQuotes(AsciiDecoder.decode(line, start, end, charset));
+                return Symbols.ROUTES.idOf(routeNormalizer != null ? routeNormalizer.normalize(url) : url);
+            }
+        }
+        return routeCache.idOf(line, start, end);
+    }
+
+    /**
+     * Values with an unterminated opening quote keep it; strip it like the String parsers do
+     */
+    private static String withoutQuotes(String value) {
+        return value.indexOf('"') >= 0 ? value.replace("\"", "") : value;
+    }
+
+    /**
+     * The built-in parsers are built from the bytes; anything else, subclasses included, goes through the dispatcher
+     */
+    private static int buildOf(LogParser parser) {
+        if (parser.getClass() == APMLogParser.class) {
+            return BUILD_APM;
+        } else if (parser.getClass() == ApplicationLogParser.class) {
+            return BUILD_APPLICATION;
+        } else if (parser.getClass() == RequestLogParser.class) {
+            return BUILD_REQUEST;
+        }
+        return BUILD_WITH_DISPATCHER;
+    }
+
+    /**
+     * Bits of a set of identifying keys, assigning a bit to each key not seen before; the dispatcher has already
+     * checked that all of them fit in a long
+     */
+    private long identifyingMaskOf(Set<String> identifyingKeys) {
+        long mask = 0;
+        for (String key : identifyingKeys) {
+            byte[] bytes = key.getBytes(charset);
+            int field = findField(bytes, 0, bytes.length);
+            if (field >= 0) {
+                if (fieldBits[field] == 0) {
+                    fieldBits[field] = 1L << identifyingKeyCount++;
+                }
+                mask |= fieldBits[field];
+                continue;
+            }
+            int index = 0;
+            while (index < otherKeys.length && !Arrays.equals(otherKeys[index], bytes)) {
+                index++;
+            }
+            if (index == otherKeys.length) {
+                otherKeys = Arrays.copyOf(otherKeys, index + 1);
+                otherKeyBits = Arrays.copyOf(otherKeyBits, index + 1);
+                otherKeys[index] = bytes;
+                otherKeyBits[index] = 1L << identifyingKeyCount++;
+            }
+            mask |= otherKeyBits[index];
+        }
+        return mask;
+    }
+
+    private static int findField(byte[] buffer, int keyStart, int keyEnd) {
+        int length = keyEnd - keyStart;
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            byte[] key = FIELD_KEYS[field];
+            if (key.length == length && key[0] == buffer[keyStart] && matches(key, buffer, keyStart)) {
+                return field;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(byte[] key, byte[] buffer, int offset) {
+        for (int i = 1; i < key.length; i++) {
+            if (key[i] != buffer[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] ascii(String key) {
+        return key.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * APM entry refilled for every line in reuse mode; the raw data is rebuilt from the current line
+     */
+    private class ReusableAPMLogEntry extends APMLogEntry {
+        ReusableAPMLogEntry() {
+            super(NO_TIMESTAMP, SymbolTable.NO_SYMBOL, SymbolTable.NO_SYMBOL, 0, NO_RAW_DATA);
+        }
+
+        void fill(long timestampMillis, int hostId, int metricId, double value) {
+            set(timestampMillis, hostId, metricId, value, null);
+        }
+
+        @Override
+        public Map<String, String> getRawData() {
+            return rawData();
+        }
+    }
+
+    /**
+     * Application entry refilled for every line in reuse mode; the message is only decoded when asked for
+     */
+    private class ReusableApplicationLogEntry extends ApplicationLogEntry {
+        ReusableApplicationLogEntry() {
+            super(NO_TIMESTAMP, SymbolTable.NO_SYMBOL, SymbolTable.NO_SYMBOL, null, NO_RAW_DATA);
+        }
+
+        void fill(long timestampMillis, int hostId, int levelId) {
+            set(timestampMillis, hostId, levelId, null, null);
+        }
+
+        @Override
+        public String getMessage() {
+            return message();
+        }
+
+        @Override
+        public Map<String, String> getRawData() {
+            return rawData();
+        }
+    }
+
+    /**
+     * Request entry refilled for every line in reuse mode; the raw data is rebuilt from the current line
+     */
+    private class ReusableRequestLogEntry extends RequestLogEntry {
+        ReusableRequestLogEntry() {
+            super(NO_TIMESTAMP, SymbolTable.NO_SYMBOL, null, SymbolTable.NO_SYMBOL, 0, 0, NO_RAW_DATA);
+        }
+
+        void fill(long timestampMillis, int hostId, String requestMethod, int routeId, int responseStatus,
+                  int responseTimeMs) {
+            set(timestampMillis, hostId, requestMethod, routeId, responseStatus, responseTimeMs, null);
+        }
+
+        @Override
+        public Map<String, String> getRawData() {
+            return rawData();
+        }
+    }
+}
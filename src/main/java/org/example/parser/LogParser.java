@@ -2,12 +2,18 @@ package org.example.parser;
 
 import org.example.model.LogEntry;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Interface for log parsers implementing the Strategy pattern
  */
 public interface LogParser {
+    // Log type reported for lines that no parser recognizes
+    String UNKNOWN_LOG_TYPE = "Unknown";
+
     /**
      * Parse a log line and return the appropriate LogEntry object if the line matches this parser's format
      * @param logLine the log line to parse
@@ -15,10 +21,58 @@ public interface LogParser {
      */
     Optional<LogEntry> parse(String logLine);
 
+    /**
+     * Build a LogEntry from a line that has already been tokenized and identified as this
+     * parser's format. Only the values of {@link #getFieldKeys()} need to be present in fields,
+     * and the map may be reused once this method returns, so it must not be retained.
+     * @param fields the values of the field keys found on the line
+     * @param rawData the raw key-value map to attach to the entry
+     * @return Optional containing the parsed LogEntry if successful, empty Optional otherwise;
+     * {@link #getLastStatus()} then tells why the line was rejected
+     */
+    Optional<LogEntry> parse(Map<String, String> fields, Map<String, String> rawData);
+
+    /**
+     * Why the last line given to {@link #parse(Map, Map)} was rejected. Parsers that do not
+     * track this report every rejected line as {@link ParseStatus#MALFORMED}.
+     * @return the status of the last parse
+     */
+    default ParseStatus getLastStatus() {
+        return ParseStatus.MALFORMED;
+    }
+
+    /**
+     * Name of the log type this parser handles, used to break down reject counts
+     * @return the log type name, the parser's class name by default
+     */
+    default String getLogType() {
+        return getClass().getSimpleName();
+    }
+
     /**
      * Check if this parser can handle the given log line
      * @param logLine the log line to check
      * @return true if this parser can handle the log line, false otherwise
      */
     boolean canParse(String logLine);
-}
\ No newline at end of file
+
+    /**
+     * Keys that must all be present for a line to be of this parser's format
+     * @return the identifying keys
+     */
+    Set<String> getRequiredKeys();
+
+    /**
+     * Keys whose values this parser reads when building an entry
+     * @return the field keys
+     */
+    Set<String> getFieldKeys();
+
+    /**
+     * Keys whose presence means a line is not of this parser's format
+     * @return the excluding keys, empty by default
+     */
+    default Set<String> getExcludedKeys() {
+        return Collections.emptySet();
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.parser;
+
+/**
+ * Outcome of parsing a log line. Parsers report why a line was rejected with one of these
+ * codes instead of throwing, so malformed input costs no more than valid input.
+ */
+public enum ParseStatus {
+    // The line was parsed into an entry
+    OK,
+    // The line is empty or only whitespace; not counted as a reject
+    BLANK,
+    // The line does not have the keys of any known log type
+    UNRECOGNIZED,
+    // A field needed to build the entry is missing
+    MISSING_FIELD,
+    // The timestamp is not a valid ISO-8601 date-time
+    INVALID_TIMESTAMP,
+    // A numeric field is not a valid number
+    INVALID_NUMBER,
+    // The parser rejected the line for another reason
+    MALFORMED
+}
@@ -1,17 +1,56 @@
 package org.example.parser;
 
+import org.example.aggregator.RouteNormalizer;
 import org.example.model.LogEntry;
 import org.example.model.RequestLogEntry;
+import org.example.util.NumberSyntax;
+import org.example.util.TimestampDecoder;
 import org.example.util.Utils;
 
-import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Parser for Request log entries (Strategy pattern implementation)
  */
 public class RequestLogParser implements LogParser {
+    // Name of this log type in reject counts
+    public static final String LOG_TYPE = "Request";
+
+    // Keys that identify this log type and keys read when building an entry
+    private static final Set<String> REQUIRED_KEYS = Set.of("request_method", "request_url", "response_status", "response_time_ms");
+    private static final Set<String> FIELD_KEYS = Set.of("timestamp", "host", "request_method", "request_url", "response_status",
+            "response_time_ms");
+
+    // Caches the date of the previous line, so instances are not thread-safe
+    private final TimestampDecoder timestampDecoder = new TimestampDecoder();
+
+    // Why the last line given to parse(Map, Map) was rejected
+    private ParseStatus lastStatus = ParseStatus.OK;
+
+    // Collapses URLs into route templates before they are interned, null to keep them as they are
+    private final RouteNormalizer routeNormalizer;
+
+    public RequestLogParser() {
+        this(null);
+    }
+
+    /**
+     * @param routeNormalizer Collapses request URLs into route templates before they are interned, so only
+     *                        templates take up room in {@link org.example.model.Symbols#ROUTES}; null to keep URLs
+     */
+    public RequestLogParser(RouteNormalizer routeNormalizer) {
+        this.routeNormalizer = routeNormalizer;
+    }
+
+    /**
+     * Get the route normalizer applied to request URLs
+     * @return The normalizer, or null if URLs are kept as they are
+     */
+    public RouteNormalizer getRouteNormalizer() {
+        return routeNormalizer;
+    }
 
     @Override
     public Optional<LogEntry> parse(String logLine) {
@@ -19,24 +58,42 @@ public class RequestLogParser implements LogParser {
             return Optional.empty();
         }
 
-        try {
-            Map<String, String> parsedData = Utils.parseKeyValuePairs(logLine);
-
-            // Extract required fields
-            LocalDateTime timestamp = Utils.parseTimestamp(parsedData.get("timestamp"));
-            String host = parsedData.get("host");
-            String requestMethod = parsedData.get("request_method");
-            String requestUrl = parsedData.get("request_url").replace("\"", ""); // Remove quotes from URL
-            int responseStatus = Integer.parseInt(parsedData.get("response_status"));
-            int responseTimeMs = Integer.parseInt(parsedData.get("response_time_ms"));
-
-            // Create and return the Request log entry
-            return Optional.of(new RequestLogEntry(timestamp, host, requestMethod, requestUrl,
-                    responseStatus, responseTimeMs, parsedData));
-        } catch (Exception e) {
-            System.err.println("Error parsing Request log: " + e.getMessage());
-            return Optional.empty();
+        Map<String, String> parsedData = Utils.parseKeyValuePairs(logLine);
+        return parse(parsedData, parsedData);
+    }
+
+    @Override
+    public Optional<LogEntry> parse(Map<String, String> parsedData, Map<String, String> rawData) {
+        // Extract required fields, rejecting the line with a status code if any is missing or invalid
+        String timestampText = parsedData.get("timestamp");
+        String requestMethod = parsedData.get("request_method");
+        String requestUrl = parsedData.get("request_url");
+        String statusText = parsedData.get("response_status");
+        String responseTimeText = parsedData.get("response_time_ms");
+        if (timestampText == null || requestMethod == null || requestUrl == null
+                || statusText == null || responseTimeText == null) {
+            return reject(ParseStatus.MISSING_FIELD);
+        }
+
+        long timestamp = timestampDecoder.tryDecode(timestampText);
+        if (timestamp == TimestampDecoder.INVALID) {
+            return reject(ParseStatus.INVALID_TIMESTAMP);
+        }
+        if (!NumberSyntax.isInt(statusText) || !NumberSyntax.isInt(responseTimeText)) {
+            return reject(ParseStatus.INVALID_NUMBER);
         }
+        String host = parsedData.get("host");
+        requestUrl = requestUrl.replace("\"", ""); // Remove quotes from URL
+        if (routeNormalizer != null) {
+            requestUrl = routeNormalizer.normalize(requestUrl);
+        }
+        int responseStatus = Integer.parseInt(statusText);
+        int responseTimeMs = Integer.parseInt(responseTimeText);
+
+        // Create and return the Request log entry
+        lastStatus = ParseStatus.OK;
+        return Optional.of(new RequestLogEntry(timestamp, host, requestMethod, requestUrl,
+                responseStatus, responseTimeMs, rawData));
     }
 
     @Override
@@ -47,4 +104,29 @@ public class RequestLogParser implements LogParser {
                 logLine.contains("response_status=") &&
                 logLine.contains("response_time_ms=");
     }
+
+    @Override
+    public String getLogType() {
+        return LOG_TYPE;
+    }
+
+    @Override
+    public ParseStatus getLastStatus() {
+        return lastStatus;
+    }
+
+    private Optional<LogEntry> reject(ParseStatus status) {
+        lastStatus = status;
+        return Optional.empty();
+    }
+
+    @Override
+    public Set<String> getRequiredKeys() {
+        return REQUIRED_KEYS;
+    }
+
+    @Override
+    public Set<String> getFieldKeys() {
+        return FIELD_KEYS;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,263 @@
+package org.example.segment;
+
+import org.example.model.APMLogEntry;
+import org.example.model.ApplicationLogEntry;
+import org.example.model.LogEntry;
+import org.example.model.RequestLogEntry;
+import org.example.model.Symbols;
+import org.example.store.APMLogStore;
+import org.example.store.ApplicationLogStore;
+import org.example.store.RequestLogStore;
+import org.example.util.RejectCounts;
+import org.example.util.SymbolTable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Collects the fields of parsed entries in columnar stores while a log file is processed and
+ * writes them as a binary segment file (see {@link SegmentFormat}), so later runs can aggregate the
+ * same data with a {@link SegmentReader} instead of parsing the text again. Builders for chunks of
+ * a file are combined in file order with {@link #append(SegmentBuilder)}. Instances are not thread-safe.
+ */
+public class SegmentBuilder {
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final APMLogStore apmLogs = new APMLogStore();
+    private final ApplicationLogStore applicationLogs = new ApplicationLogStore();
+    private final RequestLogStore requestLogs = new RequestLogStore();
+
+    /**
+     * Record the stored fields of a parsed entry
+     * @param entry The entry to record
+     */
+    public void add(LogEntry entry) {
+        if (entry instanceof APMLogEntry) {
+            apmLogs.add((APMLogEntry) entry);
+        } else if (entry instanceof ApplicationLogEntry) {
+            applicationLogs.add((ApplicationLogEntry) entry);
+        } else if (entry instanceof RequestLogEntry) {
+            requestLogs.add((RequestLogEntry) entry);
+        }
+    }
+
+    /**
+     * Append the rows of a builder covering input that comes after this one
+     * @param other The builder to append
+     */
+    public void append(SegmentBuilder other) {
+        apmLogs.addAll(other.apmLogs);
+        applicationLogs.addAll(other.applicationLogs);
+        requestLogs.addAll(other.requestLogs);
+    }
+
+    public APMLogStore getApmLogs() {
+        return apmLogs;
+    }
+
+    public ApplicationLogStore getApplicationLogs() {
+        return applicationLogs;
+    }
+
+    public RequestLogStore getRequestLogs() {
+        return requestLogs;
+    }
+
+    /**
+     * Write the collected rows and reject counts as a segment file, replacing any existing file
+     * @param file Path of the segment file
+     * @param rejects Counts of the lines rejected while the rows were collected
+     * @throws IOException If an I/O error occurs
+     */
+    public void writeTo(Path file, RejectCounts rejects) throws IOException {
+        // Number the strings in the order the sections below will first use them
+        LocalDictionary hosts = new LocalDictionary(Symbols.HOSTS);
+        LocalDictionary metrics = new LocalDictionary(Symbols.METRICS);
+        LocalDictionary levels = new LocalDictionary(Symbols.LEVELS);
+        LocalDictionary routes = new LocalDictionary(Symbols.ROUTES);
+        for (int chunk = 0; chunk < apmLogs.getChunkCount(); chunk++) {
+            hosts.assign(apmLogs.getHostIds(chunk), apmLogs.getChunkLength(chunk));
+            metrics.assign(apmLogs.getMetricIds(chunk), apmLogs.getChunkLength(chunk));
+        }
+        for (int chunk = 0; chunk < applicationLogs.getChunkCount(); chunk++) {
+            hosts.assign(applicationLogs.getHostIds(chunk), applicationLogs.getChunkLength(chunk));
+            levels.assign(applicationLogs.getLevelIds(chunk), applicationLogs.getChunkLength(chunk));
+        }
+        for (int chunk = 0; chunk < requestLogs.getChunkCount(); chunk++) {
+            hosts.assign(requestLogs.getHostIds(chunk), requestLogs.getChunkLength(chunk));
+            routes.assign(requestLogs.getRouteIds(chunk), requestLogs.getChunkLength(chunk));
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), WRITE_BUFFER_SIZE))) {
+            out.writeInt(SegmentFormat.MAGIC);
+            out.writeInt(SegmentFormat.VERSION);
+            hosts.writeTo(out);
+            metrics.writeTo(out);
+            levels.writeTo(out);
+            routes.writeTo(out);
+            writeRejects(out, rejects);
+
+            writeHeader(out, apmLogs.size(), timestampBytes(apmLogs.getChunkCount(), apmLogs::getTimestamps,
+                    apmLogs::getChunkLength));
+            writeTimestamps(out, apmLogs.getChunkCount(), apmLogs::getTimestamps, apmLogs::getChunkLength);
+            for (int chunk = 0; chunk < apmLogs.getChunkCount(); chunk++) {
+                hosts.writeIds(out, apmLogs.getHostIds(chunk), apmLogs.getChunkLength(chunk));
+            }
+            for (int chunk = 0; chunk < apmLogs.getChunkCount(); chunk++) {
+                metrics.writeIds(out, apmLogs.getMetricIds(chunk), apmLogs.getChunkLength(chunk));
+            }
+            for (int chunk = 0; chunk < apmLogs.getChunkCount(); chunk++) {
+                double[] values = apmLogs.getValues(chunk);
+                for (int i = 0; i < apmLogs.getChunkLength(chunk); i++) {
+                    out.writeDouble(values[i]);
+                }
+            }
+
+            writeHeader(out, applicationLogs.size(), timestampBytes(applicationLogs.getChunkCount(),
+                    applicationLogs::getTimestamps, applicationLogs::getChunkLength));
+            writeTimestamps(out, applicationLogs.getChunkCount(), applicationLogs::getTimestamps,
+                    applicationLogs::getChunkLength);
+            for (int chunk = 0; chunk < applicationLogs.getChunkCount(); chunk++) {
+                hosts.writeIds(out, applicationLogs.getHostIds(chunk), applicationLogs.getChunkLength(chunk));
+            }
+            for (int chunk = 0; chunk < applicationLogs.getChunkCount(); chunk++) {
+                levels.writeIds(out, applicationLogs.getLevelIds(chunk), applicationLogs.getChunkLength(chunk));
+            }
+
+            writeHeader(out, requestLogs.size(), timestampBytes(requestLogs.getChunkCount(),
+                    requestLogs::getTimestamps, requestLogs::getChunkLength));
+            writeTimestamps(out, requestLogs.getChunkCount(), requestLogs::getTimestamps,
+                    requestLogs::getChunkLength);
+            for (int chunk = 0; chunk < requestLogs.getChunkCount(); chunk++) {
+                hosts.writeIds(out, requestLogs.getHostIds(chunk), requestLogs.getChunkLength(chunk));
+            }
+            for (int chunk = 0; chunk < requestLogs.getChunkCount(); chunk++) {
+                routes.writeIds(out, requestLogs.getRouteIds(chunk), requestLogs.getChunkLength(chunk));
+            }
+            for (int chunk = 0; chunk < requestLogs.getChunkCount(); chunk++) {
+                short[] statuses = requestLogs.getResponseStatuses(chunk);
+                for (int i = 0; i < requestLogs.getChunkLength(chunk); i++) {
+                    out.writeShort(statuses[i]);
+                }
+            }
+            for (int chunk = 0; chunk < requestLogs.getChunkCount(); chunk++) {
+                int[] responseTimes = requestLogs.getResponseTimes(chunk);
+                for (int i = 0; i < requestLogs.getChunkLength(chunk); i++) {
+                    out.writeInt(responseTimes[i]);
+                }
+            }
+        }
+    }
+
+    private static void writeRejects(DataOutputStream out, RejectCounts rejects) throws IOException {
+        List<String[]> reasons = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Long>> type : rejects.getCounts().entrySet()) {
+            for (Map.Entry<String, Long> reason : type.getValue().entrySet()) {
+                reasons.add(new String[]{type.getKey(), reason.getKey()});
+                counts.add(reason.getValue());
+            }
+        }
+        out.writeInt(reasons.size());
+        for (int i = 0; i < reasons.size(); i++) {
+            out.writeUTF(reasons.get(i)[0]);
+            out.writeUTF(reasons.get(i)[1]);
+            out.writeLong(counts.get(i));
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out, int rows, long timestampBytes) throws IOException {
+        if (timestampBytes > Integer.MAX_VALUE) {
+            throw new IOException("Too many rows for a segment file: " + rows);
+        }
+        out.writeInt(rows);
+        out.writeInt((int) timestampBytes);
+    }
+
+    private static long timestampBytes(int chunkCount, IntFunction<long[]> timestamps, IntUnaryOperator lengths) {
+        long bytes = 0;
+        long previous = 0;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            long[] values = timestamps.apply(chunk);
+            for (int i = 0; i < lengths.applyAsInt(chunk); i++) {
+                bytes += SegmentFormat.varLongSize(values[i] - previous);
+                previous = values[i];
+            }
+        }
+        return bytes;
+    }
+
+    private static void writeTimestamps(DataOutputStream out, int chunkCount, IntFunction<long[]> timestamps,
+                                        IntUnaryOperator lengths) throws IOException {
+        long previous = 0;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            long[] values = timestamps.apply(chunk);
+            for (int i = 0; i < lengths.applyAsInt(chunk); i++) {
+                SegmentFormat.writeVarLong(out, values[i] - previous);
+                previous = values[i];
+            }
+        }
+    }
+
+    /**
+     * Maps the process-wide ids of a symbol table to dense ids local to one segment file
+     */
+    private static class LocalDictionary {
+        private final SymbolTable table;
+        private final List<String> names = new ArrayList<>();
+        // Local id of each process-wide id, -1 if not assigned yet
+        private int[] localIds = new int[0];
+
+        LocalDictionary(SymbolTable table) {
+            this.table = table;
+        }
+
+        void assign(int[] ids, int length) {
+            for (int i = 0; i < length; i++) {
+                localId(ids[i]);
+            }
+        }
+
+        int localId(int id) {
+            if (id == SymbolTable.NO_SYMBOL) {
+                return SymbolTable.NO_SYMBOL;
+            }
+            if (id >= localIds.length) {
+                int oldLength = localIds.length;
+                localIds = Arrays.copyOf(localIds, Math.max(id + 1, oldLength * 2));
+                Arrays.fill(localIds, oldLength, localIds.length, -1);
+            }
+            if (localIds[id] < 0) {
+                localIds[id] = names.size();
+                names.add(table.nameOf(id));
+            }
+            return localIds[id];
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(names.size());
+            for (String name : names) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        void writeIds(DataOutputStream out, int[] ids, int length) throws IOException {
+            for (int i = 0; i < length; i++) {
+                out.writeInt(localId(ids[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.segment;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Constants and encoding helpers shared by {@link SegmentBuilder} and {@link SegmentReader}.
+ * A segment file is big-endian and laid out as:
+ * <pre>
+ * int magic, int version
+ * 4 dictionaries (hosts, metrics, levels, routes): int count, then per name int length + UTF-8 bytes
+ * rejects: int count, then per log type and reason UTF type, UTF reason, long count
+ * APM section:         int rows, int timestamp bytes, timestamps, int[] hosts, int[] metrics, double[] values
+ * Application section: int rows, int timestamp bytes, timestamps, int[] hosts, int[] levels
+ * Request section:     int rows, int timestamp bytes, timestamps, int[] hosts, int[] routes, short[] statuses,
+ *                      int[] response times
+ * </pre>
+ * Strings are stored once in the dictionaries, in order of first use, and referenced by their index
+ * (-1 for a missing value). Timestamps are the zig-zag varint deltas between consecutive rows.
+ */
+final class SegmentFormat {
+    static final int MAGIC = 0x4C4F4753; // "LOGS"
+    static final int VERSION = 1;
+
+    // Bytes per row of the fixed-width columns of each section
+    static final int APM_ROW_BYTES = 4 + 4 + 8;
+    static final int APPLICATION_ROW_BYTES = 4 + 4;
+    static final int REQUEST_ROW_BYTES = 4 + 4 + 2 + 4;
+
+    private SegmentFormat() {
+    }
+
+    /**
+     * Size of a value written by {@link #writeVarLong(DataOutputStream, long)}
+     */
+    static int varLongSize(long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        int size = 1;
+        while ((zigZag & ~0x7FL) != 0) {
+            zigZag >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Write a signed value as a zig-zag varint: 7 bits per byte, low bits first
+     */
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            out.writeByte((int) (zigZag & 0x7F) | 0x80);
+            zigZag >>>= 7;
+        }
+        out.writeByte((int) zigZag);
+    }
+
+    /**
+     * Read a zig-zag varint at the buffer's position, advancing it
+     */
+    static long readVarLong(ByteBuffer buffer) {
+        long zigZag = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            zigZag |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+}
@@ -0,0 +1,289 @@
+package org.example.segment;
+
+import org.example.aggregator.APMLogAggregator;
+import org.example.aggregator.ApplicationLogAggregator;
+import org.example.aggregator.LogAggregates;
+import org.example.aggregator.RequestLogAggregator;
+import org.example.aggregator.WindowedAggregates;
+import org.example.model.Symbols;
+import org.example.parser.ParseStatus;
+import org.example.store.APMLogStore;
+import org.example.store.ApplicationLogStore;
+import org.example.store.RequestLogStore;
+import org.example.util.RejectCounts;
+import org.example.util.SymbolTable;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a segment file written by {@link SegmentBuilder}. The file is memory-mapped and its
+ * columns are read in place: {@link #aggregateInto(LogAggregates)} feeds the aggregators straight
+ * from the mapped bytes, without parsing any text or creating entries. Dictionary strings are
+ * mapped to this process's {@link Symbols} ids when the file is opened. Segment files are limited
+ * to 2 GB, the size of a single mapping.
+ */
+public class SegmentReader {
+    private final ByteBuffer buffer;
+
+    // Process-wide id of each local dictionary id
+    private final int[] hostIds;
+    private final int[] metricIds;
+    private final int[] levelIds;
+    private final int[] routeIds;
+
+    private final RejectCounts rejects = new RejectCounts();
+
+    // Start of each section
+    private final int apmSection;
+    private final int applicationSection;
+    private final int requestSection;
+
+    private SegmentReader(ByteBuffer buffer, Path file) throws IOException {
+        this.buffer = buffer;
+        try {
+            if (buffer.getInt() != SegmentFormat.MAGIC) {
+                throw new IOException("Not a log segment file: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != SegmentFormat.VERSION) {
+                throw new IOException("Unsupported segment file version " + version + ": " + file);
+            }
+            hostIds = readDictionary(Symbols.HOSTS);
+            metricIds = readDictionary(Symbols.METRICS);
+            levelIds = readDictionary(Symbols.LEVELS);
+            routeIds = readDictionary(Symbols.ROUTES);
+            readRejects();
+
+            apmSection = buffer.position();
+            applicationSection = skipSection(apmSection, SegmentFormat.APM_ROW_BYTES);
+            requestSection = skipSection(applicationSection, SegmentFormat.APPLICATION_ROW_BYTES);
+            if (skipSection(requestSection, SegmentFormat.REQUEST_ROW_BYTES) != buffer.limit()) {
+                throw new IOException("Corrupt segment file: " + file);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt segment file: " + file, e);
+        }
+    }
+
+    /**
+     * Open and map a segment file
+     * @param file Path of the segment file
+     * @return A reader over the file
+     * @throws IOException If the file cannot be read or is not a valid segment file
+     */
+    public static SegmentReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Segment file larger than 2 GB: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            return new SegmentReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), file);
+        }
+    }
+
+    /**
+     * Counts of the lines that were rejected when the segment was written
+     * @return The reject counts
+     */
+    public RejectCounts getRejects() {
+        return rejects;
+    }
+
+    public int getApmRowCount() {
+        return buffer.getInt(apmSection);
+    }
+
+    public int getApplicationRowCount() {
+        return buffer.getInt(applicationSection);
+    }
+
+    public int getRequestRowCount() {
+        return buffer.getInt(requestSection);
+    }
+
+    /**
+     * Feed every row to the matching aggregator, in file order, and add the reject counts.
+     * Rows also go to the time windows of the aggregates, if they have any.
+     * @param aggregates The aggregates to add the rows to
+     */
+    public void aggregateInto(LogAggregates aggregates) {
+        WindowedAggregates windows = aggregates.getWindows();
+
+        APMLogAggregator apmAggregator = aggregates.getApmAggregator();
+        int rows = getApmRowCount();
+        ByteBuffer timestamps = timestamps(apmSection);
+        int metrics = columnsStart(apmSection) + rows * 4;
+        int values = metrics + rows * 4;
+        long timestamp = 0;
+        for (int i = 0; i < rows; i++) {
+            int metricId = symbol(metricIds, buffer.getInt(metrics + i * 4));
+            double value = buffer.getDouble(values + i * 8);
+            apmAggregator.processValue(metricId, value);
+            if (windows != null) {
+                timestamp += SegmentFormat.readVarLong(timestamps);
+                windows.processValue(timestamp, metricId, value);
+            }
+        }
+
+        ApplicationLogAggregator applicationAggregator = aggregates.getApplicationAggregator();
+        rows = getApplicationRowCount();
+        timestamps = timestamps(applicationSection);
+        int levels = columnsStart(applicationSection) + rows * 4;
+        timestamp = 0;
+        for (int i = 0; i < rows; i++) {
+            int levelId = symbol(levelIds, buffer.getInt(levels + i * 4));
+            applicationAggregator.processLevel(levelId);
+            if (windows != null) {
+                timestamp += SegmentFormat.readVarLong(timestamps);
+                windows.processLevel(timestamp, levelId);
+            }
+        }
+
+        RequestLogAggregator requestAggregator = aggregates.getRequestAggregator();
+        rows = getRequestRowCount();
+        timestamps = timestamps(requestSection);
+        int routes = columnsStart(requestSection) + rows * 4;
+        int statuses = routes + rows * 4;
+        int responseTimes = statuses + rows * 2;
+        timestamp = 0;
+        for (int i = 0; i < rows; i++) {
+            int routeId = symbol(routeIds, buffer.getInt(routes + i * 4));
+            short responseStatus = buffer.getShort(statuses + i * 2);
+            int responseTime = buffer.getInt(responseTimes + i * 4);
+            requestAggregator.processRequest(routeId, responseStatus, responseTime);
+            if (windows != null) {
+                timestamp += SegmentFormat.readVarLong(timestamps);
+                windows.processRequest(timestamp, routeId, responseStatus, responseTime);
+            }
+        }
+
+        aggregates.getRejects().merge(rejects);
+    }
+
+    /**
+     * Load the APM rows into a columnar store
+     * @return A store holding every APM row, in file order
+     */
+    public APMLogStore readApm() {
+        APMLogStore store = new APMLogStore();
+        int rows = getApmRowCount();
+        ByteBuffer timestamps = timestamps(apmSection);
+        int hosts = columnsStart(apmSection);
+        int metrics = hosts + rows * 4;
+        int values = metrics + rows * 4;
+        long timestamp = 0;
+        for (int i = 0; i < rows; i++) {
+            timestamp += SegmentFormat.readVarLong(timestamps);
+            store.add(timestamp, symbol(hostIds, buffer.getInt(hosts + i * 4)),
+                    symbol(metricIds, buffer.getInt(metrics + i * 4)), buffer.getDouble(values + i * 8));
+        }
+        return store;
+    }
+
+    /**
+     * Load the application rows into a columnar store
+     * @return A store holding every application row, in file order
+     */
+    public ApplicationLogStore readApplication() {
+        ApplicationLogStore store = new ApplicationLogStore();
+        int rows = getApplicationRowCount();
+        ByteBuffer timestamps = timestamps(applicationSection);
+        int hosts = columnsStart(applicationSection);
+        int levels = hosts + rows * 4;
+        long timestamp = 0;
+        for (int i = 0; i < rows; i++) {
+            timestamp += SegmentFormat.readVarLong(timestamps);
+            store.add(timestamp, symbol(hostIds, buffer.getInt(hosts + i * 4)),
+                    symbol(levelIds, buffer.getInt(levels + i * 4)));
+        }
+        return store;
+    }
+
+    /**
+     * Load the request rows into a columnar store
+     * @return A store holding every request row, in file order
+     */
+    public RequestLogStore readRequests() {
+        RequestLogStore store = new RequestLogStore();
+        int rows = getRequestRowCount();
+        ByteBuffer timestamps = timestamps(requestSection);
+        int hosts = columnsStart(requestSection);
+        int routes = hosts + rows * 4;
+        int statuses = routes + rows * 4;
+        int responseTimes = statuses + rows * 2;
+        long timestamp = 0;
+        for (int i = 0; i < rows; i++) {
+            timestamp += SegmentFormat.readVarLong(timestamps);
+            store.add(timestamp, symbol(hostIds, buffer.getInt(hosts + i * 4)),
+                    symbol(routeIds, buffer.getInt(routes + i * 4)), buffer.getShort(statuses + i * 2),
+                    buffer.getInt(responseTimes + i * 4));
+        }
+        return store;
+    }
+
+    private int[] readDictionary(SymbolTable table) {
+        int[] ids = new int[buffer.getInt()];
+        for (int i = 0; i < ids.length; i++) {
+            byte[] name = new byte[buffer.getInt()];
+            buffer.get(name);
+            ids[i] = table.idOf(new String(name, StandardCharsets.UTF_8));
+        }
+        return ids;
+    }
+
+    private void readRejects() {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            String logType = readUTF();
+            ParseStatus status = ParseStatus.valueOf(readUTF());
+            rejects.record(logType, status, buffer.getLong());
+        }
+    }
+
+    /**
+     * Read a string written by {@link java.io.DataOutputStream#writeUTF(String)}; the log types and
+     * reasons written there are plain ASCII, which the modified UTF-8 encoding leaves unchanged
+     */
+    private String readUTF() {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Return the start of the section after the one at the given position
+     */
+    private int skipSection(int section, int rowBytes) throws IOException {
+        int rows = buffer.getInt(section);
+        long end = (long) columnsStart(section) + (long) rows * rowBytes;
+        if (rows < 0 || end > buffer.limit()) {
+            throw new IOException("Corrupt segment file: section overruns the file");
+        }
+        return (int) end;
+    }
+
+    /**
+     * Timestamps of a section, as a buffer positioned at the first varint
+     */
+    private ByteBuffer timestamps(int section) {
+        return buffer.duplicate().position(section + 8);
+    }
+
+    /**
+     * Start of the fixed-width columns of a section, just after its timestamps
+     */
+    private int columnsStart(int section) {
+        return section + 8 + buffer.getInt(section + 4);
+    }
+
+    private static int symbol(int[] ids, int localId) {
+        return localId == SymbolTable.NO_SYMBOL ? SymbolTable.NO_SYMBOL : ids[localId];
+    }
+}
@@ -0,0 +1,179 @@
+package org.example.sketch;
+
+import org.example.collections.DoubleArray;
+
+/**
+ * Count, sum, minimum, maximum and quantiles of a stream of values in bounded memory. Values are kept
+ * exactly in a primitive array until there are more than the exact limit, and quantiles are then found
+ * by selection rather than sorting. Past the limit the values move into a {@link KllSketch}, so memory
+ * stays O(k log n) and quantiles become estimates; count, sum, minimum and maximum stay exact.
+ * Summaries merge, keeping exact results when the combined values still fit under the limit. Merging
+ * an exact summary adds its values in order, so it gives the same result as adding them to this summary
+ * in the first place, even when that crosses the limit; merging a sketch only gives estimates as close.
+ * Instances are not thread-safe.
+ */
+public class DistributionSummary {
+    private final int exactLimit;
+    private final int sketchK;
+
+    // Values while exact, null once they have moved into the sketch
+    private DoubleArray values = new DoubleArray();
+    private KllSketch sketch;
+
+    // Compensated running sum, kept once the values are in the sketch
+    private double sum;
+    private double sumCompensation;
+
+    /**
+     * @param exactLimit Number of values kept exactly before switching to the sketch;
+     *                   {@link Integer#MAX_VALUE} to always stay exact
+     * @param sketchK Accuracy parameter of the sketch, see {@link KllSketch#KllSketch(int)}
+     */
+    public DistributionSummary(int exactLimit, int sketchK) {
+        this.exactLimit = exactLimit;
+        this.sketchK = sketchK;
+    }
+
+    /**
+     * Add a value
+     * @param value The value to add
+     */
+    public void add(double value) {
+        if (values != null) {
+            values.add(value);
+            if (values.size() > exactLimit) {
+                switchToSketch();
+            }
+        } else {
+            sketch.update(value);
+            addToSum(value);
+        }
+    }
+
+    /**
+     * Add the values of another summary to this one
+     * @param other The summary to merge in; it is not modified
+     */
+    public void merge(DistributionSummary other) {
+        if (other.values != null) {
+            if (values != null && values.size() + other.values.size() <= exactLimit) {
+                values.addAll(other.values);
+                return;
+            }
+            // Replay the values so the switch to the sketch and the sum happen as in a single pass
+            for (int i = 0; i < other.values.size(); i++) {
+                add(other.values.get(i));
+            }
+            return;
+        }
+        if (values != null) {
+            switchToSketch();
+        }
+        sketch.merge(other.sketch);
+        addToSum(other.getSum());
+    }
+
+    public long getCount() {
+        return values != null ? values.size() : sketch.getN();
+    }
+
+    public boolean isEmpty() {
+        return getCount() == 0;
+    }
+
+    /**
+     * Whether quantiles are exact, i.e. the values have not moved into the sketch
+     */
+    public boolean isExact() {
+        return values != null;
+    }
+
+    public double getSum() {
+        return values != null ? values.stream().sum() : sum + sumCompensation;
+    }
+
+    /**
+     * Get the smallest value
+     * @return The minimum, or NaN if there are no values
+     */
+    public double getMin() {
+        if (values != null) {
+            return values.isEmpty() ? Double.NaN : values.select(0);
+        }
+        return sketch.getMin();
+    }
+
+    /**
+     * Get the largest value
+     * @return The maximum, or NaN if there are no values
+     */
+    public double getMax() {
+        if (values != null) {
+            return values.isEmpty() ? Double.NaN : values.select(values.size() - 1);
+        }
+        return sketch.getMax();
+    }
+
+    /**
+     * Get the median. While exact, an even number of values gives the mean of the two middle values.
+     * @return The median, or NaN if there are no values
+     */
+    public double getMedian() {
+        if (values == null) {
+            return sketch.getQuantile(0.5);
+        }
+        int size = values.size();
+        if (size == 0) {
+            return Double.NaN;
+        }
+        double upper = values.select(size / 2);
+        if (size % 2 == 1) {
+            return upper;
+        }
+        // The select above left the lower half of the values before the middle
+        return (values.select(size / 2 - 1) + upper) / 2.0;
+    }
+
+    /**
+     * Get a percentile using the nearest-rank definition, as for request response times
+     * @param percentile Percentile between 0 and 100
+     * @return The percentile, or NaN if there are no values
+     */
+    public double getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (values == null) {
+            return sketch.getQuantile(percentile / 100.0);
+        }
+        if (values.isEmpty()) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * values.size()) - 1;
+        return values.select(Math.max(0, Math.min(values.size() - 1, index)));
+    }
+
+    private void switchToSketch() {
+        sketch = new KllSketch(sketchK);
+        sum = 0;
+        sumCompensation = 0;
+        for (int i = 0; i < values.size(); i++) {
+            sketch.update(values.get(i));
+        }
+        addToSum(values.stream().sum());
+        values = null;
+    }
+
+    /**
+     * Kahan-Babuska summation, so long streams of values do not drift
+     */
+    private void addToSum(double value) {
+        double total = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            sumCompensation += (sum - total) + value;
+        } else {
+            sumCompensation += (value - total) + sum;
+        }
+        sum = total;
+    }
+}
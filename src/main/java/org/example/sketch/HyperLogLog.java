@@ -0,0 +1,283 @@
+package org.example.sketch;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct-count estimator with the sparse representation of HyperLogLog++ (Heule, Nunkesser
+ * and Hall). While few values have been seen, the sketch keeps a sorted list of (index, rank) pairs at a
+ * precision of 2^25 registers, which is both smaller and far more accurate than the dense registers; it
+ * switches to 2^p one-byte registers once the list would take more memory than they do.
+ * <p>
+ * Dense estimates use Ertl's improved estimator ("New cardinality estimation algorithms for HyperLogLog
+ * sketches", 2017), which corrects the small- and large-range bias of the original estimator without the
+ * empirical bias tables of HyperLogLog++. The standard error is about 1.04 / sqrt(2^p): 0.8% for the
+ * default precision of 14, using 16 KB. Sketches of the same precision merge without losing accuracy.
+ * Instances are not thread-safe.
+ */
+public class HyperLogLog {
+    public static final int DEFAULT_PRECISION = 14;
+
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 18;
+
+    // Precision of the sparse representation, and bits of a sparse entry used for the rank
+    private static final int SPARSE_PRECISION = 25;
+    private static final int RANK_BITS = 6;
+
+    // Values added to the sparse list before it is sorted and merged
+    private static final int SPARSE_BUFFER_SIZE = 256;
+
+    private final int precision;
+
+    // Sorted sparse entries, index << RANK_BITS | rank with one entry per index; null once dense
+    private int[] sparse = new int[0];
+    private int[] sparseBuffer = new int[SPARSE_BUFFER_SIZE];
+    private int sparseBufferSize;
+
+    // Dense registers, null while sparse
+    private byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision Uses 2^precision registers once dense; the standard error is about 1.04 / sqrt(2^precision)
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and "
+                    + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+    }
+
+    /**
+     * Add a value
+     * @param value The value to add
+     */
+    public void offer(CharSequence value) {
+        offerHash(hash(value));
+    }
+
+    /**
+     * Add a value by its 64-bit hash, which must be well mixed, e.g. from {@link #hash(CharSequence)}
+     * @param hash Hash of the value
+     */
+    public void offerHash(long hash) {
+        if (registers != null) {
+            int index = (int) (hash >>> (64 - precision));
+            int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), 64 - precision) + 1;
+            if (rank > registers[index]) {
+                registers[index] = (byte) rank;
+            }
+            return;
+        }
+        int index = (int) (hash >>> (64 - SPARSE_PRECISION));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << SPARSE_PRECISION), 64 - SPARSE_PRECISION) + 1;
+        sparseBuffer[sparseBufferSize++] = index << RANK_BITS | rank;
+        if (sparseBufferSize == SPARSE_BUFFER_SIZE) {
+            flushSparseBuffer();
+        }
+    }
+
+    /**
+     * Add the values counted by another sketch to this one
+     * @param other The sketch to merge in; it is not modified
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with precision " + precision + " and "
+                    + other.precision);
+        }
+        if (other.registers == null) {
+            for (int entry : other.sparse) {
+                addSparseEntry(entry);
+            }
+            for (int i = 0; i < other.sparseBufferSize; i++) {
+                addSparseEntry(other.sparseBuffer[i]);
+            }
+            return;
+        }
+        toDense();
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Estimate the number of distinct values added
+     * @return The estimate, rounded to the nearest integer
+     */
+    public long estimate() {
+        if (registers == null) {
+            flushSparseBuffer();
+            // Linear counting over the sparse registers, which is nearly exact while few are set
+            double sparseRegisters = 1L << SPARSE_PRECISION;
+            return Math.round(sparseRegisters * Math.log(sparseRegisters / (sparseRegisters - sparse.length)));
+        }
+
+        int maxRank = 64 - precision;
+        int[] histogram = new int[maxRank + 2];
+        for (byte register : registers) {
+            histogram[register]++;
+        }
+        double m = registers.length;
+        double z = m * tau(1 - histogram[maxRank + 1] / m);
+        for (int rank = maxRank; rank >= 1; rank--) {
+            z = 0.5 * (z + histogram[rank]);
+        }
+        z += m * sigma(histogram[0] / m);
+        return Math.round(m * m / (2 * Math.log(2)) / z);
+    }
+
+    /**
+     * Whether the sketch still uses the sparse representation
+     */
+    public boolean isSparse() {
+        return registers == null;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * 64-bit hash of a character sequence: FNV-1a over the characters, finished with the MurmurHash3
+     * mixer so that every bit of the result depends on every character
+     * @param value The characters to hash
+     * @return The hash
+     */
+    public static long hash(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private void addSparseEntry(int entry) {
+        if (registers != null) {
+            addToDense(entry);
+            return;
+        }
+        sparseBuffer[sparseBufferSize++] = entry;
+        if (sparseBufferSize == SPARSE_BUFFER_SIZE) {
+            flushSparseBuffer();
+        }
+    }
+
+    /**
+     * Sort the buffered entries into the sparse list, keeping the highest rank per index,
+     * and switch to dense registers once the list is larger than they are
+     */
+    private void flushSparseBuffer() {
+        if (sparseBufferSize == 0) {
+            return;
+        }
+        Arrays.sort(sparseBuffer, 0, sparseBufferSize);
+        int[] merged = new int[sparse.length + sparseBufferSize];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sparse.length || j < sparseBufferSize) {
+            int entry;
+            if (j == sparseBufferSize || (i < sparse.length && sparse[i] <= sparseBuffer[j])) {
+                entry = sparse[i++];
+            } else {
+                entry = sparseBuffer[j++];
+            }
+            // Entries sort by index, then rank, so a later entry with the same index replaces the earlier one
+            if (size > 0 && merged[size - 1] >>> RANK_BITS == entry >>> RANK_BITS) {
+                merged[size - 1] = entry;
+            } else {
+                merged[size++] = entry;
+            }
+        }
+        sparse = Arrays.copyOf(merged, size);
+        sparseBufferSize = 0;
+
+        // Four bytes per sparse entry against one byte per dense register
+        if (sparse.length > (1 << precision) / 4) {
+            toDense();
+        }
+    }
+
+    private void toDense() {
+        if (registers != null) {
+            return;
+        }
+        registers = new byte[1 << precision];
+        for (int entry : sparse) {
+            addToDense(entry);
+        }
+        for (int i = 0; i < sparseBufferSize; i++) {
+            addToDense(sparseBuffer[i]);
+        }
+        sparse = null;
+        sparseBuffer = null;
+        sparseBufferSize = 0;
+    }
+
+    /**
+     * Apply a sparse entry to the dense registers. The index bits beyond the dense precision hold the
+     * leading bits of the dense rank; when they are all zero the rank continues into the sparse rank.
+     */
+    private void addToDense(int entry) {
+        int sparseIndex = entry >>> RANK_BITS;
+        int extraBits = SPARSE_PRECISION - precision;
+        int index = sparseIndex >>> extraBits;
+        int extra = sparseIndex & ((1 << extraBits) - 1);
+        int rank = extra != 0
+                ? Integer.numberOfLeadingZeros(extra) - (32 - extraBits) + 1
+                : extraBits + (entry & ((1 << RANK_BITS) - 1));
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * sigma(x) = x + sum over k >= 1 of x^(2^k) * 2^(k-1), from Ertl's estimator
+     */
+    private static double sigma(double x) {
+        if (x == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    /**
+     * tau(x) = (1 - x - sum over k >= 1 of (1 - x^(2^-k))^2 * 2^-k) / 3, from Ertl's estimator
+     */
+    private static double tau(double x) {
+        if (x == 0 || x == 1) {
+            return 0;
+        }
+        double y = 1;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while (z != previous);
+        return z / 3;
+    }
+}
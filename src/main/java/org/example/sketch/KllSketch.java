@@ -0,0 +1,305 @@
+package org.example.sketch;
+
+import java.util.Arrays;
+
+/**
+ * KLL quantile sketch (Karnin, Lang and Liberty, "Optimal Quantile Approximation in Streams").
+ * Values are kept in a stack of compactors: level h holds items that each stand for 2^h input values.
+ * When the sketch is full, the lowest level over its capacity is sorted and every other item (starting
+ * at a random offset) is promoted to the level above, halving the items while keeping ranks unbiased.
+ * Level capacities shrink geometrically from k at the top, so the sketch retains O(k log(n / k)) items.
+ * <p>
+ * The rank error of a quantile is roughly 1.7 / k with high probability (about 1% for the default k of 200)
+ * and does not depend on n; {@link #getMin()} and {@link #getMax()} are exact, and the sketch is exact
+ * until its first compaction. Sketches merge without losing accuracy. Compaction offsets come from a
+ * fixed-seed generator, so the same updates and merges always give the same result. Instances are not thread-safe.
+ */
+public class KllSketch {
+    public static final int DEFAULT_K = 200;
+
+    // Capacity of each level relative to the one above it
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_LEVEL_CAPACITY = 2;
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private final int k;
+
+    // Items of each level; only the first levelSizes[h] of levels[h] are set
+    private double[][] levels = new double[1][];
+    private int[] levelSizes = new int[1];
+    private int levelCount = 1;
+
+    // Items across all levels, and how many fit before a compaction
+    private int retained;
+    private int capacity;
+
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private long random = SEED;
+
+    // Retained items in sorted order with their cumulative weights, built on the first query after an update
+    private double[] sortedItems;
+    private long[] cumulativeWeights;
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * @param k Accuracy parameter; the rank error is roughly 1.7 / k and memory grows linearly with k
+     */
+    public KllSketch(int k) {
+        if (k < MIN_LEVEL_CAPACITY) {
+            throw new IllegalArgumentException("k must be at least " + MIN_LEVEL_CAPACITY + ": " + k);
+        }
+        this.k = k;
+        levels[0] = new double[levelCapacity(0)];
+        capacity = totalCapacity();
+    }
+
+    /**
+     * Add a value
+     * @param value The value to add
+     */
+    public void update(double value) {
+        if (count == 0 || Double.compare(value, min) < 0) {
+            min = value;
+        }
+        if (count == 0 || Double.compare(value, max) > 0) {
+            max = value;
+        }
+        count++;
+        append(0, value);
+        sortedItems = null;
+        if (retained >= capacity) {
+            compress();
+        }
+    }
+
+    /**
+     * Add the values summarized by another sketch to this one
+     * @param other The sketch to merge in; it is not modified
+     */
+    public void merge(KllSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        while (levelCount < other.levelCount) {
+            addLevel();
+        }
+        for (int h = 0; h < other.levelCount; h++) {
+            for (int i = 0; i < other.levelSizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        if (count == 0 || Double.compare(other.min, min) < 0) {
+            min = other.min;
+        }
+        if (count == 0 || Double.compare(other.max, max) > 0) {
+            max = other.max;
+        }
+        count += other.count;
+        sortedItems = null;
+        while (retained >= capacity) {
+            compress();
+        }
+    }
+
+    /**
+     * Estimate the value at a normalized rank, using the nearest-rank definition: the smallest
+     * value such that at least {@code fraction * n} of the values are less than or equal to it
+     * @param fraction Rank between 0 and 1
+     * @return The estimated quantile, or NaN if the sketch is empty
+     */
+    public double getQuantile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Rank must be between 0 and 1: " + fraction);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (fraction == 0) {
+            return min;
+        }
+        if (fraction == 1) {
+            return max;
+        }
+        buildSortedView();
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        int index = Arrays.binarySearch(cumulativeWeights, rank);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return sortedItems[Math.min(index, sortedItems.length - 1)];
+    }
+
+    /**
+     * Estimate the fraction of values that are less than or equal to a value
+     * @param value The value to rank
+     * @return Normalized rank between 0 and 1, or NaN if the sketch is empty
+     */
+    public double getRank(double value) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        buildSortedView();
+        long weight = 0;
+        for (int i = 0; i < sortedItems.length && Double.compare(sortedItems[i], value) <= 0; i++) {
+            weight = cumulativeWeights[i];
+        }
+        return (double) weight / count;
+    }
+
+    public long getN() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Number of items the sketch currently holds
+     */
+    public int getRetainedItems() {
+        return retained;
+    }
+
+    /**
+     * Whether quantiles are estimates, i.e. values have been compacted
+     */
+    public boolean isEstimationMode() {
+        return levelCount > 1;
+    }
+
+    private void append(int level, double value) {
+        if (levelSizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.max(MIN_LEVEL_CAPACITY, levels[level].length * 2));
+        }
+        levels[level][levelSizes[level]++] = value;
+        retained++;
+    }
+
+    /**
+     * Compact the lowest level that is at or over its capacity
+     */
+    private void compress() {
+        for (int h = 0; h < levelCount; h++) {
+            if (levelSizes[h] >= levelCapacity(h)) {
+                compact(h);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Promote every other item of a level, starting at a random offset, to the level above.
+     * With an odd number of items the largest stays behind.
+     */
+    private void compact(int level) {
+        if (level + 1 == levelCount) {
+            addLevel();
+        }
+        double[] items = levels[level];
+        int size = levelSizes[level];
+        Arrays.sort(items, 0, size);
+
+        int pairs = size / 2;
+        int offset = nextBit();
+        for (int i = 0; i < pairs; i++) {
+            append(level + 1, items[2 * i + offset]);
+        }
+        if (size % 2 == 1) {
+            items[0] = items[size - 1];
+        }
+        levelSizes[level] = size % 2;
+        retained -= 2 * pairs;
+    }
+
+    private void addLevel() {
+        if (levelCount == levels.length) {
+            levels = Arrays.copyOf(levels, levelCount * 2);
+            levelSizes = Arrays.copyOf(levelSizes, levelCount * 2);
+        }
+        levels[levelCount] = new double[MIN_LEVEL_CAPACITY];
+        levelCount++;
+        capacity = totalCapacity();
+    }
+
+    /**
+     * Capacity of a level: k at the top level, shrinking by CAPACITY_DECAY for each level below
+     */
+    private int levelCapacity(int level) {
+        int depth = levelCount - level - 1;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private int totalCapacity() {
+        int total = 0;
+        for (int h = 0; h < levelCount; h++) {
+            total += levelCapacity(h);
+        }
+        return total;
+    }
+
+    /**
+     * Next bit of a xorshift generator; a fixed seed keeps results reproducible
+     */
+    private int nextBit() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return (int) (random >>> 63);
+    }
+
+    /**
+     * Merge the sorted levels into one sorted run of items with cumulative weights
+     */
+    private void buildSortedView() {
+        if (sortedItems != null) {
+            return;
+        }
+        double[] items = new double[0];
+        long[] weights = new long[0];
+        for (int h = 0; h < levelCount; h++) {
+            double[] level = Arrays.copyOf(levels[h], levelSizes[h]);
+            Arrays.sort(level);
+            long weight = 1L << h;
+
+            // Merge this level into the run built so far
+            double[] mergedItems = new double[items.length + level.length];
+            long[] mergedWeights = new long[mergedItems.length];
+            int i = 0;
+            int j = 0;
+            for (int out = 0; out < mergedItems.length; out++) {
+                if (j == level.length || (i < items.length && Double.compare(items[i], level[j]) <= 0)) {
+                    mergedItems[out] = items[i];
+                    mergedWeights[out] = weights[i++];
+                } else {
+                    mergedItems[out] = level[j++];
+                    mergedWeights[out] = weight;
+                }
+            }
+            items = mergedItems;
+            weights = mergedWeights;
+        }
+        for (int i = 1; i < weights.length; i++) {
+            weights[i] += weights[i - 1];
+        }
+        sortedItems = items;
+        cumulativeWeights = weights;
+    }
+}
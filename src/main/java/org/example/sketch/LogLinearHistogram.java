@@ -0,0 +1,162 @@
+package org.example.sketch;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of non-negative int values, bucketed the way HdrHistogram does it. Values below
+ * 2^p are counted exactly; above that every power-of-two range is split into 2^(p-1) equal buckets, so a
+ * bucket is never wider than 2^-(p-1) of the values in it. Recording is O(1), memory is bounded by the
+ * largest value (at most about 31 * 2^(p-1) counters) and histograms with the same precision merge by
+ * adding counters.
+ * <p>
+ * Precision guarantee: {@link #getValueAtPercentile(double)} returns the largest value of the bucket that
+ * holds the nearest-rank percentile, clamped to the recorded minimum and maximum. The result is exact for
+ * values below 2^p and otherwise at most 2^-(p-1) above the true value (0.1% for the default p of 11,
+ * i.e. exact up to 2047 and three significant digits after that). {@link #getMin()} and {@link #getMax()}
+ * are exact. Negative values are counted as 0. Instances are not thread-safe.
+ */
+public class LogLinearHistogram {
+    public static final int DEFAULT_PRECISION_BITS = 11;
+
+    private static final int MIN_PRECISION_BITS = 1;
+    private static final int MAX_PRECISION_BITS = 20;
+
+    private final int precisionBits;
+
+    // Buckets per power of two above the exact range, as a shift
+    private final int subBucketBits;
+
+    // Count of each bucket, grown to the highest bucket used so far
+    private long[] counts = new long[0];
+
+    private long totalCount;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+
+    public LogLinearHistogram() {
+        this(DEFAULT_PRECISION_BITS);
+    }
+
+    /**
+     * @param precisionBits Values below 2^precisionBits are exact and larger ones have a relative
+     *                      error of at most 2^-(precisionBits - 1)
+     */
+    public LogLinearHistogram(int precisionBits) {
+        if (precisionBits < MIN_PRECISION_BITS || precisionBits > MAX_PRECISION_BITS) {
+            throw new IllegalArgumentException("Precision bits must be between " + MIN_PRECISION_BITS + " and "
+                    + MAX_PRECISION_BITS + ": " + precisionBits);
+        }
+        this.precisionBits = precisionBits;
+        this.subBucketBits = precisionBits - 1;
+    }
+
+    /**
+     * Record a value
+     * @param value The value to record
+     */
+    public void record(int value) {
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        int index = bucketIndex(Math.max(0, value));
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+        }
+        counts[index]++;
+        totalCount++;
+    }
+
+    /**
+     * Add the counts of another histogram to this one
+     * @param other The histogram to merge in; it is not modified
+     */
+    public void merge(LogLinearHistogram other) {
+        if (other.precisionBits != precisionBits) {
+            throw new IllegalArgumentException("Cannot merge histograms with precision bits " + precisionBits
+                    + " and " + other.precisionBits);
+        }
+        if (other.totalCount == 0) {
+            return;
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Get a percentile using the nearest-rank definition, within the precision described above
+     * @param percentile Percentile between 0 and 100
+     * @return The percentile, or 0 if no values were recorded
+     */
+    public int getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int index = 0; index < counts.length; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(max, highestEquivalentValue(index)));
+            }
+        }
+        return max;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public boolean isEmpty() {
+        return totalCount == 0;
+    }
+
+    /**
+     * Get the smallest recorded value
+     * @return The minimum, or 0 if no values were recorded
+     */
+    public int getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    /**
+     * Get the largest recorded value
+     * @return The maximum, or 0 if no values were recorded
+     */
+    public int getMax() {
+        return totalCount == 0 ? 0 : max;
+    }
+
+    public int getPrecisionBits() {
+        return precisionBits;
+    }
+
+    /**
+     * Index of the bucket of a non-negative value: the value itself below 2^p, and above that
+     * the number of halvings needed to bring the value into [2^(p-1), 2^p), times 2^(p-1), plus the halved value
+     */
+    int bucketIndex(int value) {
+        int shift = Math.max(0, 31 - Integer.numberOfLeadingZeros(value) - subBucketBits);
+        return (shift << subBucketBits) + (value >>> shift);
+    }
+
+    /**
+     * Largest value that falls into a bucket
+     */
+    int highestEquivalentValue(int index) {
+        if (index < (1 << precisionBits)) {
+            return index;
+        }
+        int shift = (index >>> subBucketBits) - 1;
+        long subBucket = index - ((long) shift << subBucketBits);
+        return (int) Math.min(Integer.MAX_VALUE, ((subBucket + 1) << shift) - 1);
+    }
+}
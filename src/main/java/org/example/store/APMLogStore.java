@@ -0,0 +1,109 @@
+package org.example.store;
+
+import org.example.model.APMLogEntry;
+
+/**
+ * Columnar store of APM log entries: timestamps, host ids, metric ids and values are kept in
+ * separate primitive columns, 24 bytes per entry. Scans read the column arrays of each chunk
+ * directly, as with {@link RequestLogStore}. Raw data is not stored.
+ */
+public class APMLogStore extends ChunkedStore {
+    private long[][] timestamps = new long[4][];
+    private int[][] hostIds = new int[4][];
+    private int[][] metricIds = new int[4][];
+    private double[][] values = new double[4][];
+
+    /**
+     * Append the stored columns of an entry
+     * @param entry The entry to append
+     */
+    public void add(APMLogEntry entry) {
+        add(entry.getTimestampMillis(), entry.getHostId(), entry.getMetricId(), entry.getValue());
+    }
+
+    /**
+     * Append a row
+     * @param timestampMillis UTC epoch milliseconds, or {@link org.example.model.LogEntry#NO_TIMESTAMP}
+     * @param hostId {@link org.example.model.Symbols#HOSTS} id of the host
+     * @param metricId {@link org.example.model.Symbols#METRICS} id of the metric
+     * @param value The metric value
+     */
+    public void add(long timestampMillis, int hostId, int metricId, double value) {
+        int row = nextRow();
+        int chunk = chunkOf(row);
+        int offset = offsetOf(row);
+        timestamps[chunk][offset] = timestampMillis;
+        hostIds[chunk][offset] = hostId;
+        metricIds[chunk][offset] = metricId;
+        values[chunk][offset] = value;
+    }
+
+    /**
+     * Append all rows of another store, in order
+     * @param other The rows to append
+     */
+    public void addAll(APMLogStore other) {
+        for (int chunk = 0; chunk < other.getChunkCount(); chunk++) {
+            int length = other.getChunkLength(chunk);
+            long[] otherTimestamps = other.timestamps[chunk];
+            int[] otherHostIds = other.hostIds[chunk];
+            int[] otherMetricIds = other.metricIds[chunk];
+            double[] otherValues = other.values[chunk];
+            for (int i = 0; i < length; i++) {
+                add(otherTimestamps[i], otherHostIds[i], otherMetricIds[i], otherValues[i]);
+            }
+        }
+    }
+
+    @Override
+    protected void allocateChunk(int chunk) {
+        timestamps = ensureChunkCapacity(timestamps, chunk);
+        hostIds = ensureChunkCapacity(hostIds, chunk);
+        metricIds = ensureChunkCapacity(metricIds, chunk);
+        values = ensureChunkCapacity(values, chunk);
+        timestamps[chunk] = new long[CHUNK_SIZE];
+        hostIds[chunk] = new int[CHUNK_SIZE];
+        metricIds[chunk] = new int[CHUNK_SIZE];
+        values[chunk] = new double[CHUNK_SIZE];
+    }
+
+    // Column arrays of a chunk; only the first getChunkLength(chunk) values are set
+
+    public long[] getTimestamps(int chunk) {
+        return timestamps[checkChunk(chunk)];
+    }
+
+    public int[] getHostIds(int chunk) {
+        return hostIds[checkChunk(chunk)];
+    }
+
+    public int[] getMetricIds(int chunk) {
+        return metricIds[checkChunk(chunk)];
+    }
+
+    public double[] getValues(int chunk) {
+        return values[checkChunk(chunk)];
+    }
+
+    // Values of a single row
+
+    public long getTimestampMillis(int row) {
+        checkRow(row);
+        return timestamps[chunkOf(row)][offsetOf(row)];
+    }
+
+    public int getHostId(int row) {
+        checkRow(row);
+        return hostIds[chunkOf(row)][offsetOf(row)];
+    }
+
+    public int getMetricId(int row) {
+        checkRow(row);
+        return metricIds[chunkOf(row)][offsetOf(row)];
+    }
+
+    public double getValue(int row) {
+        checkRow(row);
+        return values[chunkOf(row)][offsetOf(row)];
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.store;
+
+import org.example.model.ApplicationLogEntry;
+
+/**
+ * Columnar store of application log entries: timestamps, host ids and level ids in separate
+ * primitive columns, 16 bytes per entry. Messages and raw data are not stored.
+ */
+public class ApplicationLogStore extends ChunkedStore {
+    private long[][] timestamps = new long[4][];
+    private int[][] hostIds = new int[4][];
+    private int[][] levelIds = new int[4][];
+
+    /**
+     * Append the stored columns of an entry
+     * @param entry The entry to append
+     */
+    public void add(ApplicationLogEntry entry) {
+        add(entry.getTimestampMillis(), entry.getHostId(), entry.getLevelId());
+    }
+
+    /**
+     * Append a row
+     * @param timestampMillis UTC epoch milliseconds, or {@link org.example.model.LogEntry#NO_TIMESTAMP}
+     * @param hostId {@link org.example.model.Symbols#HOSTS} id of the host
+     * @param levelId {@link org.example.model.Symbols#LEVELS} id of the level
+     */
+    public void add(long timestampMillis, int hostId, int levelId) {
+        int row = nextRow();
+        int chunk = chunkOf(row);
+        int offset = offsetOf(row);
+        timestamps[chunk][offset] = timestampMillis;
+        hostIds[chunk][offset] = hostId;
+        levelIds[chunk][offset] = levelId;
+    }
+
+    /**
+     * Append all rows of another store, in order
+     * @param other The rows to append
+     */
+    public void addAll(ApplicationLogStore other) {
+        for (int chunk = 0; chunk < other.getChunkCount(); chunk++) {
+            int length = other.getChunkLength(chunk);
+            long[] otherTimestamps = other.timestamps[chunk];
+            int[] otherHostIds = other.hostIds[chunk];
+            int[] otherLevelIds = other.levelIds[chunk];
+            for (int i = 0; i < length; i++) {
+                add(otherTimestamps[i], otherHostIds[i], otherLevelIds[i]);
+            }
+        }
+    }
+
+    @Override
+    protected void allocateChunk(int chunk) {
+        timestamps = ensureChunkCapacity(timestamps, chunk);
+        hostIds = ensureChunkCapacity(hostIds, chunk);
+        levelIds = ensureChunkCapacity(levelIds, chunk);
+        timestamps[chunk] = new long[CHUNK_SIZE];
+        hostIds[chunk] = new int[CHUNK_SIZE];
+        levelIds[chunk] = new int[CHUNK_SIZE];
+    }
+
+    // Column arrays of a chunk; only the first getChunkLength(chunk) values are set
+
+    public long[] getTimestamps(int chunk) {
+        return timestamps[checkChunk(chunk)];
+    }
+
+    public int[] getHostIds(int chunk) {
+        return hostIds[checkChunk(chunk)];
+    }
+
+    public int[] getLevelIds(int chunk) {
+        return levelIds[checkChunk(chunk)];
+    }
+
+    // Values of a single row
+
+    public long getTimestampMillis(int row) {
+        checkRow(row);
+        return timestamps[chunkOf(row)][offsetOf(row)];
+    }
+
+    public int getHostId(int row) {
+        checkRow(row);
+        return hostIds[chunkOf(row)][offsetOf(row)];
+    }
+
+    public int getLevelId(int row) {
+        checkRow(row);
+        return levelIds[chunkOf(row)][offsetOf(row)];
+    }
+}
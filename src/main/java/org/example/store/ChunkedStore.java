@@ -0,0 +1,96 @@
+package org.example.store;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Base class for columnar stores. Rows are appended to fixed-size chunks, one primitive array
+ * per column and chunk, so growing the store never copies existing rows and a scan over a chunk
+ * is a plain loop over a few arrays. Subclasses own the column arrays and allocate them in
+ * {@link #allocateChunk(int)}.
+ */
+public abstract class ChunkedStore {
+    // Rows per chunk; a power of two so a row index splits into chunk and offset with shifts
+    public static final int CHUNK_SHIFT = 14;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private int size;
+    private int chunkCount;
+
+    /**
+     * Allocate the column arrays of a new chunk, growing the arrays of chunks if needed
+     * @param chunk Index of the new chunk
+     */
+    protected abstract void allocateChunk(int chunk);
+
+    /**
+     * Reserve the next row and return its index; the caller then writes the row's columns
+     * through {@link #chunkOf(int)} and {@link #offsetOf(int)}
+     */
+    protected int nextRow() {
+        int row = size;
+        if ((row & CHUNK_MASK) == 0 && chunkOf(row) == chunkCount) {
+            allocateChunk(chunkCount++);
+        }
+        size++;
+        return row;
+    }
+
+    /**
+     * Check that a row index is in range and return it
+     */
+    protected int checkRow(int row) {
+        return Objects.checkIndex(row, size);
+    }
+
+    /**
+     * Check that a chunk index is in range and return it
+     */
+    protected int checkChunk(int chunk) {
+        return Objects.checkIndex(chunk, chunkCount);
+    }
+
+    protected static int chunkOf(int row) {
+        return row >>> CHUNK_SHIFT;
+    }
+
+    protected static int offsetOf(int row) {
+        return row & CHUNK_MASK;
+    }
+
+    /**
+     * Grow an array of chunk arrays so it has room for the given chunk
+     */
+    protected static <T> T[] ensureChunkCapacity(T[] chunks, int chunk) {
+        return chunk < chunks.length ? chunks : Arrays.copyOf(chunks, Math.max(chunk + 1, chunks.length * 2));
+    }
+
+    /**
+     * Number of rows in the store
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Number of chunks holding rows
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * Number of rows held in a chunk; every chunk but the last is full
+     * @param chunk Index of the chunk, less than {@link #getChunkCount()}
+     * @return The number of rows in the chunk
+     */
+    public int getChunkLength(int chunk) {
+        checkChunk(chunk);
+        return chunk < chunkCount - 1 ? CHUNK_SIZE : size - (chunk << CHUNK_SHIFT);
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.store;
+
+import org.example.model.APMLogEntry;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Off-heap store of APM log entries as fixed 24-byte records: timestamp (8 bytes),
+ * host id and metric id (4 bytes each) and value (8 bytes). Raw data is not stored.
+ */
+public class OffHeapAPMLogStore extends OffHeapStore {
+    // Record layout, in bytes
+    public static final int TIMESTAMP = 0;
+    public static final int HOST_ID = 8;
+    public static final int METRIC_ID = 12;
+    public static final int VALUE = 16;
+    public static final int RECORD_SIZE = 24;
+
+    public OffHeapAPMLogStore() {
+        super(RECORD_SIZE);
+    }
+
+    /**
+     * Append the stored fields of an entry
+     * @param entry The entry to append
+     */
+    public void add(APMLogEntry entry) {
+        add(entry.getTimestampMillis(), entry.getHostId(), entry.getMetricId(), entry.getValue());
+    }
+
+    /**
+     * Append a record; see {@link APMLogStore#add(long, int, int, double)}
+     */
+    public void add(long timestampMillis, int hostId, int metricId, double value) {
+        int row = nextRow();
+        ByteBuffer records = bufferOf(row);
+        int position = positionOf(row);
+        records.putLong(position + TIMESTAMP, timestampMillis);
+        records.putInt(position + HOST_ID, hostId);
+        records.putInt(position + METRIC_ID, metricId);
+        records.putDouble(position + VALUE, value);
+    }
+
+    public long getTimestampMillis(int row) {
+        checkRow(row);
+        return bufferOf(row).getLong(positionOf(row) + TIMESTAMP);
+    }
+
+    public int getHostId(int row) {
+        checkRow(row);
+        return bufferOf(row).getInt(positionOf(row) + HOST_ID);
+    }
+
+    public int getMetricId(int row) {
+        checkRow(row);
+        return bufferOf(row).getInt(positionOf(row) + METRIC_ID);
+    }
+
+    public double getValue(int row) {
+        checkRow(row);
+        return bufferOf(row).getDouble(positionOf(row) + VALUE);
+    }
+}
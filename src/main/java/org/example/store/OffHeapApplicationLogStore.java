@@ -0,0 +1,59 @@
+package org.example.store;
+
+import org.example.model.ApplicationLogEntry;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Off-heap store of application log entries as fixed 16-byte records: timestamp (8 bytes),
+ * host id and level id (4 bytes each). Messages and raw data are not stored.
+ */
+public class OffHeapApplicationLogStore extends OffHeapStore {
+    // Record layout, in bytes
+    public static final int TIMESTAMP = 0;
+    public static final int HOST_ID = 8;
+    public static final int LEVEL_ID = 12;
+    public static final int RECORD_SIZE = 16;
+
+    public OffHeapApplicationLogStore() {
+        super(RECORD_SIZE);
+    }
+
+    /**
+     * Append the stored fields of an entry
+     * @param entry The entry to append
+     */
+    public void add(ApplicationLogEntry entry) {
+        add(entry.getTimestampMillis(), entry.getHostId(), entry.getLevelId());
+    }
+
+    /**
+     * Append a record
+     * @param timestampMillis UTC epoch milliseconds, or {@link org.example.model.LogEntry#NO_TIMESTAMP}
+     * @param hostId {@link org.example.model.Symbols#HOSTS} id of the host
+     * @param levelId {@link org.example.model.Symbols#LEVELS} id of the level
+     */
+    public void add(long timestampMillis, int hostId, int levelId) {
+        int row = nextRow();
+        ByteBuffer records = bufferOf(row);
+        int position = positionOf(row);
+        records.putLong(position + TIMESTAMP, timestampMillis);
+        records.putInt(position + HOST_ID, hostId);
+        records.putInt(position + LEVEL_ID, levelId);
+    }
+
+    public long getTimestampMillis(int row) {
+        checkRow(row);
+        return bufferOf(row).getLong(positionOf(row) + TIMESTAMP);
+    }
+
+    public int getHostId(int row) {
+        checkRow(row);
+        return bufferOf(row).getInt(positionOf(row) + HOST_ID);
+    }
+
+    public int getLevelId(int row) {
+        checkRow(row);
+        return bufferOf(row).getInt(positionOf(row) + LEVEL_ID);
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.store;
+
+import org.example.model.RequestLogEntry;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Off-heap store of request log entries as fixed 24-byte records: timestamp (8 bytes), host id,
+ * route id and response time (4 bytes each) and status code (2 bytes, stored like
+ * {@link RequestLogStore}). Request methods and raw data are not stored.
+ */
+public class OffHeapRequestLogStore extends OffHeapStore {
+    // Record layout, in bytes
+    public static final int TIMESTAMP = 0;
+    public static final int HOST_ID = 8;
+    public static final int ROUTE_ID = 12;
+    public static final int RESPONSE_TIME_MS = 16;
+    public static final int RESPONSE_STATUS = 20;
+    public static final int RECORD_SIZE = 24;
+
+    public OffHeapRequestLogStore() {
+        super(RECORD_SIZE);
+    }
+
+    /**
+     * Append the stored fields of an entry
+     * @param entry The entry to append
+     */
+    public void add(RequestLogEntry entry) {
+        add(entry.getTimestampMillis(), entry.getHostId(), entry.getRouteId(), entry.getResponseStatus(),
+                entry.getResponseTimeMs());
+    }
+
+    /**
+     * Append a record; see {@link RequestLogStore#add(long, int, int, int, int)}
+     */
+    public void add(long timestampMillis, int hostId, int routeId, int responseStatus, int responseTimeMs) {
+        int row = nextRow();
+        ByteBuffer records = bufferOf(row);
+        int position = positionOf(row);
+        records.putLong(position + TIMESTAMP, timestampMillis);
+        records.putInt(position + HOST_ID, hostId);
+        records.putInt(position + ROUTE_ID, routeId);
+        records.putInt(position + RESPONSE_TIME_MS, responseTimeMs);
+        records.putShort(position + RESPONSE_STATUS, RequestLogStore.toShortStatus(responseStatus));
+    }
+
+    public long getTimestampMillis(int row) {
+        checkRow(row);
+        return bufferOf(row).getLong(positionOf(row) + TIMESTAMP);
+    }
+
+    public int getHostId(int row) {
+        checkRow(row);
+        return bufferOf(row).getInt(positionOf(row) + HOST_ID);
+    }
+
+    public int getRouteId(int row) {
+        checkRow(row);
+        return bufferOf(row).getInt(positionOf(row) + ROUTE_ID);
+    }
+
+    public int getResponseStatus(int row) {
+        checkRow(row);
+        return bufferOf(row).getShort(positionOf(row) + RESPONSE_STATUS);
+    }
+
+    public int getResponseTimeMs(int row) {
+        checkRow(row);
+        return bufferOf(row).getInt(positionOf(row) + RESPONSE_TIME_MS);
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Base class for stores that keep fixed-size records in direct (off-heap) buffers, one buffer
+ * per chunk. Only the small buffer objects live on the heap, so the heap stays the same size no
+ * matter how many entries are stored; the record memory is released when the store is garbage
+ * collected. Off-heap memory is limited by {@code -XX:MaxDirectMemorySize}. Records use the
+ * native byte order; subclasses define the layout and read and write it with absolute accessors.
+ */
+public abstract class OffHeapStore extends ChunkedStore {
+    private final int recordSize;
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+
+    /**
+     * @param recordSize Size of one record in bytes
+     */
+    protected OffHeapStore(int recordSize) {
+        this.recordSize = recordSize;
+    }
+
+    @Override
+    protected void allocateChunk(int chunk) {
+        chunks = ensureChunkCapacity(chunks, chunk);
+        chunks[chunk] = ByteBuffer.allocateDirect(CHUNK_SIZE * recordSize).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Records of a chunk; the record at offset i starts at byte {@code i * recordSize}.
+     * Only the first {@link #getChunkLength(int)} records are set.
+     * @param chunk Index of the chunk
+     * @return The chunk's buffer, to be read with absolute accessors
+     */
+    public ByteBuffer getRecords(int chunk) {
+        return chunks[checkChunk(chunk)];
+    }
+
+    /**
+     * Buffer holding a row, to be read or written at {@link #positionOf(int)}
+     */
+    protected ByteBuffer bufferOf(int row) {
+        return chunks[chunkOf(row)];
+    }
+
+    /**
+     * Byte position of a row's record within its chunk's buffer
+     */
+    protected int positionOf(int row) {
+        return offsetOf(row) * recordSize;
+    }
+}
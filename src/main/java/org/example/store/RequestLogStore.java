@@ -0,0 +1,143 @@
+package org.example.store;
+
+import org.example.model.RequestLogEntry;
+
+/**
+ * Columnar store of request log entries: timestamps, host ids, route ids, status codes and
+ * response times are kept in separate primitive columns, about 22 bytes per entry. Scans read
+ * the column arrays of each chunk directly, e.g.
+ * <pre>
+ * for (int chunk = 0; chunk &lt; store.getChunkCount(); chunk++) {
+ *     int[] responseTimes = store.getResponseTimes(chunk);
+ *     for (int i = 0; i &lt; store.getChunkLength(chunk); i++) { ... }
+ * }
+ * </pre>
+ * Request methods and raw data are not stored. Status codes outside the range of a short are
+ * stored as {@link #STATUS_OUT_OF_RANGE}, which falls in the "Other" category like they do.
+ */
+public class RequestLogStore extends ChunkedStore {
+    // Stored in place of a status code that does not fit in a short
+    public static final short STATUS_OUT_OF_RANGE = Short.MIN_VALUE;
+
+    private long[][] timestamps = new long[4][];
+    private int[][] hostIds = new int[4][];
+    private int[][] routeIds = new int[4][];
+    private short[][] responseStatuses = new short[4][];
+    private int[][] responseTimes = new int[4][];
+
+    /**
+     * Append the stored columns of an entry
+     * @param entry The entry to append
+     */
+    public void add(RequestLogEntry entry) {
+        add(entry.getTimestampMillis(), entry.getHostId(), entry.getRouteId(), entry.getResponseStatus(),
+                entry.getResponseTimeMs());
+    }
+
+    /**
+     * Append a row
+     * @param timestampMillis UTC epoch milliseconds, or {@link org.example.model.LogEntry#NO_TIMESTAMP}
+     * @param hostId {@link org.example.model.Symbols#HOSTS} id of the host
+     * @param routeId {@link org.example.model.Symbols#ROUTES} id of the request URL
+     * @param responseStatus HTTP status code
+     * @param responseTimeMs Response time in milliseconds
+     */
+    public void add(long timestampMillis, int hostId, int routeId, int responseStatus, int responseTimeMs) {
+        int row = nextRow();
+        int chunk = chunkOf(row);
+        int offset = offsetOf(row);
+        timestamps[chunk][offset] = timestampMillis;
+        hostIds[chunk][offset] = hostId;
+        routeIds[chunk][offset] = routeId;
+        responseStatuses[chunk][offset] = toShortStatus(responseStatus);
+        responseTimes[chunk][offset] = responseTimeMs;
+    }
+
+    /**
+     * Append all rows of another store, in order
+     * @param other The rows to append
+     */
+    public void addAll(RequestLogStore other) {
+        for (int chunk = 0; chunk < other.getChunkCount(); chunk++) {
+            int length = other.getChunkLength(chunk);
+            long[] otherTimestamps = other.timestamps[chunk];
+            int[] otherHostIds = other.hostIds[chunk];
+            int[] otherRouteIds = other.routeIds[chunk];
+            short[] otherStatuses = other.responseStatuses[chunk];
+            int[] otherResponseTimes = other.responseTimes[chunk];
+            for (int i = 0; i < length; i++) {
+                add(otherTimestamps[i], otherHostIds[i], otherRouteIds[i], otherStatuses[i], otherResponseTimes[i]);
+            }
+        }
+    }
+
+    @Override
+    protected void allocateChunk(int chunk) {
+        timestamps = ensureChunkCapacity(timestamps, chunk);
+        hostIds = ensureChunkCapacity(hostIds, chunk);
+        routeIds = ensureChunkCapacity(routeIds, chunk);
+        responseStatuses = ensureChunkCapacity(responseStatuses, chunk);
+        responseTimes = ensureChunkCapacity(responseTimes, chunk);
+        timestamps[chunk] = new long[CHUNK_SIZE];
+        hostIds[chunk] = new int[CHUNK_SIZE];
+        routeIds[chunk] = new int[CHUNK_SIZE];
+        responseStatuses[chunk] = new short[CHUNK_SIZE];
+        responseTimes[chunk] = new int[CHUNK_SIZE];
+    }
+
+    /**
+     * Narrow a status code to a short, or {@link #STATUS_OUT_OF_RANGE} if it does not fit
+     */
+    static short toShortStatus(int responseStatus) {
+        return responseStatus == (short) responseStatus ? (short) responseStatus : STATUS_OUT_OF_RANGE;
+    }
+
+    // Column arrays of a chunk; only the first getChunkLength(chunk) values are set
+
+    public long[] getTimestamps(int chunk) {
+        return timestamps[checkChunk(chunk)];
+    }
+
+    public int[] getHostIds(int chunk) {
+        return hostIds[checkChunk(chunk)];
+    }
+
+    public int[] getRouteIds(int chunk) {
+        return routeIds[checkChunk(chunk)];
+    }
+
+    public short[] getResponseStatuses(int chunk) {
+        return responseStatuses[checkChunk(chunk)];
+    }
+
+    public int[] getResponseTimes(int chunk) {
+        return responseTimes[checkChunk(chunk)];
+    }
+
+    // Values of a single row
+
+    public long getTimestampMillis(int row) {
+        checkRow(row);
+        return timestamps[chunkOf(row)][offsetOf(row)];
+    }
+
+    public int getHostId(int row) {
+        checkRow(row);
+        return hostIds[chunkOf(row)][offsetOf(row)];
+    }
+
+    public int getRouteId(int row) {
+        checkRow(row);
+        return routeIds[chunkOf(row)][offsetOf(row)];
+    }
+
+    public int getResponseStatus(int row) {
+        checkRow(row);
+        return responseStatuses[chunkOf(row)][offsetOf(row)];
+    }
+
+    public int getResponseTimeMs(int row) {
+        checkRow(row);
+        return responseTimes[chunkOf(row)][offsetOf(row)];
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.util;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes numbers and strings straight from byte ranges of a log line.
+ * Plain ASCII input takes a fast path; anything unusual falls back to the standard
+ * String-based parsers so the results and errors match theirs.
+ */
+public class AsciiDecoder {
+    // Largest mantissa for which mantissa / 10^n is exact before rounding (2^53)
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    // Powers of ten that are exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Parse a decimal integer, with the same results as {@link Integer#parseInt(String)}
+     * @throws NumberFormatException If the bytes are not a valid int
+     */
+    public static int parseInt(byte[] buffer, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+
+        // Up to 9 digits cannot overflow an int
+        if (i == to || to - i > 9) {
+            return Integer.parseInt(toAsciiString(buffer, from, to));
+        }
+
+        int result = 0;
+        for (; i < to; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(toAsciiString(buffer, from, to));
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Parse a decimal number, with the same results as {@link Double#parseDouble(String)}
+     * @throws NumberFormatException If the bytes are not a valid double
+     */
+    public static double parseDouble(byte[] buffer, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        for (; i < to; i++) {
+            byte b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA || fractionDigits >= POWERS_OF_TEN.length) {
+                    return Double.parseDouble(toAsciiString(buffer, from, to));
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                // Exponents, NaN, Infinity, type suffixes and malformed input
+                return Double.parseDouble(toAsciiString(buffer, from, to));
+            }
+        }
+
+        if (digits == 0) {
+            return Double.parseDouble(toAsciiString(buffer, from, to));
+        }
+
+        // Both operands are exact, so the division is correctly rounded
+        double value = fractionDigits == 0 ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Decode a byte range as text, copying ASCII bytes directly
+     * @param buffer The buffer holding the text
+     * @param from Offset of the first byte
+     * @param to Offset just past the last byte
+     * @param charset Charset used when the range contains non-ASCII bytes
+     * @return The decoded String
+     */
+    public static String decode(byte[] buffer, int from, int to, Charset charset) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] < 0) {
+                return new String(buffer, from, to - from, charset);
+            }
+        }
+        return toAsciiString(buffer, from, to);
+    }
+
+    private static String toAsciiString(byte[] buffer, int from, int to) {
+        return new String(buffer, from, to - from, StandardCharsets.ISO_8859_1);
+    }
+}
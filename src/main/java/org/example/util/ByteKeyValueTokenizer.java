@@ -0,0 +1,111 @@
+package org.example.util;
+
+/**
+ * Single-pass key=value tokenizer working directly on the bytes of a line.
+ * It accepts exactly the same pairs as {@link KeyValueTokenizer}, without decoding the line
+ * to a String. Bytes outside the ASCII range are never word or whitespace characters, so
+ * UTF-8 input is tokenized the same way as its decoded text.
+ */
+public class ByteKeyValueTokenizer {
+    private static final boolean[] WORD = new boolean[256];
+    private static final boolean[] WHITESPACE = new boolean[256];
+
+    static {
+        for (int c = 'a'; c <= 'z'; c++) {
+            WORD[c] = true;
+        }
+        for (int c = 'A'; c <= 'Z'; c++) {
+            WORD[c] = true;
+        }
+        for (int c = '0'; c <= '9'; c++) {
+            WORD[c] = true;
+        }
+        WORD['_'] = true;
+
+        WHITESPACE[' '] = true;
+        WHITESPACE['\t'] = true;
+        WHITESPACE['\n'] = true;
+        WHITESPACE[0x0B] = true;
+        WHITESPACE['\f'] = true;
+        WHITESPACE['\r'] = true;
+    }
+
+    /**
+     * Tokenize the bytes in [from, to) and report every key=value pair to the visitor
+     * @param buffer The buffer holding the line
+     * @param from Offset of the first byte of the line
+     * @param to Offset just past the last byte of the line
+     * @param visitor Receives the pairs
+     */
+    public static void tokenize(byte[] buffer, int from, int to, ByteKeyValueVisitor visitor) {
+        tokenize(buffer, from, to, visitor, ScalarByteScanner.INSTANCE);
+    }
+
+    /**
+     * Tokenize the bytes in [from, to), locating {@code =}, quotes and the ends of values with
+     * the given scanner, and report every key=value pair to the visitor
+     * @param buffer The buffer holding the line
+     * @param from Offset of the first byte of the line
+     * @param to Offset just past the last byte of the line
+     * @param visitor Receives the pairs
+     * @param scanner Finds the delimiters
+     */
+    public static void tokenize(byte[] buffer, int from, int to, ByteKeyValueVisitor visitor, ByteScanner scanner) {
+        // Keys never start before the end of the previous pair
+        int pairStart = from;
+        int i = from;
+
+        while (i < to) {
+            int equals = scanner.indexOf(buffer, (byte) '=', i, to);
+            if (equals < 0) {
+                return;
+            }
+
+            int keyStart = equals;
+            while (keyStart > pairStart && isWordByte(buffer[keyStart - 1])) {
+                keyStart--;
+            }
+            if (keyStart == equals) {
+                i = equals + 1;
+                continue;
+            }
+
+            int valueStart = equals + 1;
+            if (valueStart < to && buffer[valueStart] == '"') {
+                int closingQuote = scanner.indexOf(buffer, (byte) '"', valueStart + 1, to);
+                if (closingQuote >= 0) {
+                    visitor.visit(buffer, keyStart, equals, valueStart + 1, closingQuote);
+                    pairStart = i = closingQuote + 1;
+                    continue;
+                }
+                // Unterminated quote: the value is the run of non-whitespace, quote included
+            }
+
+            int valueEnd = scanner.indexOfWhitespace(buffer, valueStart, to);
+            if (valueEnd < 0) {
+                valueEnd = to;
+            }
+            if (valueEnd == valueStart) {
+                i = equals + 1;
+                continue;
+            }
+
+            visitor.visit(buffer, keyStart, equals, valueStart, valueEnd);
+            pairStart = i = valueEnd;
+        }
+    }
+
+    /**
+     * Check whether a byte is a regex word character ({@code [a-zA-Z_0-9]})
+     */
+    public static boolean isWordByte(byte b) {
+        return WORD[b & 0xFF];
+    }
+
+    /**
+     * Check whether a byte is a regex whitespace character ({@code [ \t\n\x0B\f\r]})
+     */
+    public static boolean isWhitespaceByte(byte b) {
+        return WHITESPACE[b & 0xFF];
+    }
+}
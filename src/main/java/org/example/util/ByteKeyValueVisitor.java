@@ -0,0 +1,16 @@
+package org.example.util;
+
+/**
+ * Receives the key=value pairs found by {@link ByteKeyValueTokenizer} as offsets into the line buffer
+ */
+public interface ByteKeyValueVisitor {
+    /**
+     * Called once per key=value pair, in the order the pairs appear in the line
+     * @param buffer The buffer holding the line
+     * @param keyStart Offset of the first byte of the key
+     * @param keyEnd Offset just past the last byte of the key
+     * @param valueStart Offset of the first byte of the value (after the opening quote if quoted)
+     * @param valueEnd Offset just past the last byte of the value (before the closing quote if quoted)
+     */
+    void visit(byte[] buffer, int keyStart, int keyEnd, int valueStart, int valueEnd);
+}
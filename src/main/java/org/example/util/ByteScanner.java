@@ -0,0 +1,65 @@
+package org.example.util;
+
+/**
+ * Finds delimiter bytes in a range of a buffer. The byte-level ingest path does all of
+ * its searching for newlines, {@code =}, quotes and whitespace through this interface, so a
+ * SIMD implementation can stand in for the scalar loops. Implementations are stateless
+ * and thread-safe.
+ */
+public interface ByteScanner {
+    // Module that provides the Vector API; it must be enabled with --add-modules at launch
+    String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * Find the first occurrence of a byte
+     * @param buffer The buffer to search
+     * @param target The byte to find
+     * @param from Offset of the first byte to search
+     * @param to Offset just past the last byte to search
+     * @return Offset of the first match, or -1 if there is none
+     */
+    int indexOf(byte[] buffer, byte target, int from, int to);
+
+    /**
+     * Find the first regex whitespace byte ({@code [ \t\n\x0B\f\r]})
+     * @param buffer The buffer to search
+     * @param from Offset of the first byte to search
+     * @param to Offset just past the last byte to search
+     * @return Offset of the first whitespace byte, or -1 if there is none
+     */
+    int indexOfWhitespace(byte[] buffer, int from, int to);
+
+    /**
+     * Get the scalar scanner
+     * @return A scanner that checks one byte at a time
+     */
+    static ByteScanner scalar() {
+        return ScalarByteScanner.INSTANCE;
+    }
+
+    /**
+     * Get the Vector API scanner if the {@value #VECTOR_MODULE} module is enabled,
+     * otherwise the scalar scanner
+     * @return The fastest available scanner
+     */
+    static ByteScanner vectorIfAvailable() {
+        if (!isVectorAvailable()) {
+            return scalar();
+        }
+        try {
+            // Loaded reflectively so the Vector API classes are never resolved without the module
+            return (ByteScanner) Class.forName("org.example.util.VectorByteScanner")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return scalar();
+        }
+    }
+
+    /**
+     * Check whether the {@value #VECTOR_MODULE} module is enabled in this JVM
+     * @return true if the Vector API can be used
+     */
+    static boolean isVectorAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    }
+}
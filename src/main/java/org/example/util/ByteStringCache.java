@@ -0,0 +1,63 @@
+package org.example.util;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Small direct-mapped cache from byte ranges to Strings. Values that repeat on many lines,
+ * such as hosts, metric names, levels and routes, are decoded once and then shared instead
+ * of creating a new String per line. Instances are not thread-safe.
+ */
+public class ByteStringCache {
+    // Longer values are rarely repeated, so they are decoded without caching
+    private static final int MAX_CACHED_LENGTH = 256;
+
+    private final int mask;
+    private final byte[][] keys;
+    private final String[] values;
+    private final Charset charset;
+
+    /**
+     * Create a cache
+     * @param capacity Number of slots, rounded up to a power of two
+     * @param charset Charset used to decode non-ASCII values
+     */
+    public ByteStringCache(int capacity, Charset charset) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.keys = new byte[size][];
+        this.values = new String[size];
+        this.charset = charset;
+    }
+
+    /**
+     * Get the String for a byte range, decoding and caching it if it is not cached yet
+     * @param buffer The buffer holding the value
+     * @param from Offset of the first byte
+     * @param to Offset just past the last byte
+     * @return The decoded String
+     */
+    public String get(byte[] buffer, int from, int to) {
+        int length = to - from;
+        if (length > MAX_CACHED_LENGTH) {
+            return AsciiDecoder.decode(buffer, from, to, charset);
+        }
+
+        int hash = 1;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & mask;
+
+        byte[] key = keys[slot];
+        if (key != null && Arrays.equals(key, 0, key.length, buffer, from, to)) {
+            return values[slot];
+        }
+
+        // Miss: decode and replace whatever occupied the slot
+        String value = AsciiDecoder.decode(buffer, from, to, charset);
+        keys[slot] = Arrays.copyOfRange(buffer, from, to);
+        values[slot] = value;
+        return value;
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.util;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * Small direct-mapped cache from byte ranges to {@link SymbolTable} ids. A value seen on
+ * a previous line resolves to its id with one hash and one byte comparison, without
+ * decoding a String or touching the shared table. Instances are not thread-safe.
+ */
+public class ByteSymbolCache {
+    // Longer values are rarely repeated, so they are looked up without caching
+    private static final int MAX_CACHED_LENGTH = 256;
+
+    private final SymbolTable table;
+    private final UnaryOperator<String> transform;
+    private final Charset charset;
+    private final int mask;
+    private final byte[][] keys;
+    private final int[] ids;
+
+    /**
+     * Create a cache
+     * @param table The table that assigns the ids
+     * @param capacity Number of slots, rounded up to a power of two
+     * @param charset Charset used to decode non-ASCII values
+     */
+    public ByteSymbolCache(SymbolTable table, int capacity, Charset charset) {
+        this(table, capacity, charset, null);
+    }
+
+    /**
+     * Create a cache that maps values through a transform before they are interned, so that only
+     * transformed values get ids, e.g. route templates instead of the URLs they stand for
+     * @param table The table that assigns the ids
+     * @param capacity Number of slots, rounded up to a power of two
+     * @param charset Charset used to decode non-ASCII values
+     * @param transform Maps a decoded value to the value interned in the table, null to intern values as they are
+     */
+    public ByteSymbolCache(SymbolTable table, int capacity, Charset charset, UnaryOperator<String> transform) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.table = table;
+        this.transform = transform;
+        this.charset = charset;
+        this.mask = size - 1;
+        this.keys = new byte[size][];
+        this.ids = new int[size];
+    }
+
+    /**
+     * Get the id of the value held in a byte range
+     * @param buffer The buffer holding the value
+     * @param from Offset of the first byte
+     * @param to Offset just past the last byte
+     * @return The id of the decoded (and transformed) value
+     */
+    public int idOf(byte[] buffer, int from, int to) {
+        if (to - from > MAX_CACHED_LENGTH) {
+            return intern(AsciiDecoder.decode(buffer, from, to, charset));
+        }
+
+        int hash = 1;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & mask;
+
+        byte[] key = keys[slot];
+        if (key != null && Arrays.equals(key, 0, key.length, buffer, from, to)) {
+            return ids[slot];
+        }
+
+        // Miss: resolve through the shared table and replace whatever occupied the slot
+        int id = intern(AsciiDecoder.decode(buffer, from, to, charset));
+        keys[slot] = Arrays.copyOfRange(buffer, from, to);
+        ids[slot] = id;
+        return id;
+    }
+
+    private int intern(String value) {
+        return table.idOf(transform != null ? transform.apply(value) : value);
+    }
+}
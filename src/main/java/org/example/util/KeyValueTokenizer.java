@@ -0,0 +1,95 @@
+package org.example.util;
+
+/**
+ * Single-pass tokenizer for {@code key=value} and {@code key="quoted value"} pairs.
+ * It scans the line once from left to right without backtracking and accepts exactly
+ * the pairs matched by the {@code (\w+)=(?:"([^"]*)"|([^\s]+))} pattern it replaces:
+ * <ul>
+ *   <li>a key is the run of word characters ({@code [a-zA-Z_0-9]}) right before an {@code =},
+ *       starting no earlier than the end of the previous pair;</li>
+ *   <li>a value starting with a quote runs to the next quote, which is dropped;</li>
+ *   <li>any other value, including one with an unterminated quote, runs to the next
+ *       whitespace character;</li>
+ *   <li>an {@code =} without a key or followed by an empty value is skipped.</li>
+ * </ul>
+ */
+public class KeyValueTokenizer {
+
+    /**
+     * Tokenize a line and report every key=value pair to the visitor
+     * @param line The line to tokenize
+     * @param visitor Receives the pairs
+     */
+    public static void tokenize(CharSequence line, KeyValueVisitor visitor) {
+        int length = line.length();
+
+        // Keys never start before the end of the previous pair
+        int pairStart = 0;
+        int i = 0;
+
+        while (i < length) {
+            while (i < length && line.charAt(i) != '=') {
+                i++;
+            }
+            if (i >= length) {
+                return;
+            }
+
+            int equals = i;
+            int keyStart = equals;
+            while (keyStart > pairStart && isWordChar(line.charAt(keyStart - 1))) {
+                keyStart--;
+            }
+            if (keyStart == equals) {
+                i = equals + 1;
+                continue;
+            }
+
+            int valueStart = equals + 1;
+            if (valueStart < length && line.charAt(valueStart) == '"') {
+                int closingQuote = indexOf(line, '"', valueStart + 1);
+                if (closingQuote >= 0) {
+                    visitor.visit(line, keyStart, equals, valueStart + 1, closingQuote);
+                    pairStart = i = closingQuote + 1;
+                    continue;
+                }
+                // Unterminated quote: the value is the run of non-whitespace, quote included
+            }
+
+            int valueEnd = valueStart;
+            while (valueEnd < length && !isWhitespaceChar(line.charAt(valueEnd))) {
+                valueEnd++;
+            }
+            if (valueEnd == valueStart) {
+                i = equals + 1;
+                continue;
+            }
+
+            visitor.visit(line, keyStart, equals, valueStart, valueEnd);
+            pairStart = i = valueEnd;
+        }
+    }
+
+    /**
+     * Check whether a character is a regex word character ({@code [a-zA-Z_0-9]})
+     */
+    public static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * Check whether a character is a regex whitespace character ({@code [ \t\n\x0B\f\r]})
+     */
+    public static boolean isWhitespaceChar(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static int indexOf(CharSequence line, char target, int from) {
+        for (int i = from; i < line.length(); i++) {
+            if (line.charAt(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
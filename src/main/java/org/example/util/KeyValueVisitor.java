@@ -0,0 +1,16 @@
+package org.example.util;
+
+/**
+ * Receives the key=value pairs found by {@link KeyValueTokenizer} as offsets into the line
+ */
+public interface KeyValueVisitor {
+    /**
+     * Called once per key=value pair, in the order the pairs appear in the line
+     * @param line The line being tokenized
+     * @param keyStart Index of the first character of the key
+     * @param keyEnd Index just past the last character of the key
+     * @param valueStart Index of the first character of the value (after the opening quote if quoted)
+     * @param valueEnd Index just past the last character of the value (before the closing quote if quoted)
+     */
+    void visit(CharSequence line, int keyStart, int keyEnd, int valueStart, int valueEnd);
+}
@@ -0,0 +1,92 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Reads a byte range of a file and hands each line to a consumer as a slice of a reused buffer,
+ * without decoding it to a String. Lines end at {@code \n}; a trailing {@code \r} is dropped.
+ */
+public class LineReader {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Receives the lines found by {@link LineReader}
+     */
+    public interface LineConsumer {
+        /**
+         * Called once per line. The buffer is reused, so the bytes are only valid during the call.
+         * @param buffer The buffer holding the line
+         * @param from Offset of the first byte of the line
+         * @param to Offset just past the last byte of the line, excluding the line terminator
+         */
+        void accept(byte[] buffer, int from, int to);
+    }
+
+    private final ByteScanner scanner;
+    private byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+
+    public LineReader() {
+        this(ScalarByteScanner.INSTANCE);
+    }
+
+    /**
+     * @param scanner Finds the line breaks in each block read
+     */
+    public LineReader(ByteScanner scanner) {
+        this.scanner = scanner;
+    }
+
+    /**
+     * Read every line in the byte range [start, end) of a file
+     * @param channel Channel of the file to read
+     * @param start Offset of the first byte to read
+     * @param end Offset just past the last byte to read
+     * @param consumer Receives the lines
+     * @throws IOException If an I/O error occurs
+     */
+    public void readLines(FileChannel channel, long start, long end, LineConsumer consumer) throws IOException {
+        long position = start;
+        int filled = 0;
+
+        while (position < end) {
+            if (filled == buffer.length) {
+                // A single line is longer than the buffer
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+
+            int toRead = (int) Math.min(buffer.length - filled, end - position);
+            int read = channel.read(ByteBuffer.wrap(buffer, filled, toRead), position);
+            if (read <= 0) {
+                break;
+            }
+            position += read;
+
+            int lineStart = 0;
+            int limit = filled + read;
+            int newline = scanner.indexOf(buffer, (byte) '\n', filled, limit);
+            while (newline >= 0) {
+                emit(lineStart, newline, consumer);
+                lineStart = newline + 1;
+                newline = scanner.indexOf(buffer, (byte) '\n', lineStart, limit);
+            }
+
+            // Move the unterminated tail to the front of the buffer
+            filled = limit - lineStart;
+            System.arraycopy(buffer, lineStart, buffer, 0, filled);
+        }
+
+        if (filled > 0) {
+            emit(0, filled, consumer);
+        }
+    }
+
+    private void emit(int from, int to, LineConsumer consumer) {
+        if (to > from && buffer[to - 1] == '\r') {
+            to--;
+        }
+        consumer.accept(buffer, from, to);
+    }
+}
@@ -0,0 +1,244 @@
+package org.example.util;
+
+import org.example.aggregator.AggregationOptions;
+import org.example.aggregator.LogAggregates;
+import org.example.handler.LogDispatcher;
+import org.example.model.LogEntry;
+import org.example.parser.ByteLogParser;
+import org.example.parser.ParseStatus;
+import org.example.segment.SegmentBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Fork-join task that aggregates a range of newline-aligned chunks of a log file.
+ * Each leaf parses its chunk with its own dispatcher and aggregators and counts its own
+ * rejected lines; partial results are merged in file order so the outcome matches a sequential pass.
+ * Only aggregates that start at the first chunk switch APM values to a sketch: the others keep their
+ * values exactly until they are merged into those, which then replay them as a sequential pass would.
+ * A sketch built from merged sketches would only approximate the sequential one.
+ * Tasks are never serialized, even though {@link RecursiveTask} is {@link java.io.Serializable}.
+ */
+@SuppressWarnings("serial")
+class LogChunkTask extends RecursiveTask<LogAggregates> {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final long[] boundaries;
+    private final int fromChunk;
+    private final int toChunk;
+    private final boolean byteParsing;
+    private final ByteScanner scanner;
+    private final Supplier<LogDispatcher> dispatcherFactory;
+    private final boolean lean;
+    private final boolean reuseEntries;
+    private final boolean recordSegment;
+    private final AggregationOptions options;
+    private final QuarantineWriter quarantine;
+
+    /**
+     * @param file The log file to read
+     * @param boundaries Chunk start offsets followed by the file size
+     * @param fromChunk First chunk index handled by this task (inclusive)
+     * @param toChunk Last chunk index handled by this task (exclusive)
+     * @param byteParsing Whether lines are parsed from raw bytes instead of decoded Strings
+     * @param scanner Finds delimiters on the byte-level path
+     * @param dispatcherFactory Creates a dispatcher for the log types to recognize, one per chunk
+     * @param lean Whether entries are created without raw data
+     * @param reuseEntries Whether the byte-level parser refills one entry per log type
+     * @param recordSegment Whether parsed entries are also recorded for a segment file
+     * @param options Options of the aggregators of every chunk
+     * @param quarantine Writer for rejected lines, or null to only count them
+     */
+    LogChunkTask(Path file, long[] boundaries, int fromChunk, int toChunk, boolean byteParsing, ByteScanner scanner,
+                 Supplier<LogDispatcher> dispatcherFactory, boolean lean, boolean reuseEntries, boolean recordSegment, AggregationOptions options,
+                 QuarantineWriter quarantine) {
+        this.file = file;
+        this.boundaries = boundaries;
+        this.fromChunk = fromChunk;
+        this.toChunk = toChunk;
+        this.byteParsing = byteParsing;
+        this.scanner = scanner;
+        this.dispatcherFactory = dispatcherFactory;
+        this.lean = lean;
+        this.reuseEntries = reuseEntries;
+        this.recordSegment = recordSegment;
+        this.options = options;
+        this.quarantine = quarantine;
+    }
+
+    @Override
+    protected LogAggregates compute() {
+        if (toChunk - fromChunk == 1) {
+            return processChunk(boundaries[fromChunk], boundaries[fromChunk + 1]);
+        }
+
+        int middle = (fromChunk + toChunk) >>> 1;
+        LogChunkTask left = new LogChunkTask(file, boundaries, fromChunk, middle, byteParsing, scanner,
+                dispatcherFactory, lean, reuseEntries, recordSegment, options, quarantine);
+        LogChunkTask right = new LogChunkTask(file, boundaries, middle, toChunk, byteParsing, scanner,
+                dispatcherFactory, lean, reuseEntries, recordSegment, options, quarantine);
+        left.fork();
+        LogAggregates rightResult = right.compute();
+        LogAggregates leftResult = left.join();
+
+        // Left covers the earlier part of the file, so it absorbs the right half
+        leftResult.merge(rightResult);
+        return leftResult;
+    }
+
+    /**
+     * Parse and aggregate every line in the byte range [start, end)
+     */
+    private LogAggregates processChunk(long start, long end) {
+        AggregationOptions chunkOptions = fromChunk == 0 ? options : options.copy().setExactQuantiles(true);
+        LogAggregates aggregates = new LogAggregates(chunkOptions, recordSegment ? new SegmentBuilder() : null);
+
+        if (byteParsing) {
+            ByteLogParser parser = new ByteLogParser(Charset.defaultCharset(), scanner, dispatcherFactory.get());
+            parser.setLean(lean);
+            parser.setReuseEntries(reuseEntries);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                new LineReader(scanner).readLines(channel, start, end, (buffer, from, to) -> {
+                    LogEntry entry = parser.parseEntry(buffer, from, to);
+                    if (entry != null) {
+                        aggregates.processLog(entry);
+                    } else {
+                        reject(aggregates, parser.getLastLogType(), parser.getLastStatus(), buffer, from, to);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return aggregates;
+        }
+
+        LogDispatcher dispatcher = dispatcherFactory.get();
+        dispatcher.setLean(lean);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     new ChunkInputStream(channel, start, end), Charset.defaultCharset()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Optional<LogEntry> entry = dispatcher.handle(line);
+                if (entry.isPresent()) {
+                    aggregates.processLog(entry.get());
+                } else {
+                    reject(aggregates, dispatcher.getLastLogType(), dispatcher.getLastStatus(), line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return aggregates;
+    }
+
+    private void reject(LogAggregates aggregates, String logType, ParseStatus status, String line) {
+        aggregates.getRejects().record(logType, status);
+        if (quarantine != null && status != ParseStatus.BLANK) {
+            quarantine.add(line);
+        }
+    }
+
+    private void reject(LogAggregates aggregates, String logType, ParseStatus status, byte[] buffer, int from, int to) {
+        aggregates.getRejects().record(logType, status);
+        if (quarantine != null && status != ParseStatus.BLANK) {
+            quarantine.add(AsciiDecoder.decode(buffer, from, to, Charset.defaultCharset()));
+        }
+    }
+
+    /**
+     * Split a file into roughly equal byte ranges whose boundaries fall just after a newline
+     * @param channel Channel of the file to split
+     * @param chunkCount Desired number of chunks
+     * @return Chunk start offsets followed by the file size
+     * @throws IOException If an I/O error occurs
+     */
+    static long[] splitIntoChunks(FileChannel channel, int chunkCount) throws IOException {
+        long size = channel.size();
+        int chunks = (int) Math.max(1, Math.min(chunkCount, size));
+        long[] boundaries = new long[chunks + 1];
+        boundaries[chunks] = size;
+
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        for (int i = 1; i < chunks; i++) {
+            long target = Math.max(size / chunks * i, boundaries[i - 1]);
+            boundaries[i] = findLineStart(channel, buffer, target, size);
+        }
+        return boundaries;
+    }
+
+    /**
+     * Find the first line start at or after the given offset
+     */
+    private static long findLineStart(FileChannel channel, ByteBuffer buffer, long offset, long size)
+            throws IOException {
+        if (offset == 0) {
+            return 0;
+        }
+
+        // A line starts at offset only if the byte before it is a newline
+        long position = offset - 1;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Input stream over a byte range of a file channel using positional reads
+     */
+    private static class ChunkInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        ChunkInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int toRead = (int) Math.min(len, end - position);
+            int read = channel.read(ByteBuffer.wrap(b, off, toRead), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+    }
+}
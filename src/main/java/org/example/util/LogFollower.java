@@ -0,0 +1,335 @@
+package org.example.util;
+
+import org.example.aggregator.AggregationOptions;
+import org.example.aggregator.LogAggregates;
+import org.example.handler.LogDispatcher;
+import org.example.model.LogEntry;
+import org.example.parser.ParseStatus;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Follows a growing log file the way {@code tail -F} does, aggregating lines as they are appended.
+ * Rotation is detected by a change of file identity (the inode on Unix) and truncation by the file
+ * shrinking below the current read position; in both cases the remaining lines of the old file are
+ * read before continuing at the start of the new one.
+ * <p>
+ * Where the file system reports no file identity (Windows, some network file systems), a rotation is
+ * detected instead by a change of creation time or of the first bytes of the file. Creation times are
+ * only compared where they differ from the modification time, as file systems without them report the
+ * modification time instead. A new file that has the same creation time and starts with the same bytes
+ * as the old one is then not told apart from it; as log lines usually start with a timestamp, that takes
+ * an identical first line as well as a file system that carries the creation time over to a file
+ * recreated under the same name (as NTFS does for a few seconds).
+ * <p>
+ * The file is read with plain blocking reads rather than an interruptible channel, so interrupting the
+ * following thread never closes the file under it; {@link #poll()} stops between reads instead and
+ * picks up where it left off on the next call.
+ */
+public class LogFollower {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    // Leading bytes compared to detect rotation when the file system reports no file identity
+    private static final int SIGNATURE_SIZE = 64;
+
+    private final Path file;
+    private final Charset charset = Charset.defaultCharset();
+    private final LogDispatcher dispatcher;
+    private final LogAggregates aggregates;
+    private final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+
+    private RandomAccessFile input;
+    private long position;
+
+    // Identity of the open file: its key if the file system has one, else its creation time and first bytes
+    private Object fileKey;
+    private FileTime creationTime;
+    private final byte[] signature = new byte[SIGNATURE_SIZE];
+    private int signatureLength;
+    private boolean fileKeysSupported = true;
+
+    // Receives rejected lines, null to only count them
+    private QuarantineWriter quarantine;
+
+    // Bytes of a line whose terminating newline has not been written yet
+    private byte[] pendingLine = new byte[256];
+    private int pendingLength;
+
+    /**
+     * Create a follower for the specified log file. The file does not need to exist yet.
+     * @param inputFile Path to the log file to follow
+     */
+    public LogFollower(String inputFile) {
+        this(inputFile, new AggregationOptions());
+    }
+
+    /**
+     * Create a follower for the specified log file. The file does not need to exist yet.
+     * @param inputFile Path to the log file to follow
+     * @param options Options of the aggregators
+     */
+    public LogFollower(String inputFile, AggregationOptions options) {
+        this.file = Paths.get(inputFile);
+        this.aggregates = new LogAggregates(options, null);
+        this.dispatcher = LogDispatcher.createDefault(options.getRouteNormalizer());
+
+        // Entries are aggregated and dropped right away, so they only need their raw data to be grouped by it
+        dispatcher.setLean(!options.needsRawData());
+    }
+
+    /**
+     * Copy rejected lines to a quarantine file. {@link #follow} flushes it with every snapshot; the
+     * caller closes it once following has stopped.
+     * @param quarantine Writer for rejected lines, or null to only count them
+     */
+    public void setQuarantine(QuarantineWriter quarantine) {
+        this.quarantine = quarantine;
+    }
+
+    /**
+     * Callback used to publish periodic snapshots of the aggregates
+     */
+    public interface SnapshotWriter {
+        void write(LogAggregates aggregates) throws IOException;
+    }
+
+    /**
+     * Follow the file until the current thread is interrupted; the interrupt status is left set
+     * @param pollIntervalMillis Delay between checks for new data
+     * @param snapshotIntervalMillis Delay between snapshots
+     * @param snapshotWriter Receives the aggregates after every snapshot interval; the quarantined lines
+     *                       are flushed just before
+     * @throws IOException If an I/O error occurs
+     */
+    public void follow(long pollIntervalMillis, long snapshotIntervalMillis, SnapshotWriter snapshotWriter)
+            throws IOException {
+        long nextSnapshot = System.currentTimeMillis() + snapshotIntervalMillis;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                poll();
+
+                long now = System.currentTimeMillis();
+                if (now >= nextSnapshot) {
+                    if (quarantine != null) {
+                        quarantine.flush();
+                    }
+                    snapshotWriter.write(aggregates);
+                    nextSnapshot = now + snapshotIntervalMillis;
+                }
+
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Read and aggregate all complete lines appended since the last call, switching to the
+     * new file if the followed one was rotated or truncated. If the current thread is interrupted,
+     * returns early with the interrupt status left set; the next call continues where this one stopped.
+     * @return Number of lines read
+     * @throws IOException If an I/O error occurs
+     */
+    public int poll() throws IOException {
+        if (input == null && !open()) {
+            return 0;
+        }
+
+        int lines = readAvailable();
+        if (Thread.currentThread().isInterrupted()) {
+            return lines;
+        }
+
+        BasicFileAttributes attributes = readAttributes();
+        if (attributes == null) {
+            // Rotated away and not recreated yet; keep reading the old file until it is
+            return lines;
+        }
+
+        if (!isOpenFile(attributes)) {
+            // Rotated: drain what was written to the old file before switching
+            lines += readAvailable();
+            if (Thread.currentThread().isInterrupted()) {
+                return lines;
+            }
+            lines += flushPendingLine();
+            close();
+            if (open()) {
+                lines += readAvailable();
+            }
+        } else if (attributes.size() < position) {
+            // Truncated in place: start over at the beginning of the file
+            lines += flushPendingLine();
+            position = 0;
+            signatureLength = 0;
+            lines += readAvailable();
+        }
+
+        return lines;
+    }
+
+    /**
+     * Get the aggregates of all lines read so far
+     * @return The aggregates
+     */
+    public LogAggregates getAggregates() {
+        return aggregates;
+    }
+
+    /**
+     * Release the file handle
+     * @throws IOException If an I/O error occurs
+     */
+    public void close() throws IOException {
+        if (input != null) {
+            input.close();
+            input = null;
+        }
+    }
+
+    /**
+     * Ignore the file keys reported by the file system, as if it had none, to exercise the fallback
+     * rotation check
+     */
+    void setFileKeysSupported(boolean fileKeysSupported) {
+        this.fileKeysSupported = fileKeysSupported;
+    }
+
+    private boolean open() throws IOException {
+        try {
+            input = new RandomAccessFile(file.toFile(), "r");
+        } catch (FileNotFoundException e) {
+            return false;
+        }
+        BasicFileAttributes attributes = readAttributes();
+        fileKey = attributes != null && fileKeysSupported ? attributes.fileKey() : null;
+        creationTime = attributes != null && !attributes.creationTime().equals(attributes.lastModifiedTime())
+                ? attributes.creationTime() : null;
+        signatureLength = 0;
+        position = 0;
+        return true;
+    }
+
+    /**
+     * Whether the file now at the followed path is the one being read
+     */
+    private boolean isOpenFile(BasicFileAttributes attributes) throws IOException {
+        if (fileKey != null) {
+            return fileKey.equals(attributes.fileKey());
+        }
+        if (creationTime != null && !creationTime.equals(attributes.creationTime())) {
+            return false;
+        }
+        if (signatureLength == 0) {
+            return true;
+        }
+        byte[] leading = new byte[signatureLength];
+        try (RandomAccessFile current = new RandomAccessFile(file.toFile(), "r")) {
+            int length = 0;
+            int read;
+            while (length < leading.length && (read = current.read(leading, length, leading.length - length)) > 0) {
+                length += read;
+            }
+            return length == signatureLength && Arrays.equals(leading, 0, length, signature, 0, length);
+        } catch (FileNotFoundException e) {
+            // Removed since its attributes were read; treat it as rotated away
+            return true;
+        }
+    }
+
+    private BasicFileAttributes readAttributes() throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read from the current position to the end of the file, processing every complete line,
+     * or until the current thread is interrupted
+     */
+    private int readAvailable() throws IOException {
+        int lines = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            input.seek(position);
+            int read = input.read(readBuffer);
+            if (read <= 0) {
+                return lines;
+            }
+            if (position < SIGNATURE_SIZE && signatureLength == position) {
+                int length = (int) Math.min(read, SIGNATURE_SIZE - position);
+                System.arraycopy(readBuffer, 0, signature, signatureLength, length);
+                signatureLength += length;
+            }
+            position += read;
+
+            int lineStart = 0;
+            for (int i = 0; i < read; i++) {
+                if (readBuffer[i] == '\n') {
+                    appendPending(readBuffer, lineStart, i);
+                    processPendingLine();
+                    lines++;
+                    lineStart = i + 1;
+                }
+            }
+            appendPending(readBuffer, lineStart, read);
+        }
+        return lines;
+    }
+
+    /**
+     * Process the unterminated last line of a file that will not grow any further
+     */
+    private int flushPendingLine() {
+        if (pendingLength == 0) {
+            return 0;
+        }
+        processPendingLine();
+        return 1;
+    }
+
+    private void appendPending(byte[] bytes, int from, int to) {
+        int length = to - from;
+        if (pendingLength + length > pendingLine.length) {
+            pendingLine = Arrays.copyOf(pendingLine, Math.max(pendingLine.length * 2, pendingLength + length));
+        }
+        System.arraycopy(bytes, from, pendingLine, pendingLength, length);
+        pendingLength += length;
+    }
+
+    private void processPendingLine() {
+        int length = pendingLength;
+        if (length > 0 && pendingLine[length - 1] == '\r') {
+            length--;
+        }
+        String line = new String(pendingLine, 0, length, charset);
+        pendingLength = 0;
+
+        Optional<LogEntry> entry = dispatcher.handle(line);
+        if (entry.isPresent()) {
+            aggregates.processLog(entry.get());
+        } else {
+            aggregates.getRejects().record(dispatcher.getLastLogType(), dispatcher.getLastStatus());
+            if (quarantine != null && dispatcher.getLastStatus() != ParseStatus.BLANK) {
+                quarantine.add(line);
+            }
+        }
+    }
+}
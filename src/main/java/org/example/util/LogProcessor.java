@@ -1,34 +1,100 @@
 package org.example.util;
 
 import org.example.aggregator.APMLogAggregator;
+import org.example.aggregator.AggregationOptions;
 import org.example.aggregator.ApplicationLogAggregator;
+import org.example.aggregator.CardinalityAggregator;
+import org.example.aggregator.GroupedAggregates;
+import org.example.aggregator.LogAggregates;
 import org.example.aggregator.RequestLogAggregator;
-import org.example.handler.APMLogHandler;
-import org.example.handler.ApplicationLogHandler;
-import org.example.handler.LogHandler;
-import org.example.handler.RequestLogHandler;
+import org.example.aggregator.TemplateMiner;
+import org.example.aggregator.WindowedAggregates;
+import org.example.handler.LogDispatcher;
 import org.example.model.APMLogEntry;
 import org.example.model.ApplicationLogEntry;
 import org.example.model.LogEntry;
 import org.example.model.RequestLogEntry;
+import org.example.parser.ByteLogParser;
+import org.example.parser.LogParser;
+import org.example.parser.ParseStatus;
+import org.example.segment.SegmentBuilder;
+import org.example.segment.SegmentReader;
+import org.example.store.APMLogStore;
+import org.example.store.OffHeapAPMLogStore;
+import org.example.store.OffHeapApplicationLogStore;
+import org.example.store.OffHeapRequestLogStore;
+import org.example.store.RequestLogStore;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 /**
  * Main processor for log files
  */
 public class LogProcessor {
     private final String inputFile;
-    private final List<APMLogEntry> apmLogs = new ArrayList<>();
+    // Buffered entries; APM and request entries are kept in columnar stores
+    private final APMLogStore apmLogs = new APMLogStore();
     private final List<ApplicationLogEntry> applicationLogs = new ArrayList<>();
-    private final List<RequestLogEntry> requestLogs = new ArrayList<>();
+    private final RequestLogStore requestLogs = new RequestLogStore();
 
-    private final LogHandler handlerChain;
+    // Off-heap stores that replace the ones above when enabled, null otherwise
+    private OffHeapAPMLogStore offHeapApmLogs;
+    private OffHeapApplicationLogStore offHeapApplicationLogs;
+    private OffHeapRequestLogStore offHeapRequestLogs;
+
+    // Parses the lines of the String path; created for each run, since it depends on the options of the run
+    private LogDispatcher dispatcher;
+
+    // Creates the parsers of log types registered in addition to the built-in ones
+    private final List<Supplier<? extends LogParser>> parserFactories = new ArrayList<>();
+
+    // Number of worker threads; 1 keeps the single-threaded path
+    private int parallelism = 1;
+
+    // Whether entries are aggregated as they are parsed instead of being buffered
+    private boolean streaming;
+
+    // Whether lines are parsed from raw bytes instead of decoded Strings
+    private boolean byteParsing;
+
+    // Whether the byte-level path searches for delimiters with the Vector API when it is available
+    private boolean vectorScanning;
+
+    // Whether entries are created without raw data
+    private boolean lean;
+
+    // Whether the byte-level parser refills one entry per log type instead of allocating new ones
+    private boolean reuseEntries;
+
+    // Exact limit, sketch accuracy and extra percentiles of the aggregators
+    private AggregationOptions aggregationOptions = new AggregationOptions();
+
+    // Aggregates built while reading (streaming or parallel runs), null when entries are buffered
+    private LogAggregates aggregates;
+
+    // File that rejected lines are copied to, null to only count them
+    private String quarantineFile;
+
+    // File that the parsed entries are written to as a segment, null to write none
+    private String segmentFile;
+
+    // Rejected lines of the last run, and the quarantine writer and segment builder while a run is in progress
+    private RejectCounts rejects = new RejectCounts();
+    private QuarantineWriter quarantine;
+    private SegmentBuilder segment;
 
     /**
      * Create a log processor for the specified input file
@@ -36,16 +102,124 @@ public class LogProcessor {
      */
     public LogProcessor(String inputFile) {
         this.inputFile = inputFile;
+    }
+
+    /**
+     * Register an additional log type, tried after the built-in ones and any registered before it, on
+     * every parsing path. Parsers are not thread-safe, so the factory is called once for every thread
+     * (or chunk) that parses lines.
+     * @param parserFactory Creates a parser for the log type
+     */
+    public void registerParser(Supplier<? extends LogParser> parserFactory) {
+        parserFactories.add(parserFactory);
+    }
+
+    /**
+     * Set the number of threads used to process the file. With more than one thread the
+     * file is split into newline-aligned chunks that are parsed and aggregated in parallel;
+     * like streaming mode, parallel runs do not buffer the parsed entries.
+     * @param parallelism Number of worker threads (at least 1)
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Enable or disable streaming aggregation. In streaming mode each parsed entry goes straight
+     * to its aggregator and is then dropped, so memory depends only on the number of distinct
+     * metrics, levels and routes rather than on the number of lines.
+     * @param streaming true to aggregate entries as they are parsed
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Enable or disable the byte-level parse path. Lines are then tokenized straight from the
+     * file bytes by a {@link ByteLogParser} instead of being decoded to Strings and matched
+     * with a regex.
+     * @param byteParsing true to parse lines from raw bytes
+     */
+    public void setByteParsing(boolean byteParsing) {
+        this.byteParsing = byteParsing;
+    }
+
+    /**
+     * Enable or disable SIMD scanning on the byte-level path. Line breaks, {@code =}, quotes and
+     * whitespace are then found a full vector of bytes at a time with the Vector API. This needs the
+     * JVM to be started with {@code --add-modules jdk.incubator.vector}; without it the scalar
+     * scanner is used. Has no effect unless byte parsing is enabled.
+     * @param vectorScanning true to use the Vector API when available
+     */
+    public void setVectorScanning(boolean vectorScanning) {
+        this.vectorScanning = vectorScanning;
+    }
+
+    /**
+     * Enable or disable lean mode. In lean mode parsed entries do not retain their line,
+     * so {@link LogEntry#getRawData()} returns an empty map; the aggregators do not need it.
+     * Otherwise the raw data is rebuilt from the retained line when it is first used.
+     * @param lean true to drop the raw data of every entry
+     */
+    public void setLean(boolean lean) {
+        this.lean = lean;
+    }
+
+    /**
+     * Enable or disable entry reuse on the byte-level path. Each parser then refills one mutable
+     * entry per log type that goes straight to its aggregator, so no garbage is created per line.
+     * Only applies when entries are aggregated as they are parsed (streaming or parallel runs)
+     * or copied off-heap; entries buffered on the heap always get their own instances.
+     * @param reuseEntries true to reuse entry instances
+     */
+    public void setReuseEntries(boolean reuseEntries) {
+        this.reuseEntries = reuseEntries;
+    }
+
+    /**
+     * Enable or disable off-heap buffering. Buffered entries of every type are then copied to
+     * fixed-size records in direct buffers, and the aggregators read them in place, so the heap
+     * does not grow with the input. Set it before processing; disabling it drops the entries
+     * buffered off-heap. Has no effect on streaming or parallel runs, which do not buffer entries.
+     * @param offHeap true to buffer entries off-heap
+     */
+    public void setOffHeap(boolean offHeap) {
+        if (offHeap == (offHeapApmLogs != null)) {
+            return;
+        }
+        offHeapApmLogs = offHeap ? new OffHeapAPMLogStore() : null;
+        offHeapApplicationLogs = offHeap ? new OffHeapApplicationLogStore() : null;
+        offHeapRequestLogs = offHeap ? new OffHeapRequestLogStore() : null;
+    }
 
-        // Set up the Chain of Responsibility
-        APMLogHandler apmHandler = new APMLogHandler();
-        ApplicationLogHandler appHandler = new ApplicationLogHandler();
-        RequestLogHandler reqHandler = new RequestLogHandler();
+    /**
+     * Set a file that rejected lines are written to. Rejected lines are always counted,
+     * see {@link #getRejects()}; blank lines are neither counted nor quarantined.
+     * @param quarantineFile Path of the quarantine file, or null to only count rejects
+     */
+    public void setQuarantineFile(String quarantineFile) {
+        this.quarantineFile = quarantineFile;
+    }
 
-        // Link the handlers
-        apmHandler.setNext(appHandler).setNext(reqHandler);
+    /**
+     * Set the options of the aggregators, e.g. whether APM quantiles are exact or estimated
+     * with a sketch. Applies to the next run, and to buffered entries when results are requested.
+     * @param aggregationOptions The options to use
+     */
+    public void setAggregationOptions(AggregationOptions aggregationOptions) {
+        this.aggregationOptions = aggregationOptions;
+    }
 
-        this.handlerChain = apmHandler;
+    /**
+     * Set a file that the parsed entries are written to as a binary segment at the end of each run.
+     * Later runs can aggregate the segment with {@link #processSegmentFile(String)} without parsing the text.
+     * @param segmentFile Path of the segment file, or null to write none
+     */
+    public void setSegmentFile(String segmentFile) {
+        this.segmentFile = segmentFile;
     }
 
     /**
@@ -53,6 +227,64 @@ public class LogProcessor {
      * @throws IOException If an I/O error occurs
      */
     public void processLogFile() throws IOException {
+        rejects = new RejectCounts();
+        segment = segmentFile == null ? null : new SegmentBuilder();
+        dispatcher = createDispatcher();
+        try (QuarantineWriter writer = quarantineFile == null ? null : new QuarantineWriter(Paths.get(quarantineFile))) {
+            quarantine = writer;
+            if (parallelism > 1) {
+                processLogFileParallel();
+            } else {
+                processLogFileSequential();
+            }
+            if (segment != null) {
+                segment.writeTo(Paths.get(segmentFile), rejects);
+            }
+        } finally {
+            quarantine = null;
+            segment = null;
+        }
+    }
+
+    /**
+     * Aggregate a segment file written by an earlier run instead of parsing the input file.
+     * The results and reject counts are those of the run that wrote the segment.
+     * @param segmentFile Path of the segment file
+     * @throws IOException If the file cannot be read or is not a valid segment file
+     */
+    public void processSegmentFile(String segmentFile) throws IOException {
+        aggregates = new LogAggregates(aggregationOptions, null);
+        SegmentReader.open(Paths.get(segmentFile)).aggregateInto(aggregates);
+        rejects = aggregates.getRejects();
+    }
+
+    /**
+     * Process the log file on the calling thread
+     * @throws IOException If an I/O error occurs
+     */
+    private void processLogFileSequential() throws IOException {
+        aggregates = streaming ? new LogAggregates(aggregationOptions, segment) : null;
+        if (byteParsing) {
+            ByteScanner scanner = scanner();
+            ByteLogParser parser = new ByteLogParser(Charset.defaultCharset(), scanner, dispatcher);
+            parser.setLean(lean);
+            parser.setReuseEntries(reuseEntries && (aggregates != null || offHeapApmLogs != null));
+            try (FileChannel channel = FileChannel.open(Paths.get(inputFile), StandardOpenOption.READ)) {
+                new LineReader(scanner).readLines(channel, 0, channel.size(), (buffer, from, to) -> {
+                    LogEntry logEntry = parser.parseEntry(buffer, from, to);
+                    if (logEntry != null) {
+                        processLogEntry(logEntry);
+                    } else if (parser.getLastStatus() != ParseStatus.BLANK) {
+                        rejects.record(parser.getLastLogType(), parser.getLastStatus());
+                        if (quarantine != null) {
+                            quarantine.add(AsciiDecoder.decode(buffer, from, to, Charset.defaultCharset()));
+                        }
+                    }
+                });
+            }
+            return;
+        }
+
         try (BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
             String line;
             while ((line = reader.readLine()) != null) {
@@ -61,22 +293,104 @@ public class LogProcessor {
         }
     }
 
+    /**
+     * Process the log file by aggregating newline-aligned chunks on a fork-join pool
+     * and merging the partial aggregates in file order
+     * @throws IOException If an I/O error occurs
+     */
+    private void processLogFileParallel() throws IOException {
+        Path path = Paths.get(inputFile);
+        long[] boundaries;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Use a few chunks per thread so uneven chunks still balance out
+            boundaries = LogChunkTask.splitIntoChunks(channel, parallelism * 4);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            aggregates = pool.invoke(new LogChunkTask(path, boundaries, 0, boundaries.length - 1, byteParsing, scanner(),
+                    this::createDispatcher, lean, reuseEntries, segment != null, aggregationOptions, quarantine));
+            rejects = aggregates.getRejects();
+            segment = aggregates.getSegment();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Create a dispatcher for the built-in and registered log types, for a thread of its own. Request
+     * URLs are normalized as they are parsed, so the URLs themselves are never interned.
+     */
+    private LogDispatcher createDispatcher() {
+        LogDispatcher created = LogDispatcher.createDefault(aggregationOptions.getRouteNormalizer());
+        for (Supplier<? extends LogParser> parserFactory : parserFactories) {
+            created.register(parserFactory.get());
+        }
+        created.setLean(lean);
+        return created;
+    }
+
+    private ByteScanner scanner() {
+        return vectorScanning ? ByteScanner.vectorIfAvailable() : ByteScanner.scalar();
+    }
+
     /**
      * Process a single log line
      * @param logLine The log line to process
      */
     private void processLogLine(String logLine) {
-        Optional<LogEntry> logEntry = handlerChain.handle(logLine);
-
-        logEntry.ifPresent(entry -> {
-            if (entry instanceof APMLogEntry) {
-                apmLogs.add((APMLogEntry) entry);
-            } else if (entry instanceof ApplicationLogEntry) {
-                applicationLogs.add((ApplicationLogEntry) entry);
-            } else if (entry instanceof RequestLogEntry) {
-                requestLogs.add((RequestLogEntry) entry);
+        Optional<LogEntry> logEntry = dispatcher.handle(logLine);
+        if (logEntry.isPresent()) {
+            processLogEntry(logEntry.get());
+        } else if (dispatcher.getLastStatus() != ParseStatus.BLANK) {
+            rejects.record(dispatcher.getLastLogType(), dispatcher.getLastStatus());
+            if (quarantine != null) {
+                quarantine.add(logLine);
             }
-        });
+        }
+    }
+
+    /**
+     * Aggregate or buffer a parsed log entry
+     * @param entry The parsed log entry
+     */
+    private void processLogEntry(LogEntry entry) {
+        if (aggregates != null) {
+            aggregates.processLog(entry);
+            return;
+        }
+        if (segment != null) {
+            segment.add(entry);
+        }
+        if (offHeapApmLogs != null) {
+            bufferOffHeap(entry);
+        } else if (entry instanceof APMLogEntry) {
+            apmLogs.add((APMLogEntry) entry);
+        } else if (entry instanceof ApplicationLogEntry) {
+            applicationLogs.add((ApplicationLogEntry) entry);
+        } else if (entry instanceof RequestLogEntry) {
+            requestLogs.add((RequestLogEntry) entry);
+        }
+    }
+
+    private void bufferOffHeap(LogEntry entry) {
+        if (entry instanceof APMLogEntry) {
+            offHeapApmLogs.add((APMLogEntry) entry);
+        } else if (entry instanceof ApplicationLogEntry) {
+            offHeapApplicationLogs.add((ApplicationLogEntry) entry);
+        } else if (entry instanceof RequestLogEntry) {
+            offHeapRequestLogs.add((RequestLogEntry) entry);
+        }
+    }
+
+    /**
+     * Get the counts of lines rejected by the last run
+     * @return The reject counts
+     */
+    public RejectCounts getRejects() {
+        return rejects;
     }
 
     /**
@@ -84,8 +398,14 @@ public class LogProcessor {
      * @return Map containing the aggregated data
      */
     public APMLogAggregator getApmAggregator() {
-        APMLogAggregator aggregator = new APMLogAggregator();
-        aggregator.processLogs(apmLogs);
+        if (aggregates != null) {
+            return aggregates.getApmAggregator();
+        }
+        APMLogAggregator aggregator = new APMLogAggregator(aggregationOptions);
+        aggregator.processStore(apmLogs);
+        if (offHeapApmLogs != null) {
+            aggregator.processStore(offHeapApmLogs);
+        }
         return aggregator;
     }
 
@@ -94,8 +414,14 @@ public class LogProcessor {
      * @return Map containing the aggregated data
      */
     public ApplicationLogAggregator getApplicationAggregator() {
+        if (aggregates != null) {
+            return aggregates.getApplicationAggregator();
+        }
         ApplicationLogAggregator aggregator = new ApplicationLogAggregator();
         aggregator.processLogs(applicationLogs);
+        if (offHeapApplicationLogs != null) {
+            aggregator.processStore(offHeapApplicationLogs);
+        }
         return aggregator;
     }
 
@@ -104,8 +430,66 @@ public class LogProcessor {
      * @return Map containing the aggregated data
      */
     public RequestLogAggregator getRequestAggregator() {
-        RequestLogAggregator aggregator = new RequestLogAggregator();
-        aggregator.processLogs(requestLogs);
+        if (aggregates != null) {
+            return aggregates.getRequestAggregator();
+        }
+        RequestLogAggregator aggregator = new RequestLogAggregator(aggregationOptions);
+        aggregator.processStore(requestLogs);
+        if (offHeapRequestLogs != null) {
+            aggregator.processStore(offHeapRequestLogs);
+        }
         return aggregator;
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the aggregates of each time window, see {@link AggregationOptions#setWindow(long, long)}
+     * @return The windowed aggregates, or null if windowed aggregation is not enabled
+     */
+    public WindowedAggregates getWindowedAggregates() {
+        if (aggregates != null) {
+            return aggregates.getWindows();
+        }
+        if (!aggregationOptions.isWindowed()) {
+            return null;
+        }
+        WindowedAggregates windows = new WindowedAggregates(aggregationOptions);
+        windows.processStore(apmLogs);
+        for (ApplicationLogEntry entry : applicationLogs) {
+            windows.processLog(entry);
+        }
+        windows.processStore(requestLogs);
+        if (offHeapApmLogs != null) {
+            windows.processStore(offHeapApmLogs);
+            windows.processStore(offHeapApplicationLogs);
+            windows.processStore(offHeapRequestLogs);
+        }
+        return windows;
+    }
+
+    /**
+     * Get the breakdown by group, see {@link AggregationOptions#setGroupBy}. Only available for runs that
+     * aggregate entries as they are parsed (streaming or parallel), since buffered entries do not keep their raw data.
+     * @return The grouped aggregates, or null if grouping is not enabled or entries were buffered
+     */
+    public GroupedAggregates getGroupedAggregates() {
+        return aggregates != null ? aggregates.getGroups() : null;
+    }
+
+    /**
+     * Get the distinct counts, see {@link AggregationOptions#setDistinct}. Only available for runs that
+     * aggregate entries as they are parsed (streaming or parallel), like the breakdown by group.
+     * @return The distinct counts, or null if distinct counting is not enabled or entries were buffered
+     */
+    public CardinalityAggregator getDistinctCounts() {
+        return aggregates != null ? aggregates.getDistinct() : null;
+    }
+
+    /**
+     * Get the message templates, see {@link AggregationOptions#setTemplateMining(boolean)}. Only available
+     * for runs that aggregate entries as they are parsed (streaming or parallel).
+     * @return The template miner, or null if template mining is not enabled or entries were buffered
+     */
+    public TemplateMiner getTemplateMiner() {
+        return aggregates != null ? aggregates.getTemplates() : null;
+    }
+}
@@ -0,0 +1,219 @@
+package org.example.util;
+
+/**
+ * Checks whether text is a valid number without parsing it, so callers can reject bad
+ * values without the cost of a {@link NumberFormatException}. Values that pass can be
+ * handed to the standard parsers, or {@link AsciiDecoder}, which then cannot fail.
+ */
+public class NumberSyntax {
+    // Magnitude of Integer.MIN_VALUE
+    private static final long INT_LIMIT = 1L << 31;
+
+    /**
+     * Check whether text is a decimal int accepted by {@link Integer#parseInt(String)}
+     * @param text The text to check, may be null
+     * @return true if the text is a valid int
+     */
+    public static boolean isInt(CharSequence text) {
+        if (text == null) {
+            return false;
+        }
+
+        int to = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        if (i == to) {
+            return false;
+        }
+
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            value = value * 10 + digit;
+            if (value > INT_LIMIT) {
+                return false;
+            }
+        }
+        return negative || value < INT_LIMIT;
+    }
+
+    /**
+     * Check whether a byte range holds a decimal int accepted by {@link Integer#parseInt(String)}
+     * @param buffer The buffer holding the text
+     * @param from Offset of the first byte
+     * @param to Offset just past the last byte
+     * @return true if the bytes are a valid int
+     */
+    public static boolean isInt(byte[] buffer, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+        if (i == to) {
+            return false;
+        }
+
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            value = value * 10 + digit;
+            if (value > INT_LIMIT) {
+                return false;
+            }
+        }
+        return negative || value < INT_LIMIT;
+    }
+
+    /**
+     * Check whether text is a decimal floating-point number accepted by {@link Double#parseDouble(String)}:
+     * an optional sign followed by NaN, Infinity or digits with an optional point, exponent and
+     * type suffix. Hexadecimal literals and values padded with whitespace are not accepted.
+     * @param text The text to check, may be null
+     * @return true if the text is a valid double
+     */
+    public static boolean isDouble(CharSequence text) {
+        if (text == null) {
+            return false;
+        }
+
+        int to = text.length();
+        int i = 0;
+        if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        if (regionEquals(text, i, to, "NaN") || regionEquals(text, i, to, "Infinity")) {
+            return true;
+        }
+
+        int digits = 0;
+        while (i < to && isDigit(text.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < to && text.charAt(i) == '.') {
+            i++;
+            while (i < to && isDigit(text.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+
+        if (i < to && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < to && isDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+        }
+
+        if (i < to && isTypeSuffix(text.charAt(i))) {
+            i++;
+        }
+        return i == to;
+    }
+
+    /**
+     * Check whether a byte range holds a number accepted by {@link #isDouble(CharSequence)}
+     * @param buffer The buffer holding the text
+     * @param from Offset of the first byte
+     * @param to Offset just past the last byte
+     * @return true if the bytes are a valid double
+     */
+    public static boolean isDouble(byte[] buffer, int from, int to) {
+        int i = from;
+        if (i < to && (buffer[i] == '-' || buffer[i] == '+')) {
+            i++;
+        }
+        if (regionEquals(buffer, i, to, "NaN") || regionEquals(buffer, i, to, "Infinity")) {
+            return true;
+        }
+
+        int digits = 0;
+        while (i < to && isDigit((char) buffer[i])) {
+            i++;
+            digits++;
+        }
+        if (i < to && buffer[i] == '.') {
+            i++;
+            while (i < to && isDigit((char) buffer[i])) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+
+        if (i < to && (buffer[i] == 'e' || buffer[i] == 'E')) {
+            i++;
+            if (i < to && (buffer[i] == '-' || buffer[i] == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < to && isDigit((char) buffer[i])) {
+                i++;
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+        }
+
+        if (i < to && isTypeSuffix((char) buffer[i])) {
+            i++;
+        }
+        return i == to;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isTypeSuffix(char c) {
+        return c == 'd' || c == 'D' || c == 'f' || c == 'F';
+    }
+
+    private static boolean regionEquals(CharSequence text, int from, int to, String expected) {
+        if (to - from != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (text.charAt(from + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionEquals(byte[] buffer, int from, int to, String expected) {
+        if (to - from != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (buffer[from + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
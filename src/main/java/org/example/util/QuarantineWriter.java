@@ -0,0 +1,102 @@
+package org.example.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects rejected log lines and writes them to a quarantine file in batches, so a burst
+ * of bad input costs one write per batch instead of one per line. The file holds the lines
+ * exactly as read and can be fixed up and processed again. Instances are thread-safe;
+ * lines from parallel chunks are written in batch order, not file order. A write error is
+ * kept and reported by {@link #close()}, so callers on the parse path need no error handling.
+ */
+public class QuarantineWriter implements Closeable {
+    // Number of lines collected before they are written out
+    private static final int BATCH_SIZE = 1024;
+
+    private final BufferedWriter writer;
+    private final List<String> batch = new ArrayList<>(BATCH_SIZE);
+    private long lineCount;
+    private IOException error;
+
+    /**
+     * Create or truncate the quarantine file
+     * @param file Path of the quarantine file
+     * @throws IOException If the file cannot be opened
+     */
+    public QuarantineWriter(Path file) throws IOException {
+        this.writer = Files.newBufferedWriter(file, Charset.defaultCharset());
+    }
+
+    /**
+     * Add a rejected line, writing the batch if it is full
+     * @param line The rejected line, without its line terminator
+     */
+    public synchronized void add(String line) {
+        batch.add(line);
+        lineCount++;
+        if (batch.size() == BATCH_SIZE) {
+            writeBatch();
+        }
+    }
+
+    /**
+     * Get the number of lines added so far
+     * @return The number of quarantined lines
+     */
+    public synchronized long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Write any pending lines without waiting for the batch to fill, e.g. when a long-running
+     * follower publishes a snapshot
+     * @throws IOException If writing this or an earlier batch failed
+     */
+    public synchronized void flush() throws IOException {
+        writeBatch();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Write any pending lines and close the file
+     * @throws IOException If writing any batch or closing the file failed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        writeBatch();
+        try {
+            writer.close();
+        } catch (IOException e) {
+            if (error == null) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void writeBatch() {
+        if (error == null) {
+            try {
+                for (String line : batch) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+                writer.flush();
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        batch.clear();
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.util;
+
+import org.example.parser.ParseStatus;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts rejected log lines by log type and reason. Counts from different chunks of a
+ * file can be combined with {@link #merge(RejectCounts)}. Instances are not thread-safe.
+ */
+public class RejectCounts {
+    private static final ParseStatus[] STATUSES = ParseStatus.values();
+
+    // Log type to counts indexed by ParseStatus ordinal, in order of first reject
+    private final Map<String, long[]> counts = new LinkedHashMap<>();
+    private long total;
+
+    /**
+     * Count a rejected line. {@link ParseStatus#OK} and {@link ParseStatus#BLANK} are not rejects and are ignored.
+     * @param logType The type the line was classified as
+     * @param status Why the line was rejected
+     */
+    public void record(String logType, ParseStatus status) {
+        record(logType, status, 1);
+    }
+
+    /**
+     * Count several lines rejected for the same type and reason, e.g. counts loaded from a segment file
+     * @param logType The type the lines were classified as
+     * @param status Why the lines were rejected
+     * @param count Number of lines
+     */
+    public void record(String logType, ParseStatus status, long count) {
+        if (status == ParseStatus.OK || status == ParseStatus.BLANK || count == 0) {
+            return;
+        }
+        counts.computeIfAbsent(logType, k -> new long[STATUSES.length])[status.ordinal()] += count;
+        total += count;
+    }
+
+    /**
+     * Add the counts of another instance to this one
+     * @param other The counts to merge in
+     */
+    public void merge(RejectCounts other) {
+        for (Map.Entry<String, long[]> entry : other.counts.entrySet()) {
+            long[] target = counts.computeIfAbsent(entry.getKey(), k -> new long[STATUSES.length]);
+            long[] source = entry.getValue();
+            for (int i = 0; i < target.length; i++) {
+                target[i] += source[i];
+            }
+        }
+        total += other.total;
+    }
+
+    /**
+     * Get the number of lines rejected for a type and reason
+     * @param logType The log type
+     * @param status The reject reason
+     * @return The number of rejected lines
+     */
+    public long getCount(String logType, ParseStatus status) {
+        long[] typeCounts = counts.get(logType);
+        return typeCounts == null ? 0 : typeCounts[status.ordinal()];
+    }
+
+    /**
+     * Get the total number of rejected lines
+     * @return The number of rejected lines
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Get the non-zero counts as log type to reason to count
+     * @return Map of the counts
+     */
+    public Map<String, Map<String, Long>> getCounts() {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            Map<String, Long> reasons = new LinkedHashMap<>();
+            long[] typeCounts = entry.getValue();
+            for (ParseStatus status : STATUSES) {
+                if (typeCounts[status.ordinal()] > 0) {
+                    reasons.put(status.name(), typeCounts[status.ordinal()]);
+                }
+            }
+            result.put(entry.getKey(), reasons);
+        }
+        return result;
+    }
+
+    /**
+     * Build a human-readable summary, one line per log type
+     * @return The summary text
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder("Rejected ").append(total).append(total == 1 ? " line" : " lines");
+        for (Map.Entry<String, Map<String, Long>> entry : getCounts().entrySet()) {
+            summary.append(System.lineSeparator()).append("  ").append(entry.getKey()).append(": ");
+            boolean first = true;
+            for (Map.Entry<String, Long> reason : entry.getValue().entrySet()) {
+                if (!first) {
+                    summary.append(", ");
+                }
+                summary.append(reason.getKey()).append('=').append(reason.getValue());
+                first = false;
+            }
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.util;
+
+/**
+ * {@link ByteScanner} that checks one byte at a time; always available
+ */
+public class ScalarByteScanner implements ByteScanner {
+    public static final ScalarByteScanner INSTANCE = new ScalarByteScanner();
+
+    @Override
+    public int indexOf(byte[] buffer, byte target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int indexOfWhitespace(byte[] buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (ByteKeyValueTokenizer.isWhitespaceByte(buffer[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.util;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A mutable value split into stripes, in the spirit of {@link java.util.concurrent.atomic.LongAdder}:
+ * each thread updates the stripe picked by its id, under that stripe's lock, so threads rarely wait
+ * for each other, and readers combine all the stripes. Meant for state that is not a plain counter,
+ * such as histograms. Callers must hold the lock of a stripe while they use it.
+ * @param <T> Type of a stripe
+ */
+public class Striped<T> {
+    private final Object[] stripes;
+    private final int mask;
+
+    /**
+     * Create one stripe per available processor, rounded up to a power of two
+     * @param factory Creates an empty stripe
+     */
+    public Striped(Supplier<T> factory) {
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+        this.stripes = new Object[count];
+        this.mask = count - 1;
+        for (int i = 0; i < count; i++) {
+            stripes[i] = factory.get();
+        }
+    }
+
+    /**
+     * Get the stripe of the current thread; synchronize on it while updating it
+     * @return The stripe
+     */
+    @SuppressWarnings("unchecked")
+    public T stripe() {
+        long id = Thread.currentThread().threadId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9e3779b9;
+        return (T) stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    /**
+     * Pass every stripe, in turn and under its lock, to a reader
+     * @param reader Reads or combines the stripes
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<T> reader) {
+        for (Object stripe : stripes) {
+            synchronized (stripe) {
+                reader.accept((T) stripe);
+            }
+        }
+    }
+}
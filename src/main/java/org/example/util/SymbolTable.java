@@ -0,0 +1,74 @@
+package org.example.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary that maps strings to dense int ids, assigned in first-seen order starting at 0.
+ * Low-cardinality values that repeat on many lines, such as hosts or metric names, can be
+ * stored and hashed as ids and only resolved back to strings when output is built.
+ * Lookups are thread-safe, so ids are shared by every parser and aggregator. Tables never
+ * shrink; they are meant for dimensions with a bounded number of distinct values.
+ */
+public class SymbolTable {
+    // Id used for a missing (null) value
+    public static final int NO_SYMBOL = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private int size;
+
+    /**
+     * Get the id of a string, assigning the next free id if it has none yet
+     * @param name The string to look up, or null
+     * @return The id, or {@link #NO_SYMBOL} for null
+     */
+    public int idOf(String name) {
+        if (name == null) {
+            return NO_SYMBOL;
+        }
+
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (this) {
+            id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+
+            int newId = size;
+            String[] current = names;
+            if (newId == current.length) {
+                current = Arrays.copyOf(current, newId * 2);
+            }
+            current[newId] = name;
+            names = current;
+            size++;
+
+            // Published after the name is stored, so any thread that sees the id can resolve it
+            ids.put(name, newId);
+            return newId;
+        }
+    }
+
+    /**
+     * Get the string for an id
+     * @param id An id returned by {@link #idOf(String)}, or {@link #NO_SYMBOL}
+     * @return The string, or null for {@link #NO_SYMBOL}
+     */
+    public String nameOf(int id) {
+        return id == NO_SYMBOL ? null : names[id];
+    }
+
+    /**
+     * Get the number of ids assigned so far
+     * @return The number of distinct strings in the table
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,196 @@
+package org.example.util;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Decodes ISO-8601 timestamps of the fixed {@code yyyy-MM-ddTHH:mm:ss[.fff]Z} shape to epoch
+ * milliseconds without allocating. Consecutive log lines almost always share the same date, so
+ * the {@code yyyy-MM-dd} prefix and its epoch-day value are cached and only the time of day is
+ * decoded per line. Timestamps without a zone are taken as UTC; numeric offsets, zone ids and
+ * other unusual formats fall back to {@link Utils#parseTimestampMillis(String)}.
+ * Fractions beyond milliseconds are truncated. The {@code tryDecode} methods report invalid
+ * timestamps with {@link #INVALID} instead of throwing. Instances are not thread-safe.
+ */
+public class TimestampDecoder {
+    // Returned by tryDecode for invalid timestamps; far outside the range of LocalDateTime
+    public static final long INVALID = Long.MIN_VALUE + 1;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int DATE_LENGTH = 10;
+    private static final int DATE_TIME_LENGTH = 19;
+
+    // Date prefix of the last decoded timestamp and its start of day in epoch millis
+    private final byte[] cachedDate = new byte[DATE_LENGTH];
+    private boolean hasCachedDate;
+    private long cachedDayMillis;
+
+    // Scratch space for decoding character input
+    private final byte[] scratch = new byte[64];
+
+    /**
+     * Decode a timestamp given as text
+     * @param timestamp The timestamp to decode
+     * @return Epoch milliseconds
+     * @throws java.time.DateTimeException If the timestamp is not valid
+     */
+    public long decode(CharSequence timestamp) {
+        long millis = tryDecode(timestamp);
+        return millis != INVALID ? millis : Utils.parseTimestampMillis(timestamp.toString());
+    }
+
+    /**
+     * Decode a timestamp given as text without throwing
+     * @param timestamp The timestamp to decode, may be null
+     * @return Epoch milliseconds, or {@link #INVALID} if the timestamp is missing or not valid
+     */
+    public long tryDecode(CharSequence timestamp) {
+        if (timestamp == null) {
+            return INVALID;
+        }
+
+        int length = timestamp.length();
+        if (length > scratch.length) {
+            return tryFallback(timestamp.toString());
+        }
+        for (int i = 0; i < length; i++) {
+            char c = timestamp.charAt(i);
+            if (c > 0x7F) {
+                return tryFallback(timestamp.toString());
+            }
+            scratch[i] = (byte) c;
+        }
+        return tryDecode(scratch, 0, length);
+    }
+
+    /**
+     * Decode a timestamp held in [from, to) of a byte buffer
+     * @param buffer The buffer holding the timestamp
+     * @param from Offset of the first byte
+     * @param to Offset just past the last byte
+     * @return Epoch milliseconds
+     * @throws java.time.DateTimeException If the timestamp is not valid
+     */
+    public long decode(byte[] buffer, int from, int to) {
+        long millis = tryDecode(buffer, from, to);
+        return millis != INVALID ? millis : Utils.parseTimestampMillis(toAsciiString(buffer, from, to));
+    }
+
+    /**
+     * Decode a timestamp held in [from, to) of a byte buffer without throwing
+     * @param buffer The buffer holding the timestamp
+     * @param from Offset of the first byte
+     * @param to Offset just past the last byte
+     * @return Epoch milliseconds, or {@link #INVALID} if the timestamp is not valid
+     */
+    public long tryDecode(byte[] buffer, int from, int to) {
+        if (to - from < DATE_TIME_LENGTH || buffer[from + 4] != '-' || buffer[from + 7] != '-'
+                || buffer[from + 10] != 'T' || buffer[from + 13] != ':' || buffer[from + 16] != ':') {
+            return fallback(buffer, from, to);
+        }
+
+        if (!hasCachedDate || !sameDate(buffer, from)) {
+            int year = digits(buffer, from, 4);
+            int month = digits(buffer, from + 5, 2);
+            int day = digits(buffer, from + 8, 2);
+            if ((year | month | day) < 0) {
+                return fallback(buffer, from, to);
+            }
+            if (month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+                return INVALID;
+            }
+
+            cachedDayMillis = LocalDate.of(year, month, day).toEpochDay() * MILLIS_PER_DAY;
+            System.arraycopy(buffer, from, cachedDate, 0, DATE_LENGTH);
+            hasCachedDate = true;
+        }
+
+        int hour = digits(buffer, from + 11, 2);
+        int minute = digits(buffer, from + 14, 2);
+        int second = digits(buffer, from + 17, 2);
+        if (hour < 0 || minute < 0 || second < 0 || hour > 23 || minute > 59 || second > 59) {
+            return fallback(buffer, from, to);
+        }
+
+        int i = from + DATE_TIME_LENGTH;
+        int millis = 0;
+        if (i < to && buffer[i] == '.') {
+            int fractionStart = ++i;
+            while (i < to && i - fractionStart < 9 && buffer[i] >= '0' && buffer[i] <= '9') {
+                if (i - fractionStart < 3) {
+                    millis = millis * 10 + (buffer[i] - '0');
+                }
+                i++;
+            }
+            if (i == fractionStart) {
+                return fallback(buffer, from, to);
+            }
+            for (int scale = i - fractionStart; scale < 3; scale++) {
+                millis *= 10;
+            }
+        }
+
+        if (i < to && buffer[i] == 'Z') {
+            i++;
+        }
+        if (i != to) {
+            return fallback(buffer, from, to);
+        }
+
+        return cachedDayMillis + hour * 3_600_000L + minute * 60_000L + second * 1_000L + millis;
+    }
+
+    private boolean sameDate(byte[] buffer, int from) {
+        for (int i = 0; i < DATE_LENGTH; i++) {
+            if (cachedDate[i] != buffer[from + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long fallback(byte[] buffer, int from, int to) {
+        return tryFallback(toAsciiString(buffer, from, to));
+    }
+
+    /**
+     * Decode a timestamp of an unusual shape. Text the ISO formatter cannot even parse is rejected
+     * without an exception; only values that parse but do not resolve, such as an out-of-range
+     * offset, still cost one.
+     */
+    private static long tryFallback(String timestamp) {
+        ParsePosition position = new ParsePosition(0);
+        if (Utils.TIMESTAMP_FORMATTER.parseUnresolved(timestamp, position) == null
+                || position.getErrorIndex() >= 0 || position.getIndex() != timestamp.length()) {
+            return INVALID;
+        }
+        try {
+            return Utils.parseTimestampMillis(timestamp);
+        } catch (DateTimeException e) {
+            return INVALID;
+        }
+    }
+
+    private static String toAsciiString(byte[] buffer, int from, int to) {
+        return new String(buffer, from, to - from, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Decode a fixed number of ASCII digits, or return -1 if any byte is not a digit
+     */
+    private static int digits(byte[] buffer, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
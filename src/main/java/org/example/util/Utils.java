@@ -1,22 +1,19 @@
 package org.example.util;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Utility methods for parsing log entries
  */
 public class Utils {
-    // Pattern for matching key-value pairs, handling quoted values
-    private static final Pattern KEY_VALUE_PATTERN =
-            Pattern.compile("(\\w+)=(?:\"([^\"]*)\"|([^\\s]+))");
-
     // Date time formatter for ISO format timestamps
-    private static final DateTimeFormatter TIMESTAMP_FORMATTER =
+    static final DateTimeFormatter TIMESTAMP_FORMATTER =
             DateTimeFormatter.ISO_DATE_TIME;
 
     /**
@@ -26,14 +23,8 @@ public class Utils {
      */
     public static Map<String, String> parseKeyValuePairs(String logLine) {
         Map<String, String> result = new HashMap<>();
-        Matcher matcher = KEY_VALUE_PATTERN.matcher(logLine);
-
-        while (matcher.find()) {
-            String key = matcher.group(1);
-            String value = matcher.group(2) != null ? matcher.group(2) : matcher.group(3);
-            result.put(key, value);
-        }
-
+        KeyValueTokenizer.tokenize(logLine, (line, keyStart, keyEnd, valueStart, valueEnd) ->
+                result.put(logLine.substring(keyStart, keyEnd), logLine.substring(valueStart, valueEnd)));
         return result;
     }
 
@@ -45,4 +36,18 @@ public class Utils {
     public static LocalDateTime parseTimestamp(String timestamp) {
         return LocalDateTime.parse(timestamp, TIMESTAMP_FORMATTER);
     }
+
+    /**
+     * Parse a timestamp string in any ISO format into epoch milliseconds.
+     * Timestamps with an offset are converted to UTC; timestamps without one are taken as UTC.
+     * @param timestamp Timestamp string in ISO format
+     * @return Epoch milliseconds
+     */
+    public static long parseTimestampMillis(String timestamp) {
+        TemporalAccessor parsed = TIMESTAMP_FORMATTER.parse(timestamp);
+        ZoneOffset offset = parsed.isSupported(ChronoField.OFFSET_SECONDS)
+                ? ZoneOffset.ofTotalSeconds(parsed.get(ChronoField.OFFSET_SECONDS))
+                : ZoneOffset.UTC;
+        return LocalDateTime.from(parsed).toInstant(offset).toEpochMilli();
+    }
 }
\ No newline at end of file
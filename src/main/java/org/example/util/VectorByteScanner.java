@@ -0,0 +1,57 @@
+package org.example.util;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ByteScanner} that compares a full vector of bytes per step with the incubating
+ * Vector API, using the widest lanes the CPU supports (16 to 64 bytes). The tail of a range
+ * shorter than one vector is scanned one byte at a time. Requires the JVM to be started with
+ * {@code --add-modules jdk.incubator.vector}; use {@link ByteScanner#vectorIfAvailable()}
+ * rather than creating it directly.
+ */
+public class VectorByteScanner implements ByteScanner {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    // Whitespace is ' ' or one of the contiguous control bytes \t (9) to \r (13)
+    private static final byte FIRST_CONTROL_WHITESPACE = '\t';
+    private static final byte CONTROL_WHITESPACE_SPAN = '\r' - '\t';
+
+    @Override
+    public int indexOf(byte[] buffer, byte target, int from, int to) {
+        int i = from;
+        for (int bound = to - SPECIES.length(); i <= bound; i += SPECIES.length()) {
+            VectorMask<Byte> matches = ByteVector.fromArray(SPECIES, buffer, i).eq(target);
+            if (matches.anyTrue()) {
+                return i + matches.firstTrue();
+            }
+        }
+        for (; i < to; i++) {
+            if (buffer[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int indexOfWhitespace(byte[] buffer, int from, int to) {
+        int i = from;
+        for (int bound = to - SPECIES.length(); i <= bound; i += SPECIES.length()) {
+            ByteVector bytes = ByteVector.fromArray(SPECIES, buffer, i);
+            VectorMask<Byte> matches = bytes.eq((byte) ' ').or(bytes.sub(FIRST_CONTROL_WHITESPACE)
+                    .compare(VectorOperators.UNSIGNED_LE, CONTROL_WHITESPACE_SPAN));
+            if (matches.anyTrue()) {
+                return i + matches.firstTrue();
+            }
+        }
+        for (; i < to; i++) {
+            if (ByteKeyValueTokenizer.isWhitespaceByte(buffer[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
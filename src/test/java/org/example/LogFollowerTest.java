@@ -0,0 +1,165 @@
+package org.example;
+
+import org.example.util.LogFollower;
+import org.example.util.QuarantineWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogFollowerTest {
+    private static final String INFO_LINE =
+            "timestamp=2024-02-24T16:22:20Z level=INFO message=\"Scheduled maintenance starting\" host=webserver1\n";
+    private static final String ERROR_LINE =
+            "timestamp=2024-02-24T16:22:35Z level=ERROR message=\"Update process failed\" host=webserver1\n";
+
+    @TempDir
+    Path tempDir;
+
+    private Path logFile;
+    private LogFollower follower;
+
+    @BeforeEach
+    void setUp() {
+        logFile = tempDir.resolve("live_log.txt");
+        follower = new LogFollower(logFile.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        follower.close();
+    }
+
+    @Test
+    void testPoll_MissingFile() throws IOException {
+        assertEquals(0, follower.poll());
+        assertTrue(getLevelCounts().isEmpty());
+    }
+
+    @Test
+    void testPoll_AppendedLines() throws IOException {
+        Files.writeString(logFile, INFO_LINE);
+        assertEquals(1, follower.poll());
+
+        append(ERROR_LINE + INFO_LINE);
+        assertEquals(2, follower.poll());
+        assertEquals(0, follower.poll());
+
+        assertEquals(2, getLevelCounts().get("INFO"));
+        assertEquals(1, getLevelCounts().get("ERROR"));
+    }
+
+    @Test
+    void testPoll_PartialLineWaitsForNewline() throws IOException {
+        Files.writeString(logFile, INFO_LINE + ERROR_LINE.substring(0, 40));
+        assertEquals(1, follower.poll());
+        assertNull(getLevelCounts().get("ERROR"));
+
+        append(ERROR_LINE.substring(40));
+        assertEquals(1, follower.poll());
+        assertEquals(1, getLevelCounts().get("ERROR"));
+    }
+
+    @Test
+    void testPoll_Truncation() throws IOException {
+        Files.writeString(logFile, INFO_LINE + INFO_LINE);
+        assertEquals(2, follower.poll());
+
+        // Truncate and write a shorter file in place
+        Files.writeString(logFile, ERROR_LINE.substring(0, 50) + "\n", StandardOpenOption.TRUNCATE_EXISTING);
+        Files.writeString(logFile, ERROR_LINE, StandardOpenOption.TRUNCATE_EXISTING);
+        assertEquals(1, follower.poll());
+
+        assertEquals(2, getLevelCounts().get("INFO"));
+        assertEquals(1, getLevelCounts().get("ERROR"));
+    }
+
+    @Test
+    void testPoll_Rotation() throws IOException {
+        Files.writeString(logFile, INFO_LINE);
+        assertEquals(1, follower.poll());
+
+        // Lines written just before rotation must not be lost
+        append(INFO_LINE);
+        Files.move(logFile, tempDir.resolve("live_log.txt.1"));
+        Files.writeString(logFile, ERROR_LINE);
+
+        assertEquals(2, follower.poll());
+        assertEquals(2, getLevelCounts().get("INFO"));
+        assertEquals(1, getLevelCounts().get("ERROR"));
+    }
+
+    @Test
+    void testPoll_InterruptedStopsWithoutClosingFile() throws IOException {
+        // Several read buffers worth of lines, as in the catch-up on a large file
+        Files.writeString(logFile, INFO_LINE.repeat(5000));
+        try {
+            Thread.currentThread().interrupt();
+            assertEquals(0, follower.poll());
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertEquals(5000, follower.poll());
+        assertEquals(5000, getLevelCounts().get("INFO"));
+    }
+
+    @Test
+    void testFollow_InterruptDuringCatchUpEndsCleanly() throws Exception {
+        Files.writeString(logFile, INFO_LINE.repeat(50_000));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                follower.follow(10, 60_000, aggregates -> { });
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        thread.start();
+        thread.interrupt();
+        thread.join(10_000);
+
+        assertFalse(thread.isAlive());
+        assertNull(failure.get());
+    }
+
+    @Test
+    void testFollow_QuarantineFlushedWithEverySnapshot() throws Exception {
+        Path quarantineFile = tempDir.resolve("quarantine.txt");
+        Files.writeString(logFile, INFO_LINE + "not a log line\n\n" + ERROR_LINE);
+        AtomicReference<List<String>> quarantined = new AtomicReference<>();
+
+        try (QuarantineWriter quarantine = new QuarantineWriter(quarantineFile)) {
+            follower.setQuarantine(quarantine);
+            // The first snapshot sees the rejected line on disk, then stops following
+            follower.follow(10, 0, aggregates -> {
+                quarantined.set(Files.readAllLines(quarantineFile));
+                Thread.currentThread().interrupt();
+            });
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertEquals(List.of("not a log line"), quarantined.get());
+        assertEquals(1, follower.getAggregates().getRejects().getTotal());
+    }
+
+    private void append(String text) throws IOException {
+        Files.writeString(logFile, text, StandardOpenOption.APPEND);
+    }
+
+    private Map<String, Object> getLevelCounts() {
+        return follower.getAggregates().getApplicationAggregator().getAggregatedData();
+    }
+}
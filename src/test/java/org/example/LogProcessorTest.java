@@ -1,9 +1,17 @@
 package org.example;
 
 import org.example.aggregator.APMLogAggregator;
+import org.example.aggregator.AggregationOptions;
 import org.example.aggregator.ApplicationLogAggregator;
 import org.example.aggregator.RequestLogAggregator;
+import org.example.model.ApplicationLogEntry;
+import org.example.model.LogEntry;
+import org.example.parser.APMLogParser;
+import org.example.parser.ApplicationLogParser;
+import org.example.parser.LogParser;
+import org.example.parser.ParseStatus;
 import org.example.util.LogProcessor;
+import org.example.util.RejectCounts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -11,7 +19,12 @@ import org.junit.jupiter.api.io.TempDir;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -68,6 +81,179 @@ public class LogProcessorTest {
         assertTrue(reqData.containsKey("/api/status"));
     }
 
+    @Test
+    void testProcessLogFileStreaming_MatchesBuffered() throws IOException {
+        processor.processLogFile();
+
+        LogProcessor streamingProcessor = new LogProcessor(logFile.toString());
+        streamingProcessor.setStreaming(true);
+        streamingProcessor.processLogFile();
+
+        assertSameOutput(processor.getApmAggregator().getAggregatedData(),
+                streamingProcessor.getApmAggregator().getAggregatedData());
+        assertSameOutput(processor.getApplicationAggregator().getAggregatedData(),
+                streamingProcessor.getApplicationAggregator().getAggregatedData());
+        assertSameOutput(processor.getRequestAggregator().getAggregatedData(),
+                streamingProcessor.getRequestAggregator().getAggregatedData());
+    }
+
+    @Test
+    void testProcessLogFileByteParsing_MatchesStringParsing() throws IOException {
+        processor.processLogFile();
+
+        LogProcessor byteProcessor = new LogProcessor(logFile.toString());
+        byteProcessor.setByteParsing(true);
+        byteProcessor.processLogFile();
+
+        assertSameOutput(processor.getApmAggregator().getAggregatedData(),
+                byteProcessor.getApmAggregator().getAggregatedData());
+        assertSameOutput(processor.getApplicationAggregator().getAggregatedData(),
+                byteProcessor.getApplicationAggregator().getAggregatedData());
+        assertSameOutput(processor.getRequestAggregator().getAggregatedData(),
+                byteProcessor.getRequestAggregator().getAggregatedData());
+    }
+
+    @Test
+    void testProcessLogFileReusedEntries_MatchesStringParsing() throws IOException {
+        processor.processLogFile();
+
+        LogProcessor reuseProcessor = new LogProcessor(logFile.toString());
+        reuseProcessor.setStreaming(true);
+        reuseProcessor.setByteParsing(true);
+        reuseProcessor.setReuseEntries(true);
+        reuseProcessor.processLogFile();
+
+        assertSameOutput(processor.getApmAggregator().getAggregatedData(),
+                reuseProcessor.getApmAggregator().getAggregatedData());
+        assertSameOutput(processor.getApplicationAggregator().getAggregatedData(),
+                reuseProcessor.getApplicationAggregator().getAggregatedData());
+        assertSameOutput(processor.getRequestAggregator().getAggregatedData(),
+                reuseProcessor.getRequestAggregator().getAggregatedData());
+        assertEquals(processor.getRejects().getTotal(), reuseProcessor.getRejects().getTotal());
+    }
+
+    @Test
+    void testProcessLogFileOffHeap_MatchesBuffered() throws IOException {
+        processor.processLogFile();
+
+        LogProcessor offHeapProcessor = new LogProcessor(logFile.toString());
+        offHeapProcessor.setOffHeap(true);
+        offHeapProcessor.setByteParsing(true);
+        offHeapProcessor.setReuseEntries(true);
+        offHeapProcessor.processLogFile();
+
+        assertSameOutput(processor.getApmAggregator().getAggregatedData(),
+                offHeapProcessor.getApmAggregator().getAggregatedData());
+        assertSameOutput(processor.getApplicationAggregator().getAggregatedData(),
+                offHeapProcessor.getApplicationAggregator().getAggregatedData());
+        assertSameOutput(processor.getRequestAggregator().getAggregatedData(),
+                offHeapProcessor.getRequestAggregator().getAggregatedData());
+    }
+
+    @Test
+    void testProcessSegmentFile_MatchesTextRun() throws IOException {
+        Path segmentFile = tempDir.resolve("test_log.seg");
+        processor.setSegmentFile(segmentFile.toString());
+        processor.processLogFile();
+
+        LogProcessor segmentProcessor = new LogProcessor(logFile.toString());
+        segmentProcessor.processSegmentFile(segmentFile.toString());
+
+        assertSameOutput(processor.getApmAggregator().getAggregatedData(),
+                segmentProcessor.getApmAggregator().getAggregatedData());
+        assertSameOutput(processor.getApplicationAggregator().getAggregatedData(),
+                segmentProcessor.getApplicationAggregator().getAggregatedData());
+        assertSameOutput(processor.getRequestAggregator().getAggregatedData(),
+                segmentProcessor.getRequestAggregator().getAggregatedData());
+        assertEquals(processor.getRejects().getCounts(), segmentProcessor.getRejects().getCounts());
+    }
+
+    @Test
+    void testProcessLogFile_CountsAndQuarantinesRejects() throws IOException {
+        Path badLogFile = tempDir.resolve("bad_log.txt");
+        Files.writeString(badLogFile,
+                "timestamp=2024-02-24T16:22:15Z metric=cpu_usage_percent host=webserver1 value=72\n" +
+                        "timestamp=2024-02-24T16:22:15Z metric=cpu_usage_percent host=webserver1 value=7x\n" +
+                        "\n" +
+                        "timestamp=2024-02-2 level=INFO message=\"truncated\"\n" +
+                        "Invalid log line that should be ignored\n" +
+                        "timestamp=2024-02-24T16:22:25Z request_method=GET request_url=/a response_status=200\n" +
+                        "timestamp=2024-02-24T16:22:25Z request_method=GET request_url=/a response_status= response_time_ms=1\n");
+
+        for (int mode = 0; mode < 4; mode++) {
+            Path quarantineFile = tempDir.resolve("quarantine" + mode + ".txt");
+            LogProcessor rejectProcessor = new LogProcessor(badLogFile.toString());
+            rejectProcessor.setByteParsing(mode % 2 == 1);
+            rejectProcessor.setParallelism(mode < 2 ? 1 : 3);
+            rejectProcessor.setQuarantineFile(quarantineFile.toString());
+            rejectProcessor.processLogFile();
+
+            RejectCounts rejects = rejectProcessor.getRejects();
+            assertEquals(5, rejects.getTotal(), "mode " + mode);
+            assertEquals(1, rejects.getCount(APMLogParser.LOG_TYPE, ParseStatus.INVALID_NUMBER));
+            assertEquals(1, rejects.getCount(ApplicationLogParser.LOG_TYPE, ParseStatus.INVALID_TIMESTAMP));
+            // Request lines missing a key, or with an empty value, match no log type
+            assertEquals(3, rejects.getCount(LogParser.UNKNOWN_LOG_TYPE, ParseStatus.UNRECOGNIZED));
+
+            List<String> quarantined = Files.readAllLines(quarantineFile);
+            assertEquals(5, quarantined.size());
+            assertTrue(quarantined.contains("Invalid log line that should be ignored"));
+            assertTrue(quarantined.contains("timestamp=2024-02-2 level=INFO message=\"truncated\""));
+
+            assertEquals(1, ((Map<?, ?>) rejectProcessor.getApmAggregator().getAggregatedData()).size());
+        }
+    }
+
+    @Test
+    void testRegisterParser_RecognizedOnEveryPath() throws IOException {
+        Files.writeString(logFile, "timestamp=2024-02-24T16:22:15Z event=login user_id=789 host=webserver2\n"
+                + "timestamp=2024-02-24T16:22:20Z level=INFO message=\"Scheduled maintenance starting\" host=webserver1\n",
+                StandardOpenOption.APPEND);
+
+        for (int mode = 0; mode < 4; mode++) {
+            LogProcessor customProcessor = new LogProcessor(logFile.toString());
+            customProcessor.registerParser(AuditLogParser::new);
+            customProcessor.setByteParsing(mode % 2 == 1);
+            customProcessor.setParallelism(mode < 2 ? 1 : 3);
+            customProcessor.processLogFile();
+
+            Map<String, Object> levels = customProcessor.getApplicationAggregator().getAggregatedData();
+            assertEquals(1, levels.get("AUDIT"), "mode " + mode);
+            assertEquals(2, levels.get("INFO"), "mode " + mode);
+            assertEquals(1, customProcessor.getRejects().getTotal(), "mode " + mode);
+        }
+    }
+
+    /**
+     * Parser for a log type that is not built in, counted as application entries of level AUDIT
+     */
+    private static class AuditLogParser implements LogParser {
+        @Override
+        public Optional<LogEntry> parse(String logLine) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<LogEntry> parse(Map<String, String> fields, Map<String, String> rawData) {
+            return Optional.of(new ApplicationLogEntry(null, fields.get("host"), "AUDIT", fields.get("event"), rawData));
+        }
+
+        @Override
+        public boolean canParse(String logLine) {
+            return false;
+        }
+
+        @Override
+        public Set<String> getRequiredKeys() {
+            return Set.of("event", "user_id");
+        }
+
+        @Override
+        public Set<String> getFieldKeys() {
+            return Set.of("event", "host");
+        }
+    }
+
     @Test
     void testProcessInvalidLogFile() {
         // Create processor with non-existent file
@@ -76,4 +262,107 @@ public class LogProcessorTest {
         // Processing should throw IOException
         assertThrows(IOException.class, invalidProcessor::processLogFile);
     }
+
+    @Test
+    void testProcessLogFileParallel_MatchesSequential() throws IOException {
+        // Create a log file large enough to be split into many chunks
+        Path largeLogFile = tempDir.resolve("large_log.txt");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append("timestamp=2024-02-24T16:22:15Z metric=metric_").append(i % 7)
+                    .append(" host=webserver").append(i % 3).append(" value=").append(i % 101).append("\n");
+            sb.append("timestamp=2024-02-24T16:22:20Z level=").append(i % 5 == 0 ? "ERROR" : "INFO")
+                    .append(" message=\"Message ").append(i).append("\" host=webserver1\r\n");
+            sb.append("timestamp=2024-02-24T16:22:25Z request_method=GET request_url=\"/api/route").append(i % 11)
+                    .append("\" response_status=").append(i % 13 == 0 ? 503 : 200)
+                    .append(" response_time_ms=").append(i % 997).append(" host=webserver2\n");
+            sb.append("Invalid log line that should be ignored\n");
+        }
+        Files.writeString(largeLogFile, sb.toString());
+
+        LogProcessor sequential = new LogProcessor(largeLogFile.toString());
+        sequential.processLogFile();
+
+        LogProcessor parallel = new LogProcessor(largeLogFile.toString());
+        parallel.setParallelism(4);
+        parallel.processLogFile();
+
+        assertSameOutput(sequential.getApmAggregator().getAggregatedData(),
+                parallel.getApmAggregator().getAggregatedData());
+        assertSameOutput(sequential.getApplicationAggregator().getAggregatedData(),
+                parallel.getApplicationAggregator().getAggregatedData());
+        assertSameOutput(sequential.getRequestAggregator().getAggregatedData(),
+                parallel.getRequestAggregator().getAggregatedData());
+
+        Path segmentFile = tempDir.resolve("large_log.seg");
+        LogProcessor parallelReuse = new LogProcessor(largeLogFile.toString());
+        parallelReuse.setParallelism(4);
+        parallelReuse.setByteParsing(true);
+        parallelReuse.setReuseEntries(true);
+        parallelReuse.setSegmentFile(segmentFile.toString());
+        parallelReuse.processLogFile();
+
+        assertSameOutput(sequential.getApmAggregator().getAggregatedData(),
+                parallelReuse.getApmAggregator().getAggregatedData());
+        assertSameOutput(sequential.getApplicationAggregator().getAggregatedData(),
+                parallelReuse.getApplicationAggregator().getAggregatedData());
+        assertSameOutput(sequential.getRequestAggregator().getAggregatedData(),
+                parallelReuse.getRequestAggregator().getAggregatedData());
+
+        // The segment written by the parallel run keeps the rows in file order
+        LogProcessor fromSegment = new LogProcessor(largeLogFile.toString());
+        fromSegment.processSegmentFile(segmentFile.toString());
+
+        assertSameOutput(sequential.getApmAggregator().getAggregatedData(),
+                fromSegment.getApmAggregator().getAggregatedData());
+        assertSameOutput(sequential.getApplicationAggregator().getAggregatedData(),
+                fromSegment.getApplicationAggregator().getAggregatedData());
+        assertSameOutput(sequential.getRequestAggregator().getAggregatedData(),
+                fromSegment.getRequestAggregator().getAggregatedData());
+        assertEquals(sequential.getRejects().getTotal(), fromSegment.getRejects().getTotal());
+    }
+
+    @Test
+    void testProcessLogFileParallel_MatchesSequentialPastExactLimit() throws IOException {
+        // Each metric gets several times the exact limit, so its quantiles come from the sketch
+        Path largeLogFile = tempDir.resolve("sketched_log.txt");
+        StringBuilder sb = new StringBuilder();
+        long seed = 42;
+        for (int i = 0; i < 30000; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            sb.append("timestamp=2024-02-24T16:22:15Z metric=metric_").append(i % 2)
+                    .append(" host=webserver1 value=").append((seed >>> 11) * 0x1.0p-53 * 100).append("\n");
+        }
+        Files.writeString(largeLogFile, sb.toString());
+        AggregationOptions options = new AggregationOptions().setApmPercentiles(90, 99);
+
+        LogProcessor sequential = new LogProcessor(largeLogFile.toString());
+        sequential.setAggregationOptions(options);
+        sequential.processLogFile();
+
+        for (boolean byteParsing : new boolean[]{false, true}) {
+            LogProcessor parallel = new LogProcessor(largeLogFile.toString());
+            parallel.setAggregationOptions(options);
+            parallel.setParallelism(8);
+            parallel.setByteParsing(byteParsing);
+            parallel.processLogFile();
+
+            assertSameOutput(sequential.getApmAggregator().getAggregatedData(),
+                    parallel.getApmAggregator().getAggregatedData());
+        }
+    }
+
+    @Test
+    void testProcessInvalidLogFileParallel() {
+        LogProcessor invalidProcessor = new LogProcessor("non_existent_file.txt");
+        invalidProcessor.setParallelism(4);
+
+        assertThrows(IOException.class, invalidProcessor::processLogFile);
+    }
+
+    private void assertSameOutput(Map<String, Object> expected, Map<String, Object> actual) {
+        // Same content and same key order, so the written JSON is identical
+        assertEquals(expected, actual);
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package org.example.aggregator;
+
+import org.example.model.APMLogEntry;
+import org.example.model.ApplicationLogEntry;
+import org.example.model.LogEntry;
+import org.example.model.RequestLogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AggregatorMergeTest {
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.parse("2024-02-24T16:22:15");
+    private static final String[] METRICS = {"cpu_usage_percent", "memory_usage_percent", "disk_usage_percent"};
+    private static final String[] LEVELS = {"INFO", "ERROR", "DEBUG", "WARNING"};
+    private static final String[] ROUTES = {"/api/status", "/api/update", "/home", "/api/users/42"};
+    private static final int[] STATUSES = {200, 201, 204, 301, 400, 404, 500, 503};
+
+    @Test
+    void testApmMerge_MatchesSequentialPass() {
+        // Quarter steps keep every sum exact, so averages do not depend on the order of addition
+        Random random = new Random(1);
+        List<APMLogEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            entries.add(new APMLogEntry(TIMESTAMP, "host1", METRICS[random.nextInt(METRICS.length)],
+                    random.nextInt(400) / 4.0, new HashMap<>()));
+        }
+
+        assertMergeMatchesSequentialPass(entries, APMLogAggregator::new);
+        assertMergeMatchesSequentialPass(entries,
+                () -> new APMLogAggregator(new AggregationOptions().setExactQuantiles(true).setApmPercentiles(90, 99)));
+    }
+
+    @Test
+    void testApplicationMerge_MatchesSequentialPass() {
+        Random random = new Random(2);
+        List<ApplicationLogEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            entries.add(new ApplicationLogEntry(TIMESTAMP, "host1", LEVELS[random.nextInt(LEVELS.length)],
+                    "message " + i, new HashMap<>()));
+        }
+
+        assertMergeMatchesSequentialPass(entries, ApplicationLogAggregator::new);
+    }
+
+    @Test
+    void testRequestMerge_MatchesSequentialPass() {
+        Random random = new Random(3);
+        List<RequestLogEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            // Response times beyond 2047 ms land in shared histogram buckets
+            entries.add(new RequestLogEntry(TIMESTAMP, "host1", "GET", ROUTES[random.nextInt(ROUTES.length)],
+                    STATUSES[random.nextInt(STATUSES.length)], random.nextInt(5000), new HashMap<>()));
+        }
+
+        assertMergeMatchesSequentialPass(entries, RequestLogAggregator::new);
+    }
+
+    @Test
+    void testCardinalityMerge_MatchesSequentialPass() {
+        // Enough hosts for their sketch to turn dense, while routes and error codes stay sparse
+        Random random = new Random(5);
+        List<LogEntry> entries = new ArrayList<>();
+        Set<String> hosts = new HashSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            Map<String, String> rawData = new HashMap<>();
+            rawData.put("error_code", "E" + random.nextInt(300));
+            String host = "host" + random.nextInt(8000);
+            hosts.add(host);
+            entries.add(new RequestLogEntry(TIMESTAMP, host, "GET", "/api/users/" + random.nextInt(1000), 200, 10,
+                    rawData));
+        }
+        List<Dimension> dimensions = List.of(Dimension.parse("host"), Dimension.parse("route"),
+                Dimension.parse("error_code"), Dimension.parse("level"));
+
+        assertMergeMatchesSequentialPass(entries, () -> new CardinalityAggregator(dimensions, 14));
+
+        CardinalityAggregator aggregator = new CardinalityAggregator(dimensions, 14);
+        aggregator.processLogs(entries);
+        assertEquals(hosts.size(), aggregator.getDistinctCount("host"), hosts.size() * 0.03);
+        assertEquals(1000, aggregator.getDistinctCount("route"), 2);
+        assertEquals(300, aggregator.getDistinctCount("error_code"));
+        assertEquals(0, aggregator.getDistinctCount("level"));
+    }
+
+    @Test
+    void testApmMerge_SketchesStayWithinErrorBound() {
+        Random random = new Random(4);
+        Supplier<APMLogAggregator> factory = () -> new APMLogAggregator(new AggregationOptions().setExactLimit(100));
+        APMLogAggregator sequential = factory.get();
+        APMLogAggregator merged = factory.get();
+        for (int part = 0; part < 8; part++) {
+            APMLogAggregator partial = factory.get();
+            for (int i = 0; i < 5000; i++) {
+                APMLogEntry entry = new APMLogEntry(TIMESTAMP, "host1", "cpu_usage_percent",
+                        random.nextInt(10_000), new HashMap<>());
+                sequential.processLog(entry);
+                partial.processLog(entry);
+            }
+            merged.merge(partial);
+        }
+
+        Map<String, Object> expected = metric(sequential.getAggregatedData());
+        Map<String, Object> actual = metric(merged.getAggregatedData());
+        assertEquals(expected.get("minimum"), actual.get("minimum"));
+        assertEquals(expected.get("max"), actual.get("max"));
+        assertEquals((Double) expected.get("average"), (Double) actual.get("average"), 1e-9);
+        assertEquals(5000.0, (Double) actual.get("median"), 200.0);
+    }
+
+    /**
+     * Aggregate the entries in one pass, then in splits merged in file order, in reverse order and
+     * in a different grouping; all must agree with the single pass
+     */
+    private static <T extends LogEntry, A extends LogAggregator<T, A>> void assertMergeMatchesSequentialPass(
+            List<T> entries, Supplier<A> factory) {
+        A sequential = factory.get();
+        sequential.processLogs(entries);
+        Map<String, Object> expected = sequential.getAggregatedData();
+
+        for (int parts : new int[]{2, 3, 7}) {
+            List<A> partials = new ArrayList<>();
+            for (int part = 0; part < parts; part++) {
+                A partial = factory.get();
+                partial.processLogs(entries.subList(part * entries.size() / parts, (part + 1) * entries.size() / parts));
+                partials.add(partial);
+            }
+
+            // In file order the keys also come out in the same order
+            A inOrder = factory.get();
+            for (A partial : partials) {
+                inOrder.merge(partial);
+            }
+            assertEquals(expected.toString(), inOrder.getAggregatedData().toString());
+
+            // Commutative: merging in reverse gives the same values
+            A reversed = factory.get();
+            for (int part = parts - 1; part >= 0; part--) {
+                reversed.merge(partials.get(part));
+            }
+            assertEquals(expected, reversed.getAggregatedData());
+
+            // Associative: merging the tail first and then into the head gives the same values
+            A tail = factory.get();
+            for (int part = 1; part < parts; part++) {
+                tail.merge(partials.get(part));
+            }
+            A head = factory.get();
+            head.merge(partials.get(0));
+            head.merge(tail);
+            assertEquals(expected.toString(), head.getAggregatedData().toString());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> metric(Map<String, Object> result) {
+        return (Map<String, Object>) result.get("cpu_usage_percent");
+    }
+}
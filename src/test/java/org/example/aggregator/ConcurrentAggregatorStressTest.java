@@ -0,0 +1,148 @@
+package org.example.aggregator;
+
+import org.example.model.APMLogEntry;
+import org.example.model.ApplicationLogEntry;
+import org.example.model.RequestLogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentAggregatorStressTest {
+    private static final int THREADS = 8;
+    private static final int ENTRIES_PER_THREAD = 50_000;
+
+    private static final String[] METRICS = {"cpu_usage_percent", "memory_usage_percent", "disk_usage_percent"};
+    private static final String[] LEVELS = {"INFO", "ERROR", "DEBUG", "WARNING"};
+    private static final String[] ROUTES = {"/api/status", "/api/update", "/home", "/api/users/42"};
+    private static final int[] STATUSES = {200, 201, 204, 301, 400, 404, 500, 503};
+
+    @Test
+    void testApplicationCounts_MatchSequentialUnderLoad() throws Exception {
+        List<List<ApplicationLogEntry>> parts = new ArrayList<>();
+        ApplicationLogAggregator sequential = new ApplicationLogAggregator();
+        Random random = new Random(1);
+        for (int thread = 0; thread < THREADS; thread++) {
+            List<ApplicationLogEntry> part = new ArrayList<>();
+            for (int i = 0; i < ENTRIES_PER_THREAD; i++) {
+                part.add(new ApplicationLogEntry(0L, "host1", LEVELS[random.nextInt(LEVELS.length)], "message",
+                        new HashMap<>()));
+            }
+            sequential.processLogs(part);
+            parts.add(part);
+        }
+
+        ConcurrentApplicationLogAggregator concurrent = new ConcurrentApplicationLogAggregator();
+        runConcurrently(parts, concurrent::processLog);
+
+        assertEquals(sequential.getAggregatedData(), concurrent.getAggregatedData());
+        long total = 0;
+        for (Object count : concurrent.getAggregatedData().values()) {
+            total += (Integer) count;
+        }
+        assertEquals((long) THREADS * ENTRIES_PER_THREAD, total);
+    }
+
+    @Test
+    void testRequestStatistics_MatchSequentialUnderLoad() throws Exception {
+        List<List<RequestLogEntry>> parts = new ArrayList<>();
+        RequestLogAggregator sequential = new RequestLogAggregator();
+        Random random = new Random(2);
+        for (int thread = 0; thread < THREADS; thread++) {
+            List<RequestLogEntry> part = new ArrayList<>();
+            for (int i = 0; i < ENTRIES_PER_THREAD; i++) {
+                part.add(new RequestLogEntry(0L, "host1", "GET", ROUTES[random.nextInt(ROUTES.length)],
+                        STATUSES[random.nextInt(STATUSES.length)], random.nextInt(20_000), new HashMap<>()));
+            }
+            sequential.processLogs(part);
+            parts.add(part);
+        }
+
+        ConcurrentRequestLogAggregator concurrent = new ConcurrentRequestLogAggregator();
+        runConcurrently(parts, concurrent::processLog);
+
+        // Keys may come out in a different order, values must be identical
+        assertEquals(sequential.getAggregatedData(), concurrent.getAggregatedData());
+    }
+
+    @Test
+    void testApmStatistics_MatchSequentialUnderLoad() throws Exception {
+        // Quarter steps keep every sum exact, so averages do not depend on the order of addition
+        List<List<APMLogEntry>> parts = new ArrayList<>();
+        AggregationOptions options = new AggregationOptions().setExactQuantiles(true).setApmPercentiles(90, 99);
+        APMLogAggregator sequential = new APMLogAggregator(options);
+        Random random = new Random(3);
+        for (int thread = 0; thread < THREADS; thread++) {
+            List<APMLogEntry> part = new ArrayList<>();
+            for (int i = 0; i < ENTRIES_PER_THREAD; i++) {
+                part.add(new APMLogEntry(0L, "host1", METRICS[random.nextInt(METRICS.length)],
+                        random.nextInt(400) / 4.0, new HashMap<>()));
+            }
+            sequential.processLogs(part);
+            parts.add(part);
+        }
+
+        ConcurrentAPMLogAggregator concurrent = new ConcurrentAPMLogAggregator(options);
+        runConcurrently(parts, concurrent::processLog);
+
+        assertEquals(sequential.getAggregatedData(), concurrent.getAggregatedData());
+    }
+
+    @Test
+    void testMerge_AddsConcurrentAggregators() throws Exception {
+        List<List<RequestLogEntry>> parts = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            List<RequestLogEntry> part = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                part.add(new RequestLogEntry(0L, "host1", "GET", "/home", 200, i, new HashMap<>()));
+            }
+            parts.add(part);
+        }
+        ConcurrentRequestLogAggregator first = new ConcurrentRequestLogAggregator();
+        ConcurrentRequestLogAggregator second = new ConcurrentRequestLogAggregator();
+        runConcurrently(parts, first::processLog);
+        runConcurrently(parts, second::processLog);
+        first.merge(second);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> statusCodes = (Map<String, Object>) ((Map<String, Object>) first.getAggregatedData()
+                .get("/home")).get("status_codes");
+        assertEquals(2 * THREADS * 1000, statusCodes.get("2XX"));
+    }
+
+    /**
+     * Feed each part to the consumer on its own thread, all starting at once
+     */
+    private static <T> void runConcurrently(List<List<T>> parts, Consumer<T> consumer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(parts.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<T> part : parts) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (T entry : part) {
+                        consumer.accept(entry);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
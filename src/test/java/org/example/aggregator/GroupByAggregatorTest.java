@@ -0,0 +1,141 @@
+package org.example.aggregator;
+
+import org.example.model.ApplicationLogEntry;
+import org.example.model.RequestLogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroupByAggregatorTest {
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.parse("2024-02-24T16:22:15");
+
+    @Test
+    void testGroupByHostAndRoute_ExactUnderTopK() {
+        GroupByAggregator<RequestLogEntry, RequestLogAggregator> groups = new GroupByAggregator<>(
+                RequestLogAggregator::new, List.of(Dimension.parse("host"), Dimension.parse("route")), 10);
+        groups.processLog(request("web1", "/api/status", 100));
+        groups.processLog(request("web1", "/api/status", 300));
+        groups.processLog(request("web2", "/api/status", 200));
+        groups.processLog(request("web1", "/home", 50));
+
+        Map<String, Object> result = groups.getAggregatedData();
+        Map<String, Object> tracked = map(result, "groups");
+
+        assertEquals(List.of("web1|/api/status", "web1|/home", "web2|/api/status"), new ArrayList<>(tracked.keySet()));
+        assertEquals(2L, map(tracked, "web1|/api/status").get("count"));
+        assertEquals(0L, map(tracked, "web1|/api/status").get("count_error"));
+        Map<String, Object> routeData = map(map(map(tracked, "web1|/api/status"), "data"), "/api/status");
+        assertEquals(300, map(routeData, "response_times").get("max"));
+        assertEquals(0L, map(result, "other").get("count"));
+    }
+
+    @Test
+    void testHeavyHittersTrackedAndRestFoldedIntoOther() {
+        GroupByAggregator<ApplicationLogEntry, ApplicationLogAggregator> groups = new GroupByAggregator<>(
+                ApplicationLogAggregator::new, List.of(Dimension.parse("error_code")), 10);
+        int[] heavyCounts = new int[3];
+        int total = 0;
+        for (int i = 0; i < 10_000; i++) {
+            // Every other entry has one of three frequent codes, the rest have a code of their own
+            String code = i % 2 == 0 ? "E" + (i / 2) % 3 : "rare" + i;
+            if (i % 2 == 0) {
+                heavyCounts[(i / 2) % 3]++;
+            }
+            groups.processLog(application("ERROR", code));
+            total++;
+        }
+
+        Map<String, Object> result = groups.getAggregatedData();
+        Map<String, Object> tracked = map(result, "groups");
+
+        assertEquals(10, groups.getGroupCount());
+        long trackedCount = 0;
+        for (Object group : tracked.values()) {
+            trackedCount += (Long) ((Map<?, ?>) group).get("count");
+        }
+        assertEquals(total, trackedCount + groups.getOtherCount());
+        for (int code = 0; code < 3; code++) {
+            Map<String, Object> group = map(tracked, "E" + code);
+            long count = (Long) group.get("count");
+            long error = (Long) group.get("count_error");
+            assertTrue(count <= heavyCounts[code] && count + error >= heavyCounts[code], "E" + code);
+        }
+        assertEquals(List.of("E0", "E1", "E2"), new ArrayList<>(tracked.keySet()).subList(0, 3));
+    }
+
+    @Test
+    void testMerge_MatchesSequentialPassUnderTopK() {
+        List<Dimension> dimensions = List.of(Dimension.parse("host"), Dimension.parse("level"));
+        GroupByAggregator<ApplicationLogEntry, ApplicationLogAggregator> sequential =
+                new GroupByAggregator<>(ApplicationLogAggregator::new, dimensions, 20);
+        GroupByAggregator<ApplicationLogEntry, ApplicationLogAggregator> left =
+                new GroupByAggregator<>(ApplicationLogAggregator::new, dimensions, 20);
+        GroupByAggregator<ApplicationLogEntry, ApplicationLogAggregator> right =
+                new GroupByAggregator<>(ApplicationLogAggregator::new, dimensions, 20);
+        String[] levels = {"INFO", "ERROR", "DEBUG"};
+        for (int i = 0; i < 300; i++) {
+            ApplicationLogEntry entry = new ApplicationLogEntry(TIMESTAMP, "web" + i % 4, levels[i % 7 % 3],
+                    "message", Map.of());
+            sequential.processLog(entry);
+            (i < 100 ? left : right).processLog(entry);
+        }
+
+        left.merge(right);
+
+        assertEquals(sequential.getAggregatedData(), left.getAggregatedData());
+    }
+
+    @Test
+    void testMerge_KeepsTopKAndConservesCounts() {
+        List<Dimension> dimensions = List.of(Dimension.parse("error_code"));
+        GroupByAggregator<ApplicationLogEntry, ApplicationLogAggregator> left =
+                new GroupByAggregator<>(ApplicationLogAggregator::new, dimensions, 3);
+        GroupByAggregator<ApplicationLogEntry, ApplicationLogAggregator> right =
+                new GroupByAggregator<>(ApplicationLogAggregator::new, dimensions, 3);
+        for (int i = 0; i < 100; i++) {
+            left.processLog(application("ERROR", i % 2 == 0 ? "hot" : "left" + i % 5));
+            right.processLog(application("ERROR", i % 2 == 0 ? "hot" : "right" + i % 7));
+        }
+
+        left.merge(right);
+
+        Map<String, Object> tracked = map(left.getAggregatedData(), "groups");
+        assertEquals(3, tracked.size());
+        assertEquals("hot", tracked.keySet().iterator().next());
+        assertEquals(100L, map(tracked, "hot").get("count"));
+        long trackedCount = 0;
+        for (Object group : tracked.values()) {
+            trackedCount += (Long) ((Map<?, ?>) group).get("count");
+        }
+        assertEquals(200, trackedCount + left.getOtherCount());
+    }
+
+    @Test
+    void testMissingDimensionValue() {
+        GroupByAggregator<ApplicationLogEntry, ApplicationLogAggregator> groups = new GroupByAggregator<>(
+                ApplicationLogAggregator::new, List.of(Dimension.parse("route")), 5);
+        groups.processLog(application("INFO", "E1"));
+
+        assertTrue(map(groups.getAggregatedData(), "groups").containsKey(Dimension.NONE));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GroupByAggregator<>(ApplicationLogAggregator::new, List.of(), 5));
+    }
+
+    private static RequestLogEntry request(String host, String url, int responseTimeMs) {
+        return new RequestLogEntry(TIMESTAMP, host, "GET", url, 200, responseTimeMs, Map.of());
+    }
+
+    private static ApplicationLogEntry application(String level, String errorCode) {
+        return new ApplicationLogEntry(TIMESTAMP, "web1", level, "message", Map.of("error_code", errorCode));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Map<String, Object> data, String key) {
+        return (Map<String, Object>) data.get(key);
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.aggregator;
+
+import org.example.handler.LogDispatcher;
+import org.example.model.LogEntry;
+import org.example.model.RequestLogEntry;
+import org.example.model.Symbols;
+import org.example.parser.ByteLogParser;
+import org.example.util.ByteScanner;
+import org.example.util.SymbolTable;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouteNormalizerTest {
+
+    @Test
+    void testNormalize_ReplacesIdSegments() {
+        RouteNormalizer normalizer = new RouteNormalizer();
+
+        assertEquals("/api/users/{int}", normalizer.normalize("/api/users/123"));
+        assertEquals("/api/orders/{uuid}/items",
+                normalizer.normalize("/api/orders/3f2b8c1e-9a4d-4e6f-b7a1-0c5d2e8f9b3a/items"));
+        assertEquals("/blobs/{hex}", normalizer.normalize("/blobs/5d41402abc4b2a76b9719d911017c592"));
+        assertEquals("/api/search", normalizer.normalize("/api/search?q=logs&page=2"));
+        assertEquals("/api/users/{int}/", normalizer.normalize("/api/users/7/"));
+    }
+
+    @Test
+    void testNormalize_KeepsWordSegments() {
+        RouteNormalizer normalizer = new RouteNormalizer();
+
+        assertEquals("/api/status", normalizer.normalize("/api/status"));
+        assertEquals("/api/v2/cafe/deadbeef", normalizer.normalize("/api/v2/cafe/deadbeef"));
+        assertEquals("/", normalizer.normalize("/"));
+        assertEquals("", normalizer.normalize(""));
+    }
+
+    @Test
+    void testNormalize_PatternsWinOverRules() {
+        RouteNormalizer normalizer = new RouteNormalizer("/api/users/{user}/posts/{post}", "/api/users/me/posts/{post}",
+                "/files/{name}");
+
+        assertEquals("/api/users/{user}/posts/{post}", normalizer.normalize("/api/users/alice/posts/42"));
+        assertEquals("/api/users/me/posts/{post}", normalizer.normalize("/api/users/me/posts/hello-world"));
+        assertEquals("/files/{name}", normalizer.normalize("/files/report.pdf"));
+
+        // Paths that no pattern covers fall back to the rules
+        assertEquals("/api/users/{int}", normalizer.normalize("/api/users/42"));
+        assertEquals("/files/{int}/raw", normalizer.normalize("/files/9/raw"));
+    }
+
+    @Test
+    void testPatterns_RejectConflictingWildcards() {
+        assertThrows(IllegalArgumentException.class, () -> new RouteNormalizer("/api/users/{id}", "/api/users/{user}/posts"));
+    }
+
+    @Test
+    void testNormalizeId_CachesTemplateIds() {
+        RouteNormalizer normalizer = new RouteNormalizer();
+        int first = Symbols.ROUTES.idOf("/api/normalizer-test/1001");
+        int second = Symbols.ROUTES.idOf("/api/normalizer-test/1002");
+
+        int template = normalizer.normalize(first);
+        assertEquals("/api/normalizer-test/{int}", Symbols.ROUTES.nameOf(template));
+        assertEquals(template, normalizer.normalize(second));
+        assertEquals(template, normalizer.normalize(first));
+        assertEquals(template, normalizer.normalize(template));
+        assertEquals(SymbolTable.NO_SYMBOL, normalizer.normalize(SymbolTable.NO_SYMBOL));
+    }
+
+    @Test
+    void testRequestAggregator_CollapsesRoutes() {
+        AggregationOptions options = new AggregationOptions().setRouteNormalizer(new RouteNormalizer());
+        RequestLogAggregator aggregator = new RequestLogAggregator(options);
+        for (int user = 0; user < 1000; user++) {
+            aggregator.processLog(new RequestLogEntry(0L, "host1", "GET", "/api/accounts/" + user,
+                    user % 10 == 0 ? 500 : 200, user, new HashMap<>()));
+        }
+
+        Map<String, Object> result = aggregator.getAggregatedData();
+        assertEquals(1, result.size());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> route = (Map<String, Object>) result.get("/api/accounts/{int}");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> statusCodes = (Map<String, Object>) route.get("status_codes");
+        assertEquals(900, statusCodes.get("2XX"));
+        assertEquals(100, statusCodes.get("5XX"));
+    }
+
+    @Test
+    void testGroupByRoute_GroupsByTemplate() {
+        AggregationOptions options = new AggregationOptions()
+                .setGroupBy(Dimension.parse("host"), Dimension.parse("route"))
+                .setRouteNormalizer(new RouteNormalizer());
+        GroupedAggregates groups = new GroupedAggregates(options);
+        for (int cart = 0; cart < 100; cart++) {
+            groups.processLog(new RequestLogEntry(0L, "web" + cart % 2, "GET", "/api/carts/" + cart, 200, cart,
+                    new HashMap<>()));
+        }
+
+        Map<String, Object> tracked = map(map(groups.getAggregatedData(), "request"), "groups");
+        assertEquals(List.of("web0|/api/carts/{int}", "web1|/api/carts/{int}"), new ArrayList<>(tracked.keySet()));
+        assertEquals(50L, map(tracked, "web0|/api/carts/{int}").get("count"));
+    }
+
+    @Test
+    void testParsers_InternOnlyTemplates() {
+        RouteNormalizer normalizer = new RouteNormalizer();
+        LogDispatcher dispatcher = LogDispatcher.createDefault(normalizer);
+        ByteLogParser byteParser = new ByteLogParser(StandardCharsets.UTF_8, ByteScanner.scalar(),
+                LogDispatcher.createDefault(normalizer));
+        int routesBefore = Symbols.ROUTES.size();
+
+        for (int invoice = 0; invoice < 200; invoice++) {
+            String url = "/api/invoices/" + invoice + "/pdf";
+            String line = "timestamp=2024-02-24T16:22:25Z request_method=GET request_url=" + (invoice % 2 == 0 ? url : "\"" + url + "\"")
+                    + " response_status=200 response_time_ms=12 host=webserver1";
+            RequestLogEntry parsed = (RequestLogEntry) dispatcher.handle(line).get();
+            assertEquals("/api/invoices/{int}/pdf", parsed.getRequestUrl());
+
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            LogEntry byteParsed = byteParser.parseEntry(bytes, 0, bytes.length);
+            assertEquals(parsed.getRouteId(), ((RequestLogEntry) byteParsed).getRouteId());
+        }
+
+        // The template is the only new route; none of the URLs were interned
+        assertEquals(routesBefore + 1, Symbols.ROUTES.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Map<String, Object> data, String key) {
+        return (Map<String, Object>) data.get(key);
+    }
+}
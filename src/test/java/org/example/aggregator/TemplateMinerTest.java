@@ -0,0 +1,136 @@
+package org.example.aggregator;
+
+import org.example.model.ApplicationLogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemplateMinerTest {
+
+    @Test
+    void testTemplates_VariableTokensBecomeWildcards() {
+        TemplateMiner miner = new TemplateMiner();
+        for (int job = 0; job < 50; job++) {
+            miner.processLog(entry("ERROR", "Update process failed for job " + job));
+        }
+        miner.processLog(entry("ERROR", "Connection to database lost"));
+        miner.processLog(entry("INFO", "Login succeeded for user alice"));
+        miner.processLog(entry("INFO", "Login succeeded for user bob"));
+        miner.processLog(entry("INFO", "Login succeeded for user carol"));
+
+        Map<String, Object> result = miner.getAggregatedData();
+        assertEquals(Map.of("Update process failed for job <*>", 50L, "Connection to database lost", 1L),
+                result.get("ERROR"));
+        assertEquals(Map.of("Login succeeded for user <*>", 3L), result.get("INFO"));
+        assertEquals(3, miner.getTemplateCount());
+    }
+
+    @Test
+    void testTemplates_DissimilarMessagesStaySeparate() {
+        TemplateMiner miner = new TemplateMiner();
+        miner.processLog(entry("INFO", "Scheduled maintenance starting now"));
+        miner.processLog(entry("INFO", "Scheduled backup finished with warnings"));
+        miner.processLog(entry("INFO", "Scheduled backup finished with errors"));
+
+        Map<String, Object> levels = miner.getAggregatedData();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> info = (Map<String, Object>) levels.get("INFO");
+        assertEquals(2L, info.get("Scheduled backup finished with <*>"));
+        assertEquals(1L, info.get("Scheduled maintenance starting now"));
+    }
+
+    @Test
+    void testTopK_RestCountedAsOther() {
+        TemplateMiner miner = new TemplateMiner(2, 100);
+        String[] words = {"alpha", "bravo", "charlie", "delta"};
+        for (int i = 0; i < words.length; i++) {
+            for (int n = 0; n <= i; n++) {
+                miner.processLog(entry("WARNING", words[i]));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> warnings = (Map<String, Object>) miner.getAggregatedData().get("WARNING");
+        assertEquals(3, warnings.size());
+        assertEquals(4L, warnings.get("delta"));
+        assertEquals(3L, warnings.get("charlie"));
+        assertEquals(3L, warnings.get(TemplateMiner.OTHER));
+    }
+
+    @Test
+    void testMaxTemplates_DropsLeastRecentlyMatched() {
+        TemplateMiner miner = new TemplateMiner(100, 10);
+        for (int i = 0; i < 1000; i++) {
+            miner.processLog(entry("INFO", "heartbeat"));
+            miner.processLog(entry("INFO", "unique event " + (char) ('a' + i % 26) + (char) ('a' + i / 26)));
+        }
+
+        assertTrue(miner.getTemplateCount() <= 10);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> info = (Map<String, Object>) miner.getAggregatedData().get("INFO");
+        assertEquals(1000L, info.get("heartbeat"));
+        long total = 0;
+        for (Object count : info.values()) {
+            total += (Long) count;
+        }
+        assertEquals(2000, total);
+    }
+
+    @Test
+    void testMerge_CombinesTemplatesOfParts() {
+        TemplateMiner first = new TemplateMiner();
+        TemplateMiner second = new TemplateMiner();
+        for (int i = 0; i < 20; i++) {
+            first.processLog(entry("ERROR", "Timeout calling service " + (i % 2 == 0 ? "billing" : "search")));
+            second.processLog(entry("ERROR", "Timeout calling service inventory"));
+            second.processLog(entry("DEBUG", "Cache hit ratio " + i));
+        }
+        first.merge(second);
+
+        Map<String, Object> result = first.getAggregatedData();
+        assertEquals(Map.of("Timeout calling service <*>", 40L), result.get("ERROR"));
+        assertEquals(Map.of("Cache hit ratio <*>", 20L), result.get("DEBUG"));
+    }
+
+    @Test
+    void testMaxTemplates_TreeShrinksWithDroppedTemplates() {
+        // Every message has its own length and first tokens, so each one needs a new root and prefix nodes
+        TemplateMiner miner = new TemplateMiner(100, 10);
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder message = new StringBuilder(word(i)).append(' ').append(word(i * 7 + 3));
+            for (int token = 0; token < i % 150; token++) {
+                message.append(" filler");
+            }
+            miner.processLog(entry("INFO", message.toString()));
+        }
+
+        assertTrue(miner.getTemplateCount() <= 10);
+        assertTrue(miner.getNodeCount() <= 3 * 10, "nodes: " + miner.getNodeCount());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> info = (Map<String, Object>) miner.getAggregatedData().get("INFO");
+        long total = 0;
+        for (Object count : info.values()) {
+            total += (Long) count;
+        }
+        assertEquals(5000, total);
+    }
+
+    /**
+     * A token without digits that differs for every number
+     */
+    private static String word(int number) {
+        StringBuilder word = new StringBuilder();
+        do {
+            word.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return word.toString();
+    }
+
+    private static ApplicationLogEntry entry(String level, String message) {
+        return new ApplicationLogEntry(0L, "host1", level, message, new HashMap<>());
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.aggregator;
+
+import org.example.model.ApplicationLogEntry;
+import org.example.model.RequestLogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WindowedAggregatorTest {
+    private static final LocalDateTime START = LocalDateTime.parse("2024-02-24T16:00:00");
+
+    @Test
+    void testTumblingWindows_CountPerMinute() {
+        WindowedAggregator<ApplicationLogEntry, ApplicationLogAggregator> windows =
+                new WindowedAggregator<>(ApplicationLogAggregator::new, 60_000, 60_000, 10);
+        windows.processLog(application(0, "INFO"));
+        windows.processLog(application(59, "ERROR"));
+        windows.processLog(application(60, "ERROR"));
+        windows.processLog(application(185, "INFO"));
+
+        Map<String, Object> series = windows.getTimeSeries();
+
+        assertEquals(List.of("2024-02-24T16:00:00Z", "2024-02-24T16:01:00Z", "2024-02-24T16:03:00Z"),
+                new ArrayList<>(series.keySet()));
+        assertEquals(Map.of("INFO", 1, "ERROR", 1), series.get("2024-02-24T16:00:00Z"));
+        assertEquals(Map.of("ERROR", 1), series.get("2024-02-24T16:01:00Z"));
+        assertEquals(0, windows.getLateCount());
+    }
+
+    @Test
+    void testSlidingWindows_MergePanes() {
+        WindowedAggregator<RequestLogEntry, RequestLogAggregator> windows =
+                new WindowedAggregator<>(RequestLogAggregator::new, 60_000, 30_000, 10);
+        windows.processLog(request(10, 100));
+        windows.processLog(request(40, 300));
+        windows.processLog(request(70, 200));
+
+        Map<String, Object> series = windows.getTimeSeries();
+
+        // Windows start every 30 seconds and span two panes each
+        assertEquals(List.of("2024-02-24T15:59:30Z", "2024-02-24T16:00:00Z", "2024-02-24T16:00:30Z",
+                "2024-02-24T16:01:00Z"), new ArrayList<>(series.keySet()));
+        assertEquals(300, responseTimes(series, "2024-02-24T16:00:00Z").get("max"));
+        assertEquals(100, responseTimes(series, "2024-02-24T16:00:00Z").get("min"));
+        assertEquals(200, responseTimes(series, "2024-02-24T16:00:30Z").get("min"));
+    }
+
+    @Test
+    void testRetention_EvictsOldWindowsAndCountsLateEntries() {
+        WindowedAggregator<ApplicationLogEntry, ApplicationLogAggregator> windows =
+                new WindowedAggregator<>(ApplicationLogAggregator::new, 60_000, 60_000, 2);
+        for (int minute = 0; minute < 10; minute++) {
+            windows.processLog(application(minute * 60, "INFO"));
+        }
+        windows.processLog(application(8 * 60 + 1, "ERROR"));
+        windows.processLog(application(60, "ERROR"));
+
+        Map<String, Object> series = windows.getTimeSeries();
+
+        assertEquals(List.of("2024-02-24T16:08:00Z", "2024-02-24T16:09:00Z"), new ArrayList<>(series.keySet()));
+        assertEquals(Map.of("INFO", 1, "ERROR", 1), series.get("2024-02-24T16:08:00Z"));
+        assertEquals(1, windows.getLateCount());
+    }
+
+    @Test
+    void testMerge_MatchesSequentialPass() {
+        AggregationOptions options = new AggregationOptions().setWindow(60_000, 20_000).setWindowRetention(5);
+        WindowedAggregates sequential = new WindowedAggregates(options);
+        WindowedAggregates left = new WindowedAggregates(options);
+        WindowedAggregates right = new WindowedAggregates(options);
+        for (int second = 0; second < 600; second += 7) {
+            RequestLogEntry entry = request(second, second % 500);
+            sequential.processLog(entry);
+            (second < 300 ? left : right).processLog(entry);
+        }
+
+        left.merge(right);
+
+        assertEquals(sequential.getTimeSeries().toString(), left.getTimeSeries().toString());
+    }
+
+    @Test
+    void testWindowMustBeMultipleOfSlide() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new WindowedAggregator<>(ApplicationLogAggregator::new, 60_000, 25_000, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AggregationOptions().setWindow(60_000, 0));
+    }
+
+    private static ApplicationLogEntry application(int second, String level) {
+        return new ApplicationLogEntry(START.plusSeconds(second), "host1", level, "message", new HashMap<>());
+    }
+
+    private static RequestLogEntry request(int second, int responseTimeMs) {
+        return new RequestLogEntry(START.plusSeconds(second), "host1", "GET", "/api/status", 200, responseTimeMs,
+                new HashMap<>());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> responseTimes(Map<String, Object> series, String window) {
+        Map<String, Object> routes = (Map<String, Object>) series.get(window);
+        return (Map<String, Object>) ((Map<String, Object>) routes.get("/api/status")).get("response_times");
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.benchmark;
+
+import org.example.aggregator.LogAggregates;
+import org.example.model.LogEntry;
+import org.example.parser.ByteLogParser;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures the bytes allocated per line by the byte-level parser, with and without entry reuse,
+ * on generated input.txt-style data held in memory (so file I/O buffers are not counted). Run after
+ * {@code mvn test-compile} with:
+ * <pre>
+ * java -cp target/classes:target/test-classes org.example.benchmark.AllocationBenchmark [lines]
+ * </pre>
+ * "parse" only parses each line; "parse+aggregate" also feeds the entry to a fresh set of aggregators,
+ * which keep the first values of each metric exactly, so that figure includes the growth of their sample arrays.
+ */
+public class AllocationBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        int lineCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path input = Files.createTempFile("allocation-benchmark", ".txt");
+        byte[] data;
+        try {
+            ParserBenchmark.generateInput(input, lineCount);
+            data = Files.readAllBytes(input);
+        } finally {
+            Files.delete(input);
+        }
+        int[] lineStarts = lineStarts(data, lineCount);
+        System.out.printf("Input: %,d lines, %,d bytes%n", lineCount, data.length);
+
+        for (boolean reuse : new boolean[]{false, true}) {
+            for (boolean aggregate : new boolean[]{false, true}) {
+                for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                    run(data, lineStarts, reuse, aggregate);
+                }
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                run(data, lineStarts, reuse, aggregate);
+                long elapsed = System.nanoTime() - start;
+                allocated = allocatedBytes() - allocated;
+
+                System.out.printf("%-8s %-16s %8.1f bytes/line %,12.0f lines/sec%n", reuse ? "reuse" : "allocate",
+                        aggregate ? "parse+aggregate" : "parse", (double) allocated / lineCount,
+                        lineCount / (elapsed / 1e9));
+            }
+        }
+    }
+
+    private static void run(byte[] data, int[] lineStarts, boolean reuse, boolean aggregate) {
+        ByteLogParser parser = new ByteLogParser(StandardCharsets.UTF_8);
+        parser.setLean(true);
+        parser.setReuseEntries(reuse);
+        LogAggregates aggregates = new LogAggregates();
+        long checksum = 0;
+        for (int i = 0; i + 1 < lineStarts.length; i++) {
+            LogEntry entry = parser.parseEntry(data, lineStarts[i], lineStarts[i + 1] - 1);
+            if (entry != null) {
+                checksum += entry.getTimestampMillis();
+                if (aggregate) {
+                    aggregates.processLog(entry);
+                }
+            }
+        }
+        if (checksum == 42) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * Offsets of the first byte of every line, followed by the offset just past the last newline
+     */
+    private static int[] lineStarts(byte[] data, int lineCount) {
+        int[] starts = new int[lineCount + 1];
+        int line = 1;
+        for (int i = 0; i < data.length && line <= lineCount; i++) {
+            if (data[i] == '\n') {
+                starts[line++] = i + 1;
+            }
+        }
+        return starts;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.benchmark;
+
+import org.example.collections.IntLongMap;
+import org.example.collections.ObjectIntMap;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Compares the open-addressing maps of {@code org.example.collections} with boxed {@link HashMap}s on
+ * the two kinds of aggregator state they hold: counts by string key (group keys, template texts) and
+ * counts by sparse int id. Run after {@code mvn test-compile} with:
+ * <pre>
+ * java -cp target/classes:target/test-classes org.example.benchmark.CollectionsBenchmark [keys] [updates]
+ * </pre>
+ * "footprint" is the bytes allocated to build a map presized for all keys, so nothing is rehashed and the
+ * figure is what the map retains; "update" increments the counts of random existing keys and reports the
+ * bytes allocated and the throughput per increment.
+ */
+public class CollectionsBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int keyCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int updateCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        Random random = new Random(1);
+
+        String[] stringKeys = new String[keyCount];
+        int[] intKeys = new int[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            stringKeys[i] = "host" + random.nextInt(1000) + "|/api/route/" + i;
+            intKeys[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+        int[] updates = new int[updateCount];
+        for (int i = 0; i < updateCount; i++) {
+            updates[i] = random.nextInt(keyCount);
+        }
+        System.out.printf("%,d keys, %,d updates%n", keyCount, updateCount);
+
+        measureFootprint("HashMap<String, Integer>", keyCount, () -> {
+            Map<String, Integer> map = new HashMap<>(keyCount * 4 / 3 + 1);
+            for (String key : stringKeys) {
+                map.put(key, 1000);
+            }
+            return map;
+        });
+        measureFootprint("ObjectIntMap<String>", keyCount, () -> {
+            ObjectIntMap<String> map = new ObjectIntMap<>(keyCount);
+            for (String key : stringKeys) {
+                map.put(key, 1000);
+            }
+            return map;
+        });
+        measureFootprint("HashMap<Integer, Long>", keyCount, () -> {
+            Map<Integer, Long> map = new HashMap<>(keyCount * 4 / 3 + 1);
+            for (int key : intKeys) {
+                map.put(key, 1000L);
+            }
+            return map;
+        });
+        measureFootprint("IntLongMap", keyCount, () -> {
+            IntLongMap map = new IntLongMap(keyCount);
+            for (int key : intKeys) {
+                map.put(key, 1000);
+            }
+            return map;
+        });
+
+        Map<String, Integer> boxedByString = new HashMap<>();
+        ObjectIntMap<String> primitiveByString = new ObjectIntMap<>();
+        Map<Integer, Long> boxedById = new HashMap<>();
+        IntLongMap primitiveById = new IntLongMap();
+        measureUpdates("HashMap<String, Integer>", updateCount, () -> {
+            for (int update : updates) {
+                boxedByString.merge(stringKeys[update], 1, Integer::sum);
+            }
+        });
+        measureUpdates("ObjectIntMap<String>", updateCount, () -> {
+            for (int update : updates) {
+                primitiveByString.addTo(stringKeys[update], 1);
+            }
+        });
+        measureUpdates("HashMap<Integer, Long>", updateCount, () -> {
+            for (int update : updates) {
+                boxedById.merge(intKeys[update], 1L, Long::sum);
+            }
+        });
+        measureUpdates("IntLongMap", updateCount, () -> {
+            for (int update : updates) {
+                primitiveById.addTo(intKeys[update], 1);
+            }
+        });
+    }
+
+    private static void measureFootprint(String name, int keyCount, Supplier<Object> build) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            build.get();
+        }
+        long allocated = allocatedBytes();
+        Object map = build.get();
+        allocated = allocatedBytes() - allocated;
+        System.out.printf("footprint %-26s %8.1f bytes/key%n", name, (double) allocated / keyCount);
+        if (map.hashCode() == 42) {
+            System.out.println();
+        }
+    }
+
+    private static void measureUpdates(String name, int updateCount, Runnable run) {
+        // Warming up also adds every key, so the measured round only updates existing ones
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run.run();
+        }
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        run.run();
+        long elapsed = System.nanoTime() - start;
+        allocated = allocatedBytes() - allocated;
+        System.out.printf("update    %-26s %8.1f bytes/op %,14.0f ops/sec%n", name,
+                (double) allocated / updateCount, updateCount / (elapsed / 1e9));
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
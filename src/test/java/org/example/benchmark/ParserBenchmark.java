@@ -0,0 +1,115 @@
+package org.example.benchmark;
+
+import org.example.util.LogProcessor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Compares the lines/sec of the String parse path, the byte-level parse path and
+ * re-aggregation from a segment file on generated input.txt-style data. Run after {@code mvn test-compile} with:
+ * <pre>
+ * java -cp target/classes:target/test-classes org.example.benchmark.ParserBenchmark [lines]
+ * </pre>
+ * The input is generated from a fixed seed, so runs are reproducible.
+ */
+public class ParserBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int lineCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path input = Files.createTempFile("parser-benchmark", ".txt");
+        Path segment = Files.createTempFile("parser-benchmark", ".seg");
+        try {
+            generateInput(input, lineCount);
+            System.out.printf("Input: %,d lines, %,d bytes%n", lineCount, Files.size(input));
+
+            double stringRate = measure("String path", lineCount, () -> run(input, false));
+            double byteRate = measure("Byte-level path", lineCount, () -> run(input, true));
+            System.out.printf("Speedup: %.1fx%n", byteRate / stringRate);
+
+            LogProcessor writer = new LogProcessor(input.toString());
+            writer.setStreaming(true);
+            writer.setByteParsing(true);
+            writer.setSegmentFile(segment.toString());
+            writer.processLogFile();
+            System.out.printf("Segment: %,d bytes%n", Files.size(segment));
+            double segmentRate = measure("Segment file", lineCount,
+                    () -> new LogProcessor(input.toString()).processSegmentFile(segment.toString()));
+            System.out.printf("Speedup over byte-level path: %.1fx%n", segmentRate / byteRate);
+        } finally {
+            Files.delete(input);
+            Files.delete(segment);
+        }
+    }
+
+    private static double measure(String name, int lineCount, Run run) throws IOException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run.run();
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            run.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double linesPerSecond = lineCount / (best / 1e9);
+        System.out.printf("%-20s %,12.0f lines/sec (best of %d)%n", name, linesPerSecond, MEASURED_ROUNDS);
+        return linesPerSecond;
+    }
+
+    private interface Run {
+        void run() throws IOException;
+    }
+
+    private static void run(Path input, boolean byteParsing) throws IOException {
+        LogProcessor processor = new LogProcessor(input.toString());
+        processor.setStreaming(true);
+        processor.setLean(true);
+        processor.setByteParsing(byteParsing);
+        processor.processLogFile();
+    }
+
+    /**
+     * Write input.txt-style lines, cycling through APM, Application and Request logs
+     */
+    static void generateInput(Path file, int lineCount) throws IOException {
+        String[] metrics = {"cpu_usage_percent", "memory_usage_percent", "disk_usage_percent", "network_bytes_in"};
+        String[] levels = {"INFO", "ERROR", "DEBUG", "WARNING"};
+        String[] messages = {"Scheduled maintenance starting", "Update process failed", "Retrying update process",
+                "Database connection timeout"};
+        String[] routes = {"/api/update", "/api/status", "/api/retry", "/home"};
+        int[] statuses = {200, 202, 404, 500, 503};
+
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < lineCount; i++) {
+                String timestamp = String.format("2024-02-24T%02d:%02d:%02dZ", (i / 3600) % 24, (i / 60) % 60, i % 60);
+                String host = "webserver" + (1 + random.nextInt(8));
+                switch (i % 3) {
+                    case 0:
+                        writer.write("timestamp=" + timestamp + " metric=" + metrics[random.nextInt(metrics.length)]
+                                + " host=" + host + " value=" + random.nextInt(100));
+                        break;
+                    case 1:
+                        writer.write("timestamp=" + timestamp + " level=" + levels[random.nextInt(levels.length)]
+                                + " message=\"" + messages[random.nextInt(messages.length)] + "\" host=" + host);
+                        break;
+                    default:
+                        writer.write("timestamp=" + timestamp + " request_method=GET request_url=\""
+                                + routes[random.nextInt(routes.length)] + "\" response_status="
+                                + statuses[random.nextInt(statuses.length)] + " response_time_ms="
+                                + (10 + random.nextInt(500)) + " host=" + host);
+                        break;
+                }
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.benchmark;
+
+import org.example.util.ByteScanner;
+import org.example.util.LogProcessor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Compares scalar and Vector API delimiter scanning on the byte-level parse path, using
+ * request lines with long URLs and messages where most of the time goes to finding
+ * the ends of values. Run after {@code mvn test-compile} with:
+ * <pre>
+ * java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes org.example.benchmark.ScanBenchmark [lines] [scalar|vector]
+ * </pre>
+ * Without {@code --add-modules} both runs use the scalar scanner. When both modes run in one JVM
+ * they share call sites, so the JIT compiles the second less well; pass a mode to measure one per JVM.
+ */
+public class ScanBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int lineCount = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        Path input = Files.createTempFile("scan-benchmark", ".txt");
+        try {
+            generateInput(input, lineCount);
+            System.out.printf("Input: %,d lines, %,d bytes%n", lineCount, Files.size(input));
+            if (!ByteScanner.isVectorAvailable()) {
+                System.out.println("Vector API not enabled; both runs are scalar");
+            }
+
+            String mode = args.length > 1 ? args[1] : "both";
+            double scalarRate = mode.equals("vector") ? 0 : measure("Scalar scanning", input, lineCount, false);
+            double vectorRate = mode.equals("scalar") ? 0 : measure("Vector scanning", input, lineCount, true);
+            if (scalarRate > 0 && vectorRate > 0) {
+                System.out.printf("Speedup: %.1fx%n", vectorRate / scalarRate);
+            }
+        } finally {
+            Files.delete(input);
+        }
+    }
+
+    private static double measure(String name, Path input, int lineCount, boolean vectorScanning) throws IOException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(input, vectorScanning);
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            run(input, vectorScanning);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double linesPerSecond = lineCount / (best / 1e9);
+        System.out.printf("%-20s %,12.0f lines/sec %,8.0f MB/sec (best of %d)%n", name, linesPerSecond,
+                Files.size(input) / (best / 1e9) / 1e6, MEASURED_ROUNDS);
+        return linesPerSecond;
+    }
+
+    private static void run(Path input, boolean vectorScanning) throws IOException {
+        LogProcessor processor = new LogProcessor(input.toString());
+        processor.setStreaming(true);
+        processor.setLean(true);
+        processor.setByteParsing(true);
+        processor.setVectorScanning(vectorScanning);
+        processor.processLogFile();
+    }
+
+    /**
+     * Write request lines carrying 200 to 1200 bytes of referer and user agent fields that the
+     * parser skips, mixed with application lines with long messages
+     */
+    private static void generateInput(Path file, int lineCount) throws IOException {
+        String[] routes = {"/api/search", "/api/report", "/api/export", "/api/items"};
+        String alphabet = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < lineCount; i++) {
+                String timestamp = String.format("2024-02-24T%02d:%02d:%02dZ", (i / 3600) % 24, (i / 60) % 60, i % 60);
+                StringBuilder text = new StringBuilder();
+                int length = 200 + random.nextInt(1000);
+                while (text.length() < length) {
+                    text.append(text.length() == 0 ? "" : "&").append('p').append(random.nextInt(50)).append('=');
+                    for (int j = 0; j < 12; j++) {
+                        text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                    }
+                }
+
+                if (i % 4 == 3) {
+                    writer.write("timestamp=" + timestamp + " level=INFO message=\"" + text.toString().replace('&', ' ')
+                            + "\" host=webserver1");
+                } else {
+                    writer.write("timestamp=" + timestamp + " request_method=GET request_url=\""
+                            + routes[random.nextInt(routes.length)] + "\" referer=https://example.com/search?" + text
+                            + " user_agent=\"Mozilla/5.0 (X11; Linux x86_64) " + text.substring(0, length / 2)
+                            + "\" response_status=200 response_time_ms=" + (10 + random.nextInt(500))
+                            + " host=webserver" + (1 + random.nextInt(8)));
+                }
+                writer.newLine();
+            }
+        }
+    }
+}
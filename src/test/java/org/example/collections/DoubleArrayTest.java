@@ -0,0 +1,45 @@
+package org.example.collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DoubleArrayTest {
+
+    @Test
+    void testAddAllSortAndStream() {
+        DoubleArray left = new DoubleArray(1);
+        left.add(2.5);
+        left.add(-1.0);
+        DoubleArray right = new DoubleArray();
+        for (int i = 0; i < 40; i++) {
+            right.add(i);
+        }
+
+        left.addAll(right);
+        left.sort();
+
+        assertEquals(42, left.size());
+        assertEquals(-1.0, left.get(0));
+        assertEquals(39.0, left.get(41));
+        assertEquals(780 + 1.5, left.stream().sum());
+        assertThrows(IndexOutOfBoundsException.class, () -> left.get(42));
+    }
+
+    @Test
+    void testSelect_MatchesSortedOrder() {
+        java.util.Random random = new java.util.Random(7);
+        DoubleArray values = new DoubleArray();
+        for (int i = 0; i < 1000; i++) {
+            // Few distinct values, so partitions see many duplicates
+            values.add(random.nextInt(50));
+        }
+        double[] sorted = values.stream().sorted().toArray();
+
+        for (int rank : new int[]{0, 1, 499, 500, 998, 999}) {
+            assertEquals(sorted[rank], values.select(rank));
+        }
+        assertEquals(1000, values.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> values.select(1000));
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntArrayTest {
+
+    @Test
+    void testAdd_GrowsPastInitialCapacity() {
+        IntArray values = new IntArray(2);
+        for (int i = 0; i < 100; i++) {
+            values.add(i * 3);
+        }
+
+        assertEquals(100, values.size());
+        assertEquals(0, values.get(0));
+        assertEquals(297, values.get(99));
+        assertThrows(IndexOutOfBoundsException.class, () -> values.get(100));
+    }
+
+    @Test
+    void testAddAllAndSort() {
+        IntArray left = new IntArray(1);
+        left.add(5);
+        left.add(1);
+        IntArray right = new IntArray();
+        right.add(3);
+        right.add(-2);
+        right.add(4);
+
+        left.addAll(right);
+        left.sort();
+
+        assertArrayEquals(new int[]{-2, 1, 3, 4, 5}, left.toArray());
+        assertEquals(3, right.size());
+        assertTrue(new IntArray().isEmpty());
+    }
+}
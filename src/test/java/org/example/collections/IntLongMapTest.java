@@ -0,0 +1,55 @@
+package org.example.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntLongMapTest {
+
+    @Test
+    void testZeroAndNegativeKeys() {
+        IntLongMap map = new IntLongMap(1);
+        assertEquals(-1L, map.get(0, -1));
+        map.put(0, 10);
+        map.addTo(-1, 5);
+        map.addTo(Integer.MIN_VALUE, Long.MAX_VALUE);
+
+        assertEquals(10L, map.get(0, -1));
+        assertEquals(5L, map.get(-1, 0));
+        assertEquals(Long.MAX_VALUE, map.get(Integer.MIN_VALUE, 0));
+        assertEquals(3, map.size());
+
+        assertTrue(map.remove(0));
+        assertFalse(map.remove(0));
+        assertFalse(map.containsKey(0));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void testRandomOperations_MatchHashMap() {
+        IntLongMap map = new IntLongMap(1);
+        Map<Integer, Long> expected = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 200_000; i++) {
+            // Multiples of the table size collide in the low bits before mixing
+            int key = (random.nextInt(500) - 100) * 1024;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    map.put(key, i);
+                    expected.put(key, (long) i);
+                }
+                case 1 -> assertEquals((long) expected.merge(key, 3L, Long::sum), map.addTo(key, 3));
+                default -> assertEquals(expected.remove(key) != null, map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<Integer, Long> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+}
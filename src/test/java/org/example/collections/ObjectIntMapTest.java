@@ -0,0 +1,66 @@
+package org.example.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObjectIntMapTest {
+
+    @Test
+    void testPutAddToAndGet() {
+        ObjectIntMap<String> map = new ObjectIntMap<>(1);
+        map.put("a", 5);
+        assertEquals(7, map.addTo("a", 2));
+        assertEquals(3, map.addTo("b", 3));
+        map.put("b", -1);
+
+        assertEquals(7, map.get("a", 0));
+        assertEquals(-1, map.get("b", 0));
+        assertEquals(42, map.get("c", 42));
+        assertFalse(map.containsKey("c"));
+        assertEquals(2, map.size());
+        assertThrows(NullPointerException.class, () -> map.put(null, 1));
+    }
+
+    @Test
+    void testRandomOperations_MatchHashMap() {
+        // Few distinct keys and many removals keep probe runs long, exercising the backward shift
+        ObjectIntMap<String> map = new ObjectIntMap<>(1);
+        Map<String, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            String key = "key" + random.nextInt(500);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    map.put(key, i);
+                    expected.put(key, i);
+                }
+                case 1 -> assertEquals((int) expected.merge(key, 1, Integer::sum), map.addTo(key, 1));
+                default -> assertEquals(expected.remove(key) != null, map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<String, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testClear_KeepsMapUsable() {
+        ObjectIntMap<Integer> map = new ObjectIntMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.get(10, -1));
+        map.put(10, 1);
+        assertEquals(1, map.get(10, -1));
+    }
+}
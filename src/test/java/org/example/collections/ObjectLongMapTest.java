@@ -0,0 +1,106 @@
+package org.example.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObjectLongMapTest {
+
+    @Test
+    void testPutAddToAndGet() {
+        ObjectLongMap<String> map = new ObjectLongMap<>(1);
+        map.put("a", 5);
+        assertEquals(7L, map.addTo("a", 2));
+        assertEquals(Long.MAX_VALUE, map.addTo("b", Long.MAX_VALUE));
+        map.put("c", -1);
+
+        assertEquals(7L, map.get("a", 0));
+        assertEquals(Long.MAX_VALUE, map.get("b", 0));
+        assertEquals(-1L, map.get("c", 0));
+        assertEquals(42L, map.get("d", 42));
+        assertFalse(map.containsKey("d"));
+        assertEquals(3, map.size());
+        assertThrows(NullPointerException.class, () -> map.put(null, 1));
+    }
+
+    @Test
+    void testRemove_ShiftsBackAcrossTableEnd() {
+        // Capacity 4: two keys whose home is the last slot, so the second one wraps around to slot 0
+        ObjectLongMap<Integer> map = new ObjectLongMap<>(2);
+        List<Integer> lastSlotKeys = keysWithHome(3, 4, 2);
+        map.put(lastSlotKeys.get(0), 1);
+        map.put(lastSlotKeys.get(1), 2);
+
+        assertTrue(map.remove(lastSlotKeys.get(0)));
+        assertEquals(2L, map.get(lastSlotKeys.get(1), -1));
+        assertFalse(map.remove(lastSlotKeys.get(0)));
+        assertEquals(1, map.size());
+
+        // Growing past three entries rehashes into 8 slots; every key keeps its value
+        for (int key : keysWithHome(0, 4, 4)) {
+            map.put(key, key);
+        }
+        assertEquals(5, map.size());
+        assertEquals(2L, map.get(lastSlotKeys.get(1), -1));
+        for (int key : keysWithHome(0, 4, 4)) {
+            assertEquals(key, map.get(key, -1));
+        }
+    }
+
+    @Test
+    void testRandomOperations_MatchHashMap() {
+        // Few distinct keys and many removals keep probe runs long, exercising the backward shift
+        ObjectLongMap<String> map = new ObjectLongMap<>(1);
+        Map<String, Long> expected = new HashMap<>();
+        Random random = new Random(13);
+        for (int i = 0; i < 200_000; i++) {
+            String key = "key" + random.nextInt(500);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    map.put(key, i * 1_000_000_000L);
+                    expected.put(key, i * 1_000_000_000L);
+                }
+                case 1 -> assertEquals((long) expected.merge(key, 1L, Long::sum), map.addTo(key, 1));
+                default -> assertEquals(expected.remove(key) != null, map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<String, Long> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testClear_KeepsMapUsable() {
+        ObjectLongMap<Integer> map = new ObjectLongMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertEquals(-1L, map.get(10, -1));
+        map.put(10, 1);
+        assertEquals(1L, map.get(10, -1));
+    }
+
+    /**
+     * Distinct Integer keys whose home slot in a table of a capacity is the given slot
+     */
+    private static List<Integer> keysWithHome(int slot, int capacity, int count) {
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 0; keys.size() < count; key++) {
+            if ((OpenAddressing.mix(Integer.hashCode(key)) & (capacity - 1)) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
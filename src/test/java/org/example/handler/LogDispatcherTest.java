@@ -0,0 +1,153 @@
+package org.example.handler;
+
+import org.example.model.APMLogEntry;
+import org.example.model.ApplicationLogEntry;
+import org.example.model.LogEntry;
+import org.example.model.RequestLogEntry;
+import org.example.parser.APMLogParser;
+import org.example.parser.ApplicationLogParser;
+import org.example.parser.LogParser;
+import org.example.parser.ParseStatus;
+import org.example.parser.RequestLogParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogDispatcherTest {
+    private LogDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = LogDispatcher.createDefault();
+    }
+
+    @Test
+    void testHandle_RoutesEachLogType() {
+        Optional<LogEntry> apm = dispatcher.handle(
+                "timestamp=2024-02-24T16:22:15Z metric=cpu_usage_percent host=webserver1 value=72");
+        Optional<LogEntry> app = dispatcher.handle(
+                "timestamp=2024-02-24T16:22:20Z level=INFO message=\"Scheduled maintenance starting\" host=webserver1");
+        Optional<LogEntry> req = dispatcher.handle(
+                "timestamp=2024-02-24T16:22:25Z request_method=POST request_url=\"/api/update\" response_status=202 response_time_ms=200 host=webserver1");
+
+        assertTrue(apm.get() instanceof APMLogEntry);
+        assertTrue(app.get() instanceof ApplicationLogEntry);
+        assertTrue(req.get() instanceof RequestLogEntry);
+        assertEquals("/api/update", ((RequestLogEntry) req.get()).getRequestUrl());
+        assertEquals("Scheduled maintenance starting", ((ApplicationLogEntry) app.get()).getMessage());
+    }
+
+    @Test
+    void testHandle_ExcludedKeyRoutesToLaterParser() {
+        // metric and value are present, but level excludes the APM type
+        Optional<LogEntry> entry = dispatcher.handle(
+                "timestamp=2024-02-24T16:22:20Z level=INFO message=\"done\" metric=cpu value=1 host=webserver1");
+
+        assertTrue(entry.get() instanceof ApplicationLogEntry);
+    }
+
+    @Test
+    void testHandle_KeysInsideQuotedValuesAreIgnored() {
+        Optional<LogEntry> entry = dispatcher.handle(
+                "timestamp=2024-02-24T16:22:20Z message=\"level=INFO\" metric=cpu value=1 host=webserver1");
+
+        assertTrue(entry.get() instanceof APMLogEntry);
+    }
+
+    @Test
+    void testHandle_UnknownOrIncompleteLines() {
+        assertFalse(dispatcher.handle("Invalid log line that should be ignored").isPresent());
+        assertFalse(dispatcher.handle("timestamp=2024-02-24T16:22:15Z metric=cpu_usage_percent host=webserver1").isPresent());
+        assertFalse(dispatcher.handle(null).isPresent());
+    }
+
+    @Test
+    void testHandle_ReportsRejectReasons() {
+        assertRejected(ParseStatus.UNRECOGNIZED, LogParser.UNKNOWN_LOG_TYPE, "Invalid log line that should be ignored");
+        assertRejected(ParseStatus.BLANK, LogParser.UNKNOWN_LOG_TYPE, "   ");
+        assertRejected(ParseStatus.MISSING_FIELD, APMLogParser.LOG_TYPE, "metric=cpu_usage_percent host=webserver1 value=1");
+        assertRejected(ParseStatus.INVALID_TIMESTAMP, APMLogParser.LOG_TYPE, "timestamp=not-a-date metric=cpu value=1");
+        assertRejected(ParseStatus.INVALID_TIMESTAMP, ApplicationLogParser.LOG_TYPE, "timestamp=2024-02-30T16:22:15Z level=INFO message=x");
+        assertRejected(ParseStatus.INVALID_NUMBER, APMLogParser.LOG_TYPE, "timestamp=2024-02-24T16:22:15Z metric=cpu value=abc");
+        assertRejected(ParseStatus.INVALID_NUMBER, RequestLogParser.LOG_TYPE,
+                "timestamp=2024-02-24T16:22:25Z request_method=GET request_url=/a response_status=20 response_time_ms=99999999999");
+
+        assertTrue(dispatcher.handle("timestamp=2024-02-24T16:22:15Z metric=cpu value=1").isPresent());
+        assertEquals(ParseStatus.OK, dispatcher.getLastStatus());
+        assertEquals(APMLogParser.LOG_TYPE, dispatcher.getLastLogType());
+    }
+
+    private void assertRejected(ParseStatus status, String logType, String line) {
+        assertFalse(dispatcher.handle(line).isPresent(), line);
+        assertEquals(status, dispatcher.getLastStatus(), line);
+        assertEquals(logType, dispatcher.getLastLogType(), line);
+    }
+
+    @Test
+    void testHandle_RawDataIsBuiltOnDemand() {
+        LogEntry entry = dispatcher.handle(
+                "timestamp=2024-02-24T16:22:35Z level=ERROR message=\"Update process failed\" error_code=5012 host=webserver1").get();
+
+        Map<String, String> rawData = entry.getRawData();
+        assertEquals(5, rawData.size());
+        assertEquals("5012", rawData.get("error_code"));
+        assertEquals("Update process failed", rawData.get("message"));
+    }
+
+    @Test
+    void testHandle_LeanModeDropsRawData() {
+        dispatcher.setLean(true);
+
+        LogEntry entry = dispatcher.handle(
+                "timestamp=2024-02-24T16:22:35Z level=ERROR message=\"Update process failed\" error_code=5012 host=webserver1").get();
+
+        assertEquals("ERROR", ((ApplicationLogEntry) entry).getLevel());
+        assertTrue(entry.getRawData().isEmpty());
+    }
+
+    @Test
+    void testRegister_CustomParser() {
+        dispatcher.register(new AuditLogParser());
+
+        Optional<LogEntry> entry = dispatcher.handle("timestamp=2024-02-24T16:22:15Z event=login user_id=789 host=webserver2");
+
+        assertTrue(entry.isPresent());
+        assertEquals("webserver2", entry.get().getHost());
+        assertEquals("789", entry.get().getRawData().get("user_id"));
+    }
+
+    /**
+     * Parser for a log type that is not built in, identified by its own keys
+     */
+    private static class AuditLogParser implements LogParser {
+        @Override
+        public Optional<LogEntry> parse(String logLine) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<LogEntry> parse(Map<String, String> fields, Map<String, String> rawData) {
+            return Optional.of(new ApplicationLogEntry(null, fields.get("host"), "AUDIT", fields.get("event"), rawData));
+        }
+
+        @Override
+        public boolean canParse(String logLine) {
+            return false;
+        }
+
+        @Override
+        public Set<String> getRequiredKeys() {
+            return Set.of("event", "user_id");
+        }
+
+        @Override
+        public Set<String> getFieldKeys() {
+            return Set.of("event", "host");
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package org.example.parser;
+
+import org.example.handler.LogDispatcher;
+import org.example.model.APMLogEntry;
+import org.example.model.ApplicationLogEntry;
+import org.example.model.LogEntry;
+import org.example.model.RequestLogEntry;
+import org.example.util.ByteKeyValueTokenizer;
+import org.example.util.ByteScanner;
+import org.example.util.Utils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteLogParserTest {
+    private ByteLogParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new ByteLogParser(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testParse_APMLog() {
+        LogEntry entry = parse("timestamp=2024-02-24T16:22:15Z metric=cpu_usage_percent host=webserver1 value=72.5").get();
+
+        assertTrue(entry instanceof APMLogEntry);
+        APMLogEntry apmLog = (APMLogEntry) entry;
+        assertEquals("cpu_usage_percent", apmLog.getMetric());
+        assertEquals(72.5, apmLog.getValue());
+        assertEquals("webserver1", apmLog.getHost());
+        assertEquals(Utils.parseTimestamp("2024-02-24T16:22:15Z"), apmLog.getTimestamp());
+    }
+
+    @Test
+    void testParse_ApplicationLog() {
+        LogEntry entry = parse("timestamp=2024-02-24T16:22:20Z level=INFO message=\"Scheduled maintenance starting\" host=webserver1").get();
+
+        assertTrue(entry instanceof ApplicationLogEntry);
+        ApplicationLogEntry appLog = (ApplicationLogEntry) entry;
+        assertEquals("INFO", appLog.getLevel());
+        assertEquals("Scheduled maintenance starting", appLog.getMessage());
+        assertEquals("webserver1", appLog.getHost());
+        assertEquals("Scheduled maintenance starting", appLog.getRawData().get("message"));
+    }
+
+    @Test
+    void testParse_RequestLog() {
+        LogEntry entry = parse("timestamp=2024-02-24T16:22:25Z request_method=POST request_url=\"/api/update\" response_status=202 response_time_ms=200 host=webserver1").get();
+
+        assertTrue(entry instanceof RequestLogEntry);
+        RequestLogEntry reqLog = (RequestLogEntry) entry;
+        assertEquals("POST", reqLog.getRequestMethod());
+        assertEquals("/api/update", reqLog.getRequestUrl());
+        assertEquals(202, reqLog.getResponseStatus());
+        assertEquals(200, reqLog.getResponseTimeMs());
+        assertEquals("webserver1", reqLog.getHost());
+    }
+
+    @Test
+    void testParse_LeanMode() {
+        parser.setLean(true);
+        LogEntry entry = parse("timestamp=2024-02-24T16:22:15Z metric=cpu_usage_percent host=webserver1 value=72.5").get();
+
+        assertEquals(72.5, ((APMLogEntry) entry).getValue());
+        assertTrue(entry.getRawData().isEmpty());
+    }
+
+    @Test
+    void testParseEntry_ReusesOneEntryPerType() {
+        parser.setReuseEntries(true);
+        String apm1 = "timestamp=2024-02-24T16:22:15Z metric=cpu_usage_percent host=webserver1 value=72.5";
+        String apm2 = "timestamp=2024-02-24T16:22:16Z metric=memory_usage_percent host=webserver2 value=85";
+        String app = "timestamp=2024-02-24T16:22:20Z level=ERROR message=\"Update failed\" host=webserver1";
+
+        LogEntry first = parseEntry(apm1);
+        assertEquals(describe(parseWithChain(apm1)), describe(first));
+        LogEntry second = parseEntry(apm2);
+        assertSame(first, second);
+        assertEquals(describe(parseWithChain(apm2)), describe(second));
+        assertEquals("85", second.getRawData().get("value"));
+
+        // The message and raw data are decoded from the current line on demand
+        LogEntry appLog = parseEntry(app);
+        assertEquals("Update failed", ((ApplicationLogEntry) appLog).getMessage());
+        assertEquals("ERROR", appLog.getRawData().get("level"));
+        assertNotSame(first, appLog);
+
+        assertNull(parseEntry("Invalid log line that should be ignored"));
+        assertEquals(ParseStatus.UNRECOGNIZED, parser.getLastStatus());
+    }
+
+    @Test
+    void testParse_InvalidLines() {
+        assertFalse(parse("Invalid log line that should be ignored").isPresent());
+        assertFalse(parse("timestamp=2024-02-24T16:22:15Z metric=cpu_usage_percent host=webserver1").isPresent());
+        assertFalse(parse("timestamp=2024-02-24T16:22:15Z metric=cpu_usage_percent host=webserver1 value=abc").isPresent());
+        assertFalse(parse("timestamp=not-a-date metric=cpu_usage_percent host=webserver1 value=1").isPresent());
+    }
+
+    @Test
+    void testParse_RejectReasonsMatchDispatcher() {
+        LogDispatcher dispatcher = LogDispatcher.createDefault();
+        String[] lines = {
+                "Invalid log line that should be ignored",
+                "",
+                " \t",
+                "metric=cpu_usage_percent host=webserver1 value=1",
+                "timestamp=not-a-date metric=cpu value=1",
+                "timestamp=2024-13-01T00:00:00Z metric=cpu value=1",
+                "timestamp=2024-02-24T16:22:15Z metric=cpu value=1.2.3",
+                "timestamp=2024-02-24T16:22:15Z metric=cpu value=",
+                "timestamp=2024-02-24T16:22:20 level=INFO message=\"ok\"",
+                "timestamp=2024-02-24T16:22:25Z request_method=GET request_url=/a response_status=2x0 response_time_ms=1",
+                "timestamp=2024-02-24T16:22:25Z request_method=GET request_url=/a response_status=200 response_time_ms=2147483648",
+        };
+
+        for (String line : lines) {
+            dispatcher.handle(line);
+            parse(line);
+            assertEquals(dispatcher.getLastStatus(), parser.getLastStatus(), line);
+            assertEquals(dispatcher.getLastLogType(), parser.getLastLogType(), line);
+        }
+    }
+
+    @Test
+    void testParse_MatchesStringParsers() {
+        String[] lines = {
+                "timestamp=2024-02-24T16:22:15Z metric=cpu_usage_percent host=webserver1 value=72",
+                "timestamp=2024-02-24T16:22:15.123Z metric=cpu host=h value=-0.000123456789",
+                "timestamp=2024-02-24T16:22:15+02:00 metric=cpu host=h value=1e3",
+                "timestamp=2024-02-24T16:22:20Z level=ERROR message=\"Update failed\" error_code=5012 host=webserver1",
+                "timestamp=2024-02-24T16:22:20Z level=WARN message=\"unterminated host=webserver1",
+                "timestamp=2024-02-24T16:22:25Z request_method=GET request_url=\"/api/status?q=1\" response_status=503 response_time_ms=7 host=h",
+                "timestamp=2024-02-24T16:22:25Z request_method=GET request_url=/plain response_status=+200 response_time_ms=0007 host=h",
+        };
+
+        for (String line : lines) {
+            assertEquals(describe(parseWithChain(line)), describe(parse(line).orElse(null)), line);
+        }
+    }
+
+    @Test
+    void testTokenize_MatchesRegex() {
+        String[] lines = {
+                "a=1 b=\"two words\" c=3",
+                "key= value other=x",
+                "x-abc=1 foo.bar=2 =3 ==4",
+                "msg=\"q\"ab=1 k=v=w",
+                "open=\"no closing quote here=1",
+                "tail=",
+                "unicode=\"café ✓\" next=über",
+        };
+
+        for (String line : lines) {
+            Map<String, String> tokens = new HashMap<>();
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            ByteKeyValueTokenizer.tokenize(bytes, 0, bytes.length, (buffer, keyStart, keyEnd, valueStart, valueEnd) ->
+                    tokens.put(new String(buffer, keyStart, keyEnd - keyStart, StandardCharsets.UTF_8),
+                            new String(buffer, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8)));
+
+            assertEquals(Utils.parseKeyValuePairs(line), tokens, line);
+        }
+    }
+
+    private Optional<LogEntry> parse(String line) {
+        byte[] bytes = ("  " + line + "  ").getBytes(StandardCharsets.UTF_8);
+        return parser.parse(bytes, 2, bytes.length - 2);
+    }
+
+    private LogEntry parseEntry(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return parser.parseEntry(bytes, 0, bytes.length);
+    }
+
+    private LogEntry parseWithChain(String line) {
+        LogParser[] parsers = {new APMLogParser(), new ApplicationLogParser(), new RequestLogParser()};
+        for (LogParser stringParser : parsers) {
+            if (stringParser.canParse(line)) {
+                return stringParser.parse(line).orElse(null);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Describe the typed fields of an entry, leaving out the raw key/value map
+     */
+    private String describe(LogEntry entry) {
+        if (entry instanceof APMLogEntry) {
+            APMLogEntry apmLog = (APMLogEntry) entry;
+            return "APM " + apmLog.getTimestamp() + " " + apmLog.getHost() + " " + apmLog.getMetric() + " " + apmLog.getValue();
+        } else if (entry instanceof ApplicationLogEntry) {
+            ApplicationLogEntry appLog = (ApplicationLogEntry) entry;
+            return "Application " + appLog.getTimestamp() + " " + appLog.getHost() + " " + appLog.getLevel() + " " + appLog.getMessage();
+        } else if (entry instanceof RequestLogEntry) {
+            RequestLogEntry reqLog = (RequestLogEntry) entry;
+            return "Request " + reqLog.getTimestamp() + " " + reqLog.getHost() + " " + reqLog.getRequestMethod() + " "
+                    + reqLog.getRequestUrl() + " " + reqLog.getResponseStatus() + " " + reqLog.getResponseTimeMs();
+        }
+        return String.valueOf(entry);
+    }
+
+    @Test
+    void testParse_ClassifiesByDispatcherRegistry() {
+        // A custom type registered first claims lines that would otherwise be APM lines
+        LogDispatcher dispatcher = new LogDispatcher()
+                .register(new SampleLogParser())
+                .register(new APMLogParser());
+        ByteLogParser registryParser = new ByteLogParser(StandardCharsets.UTF_8,
+                ByteScanner.scalar(), dispatcher);
+
+        LogEntry sample = parseWith(registryParser,
+                "timestamp=2024-02-24T16:22:15Z metric=cpu value=1 sampled=true host=webserver2").get();
+        assertEquals("SAMPLE", ((ApplicationLogEntry) sample).getLevel());
+        assertEquals("Sample", registryParser.getLastLogType());
+
+        LogEntry apm = parseWith(registryParser, "timestamp=2024-02-24T16:22:15Z metric=cpu value=1 host=webserver2").get();
+        assertTrue(apm instanceof APMLogEntry);
+
+        // Types missing from the registry are not recognized
+        assertFalse(parseWith(registryParser, "timestamp=2024-02-24T16:22:20Z level=INFO message=x host=webserver1").isPresent());
+        assertEquals(ParseStatus.UNRECOGNIZED, registryParser.getLastStatus());
+    }
+
+    private static Optional<LogEntry> parseWith(ByteLogParser byteParser, String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return byteParser.parse(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Parser for sampled metric lines, identified by a key of its own
+     */
+    private static class SampleLogParser implements LogParser {
+        @Override
+        public Optional<LogEntry> parse(String logLine) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<LogEntry> parse(Map<String, String> fields, Map<String, String> rawData) {
+            return Optional.of(new ApplicationLogEntry(null, fields.get("host"), "SAMPLE", fields.get("metric"), rawData));
+        }
+
+        @Override
+        public String getLogType() {
+            return "Sample";
+        }
+
+        @Override
+        public boolean canParse(String logLine) {
+            return false;
+        }
+
+        @Override
+        public Set<String> getRequiredKeys() {
+            return Set.of("metric", "sampled");
+        }
+
+        @Override
+        public Set<String> getFieldKeys() {
+            return Set.of("metric", "host");
+        }
+    }
+}
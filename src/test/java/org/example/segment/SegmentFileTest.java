@@ -0,0 +1,135 @@
+package org.example.segment;
+
+import org.example.aggregator.LogAggregates;
+import org.example.model.APMLogEntry;
+import org.example.model.ApplicationLogEntry;
+import org.example.model.LogEntry;
+import org.example.model.RequestLogEntry;
+import org.example.parser.ParseStatus;
+import org.example.store.ApplicationLogStore;
+import org.example.store.RequestLogStore;
+import org.example.util.RejectCounts;
+import org.example.util.SymbolTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentFileTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndRead_RoundTripsRows() throws IOException {
+        List<LogEntry> entries = sampleEntries(20_000);
+        SegmentBuilder builder = new SegmentBuilder();
+        entries.forEach(builder::add);
+        Path file = tempDir.resolve("rows.seg");
+        builder.writeTo(file, new RejectCounts());
+
+        SegmentReader reader = SegmentReader.open(file);
+        assertEquals(builder.getApmLogs().size(), reader.getApmRowCount());
+        assertEquals(builder.getApplicationLogs().size(), reader.getApplicationRowCount());
+        assertEquals(builder.getRequestLogs().size(), reader.getRequestRowCount());
+
+        RequestLogStore requests = reader.readRequests();
+        RequestLogStore expectedRequests = builder.getRequestLogs();
+        for (int row = 0; row < expectedRequests.size(); row++) {
+            assertEquals(expectedRequests.getTimestampMillis(row), requests.getTimestampMillis(row));
+            assertEquals(expectedRequests.getHostId(row), requests.getHostId(row));
+            assertEquals(expectedRequests.getRouteId(row), requests.getRouteId(row));
+            assertEquals(expectedRequests.getResponseStatus(row), requests.getResponseStatus(row));
+            assertEquals(expectedRequests.getResponseTimeMs(row), requests.getResponseTimeMs(row));
+        }
+
+        ApplicationLogStore applications = reader.readApplication();
+        assertEquals(LogEntry.NO_TIMESTAMP, applications.getTimestampMillis(0));
+        assertEquals(SymbolTable.NO_SYMBOL, applications.getHostId(0));
+        assertEquals(builder.getApplicationLogs().getLevelId(7), applications.getLevelId(7));
+        assertEquals(builder.getApmLogs().getValue(11), reader.readApm().getValue(11));
+    }
+
+    @Test
+    void testAggregateInto_MatchesEntries() throws IOException {
+        List<LogEntry> entries = sampleEntries(30_000);
+        LogAggregates expected = new LogAggregates();
+        LogAggregates recorded = new LogAggregates(new SegmentBuilder());
+        LogAggregates secondHalf = new LogAggregates(new SegmentBuilder());
+        for (int i = 0; i < entries.size(); i++) {
+            expected.processLog(entries.get(i));
+            (i < entries.size() / 2 ? recorded : secondHalf).processLog(entries.get(i));
+        }
+        recorded.merge(secondHalf);
+
+        RejectCounts rejects = new RejectCounts();
+        rejects.record("APM", ParseStatus.INVALID_NUMBER);
+        rejects.record("Unknown", ParseStatus.UNRECOGNIZED, 3);
+        Path file = tempDir.resolve("aggregate.seg");
+        recorded.getSegment().writeTo(file, rejects);
+
+        LogAggregates loaded = new LogAggregates();
+        SegmentReader.open(file).aggregateInto(loaded);
+
+        assertEquals(expected.getApmAggregator().getAggregatedData(), loaded.getApmAggregator().getAggregatedData());
+        assertEquals(expected.getApplicationAggregator().getAggregatedData(),
+                loaded.getApplicationAggregator().getAggregatedData());
+        assertEquals(expected.getRequestAggregator().getAggregatedData(),
+                loaded.getRequestAggregator().getAggregatedData());
+        assertEquals(rejects.getCounts(), loaded.getRejects().getCounts());
+        assertEquals(4, loaded.getRejects().getTotal());
+    }
+
+    @Test
+    void testOpen_RejectsInvalidFiles() throws IOException {
+        Path text = tempDir.resolve("text.seg");
+        Files.writeString(text, "timestamp=2024-02-24T16:22:15Z metric=cpu host=h value=1\n");
+        assertThrows(IOException.class, () -> SegmentReader.open(text));
+
+        SegmentBuilder builder = new SegmentBuilder();
+        sampleEntries(100).forEach(builder::add);
+        Path file = tempDir.resolve("truncated.seg");
+        builder.writeTo(file, new RejectCounts());
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> SegmentReader.open(file));
+    }
+
+    /**
+     * Entries of all three types, including a missing timestamp and host, timestamps that go
+     * backwards and a status code outside the range of a short
+     */
+    private static List<LogEntry> sampleEntries(int count) {
+        String[] metrics = {"cpu_usage_percent", "memory_usage_percent", "disk_usage_percent"};
+        String[] levels = {"INFO", "ERROR", "DEBUG", "WARNING"};
+        String[] urls = {"/api/update", "/api/status", "/home", "/api/retry"};
+        int[] statuses = {200, 404, 503, 302, 70000};
+        List<LogEntry> entries = new ArrayList<>();
+        entries.add(new ApplicationLogEntry(LogEntry.NO_TIMESTAMP, SymbolTable.NO_SYMBOL, SymbolTable.NO_SYMBOL,
+                "no timestamp", new HashMap<>()));
+        for (int i = 0; i < count; i++) {
+            long timestamp = 1_708_791_735_000L + (i % 10 == 0 ? -86_400_000L : 1000L * i);
+            String host = "webserver" + i % 5;
+            switch (i % 3) {
+                case 0:
+                    entries.add(new APMLogEntry(timestamp, host, metrics[i % metrics.length], (i * 37) % 101 / 4.0,
+                            new HashMap<>()));
+                    break;
+                case 1:
+                    entries.add(new ApplicationLogEntry(timestamp, host, levels[i % 7 % 4], "message", new HashMap<>()));
+                    break;
+                default:
+                    entries.add(new RequestLogEntry(timestamp, host, "GET", urls[i % urls.length],
+                            statuses[i % statuses.length], i % 997, new HashMap<>()));
+                    break;
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DistributionSummaryTest {
+
+    @Test
+    void testExactStatistics() {
+        DistributionSummary summary = new DistributionSummary(100, KllSketch.DEFAULT_K);
+        for (double value : new double[]{7, 1, 4, 10, 3, 8}) {
+            summary.add(value);
+        }
+
+        assertTrue(summary.isExact());
+        assertEquals(6, summary.getCount());
+        assertEquals(33.0, summary.getSum());
+        assertEquals(1.0, summary.getMin());
+        assertEquals(10.0, summary.getMax());
+        assertEquals(5.5, summary.getMedian());
+        assertEquals(8.0, summary.getPercentile(80));
+        assertEquals(10.0, summary.getPercentile(99));
+    }
+
+    @Test
+    void testSwitchesToSketchPastExactLimit() {
+        DistributionSummary summary = new DistributionSummary(1000, 200);
+        for (int i = 1; i <= 100_000; i++) {
+            summary.add(i);
+        }
+
+        assertFalse(summary.isExact());
+        assertEquals(100_000, summary.getCount());
+        assertEquals(5_000_050_000.0, summary.getSum());
+        assertEquals(1.0, summary.getMin());
+        assertEquals(100_000.0, summary.getMax());
+        assertEquals(50_000, summary.getMedian(), 2_000);
+        assertEquals(99_000, summary.getPercentile(99), 2_000);
+    }
+
+    @Test
+    void testMerge_StaysExactUnderLimit() {
+        DistributionSummary left = new DistributionSummary(10, KllSketch.DEFAULT_K);
+        DistributionSummary right = new DistributionSummary(10, KllSketch.DEFAULT_K);
+        for (int i = 0; i < 5; i++) {
+            left.add(i);
+            right.add(i + 5);
+        }
+
+        left.merge(right);
+        assertTrue(left.isExact());
+        assertEquals(4.5, left.getMedian());
+
+        left.merge(right);
+        assertFalse(left.isExact());
+        assertEquals(15, left.getCount());
+        assertEquals(80.0, left.getSum());
+        assertEquals(9.0, left.getMax());
+    }
+
+    @Test
+    void testMerge_ExactSummaryReplaysLikeSinglePass() {
+        DistributionSummary single = new DistributionSummary(1000, 50);
+        DistributionSummary prefix = new DistributionSummary(1000, 50);
+        DistributionSummary rest = new DistributionSummary(Integer.MAX_VALUE, 50);
+        for (int i = 0; i < 20_000; i++) {
+            double value = (i * 7919) % 10_007 / 3.0;
+            single.add(value);
+            if (i < 600) {
+                prefix.add(value);
+            } else {
+                rest.add(value);
+            }
+        }
+
+        // The merge crosses the limit of the prefix, which switches to the sketch at the same value
+        prefix.merge(rest);
+        assertFalse(prefix.isExact());
+        assertEquals(single.getSum(), prefix.getSum());
+        assertEquals(single.getMedian(), prefix.getMedian());
+        assertEquals(single.getPercentile(99), prefix.getPercentile(99));
+    }
+
+    @Test
+    void testEmptySummary() {
+        DistributionSummary summary = new DistributionSummary(0, KllSketch.DEFAULT_K);
+
+        assertTrue(summary.isEmpty());
+        assertTrue(Double.isNaN(summary.getMedian()));
+        assertThrows(IllegalArgumentException.class, () -> summary.getPercentile(101));
+    }
+}
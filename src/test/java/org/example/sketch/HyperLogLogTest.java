@@ -0,0 +1,108 @@
+package org.example.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyperLogLogTest {
+
+    @Test
+    void testEstimate_NearlyExactWhileSparse() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 3000; i++) {
+            // Duplicates do not count
+            sketch.offer("host-" + i);
+            sketch.offer("host-" + i);
+        }
+
+        assertTrue(sketch.isSparse());
+        assertEquals(3000, sketch.estimate(), 3);
+    }
+
+    @Test
+    void testEstimate_WithinErrorBoundWhenDense() {
+        int precision = 12;
+        double standardError = 1.04 / Math.sqrt(1 << precision);
+        for (int distinct : new int[]{2_000, 20_000, 200_000, 2_000_000}) {
+            HyperLogLog sketch = new HyperLogLog(precision);
+            for (int i = 0; i < distinct; i++) {
+                sketch.offer("/api/item/" + i);
+            }
+
+            assertFalse(sketch.isSparse(), "size " + distinct);
+            long estimate = sketch.estimate();
+            assertEquals(distinct, estimate, 4 * standardError * distinct, "size " + distinct);
+        }
+    }
+
+    @Test
+    void testEstimate_ContinuousAcrossSparseToDense() {
+        int precision = 10;
+        HyperLogLog sketch = new HyperLogLog(precision);
+        boolean wasSparse = true;
+        for (int i = 1; i <= 5000; i++) {
+            sketch.offer("user-" + i);
+            if (wasSparse && !sketch.isSparse()) {
+                wasSparse = false;
+                // Converting loses the extra sparse precision but not the count
+                assertEquals(i, sketch.estimate(), 4 * 1.04 / Math.sqrt(1 << precision) * i);
+            }
+        }
+
+        assertFalse(wasSparse);
+        assertEquals(5000, sketch.estimate(), 4 * 1.04 / Math.sqrt(1 << precision) * 5000);
+    }
+
+    @Test
+    void testMerge_EqualsSingleSketch() {
+        HyperLogLog whole = new HyperLogLog();
+        HyperLogLog[] parts = {new HyperLogLog(), new HyperLogLog(), new HyperLogLog()};
+        for (int i = 0; i < 100_000; i++) {
+            String value = "error-" + (i % 40_000);
+            whole.offer(value);
+            // Parts overlap, sizes differ so some stay sparse
+            parts[i % 7 == 0 ? 0 : i % 2 + 1].offer(value);
+        }
+        HyperLogLog small = new HyperLogLog();
+        small.offer("error-1");
+
+        HyperLogLog merged = new HyperLogLog();
+        merged.merge(small);
+        for (HyperLogLog part : parts) {
+            merged.merge(part);
+        }
+        assertEquals(whole.estimate(), merged.estimate());
+
+        // Merging into a sparse sketch gives the same registers
+        small.merge(parts[1]);
+        small.merge(parts[0]);
+        small.merge(parts[2]);
+        assertEquals(whole.estimate(), small.estimate());
+    }
+
+    @Test
+    void testMerge_SparseSketchesStaySparse() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 500; i++) {
+            first.offer("a" + i);
+            second.offer("b" + i);
+        }
+        first.merge(second);
+
+        assertTrue(first.isSparse());
+        assertEquals(1000, first.estimate(), 1);
+        assertEquals(500, second.estimate(), 1);
+    }
+
+    @Test
+    void testMerge_RejectsDifferentPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(12).merge(new HyperLogLog(14)));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+    }
+
+    @Test
+    void testEstimate_EmptyIsZero() {
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KllSketchTest {
+
+    @Test
+    void testGetQuantile_ExactBelowK() {
+        KllSketch sketch = new KllSketch(200);
+        for (int i = 100; i >= 1; i--) {
+            sketch.update(i);
+        }
+
+        assertFalse(sketch.isEstimationMode());
+        assertEquals(100, sketch.getRetainedItems());
+        assertEquals(1.0, sketch.getQuantile(0));
+        assertEquals(50.0, sketch.getQuantile(0.5));
+        assertEquals(90.0, sketch.getQuantile(0.9));
+        assertEquals(100.0, sketch.getQuantile(1));
+        assertEquals(0.25, sketch.getRank(25));
+    }
+
+    @Test
+    void testGetQuantile_RankErrorWithinBound() {
+        int n = 1_000_000;
+        Random random = new Random(42);
+        KllSketch sketch = new KllSketch(200);
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextGaussian() * 10 + 50;
+            sketch.update(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertTrue(sketch.isEstimationMode());
+        assertTrue(sketch.getRetainedItems() < 2000, "retained " + sketch.getRetainedItems());
+        assertEquals(values[0], sketch.getMin());
+        assertEquals(values[n - 1], sketch.getMax());
+        for (double fraction : new double[]{0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99}) {
+            assertRankError(values, fraction, sketch.getQuantile(fraction), 0.02);
+        }
+    }
+
+    @Test
+    void testMerge_MatchesAccuracyOfSingleSketch() {
+        int n = 200_000;
+        Random random = new Random(3);
+        KllSketch merged = new KllSketch();
+        KllSketch[] parts = new KllSketch[8];
+        double[] values = new double[n];
+        for (int p = 0; p < parts.length; p++) {
+            parts[p] = new KllSketch();
+        }
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextDouble() * 1000;
+            parts[i % parts.length].update(values[i]);
+        }
+        for (KllSketch part : parts) {
+            merged.merge(part);
+        }
+        Arrays.sort(values);
+
+        assertEquals(n, merged.getN());
+        assertEquals(values[0], merged.getMin());
+        assertEquals(values[n - 1], merged.getMax());
+        for (double fraction : new double[]{0.1, 0.5, 0.9, 0.99}) {
+            assertRankError(values, fraction, merged.getQuantile(fraction), 0.02);
+        }
+    }
+
+    @Test
+    void testEmptySketch() {
+        KllSketch sketch = new KllSketch();
+        sketch.merge(new KllSketch());
+
+        assertTrue(sketch.isEmpty());
+        assertTrue(Double.isNaN(sketch.getQuantile(0.5)));
+        assertThrows(IllegalArgumentException.class, () -> sketch.getQuantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new KllSketch(1));
+    }
+
+    /**
+     * Check that the true rank of an estimated quantile is within the allowed error of the requested one
+     */
+    private static void assertRankError(double[] sorted, double fraction, double estimate, double maxError) {
+        int below = 0;
+        while (below < sorted.length && sorted[below] <= estimate) {
+            below++;
+        }
+        double rank = (double) below / sorted.length;
+        assertTrue(Math.abs(rank - fraction) <= maxError,
+                "rank " + rank + " of estimate for " + fraction);
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogLinearHistogramTest {
+
+    @Test
+    void testPercentiles_ExactBelowPrecisionRange() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int value = 2000; value >= 1; value--) {
+            histogram.record(value);
+        }
+
+        assertEquals(2000, histogram.getTotalCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(2000, histogram.getMax());
+        assertEquals(1000, histogram.getValueAtPercentile(50));
+        assertEquals(1800, histogram.getValueAtPercentile(90));
+        assertEquals(1980, histogram.getValueAtPercentile(99));
+        assertEquals(2000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testPercentiles_WithinRelativeError() {
+        int precisionBits = 7;
+        double maxError = 1.0 / (1 << (precisionBits - 1));
+        Random random = new Random(11);
+        LogLinearHistogram histogram = new LogLinearHistogram(precisionBits);
+        int[] values = new int[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (int) Math.exp(random.nextDouble() * 20);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (int percentile : new int[]{1, 10, 50, 90, 95, 99}) {
+            int index = (int) Math.ceil(percentile / 100.0 * values.length) - 1;
+            int expected = values[index];
+            int actual = histogram.getValueAtPercentile(percentile);
+            assertTrue(actual >= expected && actual - expected <= expected * maxError,
+                    percentile + ": " + actual + " vs " + expected);
+        }
+    }
+
+    @Test
+    void testBuckets_AreContiguousAndBounded() {
+        LogLinearHistogram histogram = new LogLinearHistogram(4);
+        int previousIndex = 0;
+        for (int value = 0; value < 100_000; value++) {
+            int index = histogram.bucketIndex(value);
+            assertTrue(index == previousIndex || index == previousIndex + 1, "value " + value);
+            assertTrue(histogram.highestEquivalentValue(index) >= value);
+            previousIndex = index;
+        }
+        assertEquals(Integer.MAX_VALUE,
+                histogram.highestEquivalentValue(histogram.bucketIndex(Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void testMerge_MatchesSingleHistogram() {
+        LogLinearHistogram all = new LogLinearHistogram();
+        LogLinearHistogram left = new LogLinearHistogram();
+        LogLinearHistogram right = new LogLinearHistogram();
+        Random random = new Random(5);
+        for (int i = 0; i < 10_000; i++) {
+            int value = random.nextInt(1_000_000);
+            all.record(value);
+            (i % 3 == 0 ? left : right).record(value);
+        }
+
+        left.merge(right);
+
+        assertEquals(all.getTotalCount(), left.getTotalCount());
+        assertEquals(all.getMin(), left.getMin());
+        assertEquals(all.getMax(), left.getMax());
+        for (int percentile : new int[]{50, 90, 95, 99}) {
+            assertEquals(all.getValueAtPercentile(percentile), left.getValueAtPercentile(percentile));
+        }
+        assertThrows(IllegalArgumentException.class, () -> left.merge(new LogLinearHistogram(5)));
+    }
+
+    @Test
+    void testEmptyHistogramAndNegativeValues() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        assertTrue(histogram.isEmpty());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getMax());
+
+        histogram.record(-5);
+        histogram.record(10);
+        assertEquals(-5, histogram.getMin());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(10, histogram.getValueAtPercentile(100));
+    }
+}
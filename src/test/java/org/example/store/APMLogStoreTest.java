@@ -0,0 +1,35 @@
+package org.example.store;
+
+import org.example.aggregator.APMLogAggregator;
+import org.example.model.APMLogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class APMLogStoreTest {
+
+    @Test
+    void testProcessStore_MatchesEntries() {
+        APMLogStore store = new APMLogStore();
+        APMLogAggregator fromEntries = new APMLogAggregator();
+        String[] metrics = {"cpu_usage_percent", "memory_usage_percent", "disk_usage_percent"};
+        for (int i = 0; i < 40_000; i++) {
+            APMLogEntry entry = new APMLogEntry(1000L * i, "webserver" + i % 4, metrics[i % metrics.length],
+                    (i * 37) % 101 / 4.0, new HashMap<>());
+            store.add(entry);
+            fromEntries.processLog(entry);
+        }
+
+        APMLogAggregator fromStore = new APMLogAggregator();
+        fromStore.processStore(store);
+
+        assertEquals(40_000, store.size());
+        assertEquals(3, store.getChunkCount());
+        assertEquals("memory_usage_percent", new APMLogEntry(0, 0, store.getMetricId(1), 0, null).getMetric());
+        assertEquals(37 / 4.0, store.getValue(1));
+        assertEquals(1000L, store.getTimestamps(0)[1]);
+        assertEquals(fromEntries.getAggregatedData(), fromStore.getAggregatedData());
+    }
+}
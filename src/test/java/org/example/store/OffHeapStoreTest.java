@@ -0,0 +1,86 @@
+package org.example.store;
+
+import org.example.aggregator.APMLogAggregator;
+import org.example.aggregator.ApplicationLogAggregator;
+import org.example.aggregator.RequestLogAggregator;
+import org.example.model.APMLogEntry;
+import org.example.model.ApplicationLogEntry;
+import org.example.model.RequestLogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapStoreTest {
+    private static final int ROWS = ChunkedStore.CHUNK_SIZE + 1000;
+
+    @Test
+    void testRequestStore_MatchesEntries() {
+        OffHeapRequestLogStore store = new OffHeapRequestLogStore();
+        RequestLogAggregator fromEntries = new RequestLogAggregator();
+        String[] urls = {"/api/update", "/api/status", "/home"};
+        int[] statuses = {200, 404, 503, 302, 70000};
+        for (int i = 0; i < ROWS; i++) {
+            RequestLogEntry entry = new RequestLogEntry(1000L * i, "webserver" + i % 2, "GET", urls[i % urls.length],
+                    statuses[i % statuses.length], i % 997, new HashMap<>());
+            store.add(entry);
+            fromEntries.processLog(entry);
+        }
+
+        RequestLogAggregator fromStore = new RequestLogAggregator();
+        fromStore.processStore(store);
+
+        assertEquals(ROWS, store.size());
+        assertEquals(2, store.getChunkCount());
+        assertEquals(1000L * (ROWS - 1), store.getTimestampMillis(ROWS - 1));
+        assertEquals(404, store.getResponseStatus(ChunkedStore.CHUNK_SIZE + 2));
+        assertEquals(RequestLogStore.STATUS_OUT_OF_RANGE, store.getResponseStatus(4));
+        assertEquals(ChunkedStore.CHUNK_SIZE % 997, store.getResponseTimeMs(ChunkedStore.CHUNK_SIZE));
+        assertTrue(store.getRecords(0).isDirect());
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getRouteId(ROWS));
+        assertEquals(fromEntries.getAggregatedData(), fromStore.getAggregatedData());
+    }
+
+    @Test
+    void testAPMStore_MatchesEntries() {
+        OffHeapAPMLogStore store = new OffHeapAPMLogStore();
+        APMLogAggregator fromEntries = new APMLogAggregator();
+        String[] metrics = {"cpu_usage_percent", "memory_usage_percent"};
+        for (int i = 0; i < ROWS; i++) {
+            APMLogEntry entry = new APMLogEntry(1000L * i, "webserver1", metrics[i % metrics.length],
+                    (i * 37) % 101 / 4.0, new HashMap<>());
+            store.add(entry);
+            fromEntries.processLog(entry);
+        }
+
+        APMLogAggregator fromStore = new APMLogAggregator();
+        fromStore.processStore(store);
+
+        assertEquals(37 / 4.0, store.getValue(1));
+        assertEquals(fromEntries.getAggregatedData(), fromStore.getAggregatedData());
+    }
+
+    @Test
+    void testApplicationStore_MatchesEntries() {
+        OffHeapApplicationLogStore store = new OffHeapApplicationLogStore();
+        ApplicationLogAggregator fromEntries = new ApplicationLogAggregator();
+        String[] levels = {"INFO", "ERROR", "DEBUG", "WARNING"};
+        for (int i = 0; i < ROWS; i++) {
+            ApplicationLogEntry entry = new ApplicationLogEntry(1000L * i, "webserver1", levels[i % 7 % 4],
+                    "message", new HashMap<>());
+            store.add(entry);
+            fromEntries.processLog(entry);
+        }
+
+        ApplicationLogAggregator fromStore = new ApplicationLogAggregator();
+        fromStore.processStore(store);
+
+        assertEquals(entryLevelId(levels[2]), store.getLevelId(2));
+        assertEquals(fromEntries.getAggregatedData(), fromStore.getAggregatedData());
+    }
+
+    private static int entryLevelId(String level) {
+        return new ApplicationLogEntry(0L, "h", level, "", null).getLevelId();
+    }
+}
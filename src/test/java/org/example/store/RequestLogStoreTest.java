@@ -0,0 +1,59 @@
+package org.example.store;
+
+import org.example.aggregator.RequestLogAggregator;
+import org.example.model.RequestLogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestLogStoreTest {
+
+    @Test
+    void testAdd_SpansChunks() {
+        RequestLogStore store = new RequestLogStore();
+        int rows = ChunkedStore.CHUNK_SIZE * 2 + 5;
+        for (int i = 0; i < rows; i++) {
+            store.add(1000L * i, i % 3, i % 7, 200 + i % 400, i);
+        }
+
+        assertEquals(rows, store.size());
+        assertEquals(3, store.getChunkCount());
+        assertEquals(ChunkedStore.CHUNK_SIZE, store.getChunkLength(0));
+        assertEquals(5, store.getChunkLength(2));
+        assertEquals(1000L * (rows - 1), store.getTimestampMillis(rows - 1));
+        assertEquals((rows - 1) % 7, store.getRouteId(rows - 1));
+        assertEquals(200 + ChunkedStore.CHUNK_SIZE % 400, store.getResponseStatus(ChunkedStore.CHUNK_SIZE));
+        assertEquals(ChunkedStore.CHUNK_SIZE + 1, store.getResponseTimes(1)[1]);
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getHostId(rows));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getRouteIds(3));
+    }
+
+    @Test
+    void testAdd_StatusOutOfShortRange() {
+        RequestLogStore store = new RequestLogStore();
+        store.add(0, 0, 0, 70000, 1);
+
+        assertEquals(RequestLogStore.STATUS_OUT_OF_RANGE, store.getResponseStatus(0));
+    }
+
+    @Test
+    void testProcessStore_MatchesEntries() {
+        RequestLogStore store = new RequestLogStore();
+        RequestLogAggregator fromEntries = new RequestLogAggregator();
+        String[] urls = {"/api/update", "/api/status", "/home"};
+        int[] statuses = {200, 404, 503, 302, 70000};
+        for (int i = 0; i < 50_000; i++) {
+            RequestLogEntry entry = new RequestLogEntry(1000L * i, "webserver1", "GET", urls[i % urls.length],
+                    statuses[i % statuses.length], i % 997, new HashMap<>());
+            store.add(entry);
+            fromEntries.processLog(entry);
+        }
+
+        RequestLogAggregator fromStore = new RequestLogAggregator();
+        fromStore.processStore(store);
+
+        assertEquals(fromEntries.getAggregatedData(), fromStore.getAggregatedData());
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteScannerTest {
+    // Vector scanner when the tests run with --add-modules jdk.incubator.vector, scalar otherwise
+    private final ByteScanner scanner = ByteScanner.vectorIfAvailable();
+
+    @Test
+    void testVectorIfAvailable_MatchesModuleAvailability() {
+        assertEquals(ByteScanner.isVectorAvailable(), !(scanner instanceof ScalarByteScanner));
+    }
+
+    @Test
+    void testIndexOf_MatchesScalar() {
+        Random random = new Random(7);
+        byte[] targets = {'\n', '=', '"', (byte) 0xC3};
+        for (int round = 0; round < 2000; round++) {
+            byte[] buffer = randomBuffer(random, random.nextInt(300));
+            int from = buffer.length == 0 ? 0 : random.nextInt(buffer.length);
+            int to = from + random.nextInt(buffer.length - from + 1);
+            for (byte target : targets) {
+                assertEquals(ByteScanner.scalar().indexOf(buffer, target, from, to),
+                        scanner.indexOf(buffer, target, from, to));
+            }
+            assertEquals(ByteScanner.scalar().indexOfWhitespace(buffer, from, to),
+                    scanner.indexOfWhitespace(buffer, from, to));
+        }
+    }
+
+    @Test
+    void testIndexOfWhitespace_AllByteValues() {
+        for (int b = 0; b < 256; b++) {
+            byte[] buffer = new byte[130];
+            buffer[buffer.length - 1] = (byte) b;
+            for (int i = 0; i < buffer.length - 1; i++) {
+                buffer[i] = 'x';
+            }
+            int expected = ByteKeyValueTokenizer.isWhitespaceByte((byte) b) ? buffer.length - 1 : -1;
+            assertEquals(expected, scanner.indexOfWhitespace(buffer, 0, buffer.length), "byte " + b);
+        }
+    }
+
+    @Test
+    void testTokenize_MatchesScalar() {
+        Random random = new Random(11);
+        String alphabet = "ab_9= \"\t=é";
+        for (int round = 0; round < 5000; round++) {
+            StringBuilder line = new StringBuilder();
+            int length = random.nextInt(200);
+            for (int i = 0; i < length; i++) {
+                line.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+
+            assertEquals(pairs(bytes, ByteScanner.scalar()), pairs(bytes, scanner), line.toString());
+        }
+    }
+
+    private static List<String> pairs(byte[] bytes, ByteScanner scanner) {
+        List<String> pairs = new ArrayList<>();
+        ByteKeyValueTokenizer.tokenize(bytes, 0, bytes.length, (buffer, keyStart, keyEnd, valueStart, valueEnd) ->
+                pairs.add(keyStart + ":" + keyEnd + ":" + valueStart + ":" + valueEnd), scanner);
+        return pairs;
+    }
+
+    private static byte[] randomBuffer(Random random, int length) {
+        byte[] delimiters = {'\n', '=', '"', ' ', '\t', '\r', 0x0B, '\f', (byte) 0xC3, 8, 14};
+        byte[] buffer = new byte[length];
+        for (int i = 0; i < length; i++) {
+            buffer[i] = random.nextInt(8) == 0 ? delimiters[random.nextInt(delimiters.length)]
+                    : (byte) ('a' + random.nextInt(26));
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyValueTokenizerTest {
+    // The pattern the tokenizer replaced, kept here as the reference behaviour
+    private static final Pattern KEY_VALUE_PATTERN =
+            Pattern.compile("(\\w+)=(?:\"([^\"]*)\"|([^\\s]+))");
+
+    @Test
+    void testParseKeyValuePairs_LogLines() {
+        Map<String, String> result = Utils.parseKeyValuePairs(
+                "timestamp=2024-02-24T16:22:25Z request_method=POST request_url=\"/api/update\" response_status=202");
+
+        assertEquals(4, result.size());
+        assertEquals("2024-02-24T16:22:25Z", result.get("timestamp"));
+        assertEquals("POST", result.get("request_method"));
+        assertEquals("/api/update", result.get("request_url"));
+        assertEquals("202", result.get("response_status"));
+    }
+
+    @Test
+    void testParseKeyValuePairs_QuotedMessage() {
+        Map<String, String> result = Utils.parseKeyValuePairs(
+                "level=ERROR message=\"Update process failed: code=5012\" host=webserver1");
+
+        assertEquals(3, result.size());
+        assertEquals("Update process failed: code=5012", result.get("message"));
+        assertEquals("webserver1", result.get("host"));
+    }
+
+    @Test
+    void testTokenize_Offsets() {
+        StringBuilder visited = new StringBuilder();
+        KeyValueTokenizer.tokenize("a=1 b=\"x y\"", (line, keyStart, keyEnd, valueStart, valueEnd) ->
+                visited.append(keyStart).append(',').append(keyEnd).append(',')
+                        .append(valueStart).append(',').append(valueEnd).append(';'));
+
+        assertEquals("0,1,2,3;4,5,7,10;", visited.toString());
+    }
+
+    @Test
+    void testTokenize_MatchesRegexOnEdgeCases() {
+        String[] lines = {
+                "",
+                "no pairs here",
+                "key= value other=x",
+                "x-abc=1 foo.bar=2 =3 ==4",
+                "msg=\"q\"ab=1 k=v=w",
+                "open=\"no closing quote here=1",
+                "empty=\"\" after=1",
+                "tail=",
+                "tabs=\ta\tb=2\r\nc=3",
+                "url=\"/api/users?id=1&sort=asc\" status=200",
+                "unicode=\"café ✓\" next=über",
+                "dup=1 dup=2",
+        };
+
+        for (String line : lines) {
+            assertEquals(parseWithRegex(line), Utils.parseKeyValuePairs(line), line);
+        }
+    }
+
+    @Test
+    void testTokenize_MatchesRegexOnRandomLines() {
+        char[] alphabet = {'a', 'b', 'Z', '_', '7', '=', '=', '"', '"', ' ', ' ', '\t', '-', '/', '.', 'é'};
+        Random random = new Random(7);
+
+        for (int n = 0; n < 20000; n++) {
+            char[] chars = new char[random.nextInt(24)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String line = new String(chars);
+            assertEquals(parseWithRegex(line), Utils.parseKeyValuePairs(line), line);
+        }
+    }
+
+    private Map<String, String> parseWithRegex(String line) {
+        Map<String, String> result = new HashMap<>();
+        Matcher matcher = KEY_VALUE_PATTERN.matcher(line);
+        while (matcher.find()) {
+            result.put(matcher.group(1), matcher.group(2) != null ? matcher.group(2) : matcher.group(3));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rotation detection on file systems that report no file key, such as Windows
+ */
+public class LogFollowerFallbackTest {
+    private static final String INFO_LINE =
+            "timestamp=2024-02-24T16:22:20Z level=INFO message=\"Scheduled maintenance starting\" host=webserver1\n";
+    private static final String ERROR_LINE =
+            "timestamp=2024-02-24T16:22:35Z level=ERROR message=\"Update process failed\" host=webserver1\n";
+
+    @TempDir
+    Path tempDir;
+
+    private Path logFile;
+    private LogFollower follower;
+
+    @BeforeEach
+    void setUp() {
+        logFile = tempDir.resolve("live_log.txt");
+        follower = new LogFollower(logFile.toString());
+        follower.setFileKeysSupported(false);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        follower.close();
+    }
+
+    @Test
+    void testPoll_AppendsAreNotRotations() throws IOException {
+        Files.writeString(logFile, INFO_LINE);
+        assertEquals(1, follower.poll());
+        Files.writeString(logFile, INFO_LINE + ERROR_LINE, StandardOpenOption.APPEND);
+        assertEquals(2, follower.poll());
+        assertEquals(0, follower.poll());
+
+        assertEquals(2, getLevelCounts().get("INFO"));
+        assertEquals(1, getLevelCounts().get("ERROR"));
+    }
+
+    @Test
+    void testPoll_RotationToLargerFile() throws IOException {
+        Files.writeString(logFile, INFO_LINE);
+        assertEquals(1, follower.poll());
+
+        // The new file is larger than the read position, so only its identity reveals the rotation
+        Files.writeString(logFile, INFO_LINE, StandardOpenOption.APPEND);
+        Files.move(logFile, tempDir.resolve("live_log.txt.1"));
+        Files.writeString(logFile, ERROR_LINE + ERROR_LINE + ERROR_LINE);
+
+        assertEquals(4, follower.poll());
+        assertEquals(2, getLevelCounts().get("INFO"));
+        assertEquals(3, getLevelCounts().get("ERROR"));
+    }
+
+    private Map<String, Object> getLevelCounts() {
+        return follower.getAggregates().getApplicationAggregator().getAggregatedData();
+    }
+}
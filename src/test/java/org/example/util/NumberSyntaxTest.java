@@ -0,0 +1,62 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NumberSyntaxTest {
+
+    @Test
+    void testIsInt_MatchesIntegerParseInt() {
+        String[] values = {
+                "0", "7", "-7", "+7", "0007", "200", "2147483647", "-2147483648", "2147483648",
+                "-2147483649", "99999999999", "", "-", "+", "1.0", "1e3", "2x0", " 1", "1 ", "--1"
+        };
+
+        for (String value : values) {
+            boolean valid = parses(() -> Integer.parseInt(value));
+            assertEquals(valid, NumberSyntax.isInt(value), value);
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            assertEquals(valid, NumberSyntax.isInt(bytes, 0, bytes.length), value);
+        }
+        assertFalse(NumberSyntax.isInt(null));
+    }
+
+    @Test
+    void testIsDouble_MatchesDoubleParseDouble() {
+        String[] values = {
+                "0", "72", "72.5", "-0.5", "+.5", "5.", ".", "-.", "1e3", "1E-3", "1e+3", "1e", "1e+",
+                "NaN", "-Infinity", "+Infinity", "Inf", "1.0f", "1.0d", "1.0x", "1.2.3", "", "-", "abc",
+                "12345678901234567890.123", "١"
+        };
+
+        for (String value : values) {
+            boolean valid = parses(() -> Double.parseDouble(value));
+            assertEquals(valid, NumberSyntax.isDouble(value), value);
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            assertEquals(valid, NumberSyntax.isDouble(bytes, 0, bytes.length), value);
+        }
+        assertFalse(NumberSyntax.isDouble(null));
+    }
+
+    @Test
+    void testRejectsFormsOutsideAsciiDecimalGrammar() {
+        // Accepted by Double.parseDouble but not by the validator
+        assertFalse(NumberSyntax.isDouble("0x1p3"));
+        assertFalse(NumberSyntax.isDouble(" 1.5 "));
+
+        // Accepted by Integer.parseInt, which takes any Unicode digit
+        assertFalse(NumberSyntax.isInt("١٢"));
+    }
+
+    private static boolean parses(Runnable parse) {
+        try {
+            parse.run();
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SymbolTableTest {
+
+    @Test
+    void testIdOf_AssignsDenseIdsInFirstSeenOrder() {
+        SymbolTable table = new SymbolTable();
+
+        assertEquals(0, table.idOf("webserver1"));
+        assertEquals(1, table.idOf("webserver2"));
+        assertEquals(0, table.idOf(new String("webserver1")));
+        assertEquals(2, table.size());
+
+        assertEquals("webserver1", table.nameOf(0));
+        assertEquals("webserver2", table.nameOf(1));
+    }
+
+    @Test
+    void testIdOf_NullIsNoSymbol() {
+        SymbolTable table = new SymbolTable();
+
+        assertEquals(SymbolTable.NO_SYMBOL, table.idOf(null));
+        assertNull(table.nameOf(SymbolTable.NO_SYMBOL));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void testIdOf_GrowsPastInitialCapacity() {
+        SymbolTable table = new SymbolTable();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, table.idOf("metric" + i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("metric" + i, table.nameOf(i));
+        }
+    }
+
+    @Test
+    void testIdOf_ConcurrentLookupsAgree() throws Exception {
+        SymbolTable table = new SymbolTable();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    int[] ids = new int[500];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = table.idOf("/api/route" + i);
+                    }
+                    return ids;
+                }));
+            }
+
+            int[] first = futures.get(0).get();
+            for (Future<int[]> future : futures) {
+                int[] ids = future.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertEquals(first[i], ids[i]);
+                    assertEquals("/api/route" + i, table.nameOf(ids[i]));
+                }
+            }
+            assertEquals(500, table.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testByteSymbolCache_MatchesTable() {
+        SymbolTable table = new SymbolTable();
+        ByteSymbolCache cache = new ByteSymbolCache(table, 4, StandardCharsets.UTF_8);
+        byte[] line = "host=webserver1 host=webserver2 host=webserver1 host=café".getBytes(StandardCharsets.UTF_8);
+
+        int first = cache.idOf(line, 5, 15);
+        int second = cache.idOf(line, 21, 31);
+        assertEquals(first, cache.idOf(line, 37, 47));
+        assertNotEquals(first, second);
+        assertEquals(table.idOf("webserver1"), first);
+        assertEquals(table.idOf("webserver2"), second);
+        assertEquals("café", table.nameOf(cache.idOf(line, 53, line.length)));
+    }
+}
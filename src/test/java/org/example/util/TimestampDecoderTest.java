@@ -0,0 +1,67 @@
+package org.example.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimestampDecoderTest {
+    private TimestampDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        decoder = new TimestampDecoder();
+    }
+
+    @Test
+    void testDecode_UtcTimestamps() {
+        assertEquals(Instant.parse("2024-02-24T16:22:15Z").toEpochMilli(), decoder.decode("2024-02-24T16:22:15Z"));
+        assertEquals(Instant.parse("2024-02-24T16:22:15.123Z").toEpochMilli(), decoder.decode("2024-02-24T16:22:15.123Z"));
+        assertEquals(Instant.parse("2024-02-24T16:22:15.1Z").toEpochMilli(), decoder.decode("2024-02-24T16:22:15.1Z"));
+        assertEquals(Instant.parse("2024-02-24T16:22:15.123Z").toEpochMilli(), decoder.decode("2024-02-24T16:22:15.123987Z"));
+        assertEquals(Instant.parse("1969-12-31T23:59:59Z").toEpochMilli(), decoder.decode("1969-12-31T23:59:59Z"));
+    }
+
+    @Test
+    void testDecode_WithoutZoneIsUtc() {
+        assertEquals(Instant.parse("2024-02-24T16:22:15Z").toEpochMilli(), decoder.decode("2024-02-24T16:22:15"));
+    }
+
+    @Test
+    void testDecode_CachedDateAcrossDays() {
+        String[] timestamps = {
+                "2024-02-28T23:59:59Z", "2024-02-28T00:00:00Z", "2024-02-29T12:00:00Z",
+                "2024-03-01T00:00:00.5Z", "2024-02-29T12:00:01Z"
+        };
+        for (String timestamp : timestamps) {
+            assertEquals(Instant.parse(timestamp).toEpochMilli(), decoder.decode(timestamp), timestamp);
+        }
+    }
+
+    @Test
+    void testDecode_Bytes() {
+        byte[] line = "timestamp=2024-02-24T16:22:15Z host=a".getBytes(StandardCharsets.US_ASCII);
+
+        assertEquals(Instant.parse("2024-02-24T16:22:15Z").toEpochMilli(), decoder.decode(line, 10, 30));
+    }
+
+    @Test
+    void testDecode_FallbackForOffsets() {
+        assertEquals(OffsetDateTime.parse("2024-02-24T16:22:15+02:00").toInstant().toEpochMilli(),
+                decoder.decode("2024-02-24T16:22:15+02:00"));
+        assertEquals(Instant.parse("2024-02-24T16:22:00Z").toEpochMilli(), decoder.decode("2024-02-24T16:22Z"));
+    }
+
+    @Test
+    void testDecode_InvalidTimestamps() {
+        assertThrows(DateTimeException.class, () -> decoder.decode("2024-02-30T16:22:15Z"));
+        assertThrows(DateTimeException.class, () -> decoder.decode("2024-02-24T25:22:15Z"));
+        assertThrows(DateTimeException.class, () -> decoder.decode("not-a-timestamp"));
+        assertThrows(DateTimeException.class, () -> decoder.decode("2024-02-24T16:22:15Zjunk"));
+    }
+}